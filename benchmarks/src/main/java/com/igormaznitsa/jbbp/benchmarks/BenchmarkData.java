@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.mapper.Bin;
+import com.igormaznitsa.jbbp.mapper.BinType;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Test data for benchmarks, resources are copied from the test resources of
+ * the library during the module build.
+ */
+public final class BenchmarkData {
+
+  /**
+   * Script to parse PNG images.
+   */
+  public static final String PNG_SCRIPT = "long header;"
+          + "chunk [_]{"
+          + "   int length; "
+          + "   int type; "
+          + "   byte[length] data; "
+          + "   int crc;"
+          + "}";
+
+  /**
+   * Script to parse an Ethernet frame with IPv4 and TCP headers.
+   */
+  public static final String TCP_SCRIPT = "byte[6] MacDestination;"
+          + "byte[6] MacSource;"
+          + "ushort EtherTypeOrLength;"
+          + "bit:4 InternetHeaderLength;"
+          + "bit:4 Version;"
+          + "bit:2 ECN;"
+          + "bit:6 DSCP;"
+          + "ushort TotalPacketLength;"
+          + "ushort Identification;"
+          + "ushort IPFlagsAndFragmentOffset;"
+          + "ubyte TTL;"
+          + "ubyte Protocol;"
+          + "ushort HeaderChecksum;"
+          + "int SourceAddress;"
+          + "int DestinationAddress;"
+          + "byte [(InternetHeaderLength-5)*4] Options;"
+          + "reset$$;"
+          + "ushort SourcePort;"
+          + "ushort DestinationPort;"
+          + "int SequenceNumber;"
+          + "int AcknowledgementNumber;"
+          + "bit:1 NONCE;"
+          + "bit:3 RESERVED;"
+          + "bit:4 HLEN;"
+          + "bit:1 FIN;"
+          + "bit:1 SYN;"
+          + "bit:1 RST;"
+          + "bit:1 PSH;"
+          + "bit:1 ACK;"
+          + "bit:1 URG;"
+          + "bit:1 ECNECHO;"
+          + "bit:1 CWR;"
+          + "ushort WindowSize;"
+          + "ushort TCPCheckSum;"
+          + "ushort UrgentPointer;"
+          + "byte [HLEN*4-$$] Option;"
+          + "byte [_] Payload;";
+
+  /**
+   * Script to parse ZX-Spectrum 48 SNA snapshots.
+   */
+  public static final String SNA_SCRIPT = "ubyte regI;"
+          + "<ushort altHL; <ushort altDE; <ushort altBC; <ushort altAF;"
+          + "<ushort regHL; <ushort regDE; <ushort regBC; <ushort regIY; <ushort regIX;"
+          + "ubyte iff; ubyte regR;"
+          + "<ushort regAF; <ushort regSP;"
+          + "ubyte im;"
+          + "ubyte borderColor;"
+          + "byte [49152] ramDump;";
+
+  /**
+   * Script to parse WAV files.
+   */
+  public static final String WAV_SCRIPT = "<int ChunkID;"
+          + "<int ChunkSize;"
+          + "<int Format;"
+          + "SubChunks [_]{"
+          + "  <int SubChunkID;"
+          + "  <int SubChunkSize;"
+          + "  byte [SubChunkSize] data;"
+          + "  align:2;"
+          + "}";
+
+  /**
+   * Formats of test resources.
+   */
+  public enum Format {
+
+    PNG("picture.png", PNG_SCRIPT),
+    TCP("tcppacket.bin", TCP_SCRIPT),
+    SNA("zexall.sna", SNA_SCRIPT),
+    WAV("M1F1-float64WE-AFsp.wav", WAV_SCRIPT);
+
+    private final String resource;
+    private final String script;
+
+    private Format(final String resource, final String script) {
+      this.resource = resource;
+      this.script = script;
+    }
+
+    public String getResource() {
+      return this.resource;
+    }
+
+    public String getScript() {
+      return this.script;
+    }
+
+    public byte[] load() throws IOException {
+      return BenchmarkData.load(this.resource);
+    }
+
+    /**
+     * Load the resource prepared to be parsed in a bit order, bits of every
+     * byte are reversed for MSB0 so that parsed values are the same as for
+     * the original data in LSB0.
+     *
+     * @param bitOrder the bit order of parsing
+     * @return the resource data
+     * @throws IOException it will be thrown for error
+     */
+    public byte[] load(final JBBPBitOrder bitOrder) throws IOException {
+      final byte[] result = load();
+      if (bitOrder == JBBPBitOrder.MSB0) {
+        for (int i = 0; i < result.length; i++) {
+          result[i] = JBBPUtils.reverseBitsInByte(result[i]);
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Mapped PNG chunk.
+   */
+  @Bin
+  public static class PngChunk {
+
+    public int length;
+    public int type;
+    public byte[] data;
+    public int crc;
+  }
+
+  /**
+   * Mapped PNG image.
+   */
+  @Bin
+  public static class Png {
+
+    public long header;
+    public PngChunk[] chunk;
+  }
+
+  /**
+   * Mapped SNA snapshot.
+   */
+  @Bin(comment = "Parsed SNA snapshot")
+  public static class Sna {
+
+    @Bin(type = BinType.UBYTE, outOrder = 1, comment = "Register I")
+    public int regI;
+    @Bin(type = BinType.USHORT, outOrder = 2, name = "altHL", comment = "Register pair HL'")
+    public int altRegHL;
+    @Bin(type = BinType.USHORT, outOrder = 3, name = "altDE", comment = "Register pair DE'")
+    public int altRegDE;
+    @Bin(type = BinType.USHORT, outOrder = 4, name = "altBC", comment = "Register pair BC'")
+    public int altRegBC;
+    @Bin(type = BinType.USHORT, outOrder = 5, name = "altAF", comment = "Register pair AF'")
+    public int altRegAF;
+    @Bin(type = BinType.USHORT, outOrder = 6, comment = "Register pair HL")
+    public int regHL;
+    @Bin(type = BinType.USHORT, outOrder = 7, comment = "Register pair DE")
+    public int regDE;
+    @Bin(type = BinType.USHORT, outOrder = 8, comment = "Register pair BC")
+    public int regBC;
+    @Bin(type = BinType.USHORT, outOrder = 9, comment = "Register IY")
+    public int regIY;
+    @Bin(type = BinType.USHORT, outOrder = 10, comment = "Register IX")
+    public int regIX;
+    @Bin(type = BinType.UBYTE, outOrder = 11, comment = "IFF1 and IFF2 values")
+    public int iff;
+    @Bin(type = BinType.UBYTE, outOrder = 12, comment = "Register R")
+    public int regR;
+    @Bin(type = BinType.USHORT, outOrder = 13, comment = "Register pair AF")
+    public int regAF;
+    @Bin(type = BinType.USHORT, outOrder = 14, comment = "Register SP")
+    public int regSP;
+    @Bin(type = BinType.UBYTE, outOrder = 15, comment = "Interruption mode (0-IM0, 1-IM1, 2-IM2")
+    public int im;
+    @Bin(type = BinType.UBYTE, outOrder = 16, comment = "Border color")
+    public int borderColor;
+    @Bin(outOrder = 17, comment = "Dump of memory since 16384 address")
+    public byte[] ramDump;
+  }
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Load a resource from the benchmark package.
+   *
+   * @param name the resource name, must not be null
+   * @return the resource content
+   * @throws IOException it will be thrown if the resource is not found or
+   * can't be read
+   */
+  public static byte[] load(final String name) throws IOException {
+    final InputStream in = BenchmarkData.class.getResourceAsStream(name);
+    if (in == null) {
+      throw new IOException("Can't find resource '" + name + '\'');
+    }
+    try {
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream(16384);
+      final byte[] block = new byte[16384];
+      while (true) {
+        final int read = in.read(block);
+        if (read < 0) {
+          break;
+        }
+        buffer.write(block, 0, read);
+      }
+      return buffer.toByteArray();
+    }
+    finally {
+      JBBPUtils.closeQuietly(in);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.benchmarks.BenchmarkData.Format;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading of single values and arrays through JBBPBitInputStream for a WAV
+ * file content in different byte and bit orders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BitInputStreamBenchmark {
+
+  @Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+  public JBBPByteOrder byteOrder;
+
+  @Param({"LSB0", "MSB0"})
+  public JBBPBitOrder bitOrder;
+
+  private byte[] data;
+
+  @Setup
+  public void setup() throws IOException {
+    this.data = Format.WAV.load();
+  }
+
+  private JBBPBitInputStream makeStream() {
+    return new JBBPBitInputStream(new ByteArrayInputStream(this.data), this.bitOrder);
+  }
+
+  @Benchmark
+  public void readShorts(final Blackhole blackhole) throws IOException {
+    final JBBPBitInputStream in = makeStream();
+    for (int i = this.data.length / 2; i > 0; i--) {
+      blackhole.consume(in.readUnsignedShort(this.byteOrder));
+    }
+  }
+
+  @Benchmark
+  public void readInts(final Blackhole blackhole) throws IOException {
+    final JBBPBitInputStream in = makeStream();
+    for (int i = this.data.length / 4; i > 0; i--) {
+      blackhole.consume(in.readInt(this.byteOrder));
+    }
+  }
+
+  @Benchmark
+  public void readLongs(final Blackhole blackhole) throws IOException {
+    final JBBPBitInputStream in = makeStream();
+    for (int i = this.data.length / 8; i > 0; i--) {
+      blackhole.consume(in.readLong(this.byteOrder));
+    }
+  }
+
+  @Benchmark
+  public short[] readShortArray() throws IOException {
+    return makeStream().readShortArray(-1, this.byteOrder);
+  }
+
+  @Benchmark
+  public int[] readIntArray() throws IOException {
+    return makeStream().readIntArray(this.data.length / 4, this.byteOrder);
+  }
+
+  @Benchmark
+  public long[] readLongArray() throws IOException {
+    return makeStream().readLongArray(this.data.length / 8, this.byteOrder);
+  }
+}
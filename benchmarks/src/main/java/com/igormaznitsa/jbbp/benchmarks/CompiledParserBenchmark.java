@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.benchmarks.BenchmarkData.Format;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parsing of test resources by compiled parsers in different bit orders. Only
+ * formats which scripts are static ones can be parsed in compiled mode, other
+ * formats are rejected because their parsers fall back to interpretation.
+ *
+ * @see ParserBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CompiledParserBenchmark {
+
+  @Param({"SNA"})
+  public Format format;
+
+  @Param({"LSB0", "MSB0"})
+  public JBBPBitOrder bitOrder;
+
+  private byte[] data;
+  private JBBPParser parser;
+  private JBBPFieldStruct reusedRoot;
+
+  @Setup
+  public void setup() throws IOException {
+    this.parser = JBBPParser.prepareCompiled(this.format.getScript(), this.bitOrder);
+    if (!this.parser.isCompiledMode()) {
+      throw new IllegalStateException("Script of " + this.format + " can't be parsed in compiled mode");
+    }
+    this.data = this.format.load(this.bitOrder);
+    this.reusedRoot = this.parser.parse(this.data);
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseCompiled() throws IOException {
+    return this.parser.parse(this.data);
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseCompiledReusing() throws IOException {
+    return this.parser.parseReusing(this.data, this.reusedRoot);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPNamedNumericFieldMap;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPFieldUByte;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Evaluation of array size expressions, directly and during parsing of a
+ * structure array which elements contain expression sized arrays. Allocation
+ * rate of the eval benchmark is reported by the GC profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExpressionBenchmark {
+
+  private static final String SCRIPT = "ubyte len; ubyte hdr; items [_] { byte [len*2+hdr] a; byte [(len<<1)-(4/2)+3] b;}";
+
+  private JBBPCompiledBlock block;
+  private JBBPIntegerValueEvaluator evaluator;
+  private JBBPNamedNumericFieldMap fieldMap;
+  private JBBPParser parser;
+  private byte[] data;
+
+  @Setup
+  public void setup() throws IOException {
+    this.block = JBBPCompiler.compile(SCRIPT);
+    this.evaluator = this.block.getArraySizeEvaluators()[0];
+
+    final JBBPNamedFieldInfo[] named = this.block.getNamedFields();
+    this.fieldMap = new JBBPNamedNumericFieldMap(this.block, null);
+    this.fieldMap.putField(new JBBPFieldUByte(named[0], (byte) 3));
+    this.fieldMap.putField(new JBBPFieldUByte(named[1], (byte) 2));
+
+    this.parser = JBBPParser.prepare(SCRIPT);
+    this.data = new byte[2 + 15 * 1024];
+    this.data[0] = 3;
+    this.data[1] = 2;
+  }
+
+  @Benchmark
+  public int eval() {
+    return this.evaluator.eval(null, 0, this.block, this.fieldMap);
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseStructArray() throws IOException {
+    return this.parser.parse(this.data);
+  }
+}
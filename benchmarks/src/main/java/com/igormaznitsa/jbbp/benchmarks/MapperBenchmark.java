@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.benchmarks.BenchmarkData.Format;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Mapping of parsed test resources to annotated classes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MapperBenchmark {
+
+  @Param({"PNG", "SNA"})
+  public Format format;
+
+  private byte[] data;
+  private JBBPParser parser;
+  private JBBPFieldStruct parsed;
+  private Class<?> mappedClass;
+
+  @Setup
+  public void setup() throws IOException {
+    this.data = this.format.load();
+    this.parser = JBBPParser.prepare(this.format.getScript());
+    this.parsed = this.parser.parse(this.data);
+    switch (this.format) {
+      case PNG:
+        this.mappedClass = BenchmarkData.Png.class;
+        break;
+      case SNA:
+        this.mappedClass = BenchmarkData.Sna.class;
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported format for mapping: " + this.format);
+    }
+  }
+
+  @Benchmark
+  public Object map() {
+    return this.parsed.mapTo(this.mappedClass);
+  }
+
+  @Benchmark
+  public Object parseAndMap() throws IOException {
+    return this.parser.parse(this.data).mapTo(this.mappedClass);
+  }
+}
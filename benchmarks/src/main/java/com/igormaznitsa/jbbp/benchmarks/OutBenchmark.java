@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.JBBPWriter;
+import com.igormaznitsa.jbbp.benchmarks.BenchmarkData.Format;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.io.JBBPOut;
+import com.igormaznitsa.jbbp.io.JBBPOutPool;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Serialization through JBBPOut for mapped objects and arrays of values made
+ * from test resources, and through JBBPWriter for parsed structures.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OutBenchmark {
+
+  @Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+  public JBBPByteOrder byteOrder;
+
+  @Param({"LSB0", "MSB0"})
+  public JBBPBitOrder bitOrder;
+
+  private BenchmarkData.Sna sna;
+  private JBBPFieldStruct snaStruct;
+  private JBBPWriter snaWriter;
+  private byte[] bytes;
+  private short[] shorts;
+  private int[] ints;
+  private long[] longs;
+  private JBBPOutPool pool;
+
+  @Setup
+  public void setup() throws IOException {
+    this.sna = JBBPParser.prepare(Format.SNA.getScript()).parse(Format.SNA.load()).mapTo(BenchmarkData.Sna.class);
+    final JBBPParser snaParser = JBBPParser.prepare(Format.SNA.getScript(), this.bitOrder);
+    this.snaStruct = snaParser.parse(Format.SNA.load());
+    this.snaWriter = new JBBPWriter(snaParser);
+    this.bytes = Format.WAV.load();
+    this.pool = new JBBPOutPool(64, this.byteOrder, this.bitOrder);
+
+    this.shorts = new short[this.bytes.length / 2];
+    for (int i = 0; i < this.shorts.length; i++) {
+      this.shorts[i] = (short) ((this.bytes[i * 2] << 8) | (this.bytes[i * 2 + 1] & 0xFF));
+    }
+    this.ints = new int[this.shorts.length / 2];
+    for (int i = 0; i < this.ints.length; i++) {
+      this.ints[i] = (this.shorts[i * 2] << 16) | (this.shorts[i * 2 + 1] & 0xFFFF);
+    }
+    this.longs = new long[this.ints.length / 2];
+    for (int i = 0; i < this.longs.length; i++) {
+      this.longs[i] = ((long) this.ints[i * 2] << 32) | (this.ints[i * 2 + 1] & 0xFFFFFFFFL);
+    }
+  }
+
+  @Benchmark
+  public byte[] writeMappedObject() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Bin(this.sna).End().toByteArray();
+  }
+
+  @Benchmark
+  public long sizeOfMappedObject() {
+    return JBBPOut.sizeOf(this.sna);
+  }
+
+  @Benchmark
+  public byte[] writeParsedStructure() throws IOException {
+    return this.snaWriter.write(this.snaStruct);
+  }
+
+  @Benchmark
+  public byte[] writeBytes() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Byte(this.bytes).End().toByteArray();
+  }
+
+  @Benchmark
+  public byte[] writeBits() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Bits(JBBPBitNumber.BITS_4, this.bytes).End().toByteArray();
+  }
+
+  @Benchmark
+  public byte[] writeShorts() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Short(this.shorts).End().toByteArray();
+  }
+
+  @Benchmark
+  public byte[] writeInts() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Int(this.ints).End().toByteArray();
+  }
+
+  @Benchmark
+  public byte[] writeLongs() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Long(this.longs).End().toByteArray();
+  }
+
+  @Benchmark
+  public int writeSmallPacket() throws IOException {
+    return JBBPOut.BeginBin(this.byteOrder, this.bitOrder).Byte(0x7E).Short(0x1234).Int(0x12345678).Long(0x123456789ABCDEFL).Bits(JBBPBitNumber.BITS_4, 0x0A).End().size();
+  }
+
+  @Benchmark
+  public int writeSmallPacketPooled() throws IOException {
+    return this.pool.BeginBin().Byte(0x7E).Short(0x1234).Int(0x12345678).Long(0x123456789ABCDEFL).Bits(JBBPBitNumber.BITS_4, 0x0A).End().size();
+  }
+}
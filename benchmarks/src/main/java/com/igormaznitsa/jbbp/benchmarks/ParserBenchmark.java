@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.benchmarks.BenchmarkData.Format;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parsing of test resources by interpreting parsers from streams and byte
+ * buffers in different bit orders, data for MSB0 have reversed bits so that
+ * parsed values are the same.
+ *
+ * @see CompiledParserBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({"PNG", "TCP", "SNA", "WAV"})
+  public Format format;
+
+  @Param({"LSB0", "MSB0"})
+  public JBBPBitOrder bitOrder;
+
+  private byte[] data;
+  private ByteBuffer directBuffer;
+  private JBBPParser parser;
+  private JBBPFieldStruct reusedRoot;
+
+  @Setup
+  public void setup() throws IOException {
+    this.data = this.format.load(this.bitOrder);
+    this.directBuffer = ByteBuffer.allocateDirect(this.data.length);
+    this.directBuffer.put(this.data).flip();
+    this.parser = JBBPParser.prepare(this.format.getScript(), this.bitOrder);
+    this.reusedRoot = this.parser.parse(this.data);
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseStream() throws IOException {
+    return this.parser.parse(new ByteArrayInputStream(this.data));
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseArray() throws IOException {
+    return this.parser.parse(this.data);
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseDirectBuffer() throws IOException {
+    return this.parser.parse(this.directBuffer);
+  }
+
+  @Benchmark
+  public JBBPFieldStruct parseReusing() throws IOException {
+    return this.parser.parseReusing(this.data, this.reusedRoot);
+  }
+}
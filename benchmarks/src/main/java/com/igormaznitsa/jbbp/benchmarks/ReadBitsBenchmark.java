@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Comparison of bit reading in JBBPBitInputStream with the previous bit by bit
+ * reading loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReadBitsBenchmark {
+
+  private static final int DATA_SIZE = 64 * 1024;
+
+  @Param({"3", "4", "5"})
+  public int bits;
+
+  @Param({"LSB0", "MSB0"})
+  public JBBPBitOrder bitOrder;
+
+  private byte[] data;
+  private JBBPBitNumber bitNumber;
+  private int items;
+
+  @Setup
+  public void setup() {
+    this.data = new byte[DATA_SIZE];
+    new Random(12345L).nextBytes(this.data);
+    this.bitNumber = JBBPBitNumber.decode(this.bits);
+    this.items = (DATA_SIZE * 8) / this.bits;
+  }
+
+  @Benchmark
+  public void legacyReadBits(final Blackhole blackhole) throws IOException {
+    final LegacyBitReader reader = new LegacyBitReader(new ByteArrayInputStream(this.data), this.bitOrder);
+    for (int i = 0; i < this.items; i++) {
+      blackhole.consume(reader.readBits(this.bitNumber));
+    }
+  }
+
+  @Benchmark
+  public void readBits(final Blackhole blackhole) throws IOException {
+    final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(this.data), this.bitOrder);
+    for (int i = 0; i < this.items; i++) {
+      blackhole.consume(in.readBits(this.bitNumber));
+    }
+  }
+
+  @Benchmark
+  public byte[] legacyReadBitsArray() throws IOException {
+    final LegacyBitReader reader = new LegacyBitReader(new ByteArrayInputStream(this.data), this.bitOrder);
+    final byte[] result = new byte[this.items];
+    for (int i = 0; i < this.items; i++) {
+      result[i] = (byte) reader.readBits(this.bitNumber);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public byte[] readBitsArray() throws IOException {
+    return new JBBPBitInputStream(new ByteArrayInputStream(this.data), this.bitOrder).readBitsArray(this.items, this.bitNumber);
+  }
+
+  @Benchmark
+  public byte[] readBitsArrayWholeStream() throws IOException {
+    return new JBBPBitInputStream(new ByteArrayInputStream(this.data), this.bitOrder).readBitsArray(-1, this.bitNumber);
+  }
+
+  /**
+   * Copy of the bit by bit reading loop used by JBBPBitInputStream before
+   * 1.2.2, it is the baseline for comparison.
+   */
+  private static final class LegacyBitReader {
+
+    private final InputStream in;
+    private final boolean msb0;
+    private int bitBuffer;
+    private int bitsInBuffer;
+    private long byteCounter;
+
+    LegacyBitReader(final InputStream in, final JBBPBitOrder order) {
+      this.in = in;
+      this.msb0 = order == JBBPBitOrder.MSB0;
+    }
+
+    private int readByteFromStream() throws IOException {
+      int result = this.in.read();
+      if (result >= 0 && this.msb0) {
+        result = JBBPUtils.reverseBitsInByte((byte) result) & 0xFF;
+      }
+      return result;
+    }
+
+    int readBits(final JBBPBitNumber numOfBitsToRead) throws IOException {
+      int result;
+
+      final int numOfBitsAsNumber = numOfBitsToRead.getBitNumber();
+
+      if (this.bitsInBuffer == 0 && numOfBitsAsNumber == 8) {
+        result = this.readByteFromStream();
+        if (result >= 0) {
+          this.byteCounter++;
+        }
+        return result;
+      }
+      else {
+        result = 0;
+
+        if (numOfBitsAsNumber == this.bitsInBuffer) {
+          result = this.bitBuffer;
+          this.bitBuffer = 0;
+          this.bitsInBuffer = 0;
+          this.byteCounter++;
+          return result;
+        }
+
+        int i = numOfBitsAsNumber;
+        int theBitBuffer = this.bitBuffer;
+        int theBitBufferCounter = this.bitsInBuffer;
+
+        final boolean doIncCounter = theBitBufferCounter != 0;
+
+        while (i > 0) {
+          if (theBitBufferCounter == 0) {
+            if (doIncCounter) {
+              this.byteCounter++;
+            }
+            final int nextByte = this.readByteFromStream();
+            if (nextByte < 0) {
+              if (i == numOfBitsAsNumber) {
+                return nextByte;
+              }
+              else {
+                break;
+              }
+            }
+            else {
+              theBitBuffer = nextByte;
+              theBitBufferCounter = 8;
+            }
+          }
+
+          result = (result << 1) | (theBitBuffer & 1);
+          theBitBuffer >>= 1;
+          theBitBufferCounter--;
+          i--;
+        }
+
+        this.bitBuffer = theBitBuffer;
+        this.bitsInBuffer = theBitBufferCounter;
+
+        return JBBPUtils.reverseBitsInByte(JBBPBitNumber.decode(numOfBitsAsNumber - i), (byte) result) & 0xFF;
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.benchmarks.BenchmarkData.Format;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.utils.JBBPTextWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Text dumps of mapped objects and arrays through JBBPTextWriter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TextWriterBenchmark {
+
+  @Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+  public JBBPByteOrder byteOrder;
+
+  private BenchmarkData.Sna sna;
+  private byte[] png;
+  private int[] ints;
+
+  @Setup
+  public void setup() throws IOException {
+    this.sna = JBBPParser.prepare(Format.SNA.getScript()).parse(Format.SNA.load()).mapTo(BenchmarkData.Sna.class);
+    this.png = Format.PNG.load();
+    this.ints = new int[this.png.length / 4];
+    for (int i = 0; i < this.ints.length; i++) {
+      this.ints[i] = ((this.png[i * 4] & 0xFF) << 24) | ((this.png[i * 4 + 1] & 0xFF) << 16) | ((this.png[i * 4 + 2] & 0xFF) << 8) | (this.png[i * 4 + 3] & 0xFF);
+    }
+  }
+
+  @Benchmark
+  public String dumpMappedObject() throws IOException {
+    return new JBBPTextWriter().ByteOrder(this.byteOrder).SetMaxValuesPerLine(32).Bin(this.sna).Close().toString();
+  }
+
+  @Benchmark
+  public String dumpBytes() throws IOException {
+    return new JBBPTextWriter().ByteOrder(this.byteOrder).SetMaxValuesPerLine(16).Byte(this.png).Close().toString();
+  }
+
+  @Benchmark
+  public String dumpInts() throws IOException {
+    return new JBBPTextWriter().ByteOrder(this.byteOrder).SetMaxValuesPerLine(8).Int(this.ints).Close().toString();
+  }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledField;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader of a compiled block which has been prepared from decoded field
+ * instructions. Every field is represented by its own small reader object
+ * which contains all needed parameters (name, byte order, array size, bit
+ * number) so that parsing doesn't need any decoding of compiled data and
+ * each field is read by one direct call. Only static structures are supported,
+ * i.e. scripts without expressions, var and custom type fields. Fields out of
+ * a parser projection get readers which skip their data.
+ *
+ * @since 1.2.2
+ */
+final class JBBPCompiledBlockReader {
+
+  /**
+   * Empty structure array.
+   */
+  private static final JBBPFieldStruct[] EMPTY_STRUCT_ARRAY = new JBBPFieldStruct[0];
+
+  /**
+   * Readers for root fields.
+   */
+  private final FieldReader[] rootReaders;
+
+  /**
+   * Flag shows that remaining fields must be skipped for EOF.
+   */
+  private final boolean skipRemainingFieldsIfEof;
+
+  /**
+   * Make reader for a compiled block.
+   *
+   * @param block a compiled block, must not be null
+   * @param flags parser flags
+   * @param skippedFields flags for offsets of fields which are out of
+   * projection, it can be null
+   * @return the reader or null if the compiled block contains dynamic fields
+   * which can't be processed by the reader
+   */
+  static JBBPCompiledBlockReader make(final JBBPCompiledBlock block, final int flags, final boolean[] skippedFields) {
+    final JBBPCompiledField[] fields = JBBPCompiledField.decode(block);
+    for (final JBBPCompiledField f : fields) {
+      if (f.isDynamic()) {
+        return null;
+      }
+    }
+    return new JBBPCompiledBlockReader(makeReaders(fields, true, skippedFields), flags);
+  }
+
+  /**
+   * The Constructor.
+   *
+   * @param rootReaders readers for root fields, must not be null
+   * @param flags parser flags
+   */
+  private JBBPCompiledBlockReader(final FieldReader[] rootReaders, final int flags) {
+    this.rootReaders = rootReaders;
+    this.skipRemainingFieldsIfEof = (flags & JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF) != 0;
+  }
+
+  /**
+   * Read root structure fields from a stream.
+   *
+   * @param context the context of the parsing operation, must not be null
+   * @return list of read root fields
+   * @throws IOException it will be thrown for transport errors
+   */
+  List<JBBPAbstractField> read(final JBBPParseContext context) throws IOException {
+    return readFields(context, this.rootReaders, context.rootFieldList);
+  }
+
+  /**
+   * Inside method to read fields of a structure.
+   *
+   * @param context the context of the parsing operation, must not be null
+   * @param readers readers of structure fields, must not be null
+   * @param out list to collect read fields, if null then new list is made
+   * @return list of read fields
+   * @throws IOException it will be thrown for transport errors
+   */
+  private List<JBBPAbstractField> readFields(final JBBPParseContext context, final FieldReader[] readers, final List<JBBPAbstractField> out) throws IOException {
+    final JBBPBitInputStream inStream = context.inStream;
+    final List<JBBPAbstractField> result = out == null ? new ArrayList<JBBPAbstractField>(readers.length) : out;
+    for (final FieldReader r : readers) {
+      if (context.stopped || (this.skipRemainingFieldsIfEof && !inStream.hasAvailableData())) {
+        break;
+      }
+      try {
+        r.read(this, context, inStream, result);
+      }
+      catch (IOException ex) {
+        if (r.name == null) {
+          throw ex;
+        }
+        else {
+          throw new JBBPParsingException("Can't parse field '" + r.name.getFieldPath() + "' for IOException", ex);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the source of value arrays of a previous tree for fields to be placed
+   * into a list.
+   *
+   * @param context the context of the parsing operation, must not be null
+   * @param out the list to get fields, must not be null
+   * @return the field recycler of the context or null if there is not any one
+   * or fields are discarded
+   */
+  private static JBBPFieldRecycler recycler(final JBBPParseContext context, final List<JBBPAbstractField> out) {
+    return out == JBBPParser.DISCARDED_FIELDS ? null : context.fieldRecycler;
+  }
+
+  /**
+   * Make readers for decoded fields.
+   *
+   * @param fields decoded fields, must not be null
+   * @param root true if fields are fields of the root structure
+   * @param skippedFields flags for offsets of fields which are out of
+   * projection, it can be null
+   * @return array of readers, one per field
+   */
+  private static FieldReader[] makeReaders(final JBBPCompiledField[] fields, final boolean root, final boolean[] skippedFields) {
+    final FieldReader[] result = new FieldReader[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      final JBBPCompiledField field = fields[i];
+      result[i] = skippedFields != null && skippedFields[field.getOffset()] ? makeSkippingReader(field, skippedFields) : makeReader(field, root, skippedFields);
+    }
+    return result;
+  }
+
+  /**
+   * Make reader for a decoded field.
+   *
+   * @param field a decoded field, must not be null
+   * @param root true if the field is a field of the root structure
+   * @param skippedFields flags for offsets of fields which are out of
+   * projection, it can be null
+   * @return a reader for the field
+   */
+  private static FieldReader makeReader(final JBBPCompiledField field, final boolean root, final boolean[] skippedFields) {
+    final JBBPNamedFieldInfo name = field.getNameInfo();
+    final int arrayLength = field.getArrayType() == JBBPCompiledField.ARRAY_WHOLE_STREAM ? -1 : field.getArraySize();
+    final boolean array = field.isArray();
+    final JBBPByteOrder byteOrder = field.getByteOrder();
+
+    switch (field.getTypeCode()) {
+      case JBBPCompiler.CODE_RESET_COUNTER:
+        return new ResetCounterReader();
+      case JBBPCompiler.CODE_ALIGN:
+        return new AlignReader(field.getExtraValue());
+      case JBBPCompiler.CODE_SKIP:
+        return new SkipReader(field.getExtraValue());
+      case JBBPCompiler.CODE_BIT:
+        return new BitReader(name, JBBPBitNumber.decode(field.getExtraValue()), array, arrayLength);
+      case JBBPCompiler.CODE_BOOL:
+        return new BoolReader(name, array, arrayLength);
+      case JBBPCompiler.CODE_BYTE:
+      case JBBPCompiler.CODE_UBYTE:
+        return new ByteReader(name, field.getTypeCode() == JBBPCompiler.CODE_UBYTE, byteOrder, array, arrayLength);
+      case JBBPCompiler.CODE_SHORT:
+      case JBBPCompiler.CODE_USHORT:
+        return new ShortReader(name, field.getTypeCode() == JBBPCompiler.CODE_USHORT, byteOrder, array, arrayLength);
+      case JBBPCompiler.CODE_INT:
+        return new IntReader(name, byteOrder, array, arrayLength);
+      case JBBPCompiler.CODE_LONG:
+        return new LongReader(name, byteOrder, array, arrayLength);
+      case JBBPCompiler.CODE_STRUCT_START:
+        return new StructReader(name, makeReaders(field.getStructFields(), false, skippedFields), array, arrayLength, root);
+      default:
+        throw new Error("Detected unsupported field type for compiled reader! Contact developer! [" + field + ']');
+    }
+  }
+
+  /**
+   * Make reader for a decoded field which is out of projection. Data of byte
+   * aligned primitive fields is skipped, other fields are read but their
+   * results are discarded.
+   *
+   * @param field a decoded field, must not be null
+   * @param skippedFields flags for offsets of fields which are out of
+   * projection, must not be null
+   * @return a reader for the field
+   */
+  private static FieldReader makeSkippingReader(final JBBPCompiledField field, final boolean[] skippedFields) {
+    final int items = field.isArray() ? (field.getArrayType() == JBBPCompiledField.ARRAY_WHOLE_STREAM ? -1 : field.getArraySize()) : 1;
+    switch (field.getTypeCode()) {
+      case JBBPCompiler.CODE_BOOL:
+      case JBBPCompiler.CODE_BYTE:
+      case JBBPCompiler.CODE_UBYTE:
+        return new SkipItemsReader(field.getNameInfo(), 1, items);
+      case JBBPCompiler.CODE_SHORT:
+      case JBBPCompiler.CODE_USHORT:
+        return new SkipItemsReader(field.getNameInfo(), 2, items);
+      case JBBPCompiler.CODE_INT:
+        return new SkipItemsReader(field.getNameInfo(), 4, items);
+      case JBBPCompiler.CODE_LONG:
+        return new SkipItemsReader(field.getNameInfo(), 8, items);
+      case JBBPCompiler.CODE_BIT:
+      case JBBPCompiler.CODE_STRUCT_START:
+        return new DiscardingReader(makeReader(field, false, skippedFields));
+      default:
+        return makeReader(field, false, skippedFields);
+    }
+  }
+
+  /**
+   * Reader for a field.
+   */
+  private abstract static class FieldReader {
+
+    /**
+     * The Field name info, it can be null.
+     */
+    final JBBPNamedFieldInfo name;
+    /**
+     * The Flag shows that the field is an array.
+     */
+    final boolean array;
+    /**
+     * The Array length, -1 for whole stream arrays.
+     */
+    final int arrayLength;
+
+    FieldReader(final JBBPNamedFieldInfo name, final boolean array, final int arrayLength) {
+      this.name = name;
+      this.array = array;
+      this.arrayLength = arrayLength;
+    }
+
+    /**
+     * Read the field and add result into list.
+     *
+     * @param reader the owner reader, must not be null
+     * @param context the context of the parsing operation, must not be null
+     * @param in the input stream, must not be null
+     * @param out the list to add read field, must not be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    abstract void read(JBBPCompiledBlockReader reader, JBBPParseContext context, JBBPBitInputStream in, List<JBBPAbstractField> out) throws IOException;
+  }
+
+  private static final class ResetCounterReader extends FieldReader {
+
+    ResetCounterReader() {
+      super(null, false, -1);
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      in.resetCounter();
+    }
+  }
+
+  private static final class AlignReader extends FieldReader {
+
+    private final int value;
+
+    AlignReader(final int value) {
+      super(null, false, -1);
+      this.value = value;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      in.align(this.value);
+    }
+  }
+
+  private static final class SkipReader extends FieldReader {
+
+    private final int value;
+
+    SkipReader(final int value) {
+      super(null, false, -1);
+      this.value = value;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.value > 0) {
+        final long skippedBytes = in.skip(this.value);
+        if (skippedBytes != this.value) {
+          throw new EOFException("Can't skip " + this.value + " byte(s), skipped only " + skippedBytes + " byte(s)");
+        }
+      }
+    }
+  }
+
+  private static final class SkipItemsReader extends FieldReader {
+
+    private final int itemSize;
+    private final int items;
+
+    SkipItemsReader(final JBBPNamedFieldInfo name, final int itemSize, final int items) {
+      super(name, false, -1);
+      this.itemSize = itemSize;
+      this.items = items;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      JBBPParser.skipArrayItems(in, this.itemSize, this.items);
+    }
+  }
+
+  private static final class DiscardingReader extends FieldReader {
+
+    private final FieldReader delegate;
+
+    DiscardingReader(final FieldReader delegate) {
+      super(delegate.name, delegate.array, delegate.arrayLength);
+      this.delegate = delegate;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      this.delegate.read(reader, context, in, JBBPParser.DISCARDED_FIELDS);
+    }
+  }
+
+  private static final class BitReader extends FieldReader {
+
+    private final JBBPBitNumber bitNumber;
+
+    BitReader(final JBBPNamedFieldInfo name, final JBBPBitNumber bitNumber, final boolean array, final int arrayLength) {
+      super(name, array, arrayLength);
+      this.bitNumber = bitNumber;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        out.add(new JBBPFieldArrayBit(this.name, in.readBitsArray(this.arrayLength, this.bitNumber), this.bitNumber));
+      }
+      else {
+        final int read = in.readBits(this.bitNumber);
+        if (read < 0) {
+          throw new EOFException("Can't read bits from stream [" + this.bitNumber + ']');
+        }
+        out.add(new JBBPFieldBit(this.name, read, this.bitNumber));
+      }
+    }
+  }
+
+  private static final class BoolReader extends FieldReader {
+
+    BoolReader(final JBBPNamedFieldInfo name, final boolean array, final int arrayLength) {
+      super(name, array, arrayLength);
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        final JBBPFieldRecycler recycler = recycler(context, out);
+        final boolean[] reused = recycler == null || this.arrayLength < 0 ? null : recycler.findArrayBoolValues(this.name, this.arrayLength);
+        final boolean[] data = reused == null ? in.readBoolArray(this.arrayLength) : in.readBoolArray(reused);
+        out.add(new JBBPFieldArrayBoolean(this.name, data));
+      }
+      else {
+        out.add(new JBBPFieldBoolean(this.name, in.readBoolean()));
+      }
+    }
+  }
+
+  private static final class ByteReader extends FieldReader {
+
+    private final boolean unsigned;
+    private final boolean littleEndian;
+
+    ByteReader(final JBBPNamedFieldInfo name, final boolean unsigned, final JBBPByteOrder byteOrder, final boolean array, final int arrayLength) {
+      super(name, array, arrayLength);
+      this.unsigned = unsigned;
+      this.littleEndian = byteOrder == JBBPByteOrder.LITTLE_ENDIAN;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        final JBBPFieldRecycler recycler = recycler(context, out);
+        final byte[] reused;
+        if (recycler == null || this.arrayLength < 0) {
+          reused = null;
+        }
+        else {
+          reused = this.unsigned ? recycler.findArrayUByteValues(this.name, this.arrayLength) : recycler.findArrayByteValues(this.name, this.arrayLength);
+        }
+        final byte[] data = reused == null ? in.readByteArray(this.arrayLength) : in.readByteArray(reused);
+        if (this.littleEndian) {
+          JBBPUtils.reverseArray(data);
+        }
+        out.add(this.unsigned ? new JBBPFieldArrayUByte(this.name, data) : new JBBPFieldArrayByte(this.name, data));
+      }
+      else {
+        final byte value = (byte) in.readByte();
+        out.add(this.unsigned ? new JBBPFieldUByte(this.name, value) : new JBBPFieldByte(this.name, value));
+      }
+    }
+  }
+
+  private static final class ShortReader extends FieldReader {
+
+    private final boolean unsigned;
+    private final JBBPByteOrder byteOrder;
+
+    ShortReader(final JBBPNamedFieldInfo name, final boolean unsigned, final JBBPByteOrder byteOrder, final boolean array, final int arrayLength) {
+      super(name, array, arrayLength);
+      this.unsigned = unsigned;
+      this.byteOrder = byteOrder;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        final JBBPFieldRecycler recycler = recycler(context, out);
+        final short[] reused;
+        if (recycler == null || this.arrayLength < 0) {
+          reused = null;
+        }
+        else {
+          reused = this.unsigned ? recycler.findArrayUShortValues(this.name, this.arrayLength) : recycler.findArrayShortValues(this.name, this.arrayLength);
+        }
+        final short[] data = reused == null ? in.readShortArray(this.arrayLength, this.byteOrder) : in.readShortArray(reused, this.byteOrder);
+        out.add(this.unsigned ? new JBBPFieldArrayUShort(this.name, data) : new JBBPFieldArrayShort(this.name, data));
+      }
+      else {
+        final short value = (short) in.readUnsignedShort(this.byteOrder);
+        out.add(this.unsigned ? new JBBPFieldUShort(this.name, value) : new JBBPFieldShort(this.name, value));
+      }
+    }
+  }
+
+  private static final class IntReader extends FieldReader {
+
+    private final JBBPByteOrder byteOrder;
+
+    IntReader(final JBBPNamedFieldInfo name, final JBBPByteOrder byteOrder, final boolean array, final int arrayLength) {
+      super(name, array, arrayLength);
+      this.byteOrder = byteOrder;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        final JBBPFieldRecycler recycler = recycler(context, out);
+        final int[] reused = recycler == null || this.arrayLength < 0 ? null : recycler.findArrayIntValues(this.name, this.arrayLength);
+        final int[] data = reused == null ? in.readIntArray(this.arrayLength, this.byteOrder) : in.readIntArray(reused, this.byteOrder);
+        out.add(new JBBPFieldArrayInt(this.name, data));
+      }
+      else {
+        out.add(new JBBPFieldInt(this.name, in.readInt(this.byteOrder)));
+      }
+    }
+  }
+
+  private static final class LongReader extends FieldReader {
+
+    private final JBBPByteOrder byteOrder;
+
+    LongReader(final JBBPNamedFieldInfo name, final JBBPByteOrder byteOrder, final boolean array, final int arrayLength) {
+      super(name, array, arrayLength);
+      this.byteOrder = byteOrder;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        final JBBPFieldRecycler recycler = recycler(context, out);
+        final long[] reused = recycler == null || this.arrayLength < 0 ? null : recycler.findArrayLongValues(this.name, this.arrayLength);
+        final long[] data = reused == null ? in.readLongArray(this.arrayLength, this.byteOrder) : in.readLongArray(reused, this.byteOrder);
+        out.add(new JBBPFieldArrayLong(this.name, data));
+      }
+      else {
+        out.add(new JBBPFieldLong(this.name, in.readLong(this.byteOrder)));
+      }
+    }
+  }
+
+  private static final class StructReader extends FieldReader {
+
+    private final FieldReader[] fields;
+    private final boolean root;
+
+    StructReader(final JBBPNamedFieldInfo name, final FieldReader[] fields, final boolean array, final int arrayLength, final boolean root) {
+      super(name, array, arrayLength);
+      this.fields = fields;
+      this.root = root;
+    }
+
+    @Override
+    void read(final JBBPCompiledBlockReader reader, final JBBPParseContext context, final JBBPBitInputStream in, final List<JBBPAbstractField> out) throws IOException {
+      if (this.array) {
+        final boolean streamElements = this.root && context.structListener != null;
+        final JBBPFieldStruct[] result;
+        if (this.arrayLength < 0) {
+          final List<JBBPFieldStruct> list = streamElements ? null : new ArrayList<JBBPFieldStruct>();
+          int index = 0;
+          while (in.hasAvailableData()) {
+            final JBBPFieldStruct element = new JBBPFieldStruct(this.name, reader.readFields(context, this.fields, null));
+            if (streamElements) {
+              if (!context.notifyStructArrayElement(this.name, index++, element)) {
+                break;
+              }
+            }
+            else {
+              list.add(element);
+            }
+          }
+          result = list == null || list.isEmpty() ? EMPTY_STRUCT_ARRAY : list.toArray(new JBBPFieldStruct[list.size()]);
+        }
+        else if (this.arrayLength == 0) {
+          result = EMPTY_STRUCT_ARRAY;
+        }
+        else {
+          result = streamElements ? EMPTY_STRUCT_ARRAY : new JBBPFieldStruct[this.arrayLength];
+          for (int i = 0; i < this.arrayLength; i++) {
+            final JBBPFieldStruct element = new JBBPFieldStruct(this.name, reader.readFields(context, this.fields, null));
+            if (streamElements) {
+              if (!context.notifyStructArrayElement(this.name, i, element)) {
+                break;
+              }
+            }
+            else {
+              result[i] = element;
+            }
+          }
+        }
+        out.add(new JBBPFieldArrayStruct(this.name, result));
+      }
+      else {
+        out.add(new JBBPFieldStruct(this.name, reader.readFields(context, this.fields, null)));
+      }
+    }
+  }
+}
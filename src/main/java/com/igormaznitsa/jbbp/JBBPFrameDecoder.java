@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.model.JBBPLazyLayout;
+import com.igormaznitsa.jbbp.model.JBBPLazyStruct;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decoder to split a stream of length prefixed frames. A Frame starts with a
+ * header described by a script with fixed byte aligned layout, a numeric field
+ * of the header defines length of the frame body placed just after the
+ * header. Headers are read through lazy views and bodies are provided as
+ * slices of the source buffer without copying, so that they can be parsed by
+ * a body parser in the same or another thread. The Class is immutable and
+ * thread safe.
+ *
+ * @see JBBPFrameListener
+ * @since 1.2.2
+ */
+public final class JBBPFrameDecoder {
+
+  /**
+   * Layout of the frame header.
+   */
+  private final JBBPLazyLayout headerLayout;
+
+  /**
+   * Path of the header field contains the body length.
+   */
+  private final String lengthFieldPath;
+
+  /**
+   * Value to be added to the length field value to get the body length.
+   */
+  private final int lengthAdjustment;
+
+  /**
+   * Max allowed length of a body.
+   */
+  private final int maxBodyLength;
+
+  /**
+   * A Constructor.
+   *
+   * @param headerParser parser of the frame header, must not be null and its
+   * script must have fixed byte aligned layout
+   * @param lengthFieldPath path of the numeric header field contains the body
+   * length, must not be null
+   * @throws JBBPIllegalArgumentException if the header script doesn't have
+   * fixed byte aligned layout
+   * @throws com.igormaznitsa.jbbp.exceptions.JBBPFinderException if there is
+   * not any numeric field for the path
+   */
+  public JBBPFrameDecoder(final JBBPParser headerParser, final String lengthFieldPath) {
+    this(headerParser, lengthFieldPath, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * A Constructor.
+   *
+   * @param headerParser parser of the frame header, must not be null and its
+   * script must have fixed byte aligned layout
+   * @param lengthFieldPath path of the numeric header field contains the body
+   * length, must not be null
+   * @param lengthAdjustment value to be added to the field value to get the
+   * body length, for instance negative header size if the field contains the
+   * whole frame length
+   * @param maxBodyLength max allowed length of a body, must not be negative
+   * @throws JBBPIllegalArgumentException if the header script doesn't have
+   * fixed byte aligned layout
+   * @throws com.igormaznitsa.jbbp.exceptions.JBBPFinderException if there is
+   * not any numeric field for the path
+   */
+  public JBBPFrameDecoder(final JBBPParser headerParser, final String lengthFieldPath, final int lengthAdjustment, final int maxBodyLength) {
+    JBBPUtils.assertNotNull(headerParser, "Header parser must not be null");
+    JBBPUtils.assertNotNull(lengthFieldPath, "Length field path must not be null");
+    if (maxBodyLength < 0) {
+      throw new IllegalArgumentException("Max body length must not be negative [" + maxBodyLength + ']');
+    }
+    final JBBPLazyLayout layout = headerParser.getLazyLayout();
+    if (layout == null) {
+      throw new JBBPIllegalArgumentException("Header script must have fixed byte aligned layout");
+    }
+    // check the path on empty data to throw errors before decoding
+    layout.makeView(ByteBuffer.allocate(layout.getSize())).getAsLong(lengthFieldPath);
+
+    this.headerLayout = layout;
+    this.lengthFieldPath = lengthFieldPath;
+    this.lengthAdjustment = lengthAdjustment;
+    this.maxBodyLength = maxBodyLength;
+  }
+
+  /**
+   * Get the frame header size.
+   *
+   * @return the header size in bytes
+   */
+  public int getHeaderSize() {
+    return this.headerLayout.getSize();
+  }
+
+  /**
+   * Get length of the whole frame (header and body) which starts at the
+   * position of a buffer. The Buffer position is not changed.
+   *
+   * @param buffer a buffer contains frame data, must not be null
+   * @return length of the frame in bytes or -1 if the buffer doesn't contain
+   * whole header
+   * @throws JBBPParsingException if the frame body length is negative or
+   * greater than allowed one or the frame length is too big for an array
+   */
+  int findFrameLength(final ByteBuffer buffer) {
+    final int headerSize = this.headerLayout.getSize();
+    if (buffer.remaining() < headerSize) {
+      return -1;
+    }
+    final long frameLength = (long) headerSize + bodyLength(this.headerLayout.makeView(buffer));
+    if (frameLength > Integer.MAX_VALUE) {
+      throw new JBBPParsingException("Too long frame [" + frameLength + ']');
+    }
+    return (int) frameLength;
+  }
+
+  /**
+   * Get the body length defined by a header.
+   *
+   * @param header the frame header, must not be null
+   * @return the body length
+   * @throws JBBPParsingException if the body length is negative or greater
+   * than allowed one
+   */
+  private int bodyLength(final JBBPLazyStruct header) {
+    final long bodyLength = header.getAsLong(this.lengthFieldPath) + this.lengthAdjustment;
+    if (bodyLength < 0 || bodyLength > this.maxBodyLength) {
+      throw new JBBPParsingException("Wrong frame body length [" + bodyLength + ']');
+    }
+    return (int) bodyLength;
+  }
+
+  /**
+   * Find all complete frames in remaining data of a buffer and provide them to
+   * a listener. The Buffer position is moved to the start of the first
+   * incomplete frame, so that the remaining data should be kept and
+   * supplemented by new data for the next call.
+   *
+   * @param buffer a buffer contains frames, must not be null
+   * @param listener a listener to get found frames, must not be null
+   * @return number of found frames
+   * @throws IOException it will be thrown for listener errors
+   * @throws JBBPParsingException if a frame body length is negative or greater
+   * than allowed one
+   */
+  public int decode(final ByteBuffer buffer, final JBBPFrameListener listener) throws IOException {
+    JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+    JBBPUtils.assertNotNull(listener, "Listener must not be null");
+
+    final int headerSize = this.headerLayout.getSize();
+    int frames = 0;
+
+    while (buffer.remaining() >= headerSize) {
+      final int frameStart = buffer.position();
+      final JBBPLazyStruct header = this.headerLayout.makeView(buffer);
+      final int bodyLength = bodyLength(header);
+
+      final int bodyStart = frameStart + headerSize;
+      if (buffer.limit() - bodyStart < bodyLength) {
+        break;
+      }
+
+      final ByteBuffer body = buffer.duplicate();
+      body.position(bodyStart);
+      body.limit(bodyStart + bodyLength);
+      buffer.position(bodyStart + bodyLength);
+
+      listener.onFrame(header, body.slice());
+      frames++;
+    }
+    return frames;
+  }
+}
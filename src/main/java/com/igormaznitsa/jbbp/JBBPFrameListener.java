@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.model.JBBPLazyStruct;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The Interface describes a listener which gets frames found by a frame
+ * decoder.
+ *
+ * @see JBBPFrameDecoder
+ * @since 1.2.2
+ */
+public interface JBBPFrameListener {
+
+  /**
+   * Process a found frame. Both the header and the body share content of the
+   * buffer provided to the decoder, so that the buffer must not be changed
+   * until the frame is processed, a frame processed later (for instance in
+   * another thread) should be copied if the buffer is reused.
+   *
+   * @param header lazy view of the frame header, must not be null
+   * @param body the frame body, its position is zero and its limit is the body
+   * length, must not be null
+   * @throws IOException it can be thrown for errors, it will be provided to
+   * the decoder caller
+   */
+  void onFrame(JBBPLazyStruct header, ByteBuffer body) throws IOException;
+}
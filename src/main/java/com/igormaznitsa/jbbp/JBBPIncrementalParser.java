@@ -0,0 +1,395 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledField;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPLazyLayout;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Push parser to parse frames from data provided by chunks, for instance by
+ * NIO channels. Provided data is collected in an inside buffer and a frame is
+ * parsed only when the buffer contains enough data for it, so that a thread
+ * is not blocked waiting for data. The Frame size is known and a frame is
+ * parsed just once if the script has fixed byte aligned layout or if a frame
+ * decoder is provided to get the frame length from its header. Otherwise
+ * parsing of an incomplete frame is started from the frame start again after
+ * every received chunk, so that parsing of a frame with size S received by
+ * chunks with size C costs about S*S/C, such scripts should be used only for
+ * small frames. If a frame decoder is provided then the script gets exactly
+ * the frame data, data not read by the script is skipped and a script which
+ * needs more data than the frame length is an error. Number of collected bytes is limited, the limit is 16 MB by
+ * default. Scripts with arrays read till the end of stream are not supported
+ * because end of such frame can't be detected. The Class is not thread safe.
+ *
+ * @see JBBPFrameDecoder
+ * @since 1.2.2
+ */
+public final class JBBPIncrementalParser {
+
+  /**
+   * The Initial size of the inside buffer.
+   */
+  private static final int INITIAL_BUFFER_SIZE = 256;
+
+  /**
+   * The Default max number of collected bytes.
+   */
+  public static final int DEFAULT_MAX_BUFFERED_BYTES = 16 * 1024 * 1024;
+
+  /**
+   * The Parser to parse frames.
+   */
+  private final JBBPParser parser;
+
+  /**
+   * The Var field processor, it can be null.
+   */
+  private final JBBPVarFieldProcessor varFieldProcessor;
+
+  /**
+   * The External value provider, it can be null.
+   */
+  private final JBBPExternalValueProvider externalValueProvider;
+
+  /**
+   * Size of a frame if the script has fixed layout, otherwise -1.
+   */
+  private final int frameSize;
+
+  /**
+   * Decoder to get frame length from frame header, it can be null.
+   */
+  private final JBBPFrameDecoder frameDecoder;
+
+  /**
+   * Max allowed number of collected bytes.
+   */
+  private final int maxBufferedBytes;
+
+  /**
+   * The Inside buffer.
+   */
+  private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+  /**
+   * Start of not processed data in the buffer.
+   */
+  private int start;
+
+  /**
+   * End of data in the buffer.
+   */
+  private int end;
+
+  /**
+   * Number of buffered bytes during the last failed parsing of an incomplete
+   * frame, -1 if there was not such parsing.
+   */
+  private int incompleteSize = -1;
+
+  /**
+   * A Constructor.
+   *
+   * @param parser a parser to parse frames, must not be null
+   * @throws JBBPIllegalArgumentException if the parser skips remaining fields
+   * for end of stream or its script contains arrays read till the end of
+   * stream
+   */
+  public JBBPIncrementalParser(final JBBPParser parser) {
+    this(parser, null, null);
+  }
+
+  /**
+   * A Constructor.
+   *
+   * @param parser a parser to parse frames, must not be null
+   * @param varFieldProcessor a var field processor, it can be null if the
+   * script doesn't contain var fields
+   * @param externalValueProvider an external value provider, it can be null if
+   * the script doesn't need external values
+   * @throws JBBPIllegalArgumentException if the parser skips remaining fields
+   * for end of stream or its script contains arrays read till the end of
+   * stream
+   */
+  public JBBPIncrementalParser(final JBBPParser parser, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) {
+    this(parser, varFieldProcessor, externalValueProvider, null, DEFAULT_MAX_BUFFERED_BYTES);
+  }
+
+  /**
+   * A Constructor for frames which length is defined by their header.
+   *
+   * @param parser a parser to parse whole frames (both header and body), must
+   * not be null
+   * @param frameDecoder a decoder to get frame length from the frame header,
+   * must not be null
+   * @throws JBBPIllegalArgumentException if the parser skips remaining fields
+   * for end of stream or its script contains arrays read till the end of
+   * stream
+   */
+  public JBBPIncrementalParser(final JBBPParser parser, final JBBPFrameDecoder frameDecoder) {
+    this(parser, null, null, assertDecoder(frameDecoder), DEFAULT_MAX_BUFFERED_BYTES);
+  }
+
+  /**
+   * A Constructor.
+   *
+   * @param parser a parser to parse frames, must not be null
+   * @param varFieldProcessor a var field processor, it can be null if the
+   * script doesn't contain var fields
+   * @param externalValueProvider an external value provider, it can be null if
+   * the script doesn't need external values
+   * @param frameDecoder a decoder to get frame length from the frame header,
+   * it can be null, if it is provided then the parser must parse whole frames
+   * (both header and body)
+   * @param maxBufferedBytes max number of collected bytes, must be positive
+   * @throws JBBPIllegalArgumentException if the parser skips remaining fields
+   * for end of stream or its script contains arrays read till the end of
+   * stream
+   */
+  public JBBPIncrementalParser(final JBBPParser parser, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider, final JBBPFrameDecoder frameDecoder, final int maxBufferedBytes) {
+    JBBPUtils.assertNotNull(parser, "Parser must not be null");
+    if (maxBufferedBytes <= 0) {
+      throw new IllegalArgumentException("Max buffered bytes must be positive [" + maxBufferedBytes + ']');
+    }
+    if ((parser.getFlags() & JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF) != 0) {
+      throw new JBBPIllegalArgumentException("Parser must not skip remaining fields for end of stream");
+    }
+    if (hasWholeStreamArray(JBBPCompiledField.decode(parser.getCompiledBlock()))) {
+      throw new JBBPIllegalArgumentException("Script must not contain arrays read till the end of stream");
+    }
+    this.parser = parser;
+    this.varFieldProcessor = varFieldProcessor;
+    this.externalValueProvider = externalValueProvider;
+    this.frameDecoder = frameDecoder;
+    this.maxBufferedBytes = maxBufferedBytes;
+
+    final JBBPLazyLayout layout = parser.getLazyLayout();
+    this.frameSize = layout == null ? -1 : layout.getSize();
+  }
+
+  private static JBBPFrameDecoder assertDecoder(final JBBPFrameDecoder decoder) {
+    JBBPUtils.assertNotNull(decoder, "Frame decoder must not be null");
+    return decoder;
+  }
+
+  private static boolean hasWholeStreamArray(final JBBPCompiledField[] fields) {
+    for (final JBBPCompiledField f : fields) {
+      if (f.getArrayType() == JBBPCompiledField.ARRAY_WHOLE_STREAM
+              || (f.getStructFields() != null && hasWholeStreamArray(f.getStructFields()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Add all remaining data of a buffer and parse the next frame.
+   *
+   * @param chunk a buffer which remaining data should be added, must not be
+   * null, its position will be moved to its limit
+   * @return parsed frame or null if more data is needed
+   * @throws IOException it will be thrown for parsing errors
+   * @throws JBBPParsingException if number of collected bytes exceeds the max
+   * allowed one, the data is not added in the case
+   * @see #next()
+   */
+  public JBBPFieldStruct feed(final ByteBuffer chunk) throws IOException {
+    JBBPUtils.assertNotNull(chunk, "Buffer must not be null");
+    final int length = chunk.remaining();
+    ensureFreeSpace(length);
+    chunk.get(this.buffer, this.end, length);
+    this.end += length;
+    return next();
+  }
+
+  /**
+   * Add data from a byte array and parse the next frame.
+   *
+   * @param array a byte array contains data, must not be null
+   * @param offset offset of data in the array
+   * @param length number of bytes to be added
+   * @return parsed frame or null if more data is needed
+   * @throws IOException it will be thrown for parsing errors
+   * @throws JBBPParsingException if number of collected bytes exceeds the max
+   * allowed one, the data is not added in the case
+   * @see #next()
+   */
+  public JBBPFieldStruct feed(final byte[] array, final int offset, final int length) throws IOException {
+    JBBPUtils.assertNotNull(array, "Array must not be null");
+    ensureFreeSpace(length);
+    System.arraycopy(array, offset, this.buffer, this.end, length);
+    this.end += length;
+    return next();
+  }
+
+  /**
+   * Parse the next frame from collected data without adding new one. It
+   * should be called repeatedly after a successful call of a feed method if
+   * a chunk can contain several frames.
+   *
+   * @return parsed frame or null if more data is needed
+   * @throws IOException it will be thrown for parsing errors, collected data
+   * is not changed in the case
+   */
+  public JBBPFieldStruct next() throws IOException {
+    final int available = this.end - this.start;
+    if (available == 0 || available <= this.incompleteSize || available < this.frameSize) {
+      return null;
+    }
+    if (this.frameDecoder != null) {
+      final int frameLength = this.frameDecoder.findFrameLength(ByteBuffer.wrap(this.buffer, this.start, available));
+      if (frameLength < 0 || available < frameLength) {
+        return null;
+      }
+      return nextFrame(frameLength);
+    }
+
+    final ByteArrayInputStream in = new ByteArrayInputStream(this.buffer, this.start, available);
+    final JBBPBitInputStream bitIn = new JBBPBitInputStream(in, this.parser.getBitOrder());
+    final JBBPFieldStruct result;
+    try {
+      result = this.parser.parse(bitIn, this.varFieldProcessor, this.externalValueProvider);
+    }
+    catch (IOException ex) {
+      if (isEndOfStream(ex)) {
+        this.incompleteSize = available;
+        return null;
+      }
+      throw ex;
+    }
+    catch (JBBPParsingException ex) {
+      if (isEndOfStream(ex)) {
+        this.incompleteSize = available;
+        return null;
+      }
+      throw ex;
+    }
+
+    this.incompleteSize = -1;
+    // a whole byte in the bit buffer has been read only to check end of stream
+    this.start += available - in.available() - (bitIn.getBufferedBitsNumber() == 8 ? 1 : 0);
+    if (this.start == this.end) {
+      this.start = 0;
+      this.end = 0;
+    }
+    return result;
+  }
+
+  /**
+   * Parse a complete frame which length is defined by the frame decoder. The
+   * Script gets only the frame data and the start position is moved to the
+   * next frame even if the script doesn't read all the frame data.
+   *
+   * @param frameLength length of the frame in bytes
+   * @return parsed frame, must not be null
+   * @throws IOException it will be thrown for parsing errors
+   * @throws JBBPParsingException if the script needs more data than the frame
+   * contains
+   */
+  private JBBPFieldStruct nextFrame(final int frameLength) throws IOException {
+    final JBBPBitInputStream bitIn = new JBBPBitInputStream(new ByteArrayInputStream(this.buffer, this.start, frameLength), this.parser.getBitOrder());
+    final JBBPFieldStruct result;
+    try {
+      result = this.parser.parse(bitIn, this.varFieldProcessor, this.externalValueProvider);
+    }
+    catch (IOException ex) {
+      if (isEndOfStream(ex)) {
+        throw new JBBPParsingException("Script needs more data than the frame length [" + frameLength + ']', ex);
+      }
+      throw ex;
+    }
+    catch (JBBPParsingException ex) {
+      if (isEndOfStream(ex)) {
+        throw new JBBPParsingException("Script needs more data than the frame length [" + frameLength + ']', ex);
+      }
+      throw ex;
+    }
+
+    this.incompleteSize = -1;
+    this.start += frameLength;
+    if (this.start == this.end) {
+      this.start = 0;
+      this.end = 0;
+    }
+    return result;
+  }
+
+  private static boolean isEndOfStream(final Throwable error) {
+    for (Throwable t = error; t != null; t = t.getCause()) {
+      if (t instanceof EOFException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get number of collected bytes which are not parsed yet.
+   *
+   * @return number of bytes in the inside buffer
+   */
+  public int getBufferedBytes() {
+    return this.end - this.start;
+  }
+
+  /**
+   * Remove all collected data, for instance to start parsing of a new
+   * connection.
+   */
+  public void reset() {
+    this.start = 0;
+    this.end = 0;
+    this.incompleteSize = -1;
+  }
+
+  /**
+   * Make free space at the end of the inside buffer.
+   *
+   * @param length number of needed bytes
+   * @throws JBBPParsingException if number of collected bytes exceeds the max
+   * allowed one
+   */
+  private void ensureFreeSpace(final int length) {
+    final int dataLength = this.end - this.start;
+    if ((long) dataLength + length > this.maxBufferedBytes) {
+      throw new JBBPParsingException("Collected data exceeds max allowed size " + this.maxBufferedBytes + " byte(s), buffered " + dataLength + " byte(s), added " + length + " byte(s)");
+    }
+    if (this.buffer.length - this.end >= length) {
+      return;
+    }
+    byte[] target = this.buffer;
+    if (target.length - dataLength < length) {
+      long newSize = (long) target.length << 1;
+      while (newSize - dataLength < length) {
+        newSize <<= 1;
+      }
+      target = new byte[(int) Math.min(newSize, (long) this.maxBufferedBytes)];
+    }
+    System.arraycopy(this.buffer, this.start, target, 0, dataLength);
+    this.buffer = target;
+    this.start = 0;
+    this.end = dataLength;
+  }
+}
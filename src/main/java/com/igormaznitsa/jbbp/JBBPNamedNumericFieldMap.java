@@ -22,22 +22,58 @@ import com.igormaznitsa.jbbp.exceptions.*;
 import com.igormaznitsa.jbbp.model.*;
 import com.igormaznitsa.jbbp.model.finder.JBBPFieldFinder;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
-import java.util.*;
 
 /**
- * Implements a storage to keep named fields. it is not a thread-safe one
+ * Implements a storage to keep named fields. it is not a thread-safe one.
+ * Fields are kept in slots, if the map is made for a compiled block then
+ * slot of a field is its index in the named field area of the block.
  * @since 1.0
  */
 public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
   /**
-   * Inside map to get numeric fields for their name field descriptors.
+   * Initial number of slots for maps without compiled block.
    */
-  private final Map<JBBPNamedFieldInfo, JBBPNumericField> fieldMap;
+  private static final int INITIAL_SLOTS = 16;
+
+  /**
+   * Field name descriptors of slots.
+   */
+  private JBBPNamedFieldInfo[] slotInfo;
+  /**
+   * Numeric fields placed into slots, null if a slot is empty.
+   */
+  private JBBPNumericField[] slotField;
+  /**
+   * Integer values of fields placed into slots.
+   */
+  private int[] slotValue;
+  /**
+   * Number of slots in use.
+   */
+  private int slots;
+  /**
+   * Number of registered fields.
+   */
+  private int size;
+  /**
+   * The Compiled block which named field area defines slots, it can be null.
+   */
+  private final JBBPCompiledBlock compiledBlock;
+  /**
+   * Flag shows that all fields must be recorded during parsing, otherwise
+   * only fields referenced by evaluators of the compiled block are recorded.
+   */
+  private final boolean recordAllFields;
   /**
    * Defined external value provider, it can be null.
    */
   private final JBBPExternalValueProvider externalValueProvider;
+  /**
+   * Work array to be reused by expression evaluators, it is null if the array
+   * is taken or not made yet.
+   */
+  private int[] evaluationStack;
 
   /**
    * Empty constructor which makes a map with null provider.
@@ -52,7 +88,33 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    * @param externalValueProvider an external value provider, it can be null
    */
   public JBBPNamedNumericFieldMap(final JBBPExternalValueProvider externalValueProvider) {
-    this.fieldMap = new LinkedHashMap<JBBPNamedFieldInfo, JBBPNumericField>();
+    this.compiledBlock = null;
+    this.recordAllFields = true;
+    this.slotInfo = new JBBPNamedFieldInfo[INITIAL_SLOTS];
+    this.slotField = new JBBPNumericField[INITIAL_SLOTS];
+    this.slotValue = new int[INITIAL_SLOTS];
+    this.externalValueProvider = externalValueProvider;
+  }
+
+  /**
+   * A Constructor of a map which slots are defined by the named field area of
+   * a compiled block. If there is neither external value provider nor var
+   * fields in the block then only fields referenced by evaluators of the
+   * block will be recorded by the parser.
+   *
+   * @param compiledBlock a compiled block, it must not be null
+   * @param externalValueProvider an external value provider, it can be null
+   * @since 1.2.2
+   */
+  public JBBPNamedNumericFieldMap(final JBBPCompiledBlock compiledBlock, final JBBPExternalValueProvider externalValueProvider) {
+    JBBPUtils.assertNotNull(compiledBlock, "Compiled block must not be null");
+    this.compiledBlock = compiledBlock;
+    this.recordAllFields = externalValueProvider != null || compiledBlock.hasVarFields();
+    final JBBPNamedFieldInfo[] namedFields = compiledBlock.getNamedFields();
+    this.slots = namedFields.length;
+    this.slotInfo = namedFields.clone();
+    this.slotField = new JBBPNumericField[this.slots];
+    this.slotValue = new int[this.slots];
     this.externalValueProvider = externalValueProvider;
   }
 
@@ -65,6 +127,41 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
     return this.externalValueProvider;
   }
 
+  /**
+   * Find slot for a field name info.
+   *
+   * @param namedField a field name info, it must not be null
+   * @return index of found slot or -1 if not found
+   */
+  private int findSlot(final JBBPNamedFieldInfo namedField) {
+    final JBBPNamedFieldInfo[] infos = this.slotInfo;
+    for (int i = 0; i < this.slots; i++) {
+      if (infos[i] == namedField) {
+        return i;
+      }
+    }
+    for (int i = 0; i < this.slots; i++) {
+      if (namedField.equals(infos[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Place a field into slot.
+   *
+   * @param slot the slot index
+   * @param field the field to be placed, must not be null
+   */
+  private void placeField(final int slot, final JBBPNumericField field) {
+    if (this.slotField[slot] == null) {
+      this.size++;
+    }
+    this.slotField[slot] = field;
+    this.slotValue[slot] = field.getAsInt();
+  }
+
   /**
    * Get a numeric field for its field name info.
    *
@@ -72,7 +169,28 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    * @return the found field or null if it is not found
    */
   public JBBPNumericField get(final JBBPNamedFieldInfo namedField) {
-    return this.fieldMap.get(namedField);
+    final int slot = namedField == null ? -1 : findSlot(namedField);
+    return slot < 0 ? null : this.slotField[slot];
+  }
+
+  /**
+   * Get integer value of a registered field for its index in the named field
+   * area of a compiled block.
+   *
+   * @param block the compiled block, it must not be null
+   * @param namedFieldIndex the index of the field in the named field area of
+   * the block
+   * @return the integer value of the field
+   * @throws JBBPEvalException if there is not any registered field for the
+   * index
+   * @since 1.2.2
+   */
+  public int getIntValue(final JBBPCompiledBlock block, final int namedFieldIndex) {
+    final int slot = block == this.compiledBlock ? namedFieldIndex : findSlot(block.getNamedFields()[namedFieldIndex]);
+    if (slot < 0 || this.slotField[slot] == null) {
+      throw new JBBPEvalException("Can't find value of field '" + block.getNamedFields()[namedFieldIndex].getFieldPath() + '\'', null);
+    }
+    return this.slotValue[slot];
   }
 
   /**
@@ -87,7 +205,42 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
     JBBPUtils.assertNotNull(field, "Field must not be null");
     final JBBPNamedFieldInfo fieldName = field.getNameInfo();
     JBBPUtils.assertNotNull(fieldName, "Field name info must not be null");
-    this.fieldMap.put(fieldName, field);
+    int slot = findSlot(fieldName);
+    if (slot < 0) {
+      if (this.slots == this.slotInfo.length) {
+        final int newLength = Math.max(INITIAL_SLOTS, this.slots << 1);
+        final JBBPNamedFieldInfo[] newInfo = new JBBPNamedFieldInfo[newLength];
+        final JBBPNumericField[] newField = new JBBPNumericField[newLength];
+        final int[] newValue = new int[newLength];
+        System.arraycopy(this.slotInfo, 0, newInfo, 0, this.slots);
+        System.arraycopy(this.slotField, 0, newField, 0, this.slots);
+        System.arraycopy(this.slotValue, 0, newValue, 0, this.slots);
+        this.slotInfo = newInfo;
+        this.slotField = newField;
+        this.slotValue = newValue;
+      }
+      slot = this.slots++;
+      this.slotInfo[slot] = fieldName;
+    }
+    placeField(slot, field);
+  }
+
+  /**
+   * Record a field parsed for a named field of the compiled block of the map.
+   * The Field is ignored if it is not needed for evaluation.
+   *
+   * @param namedFieldIndex the index of the field in the named field area of
+   * the compiled block
+   * @param field the parsed field, must not be null
+   * @since 1.2.2
+   */
+  void recordField(final int namedFieldIndex, final JBBPNumericField field) {
+    if (this.compiledBlock == null) {
+      putField(field);
+    }
+    else if (this.recordAllFields || this.compiledBlock.isNamedFieldReferenced(namedFieldIndex)) {
+      placeField(namedFieldIndex, field);
+    }
   }
 
   /**
@@ -98,7 +251,16 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    */
   public JBBPNumericField remove(final JBBPNamedFieldInfo nameInfo) {
     JBBPUtils.assertNotNull(nameInfo, "Name info must not be null");
-    return this.fieldMap.remove(nameInfo);
+    final int slot = findSlot(nameInfo);
+    JBBPNumericField result = null;
+    if (slot >= 0) {
+      result = this.slotField[slot];
+      if (result != null) {
+        this.slotField[slot] = null;
+        this.size--;
+      }
+    }
+    return result;
   }
 
   /**
@@ -109,9 +271,9 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    */
   public JBBPNumericField findForFieldOffset(final int offset) {
     JBBPNumericField result = null;
-    for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-      if (f.getKey().getFieldOffsetInCompiledBlock() == offset) {
-        result = f.getValue();
+    for (int i = 0; i < this.slots; i++) {
+      if (this.slotField[i] != null && this.slotInfo[i].getFieldOffsetInCompiledBlock() == offset) {
+        result = this.slotField[i];
         break;
       }
     }
@@ -121,8 +283,9 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
   public <T extends JBBPAbstractField> T findFirstFieldForType(final Class<T> fieldType) {
     JBBPUtils.assertNotNull(fieldType, "Type must not be null");
     T result = null;
-    for (final JBBPNumericField f : fieldMap.values()) {
-      if (fieldType.isAssignableFrom(f.getClass())) {
+    for (int i = 0; i < this.slots; i++) {
+      final JBBPNumericField f = this.slotField[i];
+      if (f != null && fieldType.isAssignableFrom(f.getClass())) {
         result = fieldType.cast(f);
         break;
       }
@@ -133,8 +296,9 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
   public <T extends JBBPAbstractField> T findLastFieldForType(final Class<T> fieldType) {
     JBBPUtils.assertNotNull(fieldType, "Type must not be null");
     T result = null;
-    for (final JBBPNumericField f : fieldMap.values()) {
-      if (fieldType == f.getClass()) {
+    for (int i = 0; i < this.slots; i++) {
+      final JBBPNumericField f = this.slotField[i];
+      if (f != null && fieldType == f.getClass()) {
         result = fieldType.cast(f);
       }
     }
@@ -145,8 +309,9 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
     JBBPUtils.assertNotNull(fieldType, "Type must not be null");
     int count = 0;
     T result = null;
-    for (final JBBPNumericField f : fieldMap.values()) {
-      if (fieldType == f.getClass()) {
+    for (int i = 0; i < this.slots; i++) {
+      final JBBPNumericField f = this.slotField[i];
+      if (f != null && fieldType == f.getClass()) {
         result = fieldType.cast(f);
         count++;
       }
@@ -163,9 +328,10 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     T result = null;
 
-    for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-      if (normalizedName.equals(f.getKey().getFieldName()) && fieldType.isAssignableFrom(f.getValue().getClass())) {
-        result = fieldType.cast(f.getValue());
+    for (int i = 0; i < this.slots; i++) {
+      final JBBPNumericField f = this.slotField[i];
+      if (f != null && normalizedName.equals(this.slotInfo[i].getFieldName()) && fieldType.isAssignableFrom(f.getClass())) {
+        result = fieldType.cast(f);
         break;
       }
     }
@@ -178,9 +344,10 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     T result = null;
 
-    for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-      if (normalizedPath.equals(f.getKey().getFieldPath()) && fieldType.isAssignableFrom(f.getValue().getClass())) {
-        result = fieldType.cast(f.getValue());
+    for (int i = 0; i < this.slots; i++) {
+      final JBBPNumericField f = this.slotField[i];
+      if (f != null && normalizedPath.equals(this.slotInfo[i].getFieldPath()) && fieldType.isAssignableFrom(f.getClass())) {
+        result = fieldType.cast(f);
         break;
       }
     }
@@ -192,9 +359,9 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     JBBPAbstractField result = null;
 
-    for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-      if (normalizedName.equals(f.getKey().getFieldName())) {
-        result = (JBBPAbstractField) f.getValue();
+    for (int i = 0; i < this.slots; i++) {
+      if (this.slotField[i] != null && normalizedName.equals(this.slotInfo[i].getFieldName())) {
+        result = (JBBPAbstractField) this.slotField[i];
         break;
       }
     }
@@ -206,9 +373,9 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     JBBPAbstractField result = null;
 
-    for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-      if (normalizedPath.equals(f.getKey().getFieldPath())) {
-        result = (JBBPAbstractField) f.getValue();
+    for (int i = 0; i < this.slots; i++) {
+      if (this.slotField[i] != null && normalizedPath.equals(this.slotInfo[i].getFieldPath())) {
+        result = (JBBPAbstractField) this.slotField[i];
         break;
       }
     }
@@ -220,8 +387,8 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     boolean result = false;
 
-    for (final JBBPNamedFieldInfo f : fieldMap.keySet()) {
-      if (normalizedName.equals(f.getFieldName())) {
+    for (int i = 0; i < this.slots; i++) {
+      if (this.slotField[i] != null && normalizedName.equals(this.slotInfo[i].getFieldName())) {
         result = true;
         break;
       }
@@ -234,8 +401,8 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     boolean result = false;
 
-    for (final JBBPNamedFieldInfo f : fieldMap.keySet()) {
-      if (normalizedPath.equals(f.getFieldPath())) {
+    for (int i = 0; i < this.slots; i++) {
+      if (this.slotField[i] != null && normalizedPath.equals(this.slotInfo[i].getFieldPath())) {
         result = true;
         break;
       }
@@ -247,7 +414,16 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    * Clear the map.
    */
   public void clear() {
-    this.fieldMap.clear();
+    for (int i = 0; i < this.slots; i++) {
+      this.slotField[i] = null;
+    }
+    if (this.compiledBlock == null) {
+      for (int i = 0; i < this.slots; i++) {
+        this.slotInfo[i] = null;
+      }
+      this.slots = 0;
+    }
+    this.size = 0;
   }
 
   /**
@@ -256,7 +432,7 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    * @return true if the map is empty, false otherwise
    */
   public boolean isEmpty() {
-    return this.fieldMap.isEmpty();
+    return this.size == 0;
   }
 
   /**
@@ -265,7 +441,35 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
    * @return number of registered fields as integer
    */
   public int size() {
-    return this.fieldMap.size();
+    return this.size;
+  }
+
+  /**
+   * Take the work array for expression evaluation. The Array is kept by the
+   * map and reused by evaluators during parsing, it must be returned through
+   * {@link #releaseEvaluationStack(int[])} after use.
+   *
+   * @param minLength the minimal needed length of the array
+   * @return an array which length is not less than the needed one
+   * @since 1.2.2
+   */
+  public int[] takeEvaluationStack(final int minLength) {
+    int[] result = this.evaluationStack;
+    if (result == null || result.length < minLength) {
+      result = new int[Math.max(minLength, 8)];
+    }
+    this.evaluationStack = null;
+    return result;
+  }
+
+  /**
+   * Return the work array for expression evaluation to be reused.
+   *
+   * @param stack the array taken through {@link #takeEvaluationStack(int)}
+   * @since 1.2.2
+   */
+  public void releaseEvaluationStack(final int[] stack) {
+    this.evaluationStack = stack;
   }
 
   /**
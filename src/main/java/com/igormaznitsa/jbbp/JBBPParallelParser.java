@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPLazyStruct;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parser to parse independent records of a data block concurrently. Record
+ * bounds are found by a cheap sequential scan, then records are parsed by a
+ * shared parser in batches through an executor service and parsed records are
+ * provided by an iterator in their original order. Only limited number of
+ * batches is submitted ahead of the iterator so that memory usage doesn't
+ * depend on number of records. Records are slices of the source buffer and
+ * they are not copied, so that the buffer must not be changed until all
+ * records are iterated. The Class is immutable and thread safe but iterators
+ * made by it are not thread safe.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPParallelParser {
+
+  /**
+   * Default number of records in a batch.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 64;
+
+  /**
+   * The Parser to parse records.
+   */
+  private final JBBPParser parser;
+
+  /**
+   * The Executor service to parse batches.
+   */
+  private final ExecutorService executor;
+
+  /**
+   * Number of records in a batch.
+   */
+  private final int batchSize;
+
+  /**
+   * Max number of batches submitted ahead of the iterator.
+   */
+  private final int maxBatchesInFlight;
+
+  /**
+   * A Constructor, the default batch size is used and the number of batches
+   * in flight is twice the number of available processors.
+   *
+   * @param parser a parser to parse records, must not be null
+   * @param executor an executor service to parse batches, must not be null
+   */
+  public JBBPParallelParser(final JBBPParser parser, final ExecutorService executor) {
+    this(parser, executor, DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors() * 2);
+  }
+
+  /**
+   * A Constructor.
+   *
+   * @param parser a parser to parse records, must not be null
+   * @param executor an executor service to parse batches, must not be null
+   * @param batchSize number of records parsed by one task, must be positive
+   * @param maxBatchesInFlight max number of batches submitted ahead of the
+   * iterator, must be positive
+   */
+  public JBBPParallelParser(final JBBPParser parser, final ExecutorService executor, final int batchSize, final int maxBatchesInFlight) {
+    JBBPUtils.assertNotNull(parser, "Parser must not be null");
+    JBBPUtils.assertNotNull(executor, "Executor must not be null");
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive [" + batchSize + ']');
+    }
+    if (maxBatchesInFlight <= 0) {
+      throw new IllegalArgumentException("Number of batches in flight must be positive [" + maxBatchesInFlight + ']');
+    }
+    this.parser = parser;
+    this.executor = executor;
+    this.batchSize = batchSize;
+    this.maxBatchesInFlight = maxBatchesInFlight;
+  }
+
+  /**
+   * Parse records with fixed size placed one by one in remaining data of a
+   * buffer. The Buffer position is not changed.
+   *
+   * @param data a buffer contains records, must not be null
+   * @param recordSize size of a record in bytes, must be positive
+   * @return iterator of parsed records in their order, must not be null
+   * @throws EOFException if the data ends with an incomplete record
+   */
+  public Iterator<JBBPFieldStruct> parseRecords(final ByteBuffer data, final int recordSize) throws IOException {
+    JBBPUtils.assertNotNull(data, "Buffer must not be null");
+    if (recordSize <= 0) {
+      throw new IllegalArgumentException("Record size must be positive [" + recordSize + ']');
+    }
+    if (data.remaining() % recordSize != 0) {
+      throw new EOFException("Detected incomplete record at the end of data, remaining " + data.remaining() % recordSize + " byte(s)");
+    }
+    final List<ByteBuffer> records = new ArrayList<ByteBuffer>(data.remaining() / recordSize);
+    for (int pos = data.position(); pos < data.limit(); pos += recordSize) {
+      records.add(slice(data, pos, recordSize));
+    }
+    return parse(records);
+  }
+
+  /**
+   * Parse bodies of length prefixed frames placed one by one in remaining data
+   * of a buffer. The Buffer position is not changed.
+   *
+   * @param data a buffer contains frames, must not be null
+   * @param decoder a decoder to find frames, must not be null
+   * @return iterator of parsed frame bodies in their order, must not be null
+   * @throws EOFException if the data ends with an incomplete frame
+   * @throws JBBPParsingException if a frame has wrong body length
+   */
+  public Iterator<JBBPFieldStruct> parseFrames(final ByteBuffer data, final JBBPFrameDecoder decoder) throws IOException {
+    JBBPUtils.assertNotNull(data, "Buffer must not be null");
+    JBBPUtils.assertNotNull(decoder, "Decoder must not be null");
+    final List<ByteBuffer> records = new ArrayList<ByteBuffer>();
+    final ByteBuffer scanned = data.duplicate();
+    decoder.decode(scanned, new JBBPFrameListener() {
+      public void onFrame(final JBBPLazyStruct header, final ByteBuffer body) {
+        records.add(body);
+      }
+    });
+    if (scanned.hasRemaining()) {
+      throw new EOFException("Detected incomplete frame at the end of data, remaining " + scanned.remaining() + " byte(s)");
+    }
+    return parse(records);
+  }
+
+  /**
+   * Parse records provided as buffers, every record is parsed from its
+   * position till its limit and the buffer position is not changed.
+   *
+   * @param records list of records, must not be null and must not be changed
+   * during iteration
+   * @return iterator of parsed records in their order, must not be null, an
+   * error during parsing of a record is thrown by the iterator as
+   * JBBPParsingException
+   */
+  public Iterator<JBBPFieldStruct> parse(final List<ByteBuffer> records) {
+    JBBPUtils.assertNotNull(records, "Record list must not be null");
+    return new OrderedIterator(records);
+  }
+
+  private static ByteBuffer slice(final ByteBuffer data, final int position, final int length) {
+    final ByteBuffer result = data.duplicate();
+    result.limit(position + length);
+    result.position(position);
+    return result.slice();
+  }
+
+  /**
+   * Iterator submits batches ahead and returns parsed records in order.
+   */
+  private final class OrderedIterator implements Iterator<JBBPFieldStruct> {
+
+    private final List<ByteBuffer> records;
+    private final LinkedList<Future<JBBPFieldStruct[]>> batches = new LinkedList<Future<JBBPFieldStruct[]>>();
+    private int nextRecordToSubmit;
+    private JBBPFieldStruct[] currentBatch;
+    private int indexInBatch;
+
+    OrderedIterator(final List<ByteBuffer> records) {
+      this.records = records;
+      fillBatches();
+    }
+
+    private void fillBatches() {
+      while (this.batches.size() < maxBatchesInFlight && this.nextRecordToSubmit < this.records.size()) {
+        final int start = this.nextRecordToSubmit;
+        final int end = Math.min(this.records.size(), start + batchSize);
+        this.nextRecordToSubmit = end;
+        this.batches.add(executor.submit(new Callable<JBBPFieldStruct[]>() {
+          public JBBPFieldStruct[] call() throws Exception {
+            final JBBPFieldStruct[] result = new JBBPFieldStruct[end - start];
+            for (int i = start; i < end; i++) {
+              result[i - start] = parser.parse(records.get(i));
+            }
+            return result;
+          }
+        }));
+      }
+    }
+
+    public boolean hasNext() {
+      return (this.currentBatch != null && this.indexInBatch < this.currentBatch.length) || !this.batches.isEmpty();
+    }
+
+    public JBBPFieldStruct next() {
+      if (this.currentBatch == null || this.indexInBatch >= this.currentBatch.length) {
+        if (this.batches.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        final Future<JBBPFieldStruct[]> batch = this.batches.removeFirst();
+        fillBatches();
+        try {
+          this.currentBatch = batch.get();
+        }
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new JBBPParsingException("Interrupted during waiting for parsed records", ex);
+        }
+        catch (ExecutionException ex) {
+          throw new JBBPParsingException("Can't parse record", ex.getCause());
+        }
+        this.indexInBatch = 0;
+      }
+      final JBBPFieldStruct result = this.currentBatch[this.indexInBatch];
+      // release the record to let it be collected after iteration
+      this.currentBatch[this.indexInBatch++] = null;
+      return result;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException("Not supported");
+    }
+  }
+}
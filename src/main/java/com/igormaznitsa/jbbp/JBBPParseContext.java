@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldRecycler;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
+import java.util.List;
+
+/**
+ * Context of a parsing operation, it contains all mutable data of the
+ * operation and the parsing result. A context is created for every call of
+ * parsing method so that one parser instance can be used by several threads
+ * concurrently. The Context must not be shared between threads during parsing.
+ *
+ * @see JBBPParser#parseWithContext(java.io.InputStream,
+ * com.igormaznitsa.jbbp.JBBPVarFieldProcessor,
+ * com.igormaznitsa.jbbp.JBBPExternalValueProvider)
+ * @since 1.2.2
+ */
+public final class JBBPParseContext {
+
+  /**
+   * The Input stream for the parsing operation.
+   */
+  final JBBPBitInputStream inStream;
+  /**
+   * The Var field processor, it can be null.
+   */
+  final JBBPVarFieldProcessor varFieldProcessor;
+  /**
+   * The Map of named numeric fields, it can be null if the script doesn't
+   * need it.
+   */
+  final JBBPNamedNumericFieldMap namedNumericFieldMap;
+  /**
+   * The Current position in the compiled block.
+   */
+  final JBBPIntCounter positionAtCompiledBlock = new JBBPIntCounter();
+  /**
+   * The Current position in the named field list.
+   */
+  final JBBPIntCounter positionAtNamedFieldList = new JBBPIntCounter();
+  /**
+   * The Current position in the array size evaluator list.
+   */
+  final JBBPIntCounter positionAtVarLengthProcessors = new JBBPIntCounter();
+  /**
+   * The Listener of root structure array elements, it can be null.
+   */
+  final JBBPStructListener structListener;
+  /**
+   * The List to collect fields of the root structure, it can be null.
+   */
+  List<JBBPAbstractField> rootFieldList;
+  /**
+   * Source of value arrays of a previous tree to be reused, it can be null.
+   */
+  JBBPFieldRecycler fieldRecycler;
+  /**
+   * The Current level of structure processing, the root structure has level 1.
+   */
+  int structLevel;
+  /**
+   * The Flag shows that parsing has been stopped by the structure listener.
+   */
+  boolean stopped;
+
+  /**
+   * The Parsed root structure, it is null until parsing completion.
+   */
+  private JBBPFieldStruct root;
+  /**
+   * The Stream byte counter value after parsing.
+   */
+  private long finalStreamByteCounter;
+
+  /**
+   * The Constructor.
+   *
+   * @param inStream the input stream, must not be null
+   * @param varFieldProcessor var field processor, it can be null
+   * @param namedNumericFieldMap the map of named numeric fields, it can be
+   * null
+   * @param structListener listener of root structure array elements, it can be
+   * null
+   */
+  JBBPParseContext(final JBBPBitInputStream inStream, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap namedNumericFieldMap, final JBBPStructListener structListener) {
+    this.inStream = inStream;
+    this.varFieldProcessor = varFieldProcessor;
+    this.namedNumericFieldMap = namedNumericFieldMap;
+    this.structListener = structListener;
+    this.finalStreamByteCounter = inStream.getCounter();
+  }
+
+  /**
+   * Set the parsed root structure.
+   *
+   * @param root the root structure
+   */
+  void setRoot(final JBBPFieldStruct root) {
+    this.root = root;
+  }
+
+  /**
+   * Save the current byte counter of the input stream as the final one.
+   */
+  void saveFinalStreamByteCounter() {
+    this.finalStreamByteCounter = this.inStream.getCounter();
+  }
+
+  /**
+   * Provide parsed element of a root structure array to the structure
+   * listener.
+   *
+   * @param arrayName the name info of the array, it can be null
+   * @param index the index of the element
+   * @param struct the parsed element
+   * @return true if parsing must be continued, false otherwise
+   */
+  boolean notifyStructArrayElement(final JBBPNamedFieldInfo arrayName, final int index, final JBBPFieldStruct struct) {
+    if (!this.structListener.onStructArrayElement(arrayName, index, struct)) {
+      this.stopped = true;
+    }
+    return !this.stopped;
+  }
+
+  /**
+   * Check that parsing has been stopped by the structure listener.
+   *
+   * @return true if parsing has been stopped, false otherwise
+   */
+  public boolean isStopped() {
+    return this.stopped;
+  }
+
+  /**
+   * Get the parsed root structure.
+   *
+   * @return the root structure, it can be null if parsing has not been
+   * completed
+   */
+  public JBBPFieldStruct getRoot() {
+    return this.root;
+  }
+
+  /**
+   * Get the input stream byte counter value at the end of the parsing
+   * operation. NB: It is appropriate one only if the parsing didn't make any
+   * counter reset operation.
+   *
+   * @return the final byte counter value
+   */
+  public long getFinalStreamByteCounter() {
+    return this.finalStreamByteCounter;
+  }
+}
@@ -18,16 +18,31 @@ package com.igormaznitsa.jbbp;
 import com.igormaznitsa.jbbp.compiler.*;
 import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
 import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
 import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
 import com.igormaznitsa.jbbp.io.*;
+import com.igormaznitsa.jbbp.mapper.JBBPMapperCustomFieldProcessor;
+import com.igormaznitsa.jbbp.mapper.JBBPMappingFieldList;
 import com.igormaznitsa.jbbp.model.*;
 import com.igormaznitsa.jbbp.utils.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
  * the Main class allows a user to parse a binary stream or block for predefined
  * and precompiled script.
+ * <p>
+ * A Prepared parser is thread safe, all mutable data of a parsing operation is
+ * kept in a context object created for every call so that one parser can be
+ * shared between threads without synchronization. Use
+ * {@link #parseWithContext(java.io.InputStream, com.igormaznitsa.jbbp.JBBPVarFieldProcessor, com.igormaznitsa.jbbp.JBBPExternalValueProvider)}
+ * to get the final stream byte counter of a concrete operation because
+ * {@link #getFinalStreamByteCounter()} is shared by all threads. Var field
+ * processors, custom field type processors and external value providers must
+ * be thread safe too if they are shared.
+ * </p>
  * @since 1.0
  */
 public final class JBBPParser {
@@ -38,9 +53,11 @@ public final class JBBPParser {
   public static final int FLAG_SKIP_REMAINING_FIELDS_IF_EOF = 1; 
   
   /**
-   * The Variable contains the last parsing counter value.
+   * The Variable contains the last parsing counter value. If the parser is
+   * used by several threads then it contains value of the last completed
+   * operation of any thread.
    */
-  private long finalStreamByteCounter;
+  private volatile long finalStreamByteCounter;
 
   /**
    * the Compiled block contains compiled script and extra information.
@@ -65,6 +82,65 @@ public final class JBBPParser {
    * Custom field type processor for the parser, it can be null.
    */
   private final JBBPCustomFieldTypeProcessor customFieldTypeProcessor;
+
+  /**
+   * Prepared reader for the compiled block, it is null if the parser works in
+   * interpretation mode.
+   *
+   * @since 1.2.2
+   */
+  private final JBBPCompiledBlockReader compiledBlockReader;
+
+  /**
+   * Flags for offsets of fields in the compiled block, a flagged field is read
+   * from a stream but not placed into the parsed result because it is out of
+   * the parser projection. It is null if all fields must be placed.
+   *
+   * @since 1.2.2
+   */
+  private final boolean[] skippedFields;
+
+  /**
+   * Offset table for lazy views, it is made on the first request.
+   *
+   * @since 1.2.2
+   */
+  private volatile JBBPLazyLayout lazyLayout;
+
+  /**
+   * Index of field positions attached to parsed structures, it is made on the
+   * first parsing.
+   *
+   * @since 1.2.2
+   */
+  private volatile JBBPFieldStructIndex structIndex;
+
+  /**
+   * Size of the buffer to skip an array till the end of stream which is out
+   * of projection.
+   */
+  private static final int SKIP_BUFFER_SIZE = 4096;
+
+  /**
+   * Shared list which ignores all added fields, it is used as the field
+   * container for fields out of projection.
+   */
+  static final List<JBBPAbstractField> DISCARDED_FIELDS = new AbstractList<JBBPAbstractField>() {
+    @Override
+    public boolean add(final JBBPAbstractField field) {
+      return true;
+    }
+
+    @Override
+    public JBBPAbstractField get(final int index) {
+      throw new IndexOutOfBoundsException("The List doesn't contain elements");
+    }
+
+    @Override
+    public int size() {
+      return 0;
+    }
+  };
   
   /**
    * Constructor.
@@ -74,9 +150,11 @@ public final class JBBPParser {
    * @param bitOrder the bit order for bit reading operations, must not be null
    * @param customFieldTypeProcessor custom field type processor for the parser instance, it can be null
    * @param flags special flags for parsing process
+   * @param compiledMode flag to prepare reader for the compiled block if the
+   * script allows that
    * @see #FLAG_SKIP_REMAINING_FIELDS_IF_EOF
    */
-  private JBBPParser(final String source, final JBBPBitOrder bitOrder, final JBBPCustomFieldTypeProcessor customFieldTypeProcessor, final int flags) {
+  private JBBPParser(final String source, final JBBPBitOrder bitOrder, final JBBPCustomFieldTypeProcessor customFieldTypeProcessor, final int flags, final boolean compiledMode) {
     JBBPUtils.assertNotNull(source, "Script is null");
     JBBPUtils.assertNotNull(bitOrder, "Bit order is null");
     this.customFieldTypeProcessor = customFieldTypeProcessor;
@@ -88,6 +166,147 @@ public final class JBBPParser {
     catch (IOException ex) {
       throw new RuntimeException("Can't compile script for unexpected IOException", ex);
     }
+    this.skippedFields = null;
+    this.compiledBlockReader = compiledMode ? JBBPCompiledBlockReader.make(this.compiledBlock, flags, null) : null;
+  }
+
+  /**
+   * Constructor of a projection of a parser, the projection shares the
+   * compiled block of the base parser.
+   *
+   * @param base the base parser, must not be null
+   * @param skippedFields flags for offsets of fields which are out of
+   * projection, must not be null
+   */
+  private JBBPParser(final JBBPParser base, final boolean[] skippedFields) {
+    this.customFieldTypeProcessor = base.customFieldTypeProcessor;
+    this.bitOrder = base.bitOrder;
+    this.flags = base.flags;
+    this.compiledBlock = base.compiledBlock;
+    this.skippedFields = skippedFields;
+    this.compiledBlockReader = base.compiledBlockReader == null ? null : JBBPCompiledBlockReader.make(this.compiledBlock, this.flags, skippedFields);
+  }
+
+  /**
+   * Skip items of an array which is out of projection. Fixed number of items
+   * is skipped through InputStream#skip but the last byte is read because
+   * skip can report skipped bytes after the end of some streams, if skip
+   * doesn't move the stream then a byte is read. Arrays till the end of stream
+   * are read into a small buffer and discarded because their size must be
+   * checked.
+   *
+   * @param in the input stream, must not be null
+   * @param itemSize size of an array item in bytes
+   * @param items number of items, if negative then till the end of stream
+   * @throws IOException it will be thrown for transport errors or if the
+   * stream doesn't contain enough data
+   * @since 1.2.2
+   */
+  static void skipArrayItems(final JBBPBitInputStream in, final int itemSize, final int items) throws IOException {
+    if (items < 0) {
+      final byte[] buffer = new byte[SKIP_BUFFER_SIZE];
+      long counter = 0L;
+      while (true) {
+        final int read = in.read(buffer, 0, buffer.length);
+        if (read < 0) {
+          break;
+        }
+        counter += read;
+      }
+      if (counter % itemSize != 0) {
+        throw new EOFException("Detected incomplete array item at the end of stream");
+      }
+    }
+    else {
+      final long bytesToSkip = (long) items * itemSize;
+      long remaining = bytesToSkip;
+      while (remaining > 1L) {
+        final long skipped = in.skip(remaining - 1L);
+        if (skipped > 0L) {
+          remaining -= skipped;
+        }
+        else if (in.read() < 0) {
+          break;
+        }
+        else {
+          remaining--;
+        }
+      }
+      if (remaining == 1L && in.read() >= 0) {
+        remaining = 0L;
+      }
+      if (remaining != 0L) {
+        throw new EOFException("Can't skip " + bytesToSkip + " byte(s), skipped only " + (bytesToSkip - remaining) + " byte(s)");
+      }
+    }
+  }
+
+  /**
+   * Make flags for fields which are out of a projection.
+   *
+   * @param fields decoded fields of a structure, must not be null
+   * @param selected set of selected fields, must not be null
+   * @param selectedStructure flag shows that the structure is selected
+   * @param skippedFields array of flags indexed by field offsets in the
+   * compiled block, must not be null
+   * @return true if there is any field in the projection among the fields
+   */
+  private static boolean markSkippedFields(final JBBPCompiledField[] fields, final Set<JBBPNamedFieldInfo> selected, final boolean selectedStructure, final boolean[] skippedFields) {
+    boolean result = false;
+    for (final JBBPCompiledField f : fields) {
+      final boolean selectedField = selectedStructure || (f.getNameInfo() != null && selected.contains(f.getNameInfo()));
+      boolean inProjection = selectedField;
+      if (f.getStructFields() != null) {
+        inProjection = markSkippedFields(f.getStructFields(), selected, selectedField, skippedFields) || inProjection;
+      }
+      skippedFields[f.getOffset()] = !inProjection;
+      result |= inProjection;
+    }
+    return result;
+  }
+
+  /**
+   * Make a projection of the parser which places only fields for provided
+   * paths into parsed results. Structures containing selected fields are kept
+   * as containers, all fields of a selected structure are kept. Other fields
+   * are read or skipped to keep the stream position but not placed into
+   * results, arrays of primitives with known size are skipped through
+   * InputStream#skip and only their last byte is read to detect the end of
+   * stream.
+   * Single numeric fields are still registered for expressions so that
+   * results of dynamic fields are the same as for the full parser.
+   * The Projection shares the compiled block and settings with the parser.
+   *
+   * @param paths paths of fields to be placed into results, must not be null
+   * @return new parser instance for the projection
+   * @throws JBBPIllegalArgumentException if a path is unknown
+   * @since 1.2.2
+   */
+  public JBBPParser withProjection(final String... paths) {
+    JBBPUtils.assertNotNull(paths, "Paths must not be null");
+    final Set<JBBPNamedFieldInfo> selected = new HashSet<JBBPNamedFieldInfo>();
+    for (final String path : paths) {
+      JBBPUtils.assertNotNull(path, "Path must not be null");
+      final JBBPNamedFieldInfo field = this.compiledBlock.findFieldForPath(JBBPUtils.normalizeFieldNameOrPath(path));
+      if (field == null) {
+        throw new JBBPIllegalArgumentException("Unknown field path [" + path + ']');
+      }
+      selected.add(field);
+    }
+    final boolean[] skipped = new boolean[this.compiledBlock.getCompiledData().length];
+    markSkippedFields(JBBPCompiledField.decode(this.compiledBlock), selected, false, skipped);
+    return new JBBPParser(this, skipped);
+  }
+
+  /**
+   * Check that the parser is a projection made by
+   * {@link #withProjection(java.lang.String...)}.
+   *
+   * @return true if the parser places only selected fields into results
+   * @since 1.2.2
+   */
+  public boolean isProjection() {
+    return this.skippedFields != null;
   }
 
   /**
@@ -105,43 +324,58 @@ public final class JBBPParser {
   /**
    * Inside method to parse a structure.
    *
-   * @param inStream the input stream, must not be null
-   * @param positionAtCompiledBlock the current position in the compiled script
-   * block
-   * @param varFieldProcessor a processor to process var fields, it can be null
-   * but it will thrown NPE if a var field is met
-   * @param namedNumericFieldMap the named numeric field map
-   * @param positionAtNamedFieldList the current position at the named field
-   * list
-   * @param positionAtVarLengthProcessors the current position at the variable
-   * array length processor list
+   * @param context the context of the parsing operation, must not be null
    * @param skipStructureFields the flag shows that content of fields must be
    * skipped because the structure is skipped
    * @return list of read fields for the structure
    * @throws IOException it will be thrown for transport errors
    */
-  private List<JBBPAbstractField> parseStruct(final JBBPBitInputStream inStream, final JBBPIntCounter positionAtCompiledBlock, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap namedNumericFieldMap, final JBBPIntCounter positionAtNamedFieldList, final JBBPIntCounter positionAtVarLengthProcessors, final boolean skipStructureFields) throws IOException {
-    final List<JBBPAbstractField> structureFields = skipStructureFields ? null : new ArrayList<JBBPAbstractField>();
+  private List<JBBPAbstractField> parseStruct(final JBBPParseContext context, final boolean skipStructureFields) throws IOException {
+    final JBBPBitInputStream inStream = context.inStream;
+    final JBBPIntCounter positionAtCompiledBlock = context.positionAtCompiledBlock;
+    final JBBPVarFieldProcessor varFieldProcessor = context.varFieldProcessor;
+    final JBBPNamedNumericFieldMap namedNumericFieldMap = context.namedNumericFieldMap;
+    final JBBPIntCounter positionAtNamedFieldList = context.positionAtNamedFieldList;
+    final JBBPIntCounter positionAtVarLengthProcessors = context.positionAtVarLengthProcessors;
+
+    final boolean rootStructure = ++context.structLevel == 1;
+    final List<JBBPAbstractField> structureFields;
+    if (skipStructureFields) {
+      structureFields = null;
+    }
+    else {
+      structureFields = rootStructure && context.rootFieldList != null ? context.rootFieldList : new ArrayList<JBBPAbstractField>();
+    }
     final byte[] compiled = this.compiledBlock.getCompiledData();
 
     boolean endStructureNotMet = true;
 
-    while (endStructureNotMet && positionAtCompiledBlock.get() < compiled.length) {
+    // elements of root structure arrays are provided to the listener instead of collecting
+    final boolean streamStructArrayElements = rootStructure && context.structListener != null;
+
+    while (endStructureNotMet && !context.stopped && positionAtCompiledBlock.get() < compiled.length) {
       if (!inStream.hasAvailableData() && (flags & FLAG_SKIP_REMAINING_FIELDS_IF_EOF)!=0){
         // Break reading because the ignore flag for EOF has been set
         break;
       }
       
-      final int c = compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF;
+      final int fieldOffset = positionAtCompiledBlock.getAndIncrement();
+      final int c = compiled[fieldOffset] & 0xFF;
       final boolean wideCode = (c & JBBPCompiler.FLAG_WIDE) != 0;
       final int ec = wideCode ? compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF : 0;
       final boolean extraFieldNumAsExpr = (ec & JBBPCompiler.EXT_FLAG_EXTRA_AS_EXPRESSION)!=0;
       final int code = (ec<<8) | c;
       
-      final JBBPNamedFieldInfo name = (code & JBBPCompiler.FLAG_NAMED) == 0 ? null : compiledBlock.getNamedFields()[positionAtNamedFieldList.getAndIncrement()];
+      final int nameIndex = (code & JBBPCompiler.FLAG_NAMED) == 0 ? -1 : positionAtNamedFieldList.getAndIncrement();
+      final JBBPNamedFieldInfo name = nameIndex < 0 ? null : compiledBlock.getNamedFields()[nameIndex];
       final JBBPByteOrder byteOrder = (code & JBBPCompiler.FLAG_LITTLE_ENDIAN) == 0 ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN;
 
       final boolean resultNotIgnored = !skipStructureFields;
+      // a field out of the projection is read from the stream but not placed into the result
+      final boolean materialize = this.skippedFields == null || !this.skippedFields[fieldOffset];
+      final List<JBBPAbstractField> fieldsOut = materialize ? structureFields : DISCARDED_FIELDS;
+      // arrays of the previous tree are reused only for materialized fields
+      final JBBPFieldRecycler recycler = materialize ? context.fieldRecycler : null;
 
       final int extraFieldNumExprResult;
       if (extraFieldNumAsExpr) {
@@ -224,7 +458,7 @@ public final class JBBPParser {
                 singleAtomicField = new JBBPFieldBit(name, read, bitNumber);
               }
               else {
-                structureFields.add(new JBBPFieldArrayBit(name, inStream.readBitsArray(wholeStreamArray ? -1 : arrayLength, bitNumber), bitNumber));
+                fieldsOut.add(new JBBPFieldArrayBit(name, inStream.readBitsArray(wholeStreamArray ? -1 : arrayLength, bitNumber), bitNumber));
               }
             }
           }
@@ -248,7 +482,7 @@ public final class JBBPParser {
                 if (array.getNameInfo() != name) {
                   throw new JBBPParsingException("Detected wrong name for a read field array, must be " + name + " but detected " + array.getNameInfo() + ']');
                 }
-                structureFields.add(array);
+                fieldsOut.add(array);
               }
             }
           }
@@ -259,7 +493,7 @@ public final class JBBPParser {
               final JBBPFieldTypeParameterContainer fieldTypeInfo = this.compiledBlock.getCustomTypeFields()[JBBPUtils.unpackInt(compiled, positionAtCompiledBlock)];
               final JBBPAbstractField field = this.customFieldTypeProcessor.readCustomFieldType(inStream, this.bitOrder, this.flags, fieldTypeInfo, name, extraData, wholeStreamArray, arrayLength);
               JBBPUtils.assertNotNull(field, "Must not return null as read result");
-              structureFields.add(field);
+              fieldsOut.add(field);
             }
           }break;
           case JBBPCompiler.CODE_BOOL: {
@@ -267,8 +501,13 @@ public final class JBBPParser {
               if (arrayLength < 0) {
                 singleAtomicField = new JBBPFieldBoolean(name, inStream.readBoolean());
               }
+              else if (materialize) {
+                final boolean[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayBoolValues(name, arrayLength);
+                final boolean[] array = reused == null ? inStream.readBoolArray(wholeStreamArray ? -1 : arrayLength) : inStream.readBoolArray(reused);
+                structureFields.add(new JBBPFieldArrayBoolean(name, array));
+              }
               else {
-                structureFields.add(new JBBPFieldArrayBoolean(name, inStream.readBoolArray(wholeStreamArray ? -1 : arrayLength)));
+                skipArrayItems(inStream, 1, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
@@ -278,9 +517,16 @@ public final class JBBPParser {
               if (arrayLength < 0) {
                 singleAtomicField = new JBBPFieldByte(name, (byte) inStream.readByte());
               }
+              else if (materialize) {
+                final byte[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayByteValues(name, arrayLength);
+                final byte[] array = reused == null ? inStream.readByteArray(wholeStreamArray ? -1 : arrayLength) : inStream.readByteArray(reused);
+                if (byteOrder == JBBPByteOrder.LITTLE_ENDIAN) {
+                  JBBPUtils.reverseArray(array);
+                }
+                structureFields.add(new JBBPFieldArrayByte(name, array));
+              }
               else {
-                final byte[] array = inStream.readByteArray(wholeStreamArray ? -1 : arrayLength);
-                structureFields.add(new JBBPFieldArrayByte(name, byteOrder == JBBPByteOrder.LITTLE_ENDIAN ? JBBPUtils.reverseArray(array) : array));
+                skipArrayItems(inStream, 1, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
@@ -290,9 +536,16 @@ public final class JBBPParser {
               if (arrayLength < 0) {
                 singleAtomicField = new JBBPFieldUByte(name, (byte) inStream.readByte());
               }
+              else if (materialize) {
+                final byte[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayUByteValues(name, arrayLength);
+                final byte[] array = reused == null ? inStream.readByteArray(wholeStreamArray ? -1 : arrayLength) : inStream.readByteArray(reused);
+                if (byteOrder == JBBPByteOrder.LITTLE_ENDIAN) {
+                  JBBPUtils.reverseArray(array);
+                }
+                structureFields.add(new JBBPFieldArrayUByte(name, array));
+              }
               else {
-                final byte[] array = inStream.readByteArray(wholeStreamArray ? -1 : arrayLength);
-                structureFields.add(new JBBPFieldArrayUByte(name, byteOrder == JBBPByteOrder.LITTLE_ENDIAN ? JBBPUtils.reverseArray(array) : array));
+                skipArrayItems(inStream, 1, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
@@ -303,8 +556,13 @@ public final class JBBPParser {
                 final int value = inStream.readInt(byteOrder);
                 singleAtomicField = new JBBPFieldInt(name, value);
               }
+              else if (materialize) {
+                final int[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayIntValues(name, arrayLength);
+                final int[] array = reused == null ? inStream.readIntArray(wholeStreamArray ? -1 : arrayLength, byteOrder) : inStream.readIntArray(reused, byteOrder);
+                structureFields.add(new JBBPFieldArrayInt(name, array));
+              }
               else {
-                structureFields.add(new JBBPFieldArrayInt(name, inStream.readIntArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                skipArrayItems(inStream, 4, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
@@ -315,8 +573,13 @@ public final class JBBPParser {
                 final long value = inStream.readLong(byteOrder);
                 singleAtomicField = new JBBPFieldLong(name, value);
               }
+              else if (materialize) {
+                final long[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayLongValues(name, arrayLength);
+                final long[] array = reused == null ? inStream.readLongArray(wholeStreamArray ? -1 : arrayLength, byteOrder) : inStream.readLongArray(reused, byteOrder);
+                structureFields.add(new JBBPFieldArrayLong(name, array));
+              }
               else {
-                structureFields.add(new JBBPFieldArrayLong(name, inStream.readLongArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                skipArrayItems(inStream, 8, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
@@ -327,8 +590,13 @@ public final class JBBPParser {
                 final int value = inStream.readUnsignedShort(byteOrder);
                 singleAtomicField = new JBBPFieldShort(name, (short) value);
               }
+              else if (materialize) {
+                final short[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayShortValues(name, arrayLength);
+                final short[] array = reused == null ? inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder) : inStream.readShortArray(reused, byteOrder);
+                structureFields.add(new JBBPFieldArrayShort(name, array));
+              }
               else {
-                structureFields.add(new JBBPFieldArrayShort(name, inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                skipArrayItems(inStream, 2, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
@@ -339,19 +607,24 @@ public final class JBBPParser {
                 final int value = inStream.readUnsignedShort(byteOrder);
                 singleAtomicField = new JBBPFieldUShort(name, (short) value);
               }
+              else if (materialize) {
+                final short[] reused = recycler == null || wholeStreamArray ? null : recycler.findArrayUShortValues(name, arrayLength);
+                final short[] array = reused == null ? inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder) : inStream.readShortArray(reused, byteOrder);
+                structureFields.add(new JBBPFieldArrayUShort(name, array));
+              }
               else {
-                structureFields.add(new JBBPFieldArrayUShort(name, inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                skipArrayItems(inStream, 2, wholeStreamArray ? -1 : arrayLength);
               }
             }
           }
           break;
           case JBBPCompiler.CODE_STRUCT_START: {
             if (arrayLength < 0) {
-              final List<JBBPAbstractField> structFields = parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
+              final List<JBBPAbstractField> structFields = parseStruct(context, skipStructureFields);
               // skip offset
               JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
               if (resultNotIgnored) {
-                structureFields.add(new JBBPFieldStruct(name, structFields.toArray(new JBBPAbstractField[structFields.size()])));
+                fieldsOut.add(new JBBPFieldStruct(name, structFields.toArray(new JBBPAbstractField[structFields.size()])));
               }
             }
             else {
@@ -359,42 +632,61 @@ public final class JBBPParser {
               final int varLenProcCurrent = positionAtVarLengthProcessors.get();
 
               final JBBPFieldStruct[] result;
+              final boolean streamElements = streamStructArrayElements && materialize;
               if (resultNotIgnored) {
                 if (wholeStreamArray) {
                   // read till the stream end
-                  final List<JBBPFieldStruct> list = new ArrayList<JBBPFieldStruct>();
+                  final List<JBBPFieldStruct> list = streamElements ? null : new ArrayList<JBBPFieldStruct>();
+                  int index = 0;
                   while (inStream.hasAvailableData()) {
                     positionAtNamedFieldList.set(nameFieldCurrent);
                     positionAtVarLengthProcessors.set(varLenProcCurrent);
 
-                    final List<JBBPAbstractField> fieldsForStruct = parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
-                    list.add(new JBBPFieldStruct(name, fieldsForStruct));
+                    final List<JBBPAbstractField> fieldsForStruct = parseStruct(context, skipStructureFields);
+                    final JBBPFieldStruct element = new JBBPFieldStruct(name, fieldsForStruct);
 
                     final int structStart = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
 
+                    if (streamElements) {
+                      if (!context.notifyStructArrayElement(name, index++, element)) {
+                        break;
+                      }
+                    }
+                    else {
+                      list.add(element);
+                    }
+
                     if (inStream.hasAvailableData()) {
                       positionAtCompiledBlock.set(structStart + (wideCode ? 2 : 1));
                     }
                   }
 
-                  result = list.isEmpty() ? EMPTY_STRUCT_ARRAY : list.toArray(new JBBPFieldStruct[list.size()]);
+                  result = list == null || list.isEmpty() ? EMPTY_STRUCT_ARRAY : list.toArray(new JBBPFieldStruct[list.size()]);
                 }
                 else {
                   // read number of items
                   if (arrayLength == 0) {
                     // skip the structure
                     result = EMPTY_STRUCT_ARRAY;
-                    parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, true);
+                    parseStruct(context, true);
                     JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
                   }
                   else {
-                    result = new JBBPFieldStruct[arrayLength];
+                    result = streamElements ? EMPTY_STRUCT_ARRAY : new JBBPFieldStruct[arrayLength];
                     for (int i = 0; i < arrayLength; i++) {
 
-                      final List<JBBPAbstractField> fieldsForStruct = parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
+                      final List<JBBPAbstractField> fieldsForStruct = parseStruct(context, skipStructureFields);
                       final int structBodyStart = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
 
-                      result[i] = new JBBPFieldStruct(name, fieldsForStruct);
+                      final JBBPFieldStruct element = new JBBPFieldStruct(name, fieldsForStruct);
+                      if (streamElements) {
+                        if (!context.notifyStructArrayElement(name, i, element)) {
+                          break;
+                        }
+                      }
+                      else {
+                        result[i] = element;
+                      }
 
                       if (i < arrayLength - 1) {
                         // not the last
@@ -407,11 +699,11 @@ public final class JBBPParser {
                 }
 
                 if (result != null) {
-                  structureFields.add(new JBBPFieldArrayStruct(name, result));
+                  fieldsOut.add(new JBBPFieldArrayStruct(name, result));
                 }
               }
               else {
-                parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
+                parseStruct(context, skipStructureFields);
                 JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
               }
             }
@@ -436,24 +728,31 @@ public final class JBBPParser {
       }
 
       if (singleAtomicField != null) {
-        structureFields.add(singleAtomicField);
+        if (materialize) {
+          structureFields.add(singleAtomicField);
+        }
         if (namedNumericFieldMap != null && singleAtomicField instanceof JBBPNumericField && name != null) {
-          namedNumericFieldMap.putField((JBBPNumericField) singleAtomicField);
+          namedNumericFieldMap.recordField(nameIndex, (JBBPNumericField) singleAtomicField);
         }
       }
 
     }
 
+    context.structLevel--;
     return structureFields;
   }
 
   /**
-   * Parse an input stream.
+   * Parse an input stream. The Stream is not read in advance, so that it is
+   * positioned just after the parsed content. If a JBBPBitInputStream with
+   * read-ahead buffer is provided then the data read in advance stay in its
+   * buffer.
    *
    * @param in an input stream which content should be parsed, it must not be
    * null
    * @return the parsed content as the root structure
    * @throws IOException it will be thrown for transport errors
+   * @see JBBPBitInputStream#isReadAheadBuffered()
    */
   public JBBPFieldStruct parse(final InputStream in) throws IOException {
     return this.parse(in, null, null);
@@ -471,12 +770,314 @@ public final class JBBPParser {
    * @throws IOException it will be thrown for transport errors
    */
   public JBBPFieldStruct parse(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
-    final JBBPBitInputStream bitInStream = in instanceof JBBPBitInputStream ? (JBBPBitInputStream) in : new JBBPBitInputStream(in, bitOrder);
+    return this.parseWithContext(in, varFieldProcessor, externalValueProvider).getRoot();
+  }
+
+  /**
+   * Parse an input stream and return the context of the parsing operation.
+   *
+   * @param in an input stream which content should be parsed, it must not be
+   * null
+   * @return the context contains the parsed root structure and the final byte
+   * counter of the operation
+   * @throws IOException it will be thrown for transport errors
+   * @see #parseWithContext(java.io.InputStream,
+   * com.igormaznitsa.jbbp.JBBPVarFieldProcessor,
+   * com.igormaznitsa.jbbp.JBBPExternalValueProvider)
+   * @since 1.2.2
+   */
+  public JBBPParseContext parseWithContext(final InputStream in) throws IOException {
+    return this.parseWithContext(in, null, null);
+  }
+
+  /**
+   * Parse a byte array content and return the context of the parsing
+   * operation.
+   *
+   * @param array a byte array which content should be parsed, it must not be
+   * null
+   * @return the context contains the parsed root structure and the final byte
+   * counter of the operation
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public JBBPParseContext parseWithContext(final byte[] array) throws IOException {
+    JBBPUtils.assertNotNull(array, "Array must not be null");
+    return this.parseWithContext(new ByteArrayInputStream(array), null, null);
+  }
+
+  /**
+   * Parse an input stream and return the context of the parsing operation.
+   * All mutable data of the operation is kept in the context so that the
+   * method can be called concurrently for the same parser instance from
+   * different threads.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param varFieldProcessor a var field processor, it may be null if there is
+   * not any var field in a script, otherwise NPE will be thrown during parsing
+   * @param externalValueProvider an external value provider, it can be null but
+   * only if the script doesn't have fields desired the provider
+   * @return the context contains the parsed root structure and the final byte
+   * counter of the operation
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public JBBPParseContext parseWithContext(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+    return this.parseInternal(in, varFieldProcessor, externalValueProvider, null, null, null);
+  }
+
+  /**
+   * Parse an input stream and provide elements of root structure arrays to a
+   * listener just after parsing of each element. Provided elements are not
+   * collected and the root structure in the result contains empty arrays
+   * instead of them so that memory usage doesn't depend on number of
+   * elements.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param structListener a listener to get elements of root structure arrays,
+   * it must not be null
+   * @return the parsed content as the root structure, streamed structure
+   * arrays are empty in it
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parseEach(final InputStream in, final JBBPStructListener structListener) throws IOException {
+    return this.parseEach(in, structListener, null, null);
+  }
+
+  /**
+   * Parse an input stream and provide elements of root structure arrays to a
+   * listener just after parsing of each element.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param structListener a listener to get elements of root structure arrays,
+   * it must not be null
+   * @param varFieldProcessor a var field processor, it may be null if there is
+   * not any var field in a script, otherwise NPE will be thrown during parsing
+   * @param externalValueProvider an external value provider, it can be null but
+   * only if the script doesn't have fields desired the provider
+   * @return the parsed content as the root structure, streamed structure
+   * arrays are empty in it
+   * @throws IOException it will be thrown for transport errors
+   * @see #parseEach(java.io.InputStream,
+   * com.igormaznitsa.jbbp.JBBPStructListener)
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parseEach(final InputStream in, final JBBPStructListener structListener, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+    JBBPUtils.assertNotNull(structListener, "Struct listener must not be null");
+    return this.parseInternal(in, varFieldProcessor, externalValueProvider, structListener, null, null).getRoot();
+  }
+
+  /**
+   * Parse an input stream and reuse value arrays of a structure tree made by a
+   * previous parsing with the same parser. Primitive arrays of the previous
+   * tree are filled by read data if they have the needed length, new ones are
+   * allocated only if there are not compatible ones. Field objects are always
+   * new. The previous tree must not be used after the call because its arrays
+   * are overwritten.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param previousRoot the root structure returned by a previous parsing, it
+   * can be null and in the case a new tree is made
+   * @return the parsed content as the root structure
+   * @throws IOException it will be thrown for transport errors
+   * @see JBBPFieldRecycler
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parseReusing(final InputStream in, final JBBPFieldStruct previousRoot) throws IOException {
+    return this.parseReusing(in, previousRoot, null, null);
+  }
+
+  /**
+   * Parse a byte array and reuse value arrays of a structure tree made by a
+   * previous parsing with the same parser.
+   *
+   * @param array a byte array which content will be parsed, it must not be null
+   * @param previousRoot the root structure returned by a previous parsing, it
+   * can be null and in the case a new tree is made
+   * @return the parsed content as the root structure
+   * @throws IOException it will be thrown for transport errors
+   * @see #parseReusing(java.io.InputStream,
+   * com.igormaznitsa.jbbp.model.JBBPFieldStruct)
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parseReusing(final byte[] array, final JBBPFieldStruct previousRoot) throws IOException {
+    JBBPUtils.assertNotNull(array, "Array must not be null");
+    return this.parseReusing(new ByteArrayInputStream(array), previousRoot, null, null);
+  }
+
+  /**
+   * Parse an input stream and reuse value arrays of a structure tree made by a
+   * previous parsing with the same parser.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param previousRoot the root structure returned by a previous parsing, it
+   * can be null and in the case a new tree is made
+   * @param varFieldProcessor a var field processor, it may be null if there is
+   * not any var field in a script, otherwise NPE will be thrown during parsing
+   * @param externalValueProvider an external value provider, it can be null but
+   * only if the script doesn't have fields desired the provider
+   * @return the parsed content as the root structure
+   * @throws IOException it will be thrown for transport errors
+   * @see #parseReusing(java.io.InputStream,
+   * com.igormaznitsa.jbbp.model.JBBPFieldStruct)
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parseReusing(final InputStream in, final JBBPFieldStruct previousRoot, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+    return this.parseInternal(in, varFieldProcessor, externalValueProvider, null, null, previousRoot).getRoot();
+  }
+
+  /**
+   * Parse an input stream directly into a new instance of a mapping class,
+   * the instance is made without constructor call. Parsed fields of the root
+   * structure are mapped just after reading so that the structure tree is not
+   * built.
+   *
+   * @param <T> the mapping class type
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param mappingClass a mapping class, it must not be null
+   * @return the mapped instance of the class, must not be null
+   * @throws IOException it will be thrown for transport errors
+   * @see com.igormaznitsa.jbbp.mapper.JBBPMapper
+   * @since 1.2.2
+   */
+  public <T> T parseInto(final InputStream in, final Class<T> mappingClass) throws IOException {
+    return this.parseInto(in, mappingClass, null, 0);
+  }
+
+  /**
+   * Parse an input stream directly into a new instance of a mapping class,
+   * the instance is made without constructor call. Scripts with var fields are
+   * not supported.
+   *
+   * @param <T> the mapping class type
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param mappingClass a mapping class, it must not be null
+   * @param customFieldProcessor a custom field processor, it can be null if
+   * there are not any custom fields
+   * @param flags special mapper flags
+   * @return the mapped instance of the class, must not be null
+   * @throws IOException it will be thrown for transport errors
+   * @see com.igormaznitsa.jbbp.mapper.JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+   * @since 1.2.2
+   */
+  public <T> T parseInto(final InputStream in, final Class<T> mappingClass, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int flags) throws IOException {
+    return this.parseInto(in, mappingClass, customFieldProcessor, null, flags);
+  }
+
+  /**
+   * Parse an input stream directly into a new instance of a mapping class,
+   * the instance is made without constructor call. Scripts with var fields are
+   * not supported.
+   *
+   * @param <T> the mapping class type
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param mappingClass a mapping class, it must not be null
+   * @param customFieldProcessor a custom field processor, it can be null if
+   * there are not any custom fields
+   * @param externalValueProvider an external value provider, it can be null but
+   * only if the script doesn't have fields desired the provider
+   * @param flags special mapper flags
+   * @return the mapped instance of the class, must not be null
+   * @throws IOException it will be thrown for transport errors
+   * @see com.igormaznitsa.jbbp.mapper.JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+   * @since 1.2.2
+   */
+  public <T> T parseInto(final InputStream in, final Class<T> mappingClass, final JBBPMapperCustomFieldProcessor customFieldProcessor, final JBBPExternalValueProvider externalValueProvider, final int flags) throws IOException {
+    return mappingClass.cast(parseIntoList(in, JBBPMappingFieldList.make(mappingClass, customFieldProcessor, flags), externalValueProvider));
+  }
+
+  /**
+   * Parse an input stream directly into a mapping class instance. Parsed
+   * fields of the root structure are mapped just after reading so that the
+   * structure tree is not built.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param instance a mapping class instance, it must not be null
+   * @return the mapped instance
+   * @throws IOException it will be thrown for transport errors
+   * @see com.igormaznitsa.jbbp.mapper.JBBPMapper
+   * @since 1.2.2
+   */
+  public Object parseInto(final InputStream in, final Object instance) throws IOException {
+    return this.parseInto(in, instance, null, 0);
+  }
+
+  /**
+   * Parse an input stream directly into a mapping class instance. Scripts with
+   * var fields are not supported.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param instance a mapping class instance, it must not be null
+   * @param customFieldProcessor a custom field processor, it can be null if
+   * there are not any custom fields
+   * @param flags special mapper flags
+   * @return the mapped instance
+   * @throws IOException it will be thrown for transport errors
+   * @see com.igormaznitsa.jbbp.mapper.JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+   * @since 1.2.2
+   */
+  public Object parseInto(final InputStream in, final Object instance, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int flags) throws IOException {
+    return this.parseInto(in, instance, customFieldProcessor, null, flags);
+  }
+
+  /**
+   * Parse an input stream directly into a mapping class instance. Scripts with
+   * var fields are not supported.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param instance a mapping class instance, it must not be null
+   * @param customFieldProcessor a custom field processor, it can be null if
+   * there are not any custom fields
+   * @param externalValueProvider an external value provider, it can be null but
+   * only if the script doesn't have fields desired the provider
+   * @param flags special mapper flags
+   * @return the mapped instance
+   * @throws IOException it will be thrown for transport errors
+   * @see com.igormaznitsa.jbbp.mapper.JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+   * @since 1.2.2
+   */
+  public Object parseInto(final InputStream in, final Object instance, final JBBPMapperCustomFieldProcessor customFieldProcessor, final JBBPExternalValueProvider externalValueProvider, final int flags) throws IOException {
+    return parseIntoList(in, new JBBPMappingFieldList(instance, customFieldProcessor, flags), externalValueProvider);
+  }
+
+  /**
+   * Inside method to parse an input stream into a mapping field list.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param list the list to map fields of the root structure, must not be null
+   * @param externalValueProvider an external value provider, it can be null
+   * @return the mapped instance
+   * @throws IOException it will be thrown for transport errors
+   */
+  private Object parseIntoList(final InputStream in, final JBBPMappingFieldList list, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+    this.parseInternal(in, null, externalValueProvider, null, list, null);
+    return list.complete();
+  }
+
+  /**
+   * Inside method to parse an input stream.
+   *
+   * @param in an input stream which content will be parsed, it must not be null
+   * @param varFieldProcessor a var field processor, it can be null
+   * @param externalValueProvider an external value provider, it can be null
+   * @param structListener a listener for root structure array elements, it can
+   * be null
+   * @param rootFieldList a list to collect fields of the root structure, it can
+   * be null, if it is provided then the root structure is not made
+   * @param reusedRoot the root structure of a previous tree which arrays can
+   * be reused, it can be null
+   * @return the context of the parsing operation
+   * @throws IOException it will be thrown for transport errors
+   */
+  private JBBPParseContext parseInternal(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider, final JBBPStructListener structListener, final List<JBBPAbstractField> rootFieldList, final JBBPFieldStruct reusedRoot) throws IOException {
+    // the stream is owned by the caller so it is not read in advance, otherwise data after the parsed content would be lost
+    final JBBPBitInputStream bitInStream = in instanceof JBBPBitInputStream ? (JBBPBitInputStream) in : new JBBPBitInputStream(in, bitOrder, 0);
     this.finalStreamByteCounter = bitInStream.getCounter();
 
     final JBBPNamedNumericFieldMap fieldMap;
     if (this.compiledBlock.hasEvaluatedSizeArrays() || this.compiledBlock.hasVarFields()) {
-      fieldMap = new JBBPNamedNumericFieldMap(externalValueProvider);
+      fieldMap = new JBBPNamedNumericFieldMap(this.compiledBlock, externalValueProvider);
     }
     else {
       fieldMap = null;
@@ -485,12 +1086,57 @@ public final class JBBPParser {
     if (this.compiledBlock.hasVarFields()) {
       JBBPUtils.assertNotNull(varFieldProcessor, "The Script contains VAR fields, a var field processor must be provided");
     }
+
+    final JBBPParseContext context = new JBBPParseContext(bitInStream, varFieldProcessor, fieldMap, structListener);
+    context.rootFieldList = rootFieldList;
+    context.fieldRecycler = reusedRoot == null ? null : new JBBPFieldRecycler(reusedRoot);
     try {
-      return new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), parseStruct(bitInStream, new JBBPIntCounter(), varFieldProcessor, fieldMap, new JBBPIntCounter(), new JBBPIntCounter(), false));
+      final List<JBBPAbstractField> rootFields;
+      if (this.compiledBlockReader == null) {
+        rootFields = parseStruct(context, false);
+      }
+      else {
+        rootFields = this.compiledBlockReader.read(context);
+      }
+      if (rootFieldList == null) {
+        context.setRoot(new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), rootFields, getStructIndex()));
+      }
+      return context;
     }
     finally {
-      this.finalStreamByteCounter = bitInStream.getCounter();
+      context.saveFinalStreamByteCounter();
+      this.finalStreamByteCounter = context.getFinalStreamByteCounter();
+    }
+  }
+
+  /**
+   * Get index of field positions for structures made by the parser.
+   *
+   * @return the index, must not be null
+   */
+  private JBBPFieldStructIndex getStructIndex() {
+    JBBPFieldStructIndex result = this.structIndex;
+    if (result == null) {
+      result = JBBPFieldStructIndex.make(this.compiledBlock, this.skippedFields);
+      this.structIndex = result;
     }
+    return result;
+  }
+
+  /**
+   * Make precompiled handle of a field path to find the field in root
+   * structures made by the parser without string operations.
+   *
+   * @param fieldPath path of a field, must not be null
+   * @return the handle of the path, must not be null
+   * @throws JBBPFinderException if the parser doesn't make any field for the
+   * path, for instance the path is wrong or the field is placed in an
+   * anonymous structure or in a structure array
+   * @see JBBPFieldPath
+   * @since 1.2.2
+   */
+  public JBBPFieldPath path(final String fieldPath) {
+    return getStructIndex().makePath(fieldPath);
   }
 
   /**
@@ -532,6 +1178,126 @@ public final class JBBPParser {
     return this.parse(new ByteArrayInputStream(array), varFieldProcessor, externalValueProvider);
   }
 
+  /**
+   * Parse a byte buffer content from its current position till its limit. The
+   * Data is read directly from the buffer without copying so that direct and
+   * memory mapped buffers can be used, the position of the buffer is not
+   * changed.
+   *
+   * @param buffer a byte buffer which content should be parsed, it must not be
+   * null
+   * @return the parsed content as the root structure
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parse(final ByteBuffer buffer) throws IOException {
+    return this.parse(buffer, null, null);
+  }
+
+  /**
+   * Parse a byte buffer content from its current position till its limit. The
+   * Data is read directly from the buffer without copying so that direct and
+   * memory mapped buffers can be used, the position of the buffer is not
+   * changed.
+   *
+   * @param buffer a byte buffer which content should be parsed, it must not be
+   * null
+   * @param varFieldProcessor a var field processor, it may be null if there is
+   * not any var field in a script, otherwise NPE will be thrown during parsing
+   * @param externalValueProvider an external value provider, it can be null but
+   * only if the script doesn't have fields desired the provider
+   * @return the parsed content as the root structure
+   * @throws IOException it will be thrown for transport errors
+   * @see JBBPByteBufferInputStream
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct parse(final ByteBuffer buffer, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+    JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+    return this.parse(new JBBPByteBufferInputStream(buffer), varFieldProcessor, externalValueProvider);
+  }
+
+  /**
+   * Make lazy view over a byte array content. Data is not decoded during the
+   * call, values are decoded on demand by the view. Only scripts with fixed
+   * byte aligned layout are supported.
+   *
+   * @param array a byte array which content should be viewed, it must not be
+   * null
+   * @return the lazy view of the root structure
+   * @throws IOException it will be thrown if the array is too short for the
+   * script layout
+   * @throws JBBPIllegalArgumentException if the script doesn't have fixed byte
+   * aligned layout
+   * @see JBBPLazyLayout
+   * @since 1.2.2
+   */
+  public JBBPLazyStruct parseLazy(final byte[] array) throws IOException {
+    JBBPUtils.assertNotNull(array, "Array must not be null");
+    return this.parseLazy(ByteBuffer.wrap(array));
+  }
+
+  /**
+   * Make lazy view over a byte buffer content from its current position. The
+   * Buffer content is not copied and the view reflects its changes, the
+   * position of the buffer is not changed.
+   *
+   * @param buffer a byte buffer which content should be viewed, it must not be
+   * null
+   * @return the lazy view of the root structure
+   * @throws IOException it will be thrown if the buffer is too short for the
+   * script layout
+   * @throws JBBPIllegalArgumentException if the script doesn't have fixed byte
+   * aligned layout
+   * @see JBBPLazyLayout
+   * @since 1.2.2
+   */
+  public JBBPLazyStruct parseLazy(final ByteBuffer buffer) throws IOException {
+    JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+    final JBBPLazyLayout layout = getLazyLayout();
+    if (layout == null) {
+      throw new JBBPIllegalArgumentException("Lazy view is allowed only for scripts with fixed byte aligned layout");
+    }
+    if (buffer.remaining() < layout.getSize()) {
+      throw new EOFException("Have only " + buffer.remaining() + " byte(s) instead of " + layout.getSize() + " byte(s)");
+    }
+    this.finalStreamByteCounter = layout.getSize();
+    return layout.makeView(buffer);
+  }
+
+  /**
+   * Get offset table of the script for lazy views, it is made on the first
+   * call.
+   *
+   * @return the layout or null if the script doesn't have fixed byte aligned
+   * layout
+   */
+  JBBPLazyLayout getLazyLayout() {
+    JBBPLazyLayout layout = this.lazyLayout;
+    if (layout == null) {
+      layout = JBBPLazyLayout.make(this.compiledBlock, this.bitOrder);
+      this.lazyLayout = layout;
+    }
+    return layout;
+  }
+
+  /**
+   * Get the bit order of the parser.
+   *
+   * @return the bit order, must not be null
+   */
+  JBBPBitOrder getBitOrder() {
+    return this.bitOrder;
+  }
+
+  /**
+   * Get the compiled block of the parser.
+   *
+   * @return the compiled block, must not be null
+   */
+  JBBPCompiledBlock getCompiledBlock() {
+    return this.compiledBlock;
+  }
+
   /**
    * Prepare a parser for a script and a bit order.
    *
@@ -542,7 +1308,7 @@ public final class JBBPParser {
    * @see JBBPBitOrder#MSB0
    */
   public static JBBPParser prepare(final String script, final JBBPBitOrder bitOrder) {
-    return new JBBPParser(script, bitOrder, null, 0);
+    return new JBBPParser(script, bitOrder, null, 0, false);
   }
 
   /**
@@ -560,7 +1326,7 @@ public final class JBBPParser {
    * @since 1.1
    */
   public static JBBPParser prepare(final String script, final JBBPBitOrder bitOrder, final int flags) {
-    return new JBBPParser(script, bitOrder, null, flags);
+    return new JBBPParser(script, bitOrder, null, flags, false);
   }
 
   /**
@@ -579,7 +1345,7 @@ public final class JBBPParser {
    * @since 1.1.1
    */
   public static JBBPParser prepare(final String script, final JBBPBitOrder bitOrder, final JBBPCustomFieldTypeProcessor customFieldTypeProcessor, final int flags) {
-    return new JBBPParser(script, bitOrder, customFieldTypeProcessor, flags);
+    return new JBBPParser(script, bitOrder, customFieldTypeProcessor, flags, false);
   }
   
   /**
@@ -623,13 +1389,77 @@ public final class JBBPParser {
     return JBBPParser.prepare(script, JBBPBitOrder.LSB0, flags);
   }
 
+  /**
+   * Prepare a parser which reads data through pre-built field readers instead
+   * of interpretation of the compiled script. It allows to avoid decoding of
+   * the compiled block during every parsing and it is useful for small
+   * static structures which are parsed many times. If the script contains
+   * expressions, var fields or custom type fields then the parser works in
+   * interpretation mode. The Default bit order (LSB0) is used.
+   *
+   * @param script a text script contains field order and types reference, it
+   * must not be null
+   * @return the prepared parser for the script
+   * @see JBBPBitOrder#LSB0
+   * @since 1.2.2
+   */
+  public static JBBPParser prepareCompiled(final String script) {
+    return JBBPParser.prepareCompiled(script, JBBPBitOrder.LSB0, 0);
+  }
+
+  /**
+   * Prepare a parser which reads data through pre-built field readers instead
+   * of interpretation of the compiled script.
+   *
+   * @param script a text script contains field order and types reference, it
+   * must not be null
+   * @param bitOrder the bit order for reading operations, it must not be null
+   * @return the prepared parser for the script
+   * @see #prepareCompiled(java.lang.String)
+   * @since 1.2.2
+   */
+  public static JBBPParser prepareCompiled(final String script, final JBBPBitOrder bitOrder) {
+    return JBBPParser.prepareCompiled(script, bitOrder, 0);
+  }
+
+  /**
+   * Prepare a parser which reads data through pre-built field readers instead
+   * of interpretation of the compiled script.
+   *
+   * @param script a text script contains field order and types reference, it
+   * must not be null
+   * @param bitOrder the bit order for reading operations, it must not be null
+   * @param flags special flags for parsing
+   * @return the prepared parser for the script
+   * @see #prepareCompiled(java.lang.String)
+   * @see #FLAG_SKIP_REMAINING_FIELDS_IF_EOF
+   * @since 1.2.2
+   */
+  public static JBBPParser prepareCompiled(final String script, final JBBPBitOrder bitOrder, final int flags) {
+    return new JBBPParser(script, bitOrder, null, flags, true);
+  }
+
+  /**
+   * Check that the parser uses pre-built field readers to parse data.
+   *
+   * @return true if the parser doesn't interpret compiled script during
+   * parsing, false otherwise
+   * @see #prepareCompiled(java.lang.String)
+   * @since 1.2.2
+   */
+  public boolean isCompiledMode() {
+    return this.compiledBlockReader != null;
+  }
+
   /**
    * Get the final input stream byte counter value for the last parsing
    * operation. It is loaded just after exception or parsing completion. NB: It
    * is appropriate one only if the parsing didn't make any counter reset
-   * operation.
+   * operation. If the parser is shared between threads then use the counter
+   * from the parsing context.
    *
    * @return the last parsing byte counter value
+   * @see JBBPParseContext#getFinalStreamByteCounter()
    */
   public long getFinalStreamByteCounter() {
     return this.finalStreamByteCounter;
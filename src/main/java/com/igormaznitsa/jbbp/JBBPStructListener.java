@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+
+/**
+ * The Interface describes a listener which gets elements of root structure
+ * arrays during streaming parsing, every element is provided just after
+ * parsing and it is not collected by the parser.
+ *
+ * @see JBBPParser#parseEach(java.io.InputStream,
+ * com.igormaznitsa.jbbp.JBBPStructListener)
+ * @since 1.2.2
+ */
+public interface JBBPStructListener {
+
+  /**
+   * Notification about a parsed element of a root structure array.
+   *
+   * @param arrayName the name info of the structure array, it can be null for
+   * anonymous arrays
+   * @param index the index of the element in the array
+   * @param struct the parsed element, must not be null
+   * @return true if parsing must be continued, false if parsing must be
+   * stopped
+   */
+  boolean onStructArrayElement(JBBPNamedFieldInfo arrayName, int index, JBBPFieldStruct struct);
+}
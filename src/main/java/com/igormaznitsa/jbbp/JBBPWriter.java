@@ -0,0 +1,460 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledField;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
+import com.igormaznitsa.jbbp.io.JBBPByteBufferOutputStream;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writer to save structures back into binary form through the same compiled
+ * script which has been used to parse them. Fields are written in one pass
+ * over the compiled block: values are taken from the structure, array lengths
+ * are checked against calculated expressions, align, skip and counter reset
+ * instructions are processed like during parsing. Scripts with var and custom
+ * type fields are not supported because their binary form is unknown for the
+ * compiled block. The Class is immutable and thread safe.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPWriter {
+
+  /**
+   * The Compiled block of the script.
+   */
+  private final JBBPCompiledBlock compiledBlock;
+
+  /**
+   * Decoded root field instructions.
+   */
+  private final JBBPCompiledField[] fields;
+
+  /**
+   * The Bit order for stream operations.
+   */
+  private final JBBPBitOrder bitOrder;
+
+  /**
+   * Flag shows that named numeric fields must be collected for expressions.
+   */
+  private final boolean needsFieldMap;
+
+  /**
+   * Buffer of zero bytes for skip instructions.
+   */
+  private static final byte[] ZEROS = new byte[256];
+
+  /**
+   * A Constructor.
+   *
+   * @param parser a parser which script should be used to write structures,
+   * must not be null
+   * @throws JBBPIllegalArgumentException if the parser has projection or its
+   * script contains var or custom type fields
+   */
+  public JBBPWriter(final JBBPParser parser) {
+    JBBPUtils.assertNotNull(parser, "Parser must not be null");
+    if (parser.isProjection()) {
+      throw new JBBPIllegalArgumentException("Parser with projection makes incomplete structures");
+    }
+    this.compiledBlock = parser.getCompiledBlock();
+    this.bitOrder = parser.getBitOrder();
+    this.fields = JBBPCompiledField.decode(this.compiledBlock);
+    assertSupported(this.fields);
+    this.needsFieldMap = this.compiledBlock.hasEvaluatedSizeArrays();
+  }
+
+  private static void assertSupported(final JBBPCompiledField[] fields) {
+    for (final JBBPCompiledField f : fields) {
+      final int code = f.getTypeCode();
+      if (code == JBBPCompiler.CODE_VAR || code == JBBPCompiler.CODE_CUSTOMTYPE) {
+        throw new JBBPIllegalArgumentException("Var and custom type fields are not supported [" + f + ']');
+      }
+      if (f.getStructFields() != null) {
+        assertSupported(f.getStructFields());
+      }
+    }
+  }
+
+  /**
+   * Write a structure into a byte array.
+   *
+   * @param root the root structure, must not be null
+   * @return the byte array contains written data, must not be null
+   * @throws IOException it will be thrown for transport errors
+   */
+  public byte[] write(final JBBPFieldStruct root) throws IOException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    write(root, result, null);
+    return result.toByteArray();
+  }
+
+  /**
+   * Write a structure into a stream.
+   *
+   * @param root the root structure, must not be null
+   * @param out a stream to write data, must not be null
+   * @throws IOException it will be thrown for transport errors
+   */
+  public void write(final JBBPFieldStruct root, final OutputStream out) throws IOException {
+    write(root, out, null);
+  }
+
+  /**
+   * Write a structure into a byte buffer from its current position, the
+   * position is moved to the end of written data.
+   *
+   * @param root the root structure, must not be null
+   * @param buffer a byte buffer to write data, must not be null
+   * @return number of written bytes
+   * @throws IOException it will be thrown for transport errors or if the
+   * buffer doesn't have enough space, in the case the buffer position is not
+   * changed
+   */
+  public int write(final JBBPFieldStruct root, final ByteBuffer buffer) throws IOException {
+    final JBBPByteBufferOutputStream out = new JBBPByteBufferOutputStream(buffer);
+    write(root, out, null);
+    buffer.position(buffer.position() + out.size());
+    return out.size();
+  }
+
+  /**
+   * Write a structure into a stream.
+   *
+   * @param root the root structure, must not be null
+   * @param out a stream to write data, must not be null
+   * @param externalValueProvider an external value provider, it can be null if
+   * expressions of the script don't use external values
+   * @throws IOException it will be thrown for transport errors
+   * @throws JBBPIllegalArgumentException if the structure doesn't match the
+   * script
+   */
+  public void write(final JBBPFieldStruct root, final OutputStream out, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+    JBBPUtils.assertNotNull(root, "Structure must not be null");
+    JBBPUtils.assertNotNull(out, "Stream must not be null");
+
+    final JBBPBitOutputStream bitOut = out instanceof JBBPBitOutputStream ? (JBBPBitOutputStream) out : new JBBPBitOutputStream(out, this.bitOrder);
+    final JBBPNamedNumericFieldMap fieldMap = this.needsFieldMap ? new JBBPNamedNumericFieldMap(this.compiledBlock, externalValueProvider) : null;
+    final CounterView counter = this.needsFieldMap ? new CounterView(bitOut) : null;
+
+    writeStruct(this.fields, root, bitOut, fieldMap, counter);
+    bitOut.flush();
+  }
+
+  /**
+   * Write fields of a structure.
+   *
+   * @param structFields field instructions of the structure, must not be null
+   * @param struct the structure, must not be null
+   * @param out the stream to write data, must not be null
+   * @param fieldMap map of written numeric fields, it can be null if the
+   * script doesn't have expressions
+   * @param counter view to provide the output stream counter for expressions,
+   * it can be null if the script doesn't have expressions
+   * @throws IOException it will be thrown for transport errors
+   */
+  private void writeStruct(final JBBPCompiledField[] structFields, final JBBPFieldStruct struct, final JBBPBitOutputStream out, final JBBPNamedNumericFieldMap fieldMap, final CounterView counter) throws IOException {
+    int position = 0;
+    for (final JBBPCompiledField f : structFields) {
+      final int code = f.getTypeCode();
+      switch (code) {
+        case JBBPCompiler.CODE_RESET_COUNTER: {
+          out.resetCounter();
+          continue;
+        }
+        case JBBPCompiler.CODE_ALIGN: {
+          out.align(extraValue(f, fieldMap, counter));
+          continue;
+        }
+        case JBBPCompiler.CODE_SKIP: {
+          int skip = extraValue(f, fieldMap, counter);
+          while (skip > 0) {
+            final int len = Math.min(skip, ZEROS.length);
+            out.write(ZEROS, 0, len);
+            skip -= len;
+          }
+          continue;
+        }
+        default: {
+          // field is processed below
+        }
+        break;
+      }
+
+      if (position >= struct.size()) {
+        throw new JBBPIllegalArgumentException("Structure doesn't contain field for " + describe(f));
+      }
+      final JBBPAbstractField field = struct.getFieldAt(position++);
+
+      if (f.isArray()) {
+        writeArray(f, field, out, fieldMap, counter);
+      }
+      else if (code == JBBPCompiler.CODE_STRUCT_START) {
+        writeStruct(f.getStructFields(), cast(f, field, JBBPFieldStruct.class), out, fieldMap, counter);
+      }
+      else {
+        final JBBPNumericField value = (JBBPNumericField) cast(f, field, valueFieldType(f));
+        writeValue(f, code, value.getAsLong(), out, fieldMap, counter);
+        if (fieldMap != null && f.getNameInfo() != null) {
+          fieldMap.recordField(f.getNamedFieldIndex(), value);
+        }
+      }
+    }
+
+    if (position != struct.size()) {
+      throw new JBBPIllegalArgumentException("Structure contains " + struct.size() + " field(s) but script describes " + position + " field(s)");
+    }
+  }
+
+  /**
+   * Write an array field.
+   *
+   * @param f the field instruction, must not be null
+   * @param field the array field, must not be null
+   * @param out the stream to write data, must not be null
+   * @param fieldMap map of written numeric fields, it can be null
+   * @param counter view to provide the output stream counter, it can be null
+   * @throws IOException it will be thrown for transport errors
+   */
+  private void writeArray(final JBBPCompiledField f, final JBBPAbstractField field, final JBBPBitOutputStream out, final JBBPNamedNumericFieldMap fieldMap, final CounterView counter) throws IOException {
+    final int code = f.getTypeCode();
+    if (code == JBBPCompiler.CODE_STRUCT_START) {
+      final JBBPFieldArrayStruct array = cast(f, field, JBBPFieldArrayStruct.class);
+      assertArrayLength(f, array.size(), fieldMap, counter);
+      for (int i = 0; i < array.size(); i++) {
+        writeStruct(f.getStructFields(), array.getElementAt(i), out, fieldMap, counter);
+      }
+      return;
+    }
+
+    final JBBPAbstractArrayField<?> array = (JBBPAbstractArrayField<?>) cast(f, field, arrayFieldType(f));
+    final int length = array.size();
+    assertArrayLength(f, length, fieldMap, counter);
+
+    // the parser reverses little endian byte arrays so they must be written in reversed order
+    final boolean reversed = (code == JBBPCompiler.CODE_BYTE || code == JBBPCompiler.CODE_UBYTE) && f.getByteOrder() == JBBPByteOrder.LITTLE_ENDIAN;
+
+    // block write of a byte array doesn't change bit order so it is used only for LSB0
+    final boolean blockWrite = out.getBitOrder() == JBBPBitOrder.LSB0;
+    if (blockWrite && (code == JBBPCompiler.CODE_BYTE || code == JBBPCompiler.CODE_UBYTE)) {
+      final byte[] data = code == JBBPCompiler.CODE_BYTE ? ((JBBPFieldArrayByte) field).getArray() : ((JBBPFieldArrayUByte) field).getArray();
+      if (reversed) {
+        out.write(JBBPUtils.reverseArray(data.clone()));
+      }
+      else {
+        out.write(data);
+      }
+    }
+    else if (reversed) {
+      for (int i = length - 1; i >= 0; i--) {
+        writeValue(f, code, array.getAsLong(i), out, fieldMap, counter);
+      }
+    }
+    else {
+      for (int i = 0; i < length; i++) {
+        writeValue(f, code, array.getAsLong(i), out, fieldMap, counter);
+      }
+    }
+  }
+
+  /**
+   * Write a single value.
+   *
+   * @param f the field instruction, must not be null
+   * @param code the field type code
+   * @param value the value to be written
+   * @param out the stream to write data, must not be null
+   * @param fieldMap map of written numeric fields, it can be null
+   * @param counter view to provide the output stream counter, it can be null
+   * @throws IOException it will be thrown for transport errors
+   */
+  private void writeValue(final JBBPCompiledField f, final int code, final long value, final JBBPBitOutputStream out, final JBBPNamedNumericFieldMap fieldMap, final CounterView counter) throws IOException {
+    final JBBPByteOrder byteOrder = f.getByteOrder();
+    switch (code) {
+      case JBBPCompiler.CODE_BIT: {
+        out.writeBits((int) value, JBBPBitNumber.decode(extraValue(f, fieldMap, counter)));
+      }
+      break;
+      case JBBPCompiler.CODE_BOOL: {
+        out.write(value == 0L ? 0 : 1);
+      }
+      break;
+      case JBBPCompiler.CODE_BYTE:
+      case JBBPCompiler.CODE_UBYTE: {
+        out.write((int) value);
+      }
+      break;
+      case JBBPCompiler.CODE_SHORT:
+      case JBBPCompiler.CODE_USHORT: {
+        out.writeShort((int) value, byteOrder);
+      }
+      break;
+      case JBBPCompiler.CODE_INT: {
+        out.writeInt((int) value, byteOrder);
+      }
+      break;
+      case JBBPCompiler.CODE_LONG: {
+        out.writeLong(value, byteOrder);
+      }
+      break;
+      default:
+        throw new Error("Detected unexpected field type! Contact developer! [" + code + ']');
+    }
+  }
+
+  /**
+   * Get the extra value of an instruction, it is calculated if the value is
+   * defined by an expression.
+   *
+   * @param f the field instruction, must not be null
+   * @param fieldMap map of written numeric fields, it can be null
+   * @param counter view to provide the output stream counter, it can be null
+   * @return the extra value
+   */
+  private int extraValue(final JBBPCompiledField f, final JBBPNamedNumericFieldMap fieldMap, final CounterView counter) {
+    final JBBPIntegerValueEvaluator evaluator = f.getExtraValueEvaluator();
+    return evaluator == null ? f.getExtraValue() : evaluator.eval(counter, f.getOffset(), this.compiledBlock, fieldMap);
+  }
+
+  /**
+   * Check that an array length is the same as defined by the script.
+   *
+   * @param f the field instruction, must not be null
+   * @param length the array length
+   * @param fieldMap map of written numeric fields, it can be null
+   * @param counter view to provide the output stream counter, it can be null
+   */
+  private void assertArrayLength(final JBBPCompiledField f, final int length, final JBBPNamedNumericFieldMap fieldMap, final CounterView counter) {
+    final int expected;
+    switch (f.getArrayType()) {
+      case JBBPCompiledField.ARRAY_FIXED:
+        expected = f.getArraySize();
+        break;
+      case JBBPCompiledField.ARRAY_EXPRESSION:
+        expected = f.getArraySizeEvaluator().eval(counter, f.getOffset(), this.compiledBlock, fieldMap);
+        break;
+      default:
+        return;
+    }
+    if (expected != length) {
+      throw new JBBPIllegalArgumentException("Array " + describe(f) + " contains " + length + " item(s) but script defines " + expected + " item(s)");
+    }
+  }
+
+  /**
+   * Get the field class expected for a single value instruction.
+   *
+   * @param f the field instruction, must not be null
+   * @return the field class for the instruction type, must not be null
+   */
+  private static Class<? extends JBBPAbstractField> valueFieldType(final JBBPCompiledField f) {
+    switch (f.getTypeCode()) {
+      case JBBPCompiler.CODE_BIT:
+        return JBBPFieldBit.class;
+      case JBBPCompiler.CODE_BOOL:
+        return JBBPFieldBoolean.class;
+      case JBBPCompiler.CODE_BYTE:
+        return JBBPFieldByte.class;
+      case JBBPCompiler.CODE_UBYTE:
+        return JBBPFieldUByte.class;
+      case JBBPCompiler.CODE_SHORT:
+        return JBBPFieldShort.class;
+      case JBBPCompiler.CODE_USHORT:
+        return JBBPFieldUShort.class;
+      case JBBPCompiler.CODE_INT:
+        return JBBPFieldInt.class;
+      case JBBPCompiler.CODE_LONG:
+        return JBBPFieldLong.class;
+      default:
+        throw new Error("Detected unexpected field type! Contact developer! [" + f.getTypeCode() + ']');
+    }
+  }
+
+  /**
+   * Get the field class expected for an array instruction.
+   *
+   * @param f the field instruction, must not be null
+   * @return the array field class for the instruction type, must not be null
+   */
+  private static Class<? extends JBBPAbstractField> arrayFieldType(final JBBPCompiledField f) {
+    switch (f.getTypeCode()) {
+      case JBBPCompiler.CODE_BIT:
+        return JBBPFieldArrayBit.class;
+      case JBBPCompiler.CODE_BOOL:
+        return JBBPFieldArrayBoolean.class;
+      case JBBPCompiler.CODE_BYTE:
+        return JBBPFieldArrayByte.class;
+      case JBBPCompiler.CODE_UBYTE:
+        return JBBPFieldArrayUByte.class;
+      case JBBPCompiler.CODE_SHORT:
+        return JBBPFieldArrayShort.class;
+      case JBBPCompiler.CODE_USHORT:
+        return JBBPFieldArrayUShort.class;
+      case JBBPCompiler.CODE_INT:
+        return JBBPFieldArrayInt.class;
+      case JBBPCompiler.CODE_LONG:
+        return JBBPFieldArrayLong.class;
+      default:
+        throw new Error("Detected unexpected field type! Contact developer! [" + f.getTypeCode() + ']');
+    }
+  }
+
+  private static <T> T cast(final JBBPCompiledField f, final JBBPAbstractField field, final Class<T> type) {
+    if (type.isInstance(field)) {
+      return type.cast(field);
+    }
+    throw new JBBPIllegalArgumentException("Detected wrong field " + field.getClass().getSimpleName() + " for " + describe(f));
+  }
+
+  private static String describe(final JBBPCompiledField f) {
+    final JBBPNamedFieldInfo name = f.getNameInfo();
+    return name == null ? "anonymous field at " + f.getOffset() : '\'' + name.getFieldPath() + '\'';
+  }
+
+  /**
+   * Input stream view provides counter of an output stream to expressions
+   * which use the stream counter.
+   */
+  private static final class CounterView extends JBBPBitInputStream {
+
+    private final JBBPBitOutputStream out;
+
+    CounterView(final JBBPBitOutputStream out) {
+      super(null);
+      this.out = out;
+    }
+
+    @Override
+    public long getCounter() {
+      return this.out.getCounter();
+    }
+  }
+}
@@ -16,7 +16,9 @@
 package com.igormaznitsa.jbbp.compiler;
 
 import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPExpressionEvaluator;
 import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPOnlyFieldEvaluator;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
@@ -56,6 +58,12 @@ public final class JBBPCompiledBlock {
    * The Flag shows that the compiled block contains var fields.
    */
   private final boolean hasVarFields;
+  /**
+   * Flags of named fields which values are used by array size evaluators.
+   *
+   * @since 1.2.2
+   */
+  private final boolean[] referencedNamedFields;
 
   /**
    * Inside helper to build a compiled block
@@ -184,6 +192,39 @@ public final class JBBPCompiledBlock {
     this.compiledArray = compiledData;
     this.arraySizeEvaluators = arraySizeEvaluators;
     this.customTypeFields = customTypeFields;
+    this.referencedNamedFields = findReferencedNamedFields(namedFields, arraySizeEvaluators);
+  }
+
+  /**
+   * Find named fields which values are used by evaluators.
+   *
+   * @param namedFields named field info array
+   * @param evaluators array size evaluator array, it can be null
+   * @return array of flags for named fields
+   */
+  private static boolean[] findReferencedNamedFields(final JBBPNamedFieldInfo[] namedFields, final JBBPIntegerValueEvaluator[] evaluators) {
+    final boolean[] result = new boolean[namedFields.length];
+    if (evaluators != null) {
+      for (final JBBPIntegerValueEvaluator e : evaluators) {
+        if (e instanceof JBBPOnlyFieldEvaluator) {
+          final int index = ((JBBPOnlyFieldEvaluator) e).getNamedFieldIndex();
+          if (index >= 0) {
+            result[index] = true;
+          }
+        }
+        else if (e instanceof JBBPExpressionEvaluator) {
+          for (final int index : ((JBBPExpressionEvaluator) e).getNamedFieldIndexes()) {
+            result[index] = true;
+          }
+        }
+        else {
+          // unknown evaluator can use any field
+          Arrays.fill(result, true);
+          break;
+        }
+      }
+    }
+    return result;
   }
 
   /**
@@ -223,6 +264,17 @@ public final class JBBPCompiledBlock {
     return this.compiledArray;
   }
 
+  /**
+   * Check that value of a named field is used by array size evaluators.
+   *
+   * @param namedFieldIndex the index of the field in the named field area
+   * @return true if the field value is used by evaluators, false otherwise
+   * @since 1.2.2
+   */
+  public boolean isNamedFieldReferenced(final int namedFieldIndex) {
+    return this.referencedNamedFields[namedFieldIndex];
+  }
+
   /**
    * Get array contains the named field array
    *
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler;
+
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a field instruction decoded from a compiled block. Decoded
+ * instructions allow to process a compiled script without repeated decoding of
+ * its byte-code, flags and packed values. The Class is immutable one.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPCompiledField {
+
+  /**
+   * The Field is not an array.
+   */
+  public static final int ARRAY_NONE = 0;
+  /**
+   * The Field is an array with fixed size.
+   */
+  public static final int ARRAY_FIXED = 1;
+  /**
+   * The Field is an array which size is calculated by an expression.
+   */
+  public static final int ARRAY_EXPRESSION = 2;
+  /**
+   * The Field is an array which should be read till the end of stream.
+   */
+  public static final int ARRAY_WHOLE_STREAM = 3;
+
+  /**
+   * Empty field array.
+   */
+  private static final JBBPCompiledField[] EMPTY = new JBBPCompiledField[0];
+
+  /**
+   * The Offset of the field instruction in the compiled block.
+   */
+  private final int offset;
+  /**
+   * The Full instruction code including the extra byte of wide codes.
+   */
+  private final int code;
+  /**
+   * The Named field info, it can be null.
+   */
+  private final JBBPNamedFieldInfo nameInfo;
+  /**
+   * The Index of the field in the named field array of the compiled block, -1
+   * for anonymous fields.
+   */
+  private final int namedFieldIndex;
+  /**
+   * The Type of array.
+   */
+  private final int arrayType;
+  /**
+   * The Fixed array size, -1 if the field is not a fixed size array.
+   */
+  private final int arraySize;
+  /**
+   * The Array size evaluator, it can be null.
+   */
+  private final JBBPIntegerValueEvaluator arraySizeEvaluator;
+  /**
+   * The Extra numeric value of the field.
+   */
+  private final int extraValue;
+  /**
+   * The Evaluator of the extra value, it can be null.
+   */
+  private final JBBPIntegerValueEvaluator extraValueEvaluator;
+  /**
+   * The Fields of structure, null if the field is not a structure.
+   */
+  private final JBBPCompiledField[] structFields;
+
+  private JBBPCompiledField(final int offset, final int code, final JBBPNamedFieldInfo nameInfo, final int namedFieldIndex, final int arrayType, final int arraySize, final JBBPIntegerValueEvaluator arraySizeEvaluator, final int extraValue, final JBBPIntegerValueEvaluator extraValueEvaluator, final JBBPCompiledField[] structFields) {
+    this.offset = offset;
+    this.code = code;
+    this.nameInfo = nameInfo;
+    this.namedFieldIndex = namedFieldIndex;
+    this.arrayType = arrayType;
+    this.arraySize = arraySize;
+    this.arraySizeEvaluator = arraySizeEvaluator;
+    this.extraValue = extraValue;
+    this.extraValueEvaluator = extraValueEvaluator;
+    this.structFields = structFields;
+  }
+
+  /**
+   * Decode a compiled block into the tree of field instructions.
+   *
+   * @param block a compiled block, must not be null
+   * @return array of root level field instructions, must not be null
+   */
+  public static JBBPCompiledField[] decode(final JBBPCompiledBlock block) {
+    JBBPUtils.assertNotNull(block, "Compiled block must not be null");
+    final List<JBBPCompiledField> result = decodeStruct(block, new JBBPIntCounter(), new JBBPIntCounter(), new JBBPIntCounter());
+    return result.toArray(new JBBPCompiledField[result.size()]);
+  }
+
+  /**
+   * Inside method to decode fields of a structure till its end.
+   *
+   * @param block the compiled block, must not be null
+   * @param position the current position in the compiled data
+   * @param namedFieldPosition the current position in the named field list
+   * @param evaluatorPosition the current position in the evaluator list
+   * @return list of decoded fields of the structure
+   */
+  private static List<JBBPCompiledField> decodeStruct(final JBBPCompiledBlock block, final JBBPIntCounter position, final JBBPIntCounter namedFieldPosition, final JBBPIntCounter evaluatorPosition) {
+    final byte[] compiled = block.getCompiledData();
+    final List<JBBPCompiledField> result = new ArrayList<JBBPCompiledField>();
+
+    while (position.get() < compiled.length) {
+      final int offset = position.get();
+      final int c = compiled[position.getAndIncrement()] & 0xFF;
+      final int ec = (c & JBBPCompiler.FLAG_WIDE) == 0 ? 0 : compiled[position.getAndIncrement()] & 0xFF;
+      final int code = (ec << 8) | c;
+      final boolean extraAsExpression = (ec & JBBPCompiler.EXT_FLAG_EXTRA_AS_EXPRESSION) != 0;
+
+      if ((code & 0xF) == JBBPCompiler.CODE_STRUCT_END) {
+        break;
+      }
+
+      final int namedIndex = (code & JBBPCompiler.FLAG_NAMED) == 0 ? -1 : namedFieldPosition.getAndIncrement();
+
+      final JBBPIntegerValueEvaluator extraEvaluator = extraAsExpression ? block.getArraySizeEvaluators()[evaluatorPosition.getAndIncrement()] : null;
+
+      final int arrayType;
+      final int arraySize;
+      final JBBPIntegerValueEvaluator arrayEvaluator;
+      switch (code & (JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8))) {
+        case JBBPCompiler.FLAG_ARRAY: {
+          arrayType = ARRAY_FIXED;
+          arraySize = JBBPUtils.unpackInt(compiled, position);
+          arrayEvaluator = null;
+        }
+        break;
+        case (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
+          arrayType = ARRAY_WHOLE_STREAM;
+          arraySize = -1;
+          arrayEvaluator = null;
+        }
+        break;
+        case JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
+          arrayType = ARRAY_EXPRESSION;
+          arraySize = -1;
+          arrayEvaluator = block.getArraySizeEvaluators()[evaluatorPosition.getAndIncrement()];
+        }
+        break;
+        default: {
+          arrayType = ARRAY_NONE;
+          arraySize = -1;
+          arrayEvaluator = null;
+        }
+        break;
+      }
+
+      int extra = 0;
+      JBBPCompiledField[] children = null;
+
+      switch (code & 0xF) {
+        case JBBPCompiler.CODE_ALIGN:
+        case JBBPCompiler.CODE_SKIP:
+        case JBBPCompiler.CODE_BIT:
+        case JBBPCompiler.CODE_VAR: {
+          extra = extraAsExpression ? 0 : JBBPUtils.unpackInt(compiled, position);
+        }
+        break;
+        case JBBPCompiler.CODE_CUSTOMTYPE: {
+          extra = extraAsExpression ? 0 : JBBPUtils.unpackInt(compiled, position);
+          // skip the custom type field index
+          JBBPUtils.unpackInt(compiled, position);
+        }
+        break;
+        case JBBPCompiler.CODE_STRUCT_START: {
+          final List<JBBPCompiledField> structFieldList = decodeStruct(block, position, namedFieldPosition, evaluatorPosition);
+          // skip the structure start offset placed after the end code
+          JBBPUtils.unpackInt(compiled, position);
+          children = structFieldList.isEmpty() ? EMPTY : structFieldList.toArray(new JBBPCompiledField[structFieldList.size()]);
+        }
+        break;
+        default: {
+          // other fields don't have any extra data
+        }
+        break;
+      }
+
+      result.add(new JBBPCompiledField(offset, code, namedIndex < 0 ? null : block.getNamedFields()[namedIndex], namedIndex, arrayType, arraySize, arrayEvaluator, extra, extraEvaluator, children));
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the offset of the field instruction in the compiled block.
+   *
+   * @return the offset in the compiled block
+   */
+  public int getOffset() {
+    return this.offset;
+  }
+
+  /**
+   * Get the field type code.
+   *
+   * @return the field type code, one of JBBPCompiler.CODE_* constants
+   * @see JBBPCompiler#CODE_INT
+   */
+  public int getTypeCode() {
+    return this.code & 0xF;
+  }
+
+  /**
+   * Get the named field info.
+   *
+   * @return the named field info or null for anonymous fields
+   */
+  public JBBPNamedFieldInfo getNameInfo() {
+    return this.nameInfo;
+  }
+
+  /**
+   * Get index of the field in the named field array of the compiled block.
+   *
+   * @return the index or -1 if the field is anonymous one
+   */
+  public int getNamedFieldIndex() {
+    return this.namedFieldIndex;
+  }
+
+  /**
+   * Get the byte order of the field.
+   *
+   * @return the byte order of the field
+   */
+  public JBBPByteOrder getByteOrder() {
+    return (this.code & JBBPCompiler.FLAG_LITTLE_ENDIAN) == 0 ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN;
+  }
+
+  /**
+   * Get the array type of the field.
+   *
+   * @return the array type
+   * @see #ARRAY_NONE
+   * @see #ARRAY_FIXED
+   * @see #ARRAY_EXPRESSION
+   * @see #ARRAY_WHOLE_STREAM
+   */
+  public int getArrayType() {
+    return this.arrayType;
+  }
+
+  /**
+   * Check that the field is an array.
+   *
+   * @return true if the field is an array, false otherwise
+   */
+  public boolean isArray() {
+    return this.arrayType != ARRAY_NONE;
+  }
+
+  /**
+   * Get the fixed array size.
+   *
+   * @return the fixed size of the array or -1 if the field is not a fixed size
+   * array
+   */
+  public int getArraySize() {
+    return this.arraySize;
+  }
+
+  /**
+   * Get the array size evaluator.
+   *
+   * @return the evaluator or null if the array size is not an expression
+   */
+  public JBBPIntegerValueEvaluator getArraySizeEvaluator() {
+    return this.arraySizeEvaluator;
+  }
+
+  /**
+   * Get the extra numeric value of the field (for instance bit number for bit
+   * fields).
+   *
+   * @return the extra value, it is zero if the value is an expression
+   */
+  public int getExtraValue() {
+    return this.extraValue;
+  }
+
+  /**
+   * Get the evaluator of the extra numeric value.
+   *
+   * @return the evaluator or null if the extra value is not an expression
+   */
+  public JBBPIntegerValueEvaluator getExtraValueEvaluator() {
+    return this.extraValueEvaluator;
+  }
+
+  /**
+   * Get inside fields of a structure.
+   *
+   * @return array of fields of the structure or null if the field is not a
+   * structure
+   */
+  public JBBPCompiledField[] getStructFields() {
+    return this.structFields;
+  }
+
+  /**
+   * Check that the field or its inside fields use expressions, var or custom
+   * type fields which can't be processed without the named field map or
+   * external processors.
+   *
+   * @return true if the field needs dynamic processing, false otherwise
+   */
+  public boolean isDynamic() {
+    boolean result = this.arraySizeEvaluator != null
+            || this.extraValueEvaluator != null
+            || (this.code & 0xF) == JBBPCompiler.CODE_VAR
+            || (this.code & 0xF) == JBBPCompiler.CODE_CUSTOMTYPE;
+
+    if (!result && this.structFields != null) {
+      for (final JBBPCompiledField f : this.structFields) {
+        if (f.isDynamic()) {
+          result = true;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "[offset=" + this.offset + ", code=0x" + Integer.toHexString(this.code) + ", name=" + (this.nameInfo == null ? "<NONAMED>" : this.nameInfo.getFieldPath()) + ']';
+  }
+}
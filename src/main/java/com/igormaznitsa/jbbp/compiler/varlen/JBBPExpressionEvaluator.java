@@ -131,6 +131,28 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
    */
   private final String[] externalValueNames;
 
+  /**
+   * The Expression decoded into instruction stream with folded constant
+   * sub-expressions, operand of an instruction follows its code.
+   *
+   * @since 1.2.2
+   */
+  private final int[] program;
+
+  /**
+   * Stack depth needed to execute the program.
+   *
+   * @since 1.2.2
+   */
+  private final int programStackDepth;
+
+  /**
+   * Indexes of named fields used by the expression.
+   *
+   * @since 1.2.2
+   */
+  private final int[] namedFieldIndexes;
+
   /**
    * Max stack depth for the expression.
    *
@@ -209,6 +231,7 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
     int counterVarsAndConstants = 0;
 
     final List<String> externalValueNameList = new ArrayList<String>();
+    final List<Integer> namedFieldIndexList = new ArrayList<Integer>();
 
     while (matcher.find()) {
       if (lastFound >= 0) {
@@ -244,6 +267,9 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
             throw new JBBPCompilationException("Unknown variable [" + variable + ']');
           }
           JBBPCompilerUtils.assertFieldIsNotArrayOrInArray(namedFields.get(nameIndex), namedFields, compiledData);
+          if (!namedFieldIndexList.contains(nameIndex)) {
+            namedFieldIndexList.add(nameIndex);
+          }
         }
 
         try {
@@ -430,8 +456,153 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
 
     this.compiledExpression = compiedScript.toByteArray();
     this.externalValueNames = externalValueNameList.isEmpty() ? null : externalValueNameList.toArray(new String[externalValueNameList.size()]);
+    this.namedFieldIndexes = new int[namedFieldIndexList.size()];
+    for (int i = 0; i < this.namedFieldIndexes.length; i++) {
+      this.namedFieldIndexes[i] = namedFieldIndexList.get(i);
+    }
 
     this.maxStackDepth = calculateMaxStackDepth();
+    this.program = makeProgram();
+    this.programStackDepth = calculateProgramStackDepth(this.program);
+  }
+
+  /**
+   * Calculate result of a binary operator.
+   *
+   * @param code the operator code
+   * @param left the left operand
+   * @param right the right operand
+   * @return the result
+   */
+  private static int calculate(final int code, final int left, final int right) {
+    switch (code) {
+      case CODE_ADD:
+        return left + right;
+      case CODE_AND:
+        return left & right;
+      case CODE_OR:
+        return left | right;
+      case CODE_XOR:
+        return left ^ right;
+      case CODE_MINUS:
+        return left - right;
+      case CODE_DIV:
+        return left / right;
+      case CODE_MUL:
+        return left * right;
+      case CODE_MOD:
+        return left % right;
+      case CODE_LSHIFT:
+        return left << right;
+      case CODE_RSHIFT:
+        return left >> right;
+      case CODE_RSIGNSHIFT:
+        return left >>> right;
+      default:
+        throw new Error("Detected unsupported operation, contact developer");
+    }
+  }
+
+  /**
+   * Decode the compiled expression into instruction stream, operators with
+   * constant operands are calculated. Division by zero is not folded to be
+   * detected during evaluation.
+   *
+   * @return the instruction stream, must not be null
+   */
+  private int[] makeProgram() {
+    final int[] out = new int[this.compiledExpression.length];
+    int outLength = 0;
+
+    final int[] itemStart = new int[this.maxStackDepth];
+    final boolean[] itemConst = new boolean[this.maxStackDepth];
+    int depth = 0;
+
+    final JBBPIntCounter counter = new JBBPIntCounter();
+    while (counter.get() < this.compiledExpression.length) {
+      final int code = this.compiledExpression[counter.getAndIncrement()];
+      switch (code) {
+        case CODE_EXTVAR:
+        case CODE_VAR:
+        case CODE_CONST: {
+          itemStart[depth] = outLength;
+          itemConst[depth] = code == CODE_CONST;
+          depth++;
+          out[outLength++] = code;
+          out[outLength++] = JBBPUtils.unpackInt(this.compiledExpression, counter);
+        }
+        break;
+        case CODE_UNARYPLUS: {
+          // do nothing
+        }
+        break;
+        case CODE_UNARYMINUS:
+        case CODE_NOT: {
+          if (itemConst[depth - 1]) {
+            final int valuePosition = itemStart[depth - 1] + 1;
+            out[valuePosition] = code == CODE_NOT ? ~out[valuePosition] : -out[valuePosition];
+          }
+          else {
+            out[outLength++] = code;
+          }
+        }
+        break;
+        default: {
+          final int left = depth - 2;
+          final int right = depth - 1;
+          final boolean zeroDivider = (code == CODE_DIV || code == CODE_MOD) && itemConst[right] && out[itemStart[right] + 1] == 0;
+          if (itemConst[left] && itemConst[right] && !zeroDivider) {
+            final int valuePosition = itemStart[left] + 1;
+            out[valuePosition] = calculate(code, out[valuePosition], out[itemStart[right] + 1]);
+            outLength = valuePosition + 1;
+          }
+          else {
+            out[outLength++] = code;
+            itemConst[left] = false;
+          }
+          depth--;
+        }
+        break;
+      }
+    }
+
+    final int[] result = new int[outLength];
+    System.arraycopy(out, 0, result, 0, outLength);
+    return result;
+  }
+
+  /**
+   * Calculate stack depth needed for an instruction stream.
+   *
+   * @param program the instruction stream, must not be null
+   * @return the max stack depth
+   */
+  private static int calculateProgramStackDepth(final int[] program) {
+    int maxDepth = 0;
+    int depth = 0;
+    int pc = 0;
+    while (pc < program.length) {
+      final int code = program[pc++];
+      switch (code) {
+        case CODE_EXTVAR:
+        case CODE_VAR:
+        case CODE_CONST: {
+          pc++;
+          maxDepth = Math.max(++depth, maxDepth);
+        }
+        break;
+        case CODE_UNARYMINUS:
+        case CODE_NOT: {
+          // stack not changed
+        }
+        break;
+        default: {
+          depth--;
+        }
+        break;
+      }
+    }
+    return maxDepth;
   }
 
   private static String code2operator(final int code) {
@@ -544,6 +715,16 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
     return this.maxStackDepth;
   }
 
+  /**
+   * Get indexes of named fields used by the expression.
+   *
+   * @return array of indexes in named field area, must not be null
+   * @since 1.2.2
+   */
+  public int[] getNamedFieldIndexes() {
+    return this.namedFieldIndexes.clone();
+  }
+
   /**
    * Evaluate the expression.
    *
@@ -555,26 +736,30 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
    * @throws JBBPEvalException if there is any problem during processing
    */
   public int eval(final JBBPBitInputStream inStream, final int currentCompiledBlockOffset, final JBBPCompiledBlock compiledBlockData, final JBBPNamedNumericFieldMap fieldMap) {
-    final int[] stack = new int[this.maxStackDepth];
+    final int[] code = this.program;
 
-    int stackDepth = 0;
+    if (code.length == 2) {
+      // single operand
+      return loadOperand(code[0], code[1], inStream, compiledBlockData, fieldMap);
+    }
 
-    final JBBPIntCounter counter = new JBBPIntCounter();
+    final int[] stack = fieldMap == null ? new int[this.programStackDepth] : fieldMap.takeEvaluationStack(this.programStackDepth);
 
-    while (counter.get() < this.compiledExpression.length) {
-      final int code = this.compiledExpression[counter.getAndIncrement()];
-      switch (code) {
-        case CODE_EXTVAR:
-        case CODE_VAR: {
-          final int index = JBBPUtils.unpackInt(this.compiledExpression, counter);
+    int stackDepth = 0;
+    int pc = 0;
 
-          stack[stackDepth++] = code == CODE_EXTVAR
-              ? "$".equals(this.externalValueNames[index]) ? (int) inStream.getCounter() : fieldMap.getExternalFieldValue(this.externalValueNames[index], compiledBlockData, this)
-              : fieldMap.get(compiledBlockData.getNamedFields()[index]).getAsInt();
+    while (pc < code.length) {
+      switch (code[pc++]) {
+        case CODE_EXTVAR: {
+          stack[stackDepth++] = loadOperand(CODE_EXTVAR, code[pc++], inStream, compiledBlockData, fieldMap);
+        }
+        break;
+        case CODE_VAR: {
+          stack[stackDepth++] = fieldMap.getIntValue(compiledBlockData, code[pc++]);
         }
         break;
         case CODE_CONST: {
-          stack[stackDepth++] = JBBPUtils.unpackInt(this.compiledExpression, counter);
+          stack[stackDepth++] = code[pc++];
         }
         break;
         case CODE_ADD: {
@@ -606,10 +791,6 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
           stack[stackDepth - 1] = -stack[stackDepth - 1];
         }
         break;
-        case CODE_UNARYPLUS: {
-          // do nothing
-        }
-        break;
         case CODE_NOT: {
           stack[stackDepth - 1] = ~stack[stackDepth - 1];
         }
@@ -649,7 +830,34 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
       }
     }
 
-    return stack[0];
+    final int result = stack[0];
+    if (fieldMap != null) {
+      fieldMap.releaseEvaluationStack(stack);
+    }
+    return result;
+  }
+
+  /**
+   * Get value of an operand.
+   *
+   * @param code the operand code
+   * @param operand the operand argument
+   * @param inStream the input stream of data
+   * @param compiledBlockData the compiled JBBP script
+   * @param fieldMap the named field info map
+   * @return the operand value
+   */
+  private int loadOperand(final int code, final int operand, final JBBPBitInputStream inStream, final JBBPCompiledBlock compiledBlockData, final JBBPNamedNumericFieldMap fieldMap) {
+    switch (code) {
+      case CODE_CONST:
+        return operand;
+      case CODE_VAR:
+        return fieldMap.getIntValue(compiledBlockData, operand);
+      case CODE_EXTVAR:
+        return "$".equals(this.externalValueNames[operand]) ? (int) inStream.getCounter() : fieldMap.getExternalFieldValue(this.externalValueNames[operand], compiledBlockData, this);
+      default:
+        throw new Error("Detected unsupported operand, contact developer");
+    }
   }
 
   /**
@@ -47,9 +47,20 @@ public final class JBBPOnlyFieldEvaluator implements JBBPIntegerValueEvaluator {
     this.namedFieldIndex = namedFieldIndex;
   }
 
+  /**
+   * Get the index of the named field used by the evaluator.
+   *
+   * @return the index in named field area, -1 if the evaluator uses an
+   * external value
+   * @since 1.2.2
+   */
+  public int getNamedFieldIndex() {
+    return this.externalFieldName == null ? this.namedFieldIndex : -1;
+  }
+
   public int eval(final JBBPBitInputStream inStream, final int currentCompiledBlockOffset, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
     final int result = externalFieldName == null
-            ? fieldMap.get(block.getNamedFields()[this.namedFieldIndex]).getAsInt()
+            ? fieldMap.getIntValue(block, this.namedFieldIndex)
             : this.externalFieldName.equals("$")
             ? (int) inStream.getCounter()
             : fieldMap.getExternalFieldValue(this.externalFieldName, block, this);
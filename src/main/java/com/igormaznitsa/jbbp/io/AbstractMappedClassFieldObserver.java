@@ -19,10 +19,14 @@ import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
 import com.igormaznitsa.jbbp.mapper.Bin;
 import com.igormaznitsa.jbbp.mapper.BinType;
+import com.igormaznitsa.jbbp.mapper.accessors.JBBPFieldAccessor;
+import com.igormaznitsa.jbbp.mapper.accessors.JBBPFieldAccessorFactory;
 import com.igormaznitsa.jbbp.model.*;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Abstract class to collect, order and process all fields in a mapped class.
@@ -73,6 +77,13 @@ public abstract class AbstractMappedClassFieldObserver {
    */
   private static volatile Map<Class<?>, Field[]> cachedClasses;
 
+  /**
+   * Inside cache of accessors for processed fields.
+   *
+   * @since 1.2.2
+   */
+  private static final ConcurrentMap<Field, JBBPFieldAccessor> FIELD_ACCESSORS = new ConcurrentHashMap<Field, JBBPFieldAccessor>();
+
   /**
    * Process an object.
    * @param obj an object which is an instance of a mapped class, must not be null
@@ -198,10 +209,10 @@ public abstract class AbstractMappedClassFieldObserver {
         case BIT: {
           final JBBPBitNumber bitNumber = annotation.outBitNumber();
           if (fieldType == boolean.class) {
-            this.onFieldBits(obj, field, annotation, bitNumber, ((Boolean) readFieldValue(obj, field)) ? 0xFF : 0x00);
+            this.onFieldBits(obj, field, annotation, bitNumber, readFieldAsBoolean(obj, field) ? 0xFF : 0x00);
           }
           else {
-            byte value = ((Number) readFieldValue(obj, field)).byteValue();
+            byte value = (byte) readFieldAsLong(obj, field);
             if (reverseBits) {
               value = JBBPUtils.reverseBitsInByte(bitNumber, value);
             }
@@ -211,16 +222,16 @@ public abstract class AbstractMappedClassFieldObserver {
         break;
         case BOOL: {
           if (fieldType == boolean.class) {
-            onFieldBool(obj, field, annotation, (Boolean) readFieldValue(obj, field));
+            onFieldBool(obj, field, annotation, readFieldAsBoolean(obj, field));
           }
           else {
-            onFieldBool(obj, field, annotation, ((Number) readFieldValue(obj, field)).longValue() != 0);
+            onFieldBool(obj, field, annotation, readFieldAsLong(obj, field) != 0);
           }
         }
         break;
         case BYTE:
         case UBYTE: {
-          byte value = ((Number) readFieldValue(obj, field)).byteValue();
+          byte value = (byte) readFieldAsLong(obj, field);
           if (reverseBits) {
             value = JBBPUtils.reverseBitsInByte(value);
           }
@@ -231,10 +242,10 @@ public abstract class AbstractMappedClassFieldObserver {
         case USHORT: {
           short value;
           if (fieldType == char.class) {
-            value = (short) ((Character) readFieldValue(obj, field)).charValue();
+            value = (short) readFieldAsChar(obj, field);
           }
           else {
-            value = ((Number) readFieldValue(obj, field)).shortValue();
+            value = (short) readFieldAsLong(obj, field);
           }
           if (reverseBits) {
             value = (short) JBBPFieldShort.reverseBits(value);
@@ -245,10 +256,10 @@ public abstract class AbstractMappedClassFieldObserver {
         case INT: {
           int value;
           if (float.class == fieldType) {
-            value = Float.floatToIntBits((Float) readFieldValue(obj, field));
+            value = Float.floatToIntBits(readFieldAsFloat(obj, field));
           }
           else {
-            value = ((Number) readFieldValue(obj, field)).intValue();
+            value = (int) readFieldAsLong(obj, field);
           }
           if (reverseBits) {
             value = (int) JBBPFieldInt.reverseBits(value);
@@ -259,13 +270,13 @@ public abstract class AbstractMappedClassFieldObserver {
         case LONG: {
           long value;
           if (float.class == fieldType) {
-            value = Float.floatToIntBits((Float) readFieldValue(obj, field));
+            value = Float.floatToIntBits(readFieldAsFloat(obj, field));
           }
           else if (double.class == fieldType) {
-            value = Double.doubleToLongBits((Double) readFieldValue(obj, field));
+            value = Double.doubleToLongBits(readFieldAsDouble(obj, field));
           }
           else {
-            value = ((Number) readFieldValue(obj, field)).longValue();
+            value = readFieldAsLong(obj, field);
           }
 
           if (reverseBits) {
@@ -291,12 +302,12 @@ public abstract class AbstractMappedClassFieldObserver {
 
               if (fieldType.getComponentType() == boolean.class) {
                 for (int i = 0; i < len; i++) {
-                  this.onFieldBits(obj, field, annotation, bitNumber, (Boolean) Array.get(array, i) ? 0xFF : 0x00);
+                  this.onFieldBits(obj, field, annotation, bitNumber, getArrayItemAsBoolean(array, i) ? 0xFF : 0x00);
                 }
               }
               else {
                 for (int i = 0; i < len; i++) {
-                  byte value = ((Number) Array.get(array, i)).byteValue();
+                  byte value = (byte) getArrayItemAsLong(array, i);
                   if (reverseBits) {
                     value = JBBPUtils.reverseBitsInByte(bitNumber, value);
                   }
@@ -314,7 +325,7 @@ public abstract class AbstractMappedClassFieldObserver {
               this.onArrayStart(obj, field, annotation, len);
 
               for (int i = 0; i < len; i++) {
-                this.onFieldBool(obj, field, annotation, (Boolean) Array.get(array, i));
+                this.onFieldBool(obj, field, annotation, getArrayItemAsBoolean(array, i));
               }
 
               this.onArrayEnd(obj, field, annotation);
@@ -341,7 +352,7 @@ public abstract class AbstractMappedClassFieldObserver {
                 final int len = Array.getLength(array);
                 this.onArrayStart(obj, field, annotation, len);
                 for (int i = 0; i < len; i++) {
-                  byte value = ((Number) Array.get(array, i)).byteValue();
+                  byte value = (byte) getArrayItemAsLong(array, i);
                   if (reverseBits) {
                     value = JBBPUtils.reverseBitsInByte(value);
                   }
@@ -376,7 +387,7 @@ public abstract class AbstractMappedClassFieldObserver {
 
                 if (fieldType.getComponentType() == char.class) {
                   for (int i = 0; i < len; i++) {
-                    short value = (short) ((Character) Array.get(array, i)).charValue();
+                    short value = (short) getArrayItemAsChar(array, i);
                     if (reverseBits) {
                       value = (short) JBBPFieldShort.reverseBits(value);
                     }
@@ -385,7 +396,7 @@ public abstract class AbstractMappedClassFieldObserver {
                 }
                 else {
                   for (int i = 0; i < len; i++) {
-                    short value = ((Number) Array.get(array, i)).shortValue();
+                    short value = (short) getArrayItemAsLong(array, i);
                     if (reverseBits) {
                       value = (short) JBBPFieldShort.reverseBits(value);
                     }
@@ -403,7 +414,7 @@ public abstract class AbstractMappedClassFieldObserver {
               this.onArrayStart(obj, field, annotation, len);
               if (fieldType.getComponentType() == float.class) {
                 for (int i = 0; i < len; i++) {
-                  int value = Float.floatToIntBits(Array.getFloat(array, i));
+                  int value = Float.floatToIntBits(getArrayItemAsFloat(array, i));
                   if (reverseBits) {
                     value = (int) JBBPFieldInt.reverseBits(value);
                   }
@@ -412,7 +423,7 @@ public abstract class AbstractMappedClassFieldObserver {
               }
               else {
                 for (int i = 0; i < len; i++) {
-                  int value = ((Number) Array.get(array, i)).intValue();
+                  int value = (int) getArrayItemAsLong(array, i);
                   if (reverseBits) {
                     value = (int) JBBPFieldInt.reverseBits(value);
                   }
@@ -429,7 +440,7 @@ public abstract class AbstractMappedClassFieldObserver {
               this.onArrayStart(obj, field, annotation, len);
               if (fieldType.getComponentType() == float.class) {
                 for (int i = 0; i < len; i++) {
-                  long value = Float.floatToIntBits(Array.getFloat(array, i));
+                  long value = Float.floatToIntBits(getArrayItemAsFloat(array, i));
                   if (reverseBits) {
                     value = JBBPFieldLong.reverseBits(value);
                   }
@@ -438,7 +449,7 @@ public abstract class AbstractMappedClassFieldObserver {
               }
               else if (fieldType.getComponentType() == double.class) {
                 for (int i = 0; i < len; i++) {
-                  long value = Double.doubleToLongBits(Array.getDouble(array, i));
+                  long value = Double.doubleToLongBits(getArrayItemAsDouble(array, i));
                   if (reverseBits) {
                     value = JBBPFieldLong.reverseBits(value);
                   }
@@ -447,7 +458,7 @@ public abstract class AbstractMappedClassFieldObserver {
               }
               else {
                 for (int i = 0; i < len; i++) {
-                  long value = ((Number) Array.get(array, i)).longValue();
+                  long value = getArrayItemAsLong(array, i);
                   if (reverseBits) {
                     value = JBBPFieldLong.reverseBits(value);
                   }
@@ -488,13 +499,203 @@ public abstract class AbstractMappedClassFieldObserver {
    */
   private static Object readFieldValue(final Object obj, final Field field) {
     try {
-      return field.get(obj);
+      return findAccessor(field).getObject(obj);
     }
     catch (Exception ex) {
       throw new JBBPException("Can't get falue from field [" + field + ']', ex);
     }
   }
 
+  /**
+   * Find accessor for a field, the accessor will be made and cached for the
+   * first call.
+   *
+   * @param field a field which accessor is needed, must not be null
+   * @return the accessor for the field, must not be null
+   * @since 1.2.2
+   */
+  private static JBBPFieldAccessor findAccessor(final Field field) {
+    JBBPFieldAccessor result = FIELD_ACCESSORS.get(field);
+    if (result == null) {
+      result = JBBPFieldAccessorFactory.getInstance().make(field);
+      final JBBPFieldAccessor alreadyCached = FIELD_ACCESSORS.putIfAbsent(field, result);
+      if (alreadyCached != null) {
+        result = alreadyCached;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Inside auxiliary method to read object field value as long without
+   * boxing for integral primitive fields.
+   *
+   * @param obj an object which field is read
+   * @param field a field to be read
+   * @return a value from the field of the object
+   * @throws JBBPException if the field can't be read
+   * @since 1.2.2
+   */
+  private static long readFieldAsLong(final Object obj, final Field field) {
+    final Class<?> type = field.getType();
+    if (!type.isPrimitive() || type == float.class || type == double.class) {
+      return ((Number) readFieldValue(obj, field)).longValue();
+    }
+    try {
+      return findAccessor(field).getLong(obj);
+    }
+    catch (Exception ex) {
+      throw new JBBPException("Can't get falue from field [" + field + ']', ex);
+    }
+  }
+
+  /**
+   * Inside auxiliary method to read boolean object field value.
+   *
+   * @param obj an object which field is read
+   * @param field a field to be read
+   * @return a value from the field of the object
+   * @throws JBBPException if the field can't be read
+   * @since 1.2.2
+   */
+  private static boolean readFieldAsBoolean(final Object obj, final Field field) {
+    try {
+      return findAccessor(field).getBoolean(obj);
+    }
+    catch (Exception ex) {
+      throw new JBBPException("Can't get falue from field [" + field + ']', ex);
+    }
+  }
+
+  /**
+   * Inside auxiliary method to read char object field value.
+   *
+   * @param obj an object which field is read
+   * @param field a field to be read
+   * @return a value from the field of the object
+   * @throws JBBPException if the field can't be read
+   * @since 1.2.2
+   */
+  private static char readFieldAsChar(final Object obj, final Field field) {
+    try {
+      return findAccessor(field).getChar(obj);
+    }
+    catch (Exception ex) {
+      throw new JBBPException("Can't get falue from field [" + field + ']', ex);
+    }
+  }
+
+  /**
+   * Inside auxiliary method to read float object field value.
+   *
+   * @param obj an object which field is read
+   * @param field a field to be read
+   * @return a value from the field of the object
+   * @throws JBBPException if the field can't be read
+   * @since 1.2.2
+   */
+  private static float readFieldAsFloat(final Object obj, final Field field) {
+    try {
+      return findAccessor(field).getFloat(obj);
+    }
+    catch (Exception ex) {
+      throw new JBBPException("Can't get falue from field [" + field + ']', ex);
+    }
+  }
+
+  /**
+   * Inside auxiliary method to read double object field value.
+   *
+   * @param obj an object which field is read
+   * @param field a field to be read
+   * @return a value from the field of the object
+   * @throws JBBPException if the field can't be read
+   * @since 1.2.2
+   */
+  private static double readFieldAsDouble(final Object obj, final Field field) {
+    try {
+      return findAccessor(field).getDouble(obj);
+    }
+    catch (Exception ex) {
+      throw new JBBPException("Can't get falue from field [" + field + ']', ex);
+    }
+  }
+
+  /**
+   * Get an item of an array as long, primitive arrays are processed directly
+   * without boxing.
+   *
+   * @param array an array object, must not be null
+   * @param index index of the item
+   * @return the item value as long
+   * @since 1.2.2
+   */
+  private static long getArrayItemAsLong(final Object array, final int index) {
+    if (array instanceof byte[]) {
+      return ((byte[]) array)[index];
+    }
+    else if (array instanceof short[]) {
+      return ((short[]) array)[index];
+    }
+    else if (array instanceof int[]) {
+      return ((int[]) array)[index];
+    }
+    else if (array instanceof long[]) {
+      return ((long[]) array)[index];
+    }
+    else {
+      return ((Number) Array.get(array, index)).longValue();
+    }
+  }
+
+  /**
+   * Get an item of a boolean array.
+   *
+   * @param array an array object, must not be null
+   * @param index index of the item
+   * @return the item value
+   * @since 1.2.2
+   */
+  private static boolean getArrayItemAsBoolean(final Object array, final int index) {
+    return array instanceof boolean[] ? ((boolean[]) array)[index] : (Boolean) Array.get(array, index);
+  }
+
+  /**
+   * Get an item of a char array.
+   *
+   * @param array an array object, must not be null
+   * @param index index of the item
+   * @return the item value
+   * @since 1.2.2
+   */
+  private static char getArrayItemAsChar(final Object array, final int index) {
+    return array instanceof char[] ? ((char[]) array)[index] : (Character) Array.get(array, index);
+  }
+
+  /**
+   * Get an item of a float array.
+   *
+   * @param array an array object, must not be null
+   * @param index index of the item
+   * @return the item value
+   * @since 1.2.2
+   */
+  private static float getArrayItemAsFloat(final Object array, final int index) {
+    return array instanceof float[] ? ((float[]) array)[index] : Array.getFloat(array, index);
+  }
+
+  /**
+   * Get an item of a double array.
+   *
+   * @param array an array object, must not be null
+   * @param index index of the item
+   * @return the item value
+   * @since 1.2.2
+   */
+  private static double getArrayItemAsDouble(final Object array, final int index) {
+    return array instanceof double[] ? ((double[]) array)[index] : Array.getDouble(array, index);
+  }
+
   /**
    * Check that a field defined as an array.
    *
@@ -33,6 +33,30 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    */
   protected static final int INITIAL_ARRAY_BUFFER_SIZE = JBBPSystemProperty.PROPERTY_INPUT_INITIAL_ARRAY_BUFFER_SIZE.getAsInteger(32);
 
+  /**
+   * The Default size of the inside read-ahead buffer, zero if the buffer is not
+   * used by default.
+   *
+   * @since 1.2.2
+   */
+  protected static final int DEFAULT_READ_AHEAD_BUFFER_SIZE = JBBPSystemProperty.PROPERTY_INPUT_READ_AHEAD_BUFFER_SIZE.getAsInteger(0);
+
+  /**
+   * Max number of array items decoded per one block read operation.
+   */
+  private static final int BULK_READ_ITEMS = 1024;
+
+  /**
+   * Table of bytes with reversed bit order, it is used for MSB0 mode.
+   */
+  private static final byte[] REVERSED_BYTES = new byte[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      REVERSED_BYTES[i] = JBBPUtils.reverseBitsInByte((byte) i);
+    }
+  }
+
   /**
    * The Inside bit buffer,
    */
@@ -75,19 +99,67 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
   }
 
   /**
-   * A Constructor.
+   * A Constructor. The Size of the inside read-ahead buffer is defined by the
+   * system property. If the buffer is used then the source stream can be read
+   * beyond the last read data, so that the source stream must not be used
+   * directly while the filter is in use.
    *
    * @param in an input stream to be filtered.
    * @param order a bit order mode for the filter.
    * @see JBBPBitOrder#LSB0
    * @see JBBPBitOrder#MSB0
+   * @see JBBPSystemProperty#PROPERTY_INPUT_READ_AHEAD_BUFFER_SIZE
    */
   public JBBPBitInputStream(final InputStream in, final JBBPBitOrder order) {
-    super(in);
+    this(in, order, DEFAULT_READ_AHEAD_BUFFER_SIZE);
+  }
+
+  /**
+   * A Constructor allows to define size of inside read-ahead buffer. The
+   * Buffer allows to decrease number of read operations for unbuffered streams
+   * (like file or socket streams) but it reads data from the source stream in
+   * advance so that the source stream position can be after the last read
+   * data. The Buffer is not used for streams which keep data in memory.
+   *
+   * @param in an input stream to be filtered.
+   * @param order a bit order mode for the filter.
+   * @param readAheadBufferSize size of the inside read-ahead buffer in bytes,
+   * zero or negative value disables the buffer
+   * @see JBBPBitOrder#LSB0
+   * @see JBBPBitOrder#MSB0
+   * @since 1.2.2
+   */
+  public JBBPBitInputStream(final InputStream in, final JBBPBitOrder order, final int readAheadBufferSize) {
+    super(readAheadBufferSize > 0 && !isMemoryStream(in) ? new ReadAheadBuffer(in, readAheadBufferSize) : in);
     this.bitsInBuffer = 0;
     this.msb0 = order == JBBPBitOrder.MSB0;
   }
 
+  /**
+   * Check that a stream keeps its data in memory so that a read-ahead buffer
+   * doesn't make any sense for the stream.
+   *
+   * @param in a stream to be checked, can be null
+   * @return true if the stream doesn't need read-ahead buffer, false otherwise
+   */
+  private static boolean isMemoryStream(final InputStream in) {
+    return in == null
+            || in instanceof ByteArrayInputStream
+            || in instanceof JBBPByteBufferInputStream
+            || in instanceof BufferedInputStream
+            || in instanceof JBBPBitInputStream;
+  }
+
+  /**
+   * Check that the stream uses inside read-ahead buffer.
+   *
+   * @return true if the inside read-ahead buffer is used, false otherwise
+   * @since 1.2.2
+   */
+  public boolean isReadAheadBuffered() {
+    return this.in instanceof ReadAheadBuffer;
+  }
+
   /**
    * Read array of boolean values.
    *
@@ -118,16 +190,7 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
     }
     else {
       // number
-      buffer = new byte[items];
-      int len = items;
-      while (len > 0) {
-        final int read = this.read(buffer, pos, len);
-        if (read < 0) {
-          throw new EOFException("Have read only " + pos + " bit portions instead of " + items);
-        }
-        pos += read;
-        len -= read;
-      }
+      return readBoolArray(new boolean[items]);
     }
 
     final boolean[] result = new boolean[pos];
@@ -137,52 +200,242 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
     return result;
   }
 
-  private byte[] _readArray(final int items, final JBBPBitNumber bitNumber) throws IOException {
-    final boolean readByteArray = bitNumber == null;
-
+  /**
+   * Read boolean values into an array, the number of read values is the array
+   * length.
+   *
+   * @param array the array to be filled by read values, must not be null
+   * @return the same array
+   * @throws IOException it will be thrown for transport error
+   * @since 1.2.2
+   */
+  public boolean[] readBoolArray(final boolean[] array) throws IOException {
+    final int items = array.length;
+    final byte[] buffer = new byte[Math.min(items, BULK_READ_ITEMS)];
     int pos = 0;
-    if (items < 0) {
-      byte[] buffer = new byte[INITIAL_ARRAY_BUFFER_SIZE];
-      // till end
-      while (true) {
-        final int next = readByteArray ? read() : readBits(bitNumber);
-        if (next < 0) {
-          break;
-        }
-        if (buffer.length == pos) {
-          final byte[] newbuffer = new byte[buffer.length << 1];
-          System.arraycopy(buffer, 0, newbuffer, 0, buffer.length);
-          buffer = newbuffer;
-        }
-        buffer[pos++] = (byte) next;
+    while (pos < items) {
+      final int read = this.read(buffer, 0, Math.min(items - pos, buffer.length));
+      if (read < 0) {
+        throw new EOFException("Have read only " + pos + " bit portions instead of " + items);
       }
-      if (buffer.length == pos) {
-        return buffer;
+      for (int i = 0; i < read; i++) {
+        array[pos++] = buffer[i] != 0;
       }
-      final byte[] result = new byte[pos];
-      System.arraycopy(buffer, 0, result, 0, pos);
-      return result;
+    }
+    return array;
+  }
+
+  private byte[] _readArray(final int items) throws IOException {
+    if (items < 0) {
+      return readWholeStream();
     }
     else {
       // number
       final byte[] buffer = new byte[items];
-      if (readByteArray) {
-        final int read = this.read(buffer, 0, items);
-        if (read != items) {
-          throw new EOFException("Have read only " + read + " byte(s) instead of " + items + " byte(s)");
+      final int read = this.read(buffer, 0, items);
+      if (read != items) {
+        throw new EOFException("Have read only " + read + " byte(s) instead of " + items + " byte(s)");
+      }
+      return buffer;
+    }
+  }
+
+  /**
+   * Read array of bit sequences through a 64 bit accumulator. Only needed
+   * bytes are read from the underlying stream so that its position is the same
+   * as for sequential reading of each item.
+   *
+   * @param items number of items to be read, if less than zero then read whole
+   * stream till the end
+   * @param bitNumber bit number for each item, must not be null
+   * @return array of read items
+   * @throws IOException it will be thrown for transport errors
+   */
+  private byte[] _readBitsArray(final int items, final JBBPBitNumber bitNumber) throws IOException {
+    final int numOfBits = bitNumber.getBitNumber();
+    final int mask = bitNumber.getMask();
+    final int buffered = this.bitsInBuffer;
+
+    final byte[] data;
+    final int dataLength;
+    final int resultLength;
+    boolean eof = false;
+
+    if (items < 0) {
+      data = readRawWholeStream();
+      dataLength = data.length;
+      final int totalBits = buffered + (dataLength << 3);
+      resultLength = (totalBits + numOfBits - 1) / numOfBits;
+    }
+    else {
+      final long totalBits = (long) items * numOfBits;
+      if (totalBits <= buffered) {
+        final byte[] result = new byte[items];
+        for (int i = 0; i < items; i++) {
+          result[i] = (byte) readBits(bitNumber);
         }
+        return result;
+      }
+      final int bytesToRead = (int) ((totalBits - buffered + 7) >>> 3);
+      data = new byte[bytesToRead];
+      dataLength = readRaw(data, 0, bytesToRead);
+      if (dataLength < bytesToRead) {
+        // the last item can be read partially, as for sequential reading
+        final int availableItems = (buffered + (dataLength << 3) + numOfBits - 1) / numOfBits;
+        eof = availableItems < items;
+        resultLength = Math.min(availableItems, items);
       }
       else {
-        for (int i = 0; i < items; i++) {
-          final int next = readBits(bitNumber);
-          if (next < 0) {
-            throw new EOFException("Have read only " + i + " bit portions instead of " + items);
-          }
-          buffer[i] = (byte) next;
+        resultLength = items;
+      }
+    }
+
+    final byte[] result = new byte[resultLength];
+
+    long accumulator = this.bitBuffer & ((1 << buffered) - 1);
+    int accumulatorBits = buffered;
+    int dataIndex = 0;
+
+    for (int i = 0; i < resultLength; i++) {
+      if (accumulatorBits < numOfBits) {
+        while (accumulatorBits <= 56 && dataIndex < dataLength) {
+          accumulator |= (data[dataIndex++] & 0xFFL) << accumulatorBits;
+          accumulatorBits += 8;
         }
       }
+      result[i] = (byte) (accumulator & mask);
+      accumulator >>>= numOfBits;
+      accumulatorBits -= numOfBits;
+    }
+
+    int fullyReadBytes = buffered > 0 ? 1 : 0;
+    if (accumulatorBits > 0) {
+      // the last read byte is partially processed
+      fullyReadBytes += dataLength - 1;
+      this.bitBuffer = (int) accumulator;
+      this.bitsInBuffer = accumulatorBits;
+    }
+    else {
+      fullyReadBytes += dataLength;
+      this.bitBuffer = 0;
+      this.bitsInBuffer = 0;
+    }
+    this.byteCounter += fullyReadBytes;
+
+    if (eof) {
+      throw new EOFException("Have read only " + resultLength + " bit portions instead of " + items);
+    }
+
+    return result;
+  }
+
+  /**
+   * Read bytes from the underlying stream without the bit buffer and the byte
+   * counter processing. Bits in read bytes are reversed for MSB0 mode.
+   *
+   * @param buffer buffer for read data, must not be null
+   * @param offset offset in the buffer
+   * @param length number of bytes to be read
+   * @return number of read bytes, it is less than requested only if the end of
+   * the stream has been reached
+   * @throws IOException it will be thrown for transport errors
+   */
+  private int readRaw(final byte[] buffer, final int offset, final int length) throws IOException {
+    int pos = 0;
+    while (pos < length) {
+      final int read = this.in.read(buffer, offset + pos, length - pos);
+      if (read < 0) {
+        break;
+      }
+      pos += read;
+    }
+    if (this.msb0) {
+      for (int i = offset; i < offset + pos; i++) {
+        buffer[i] = REVERSED_BYTES[buffer[i] & 0xFF];
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Read all remaining bytes from the underlying stream without the bit buffer
+   * and the byte counter processing. Bits in read bytes are reversed for MSB0
+   * mode.
+   *
+   * @return all read bytes, must not be null
+   * @throws IOException it will be thrown for transport errors
+   */
+  private byte[] readRawWholeStream() throws IOException {
+    byte[] buffer = new byte[INITIAL_ARRAY_BUFFER_SIZE];
+    int pos = 0;
+    while (true) {
+      final int read = readRaw(buffer, pos, buffer.length - pos);
+      if (read <= 0) {
+        break;
+      }
+      pos += read;
+      if (buffer.length == pos) {
+        final byte[] newbuffer = new byte[buffer.length << 1];
+        System.arraycopy(buffer, 0, newbuffer, 0, buffer.length);
+        buffer = newbuffer;
+      }
+    }
+    if (buffer.length == pos) {
       return buffer;
     }
+    final byte[] result = new byte[pos];
+    System.arraycopy(buffer, 0, result, 0, pos);
+    return result;
+  }
+
+  /**
+   * Read all bytes till the end of the stream through block read operations.
+   *
+   * @return all read bytes, must not be null
+   * @throws IOException it will be thrown for transport errors
+   */
+  private byte[] readWholeStream() throws IOException {
+    byte[] buffer = new byte[INITIAL_ARRAY_BUFFER_SIZE];
+    int pos = 0;
+    while (true) {
+      final int read = this.read(buffer, pos, buffer.length - pos);
+      if (read < 0) {
+        break;
+      }
+      pos += read;
+
+      if (buffer.length == pos) {
+        final byte[] newbuffer = new byte[buffer.length << 1];
+        System.arraycopy(buffer, 0, newbuffer, 0, buffer.length);
+        buffer = newbuffer;
+      }
+    }
+    if (buffer.length == pos) {
+      return buffer;
+    }
+    final byte[] result = new byte[pos];
+    System.arraycopy(buffer, 0, result, 0, pos);
+    return result;
+  }
+
+  /**
+   * Read exact number of bytes into a buffer.
+   *
+   * @param buffer the buffer to be filled, must not be null
+   * @param length number of bytes to be read
+   * @throws IOException it will be thrown for transport errors
+   * @throws EOFException if the end of the stream has been reached before the
+   * end of the data
+   */
+  private void readFully(final byte[] buffer, final int length) throws IOException {
+    int pos = 0;
+    while (pos < length) {
+      final int read = this.read(buffer, pos, length - pos);
+      if (read < 0) {
+        throw new EOFException("Have read only " + pos + " byte(s) instead of " + length + " byte(s)");
+      }
+      pos += read;
+    }
   }
 
   /**
@@ -196,7 +449,10 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    * operation
    */
   public byte[] readBitsArray(final int items, final JBBPBitNumber bitNumber) throws IOException {
-    return _readArray(items, bitNumber);
+    if (bitNumber == JBBPBitNumber.BITS_8 && this.bitsInBuffer == 0) {
+      return _readArray(items);
+    }
+    return _readBitsArray(items, bitNumber);
   }
 
   /**
@@ -209,7 +465,24 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    * operation
    */
   public byte[] readByteArray(final int items) throws IOException {
-    return _readArray(items, null);
+    return _readArray(items);
+  }
+
+  /**
+   * Read bytes into an array, the number of read bytes is the array length.
+   *
+   * @param array the array to be filled by read bytes, must not be null
+   * @return the same array
+   * @throws IOException it will be thrown for any transport problem during the
+   * operation
+   * @since 1.2.2
+   */
+  public byte[] readByteArray(final byte[] array) throws IOException {
+    final int read = this.read(array, 0, array.length);
+    if (read != array.length) {
+      throw new EOFException("Have read only " + read + " byte(s) instead of " + array.length + " byte(s)");
+    }
+    return array;
   }
 
   /**
@@ -225,33 +498,63 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    * @see JBBPByteOrder#LITTLE_ENDIAN
    */
   public short[] readShortArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
-    int pos = 0;
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
     if (items < 0) {
-      short[] buffer = new short[INITIAL_ARRAY_BUFFER_SIZE];
       // till end
-      while (hasAvailableData()) {
-        final int next = readUnsignedShort(byteOrder);
-        if (buffer.length == pos) {
-          final short[] newbuffer = new short[buffer.length << 1];
-          System.arraycopy(buffer, 0, newbuffer, 0, buffer.length);
-          buffer = newbuffer;
-        }
-        buffer[pos++] = (short) next;
-      }
-      if (buffer.length == pos) {
-        return buffer;
+      final byte[] data = readWholeStream();
+      if ((data.length & 1) != 0) {
+        throw new EOFException();
       }
-      final short[] result = new short[pos];
-      System.arraycopy(buffer, 0, result, 0, pos);
+      final short[] result = new short[data.length >> 1];
+      decodeShorts(data, result, 0, result.length, bigEndian);
       return result;
     }
     else {
       // number
-      final short[] buffer = new short[items];
-      for (int i = 0; i < items; i++) {
-        buffer[i] = (short) readUnsignedShort(byteOrder);
-      }
-      return buffer;
+      return readShortArray(new short[items], byteOrder);
+    }
+  }
+
+  /**
+   * Read short items into an array, the number of read items is the array
+   * length.
+   *
+   * @param array the array to be filled by read items, must not be null
+   * @param byteOrder the order of bytes to be used to decode values
+   * @return the same array
+   * @throws IOException it will be thrown for any transport problem during the
+   * operation
+   * @since 1.2.2
+   */
+  public short[] readShortArray(final short[] array, final JBBPByteOrder byteOrder) throws IOException {
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
+    final int items = array.length;
+    final byte[] buffer = new byte[Math.min(items, BULK_READ_ITEMS) << 1];
+    int pos = 0;
+    while (pos < items) {
+      final int len = Math.min(items - pos, BULK_READ_ITEMS);
+      readFully(buffer, len << 1);
+      decodeShorts(buffer, array, pos, len, bigEndian);
+      pos += len;
+    }
+    return array;
+  }
+
+  /**
+   * Decode short values from a byte array.
+   *
+   * @param data the source byte array, must not be null
+   * @param result the destination array, must not be null
+   * @param offset the offset in the destination array
+   * @param items number of items to be decoded
+   * @param bigEndian true if big endian byte order, false otherwise
+   */
+  private static void decodeShorts(final byte[] data, final short[] result, final int offset, final int items, final boolean bigEndian) {
+    int index = 0;
+    for (int i = 0; i < items; i++) {
+      final int b0 = data[index++] & 0xFF;
+      final int b1 = data[index++] & 0xFF;
+      result[offset + i] = (short) (bigEndian ? (b0 << 8) | b1 : (b1 << 8) | b0);
     }
   }
 
@@ -268,33 +571,65 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    * @see JBBPByteOrder#LITTLE_ENDIAN
    */
   public int[] readIntArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
-    int pos = 0;
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
     if (items < 0) {
-      int[] buffer = new int[INITIAL_ARRAY_BUFFER_SIZE];
       // till end
-      while (hasAvailableData()) {
-        final long next = readInt(byteOrder);
-        if (buffer.length == pos) {
-          final int[] newbuffer = new int[buffer.length << 1];
-          System.arraycopy(buffer, 0, newbuffer, 0, buffer.length);
-          buffer = newbuffer;
-        }
-        buffer[pos++] = (int) next;
+      final byte[] data = readWholeStream();
+      if ((data.length & 3) != 0) {
+        throw new EOFException();
       }
-      if (buffer.length == pos) {
-        return buffer;
-      }
-      final int[] result = new int[pos];
-      System.arraycopy(buffer, 0, result, 0, pos);
+      final int[] result = new int[data.length >> 2];
+      decodeInts(data, result, 0, result.length, bigEndian);
       return result;
     }
     else {
       // number
-      final int[] buffer = new int[items];
-      for (int i = 0; i < items; i++) {
-        buffer[i] = readInt(byteOrder);
-      }
-      return buffer;
+      return readIntArray(new int[items], byteOrder);
+    }
+  }
+
+  /**
+   * Read integer items into an array, the number of read items is the array
+   * length.
+   *
+   * @param array the array to be filled by read items, must not be null
+   * @param byteOrder the order of bytes to be used to decode values
+   * @return the same array
+   * @throws IOException it will be thrown for any transport problem during the
+   * operation
+   * @since 1.2.2
+   */
+  public int[] readIntArray(final int[] array, final JBBPByteOrder byteOrder) throws IOException {
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
+    final int items = array.length;
+    final byte[] buffer = new byte[Math.min(items, BULK_READ_ITEMS) << 2];
+    int pos = 0;
+    while (pos < items) {
+      final int len = Math.min(items - pos, BULK_READ_ITEMS);
+      readFully(buffer, len << 2);
+      decodeInts(buffer, array, pos, len, bigEndian);
+      pos += len;
+    }
+    return array;
+  }
+
+  /**
+   * Decode integer values from a byte array.
+   *
+   * @param data the source byte array, must not be null
+   * @param result the destination array, must not be null
+   * @param offset the offset in the destination array
+   * @param items number of items to be decoded
+   * @param bigEndian true if big endian byte order, false otherwise
+   */
+  private static void decodeInts(final byte[] data, final int[] result, final int offset, final int items, final boolean bigEndian) {
+    int index = 0;
+    for (int i = 0; i < items; i++) {
+      final int b0 = data[index++] & 0xFF;
+      final int b1 = data[index++] & 0xFF;
+      final int b2 = data[index++] & 0xFF;
+      final int b3 = data[index++] & 0xFF;
+      result[offset + i] = bigEndian ? (b0 << 24) | (b1 << 16) | (b2 << 8) | b3 : (b3 << 24) | (b2 << 16) | (b1 << 8) | b0;
     }
   }
 
@@ -311,33 +646,72 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    * @see JBBPByteOrder#LITTLE_ENDIAN
    */
   public long[] readLongArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
-    int pos = 0;
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
     if (items < 0) {
-      long[] buffer = new long[INITIAL_ARRAY_BUFFER_SIZE];
       // till end
-      while (hasAvailableData()) {
-        final long next = readLong(byteOrder);
-        if (buffer.length == pos) {
-          final long[] newbuffer = new long[buffer.length << 1];
-          System.arraycopy(buffer, 0, newbuffer, 0, buffer.length);
-          buffer = newbuffer;
-        }
-        buffer[pos++] = next;
+      final byte[] data = readWholeStream();
+      if ((data.length & 7) != 0) {
+        throw new EOFException();
       }
-      if (buffer.length == pos) {
-        return buffer;
-      }
-      final long[] result = new long[pos];
-      System.arraycopy(buffer, 0, result, 0, pos);
+      final long[] result = new long[data.length >> 3];
+      decodeLongs(data, result, 0, result.length, bigEndian);
       return result;
     }
     else {
       // number
-      final long[] buffer = new long[items];
-      for (int i = 0; i < items; i++) {
-        buffer[i] = readLong(byteOrder);
+      return readLongArray(new long[items], byteOrder);
+    }
+  }
+
+  /**
+   * Read long items into an array, the number of read items is the array
+   * length.
+   *
+   * @param array the array to be filled by read items, must not be null
+   * @param byteOrder the order of bytes to be used to decode values
+   * @return the same array
+   * @throws IOException it will be thrown for any transport problem during the
+   * operation
+   * @since 1.2.2
+   */
+  public long[] readLongArray(final long[] array, final JBBPByteOrder byteOrder) throws IOException {
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
+    final int items = array.length;
+    final byte[] buffer = new byte[Math.min(items, BULK_READ_ITEMS) << 3];
+    int pos = 0;
+    while (pos < items) {
+      final int len = Math.min(items - pos, BULK_READ_ITEMS);
+      readFully(buffer, len << 3);
+      decodeLongs(buffer, array, pos, len, bigEndian);
+      pos += len;
+    }
+    return array;
+  }
+
+  /**
+   * Decode long values from a byte array.
+   *
+   * @param data the source byte array, must not be null
+   * @param result the destination array, must not be null
+   * @param offset the offset in the destination array
+   * @param items number of items to be decoded
+   * @param bigEndian true if big endian byte order, false otherwise
+   */
+  private static void decodeLongs(final byte[] data, final long[] result, final int offset, final int items, final boolean bigEndian) {
+    int index = 0;
+    for (int i = 0; i < items; i++) {
+      long value = 0L;
+      if (bigEndian) {
+        for (int j = 0; j < 8; j++) {
+          value = (value << 8) | (data[index++] & 0xFFL);
+        }
       }
-      return buffer;
+      else {
+        for (int j = 0; j < 8; j++) {
+          value |= (data[index++] & 0xFFL) << (j << 3);
+        }
+      }
+      result[offset + i] = value;
     }
   }
 
@@ -457,65 +831,55 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
    * @throws NullPointerException if number of bits to be read is null
    */
   public int readBits(final JBBPBitNumber numOfBitsToRead) throws IOException {
-    int result;
-
     final int numOfBitsAsNumber = numOfBitsToRead.getBitNumber();
+    final int buffered = this.bitsInBuffer;
 
-    if (this.bitsInBuffer == 0 && numOfBitsAsNumber == 8) {
-      result = this.readByteFromStream();
+    if (buffered == 0 && numOfBitsAsNumber == 8) {
+      final int result = this.readByteFromStream();
       if (result >= 0) {
         this.byteCounter++;
       }
       return result;
     }
-    else {
-      result = 0;
 
-      if (numOfBitsAsNumber == this.bitsInBuffer) {
-        result = this.bitBuffer;
+    final int bufferedBits = this.bitBuffer & ((1 << buffered) - 1);
+
+    if (numOfBitsAsNumber <= buffered) {
+      // all bits are in the buffer
+      final int result = bufferedBits & numOfBitsToRead.getMask();
+      if (numOfBitsAsNumber == buffered) {
         this.bitBuffer = 0;
         this.bitsInBuffer = 0;
         this.byteCounter++;
-        return result;
       }
-
-      int i = numOfBitsAsNumber;
-      int theBitBuffer = this.bitBuffer;
-      int theBitBufferCounter = this.bitsInBuffer;
-
-      final boolean doIncCounter = theBitBufferCounter != 0;
-
-      while (i > 0) {
-        if (theBitBufferCounter == 0) {
-          if (doIncCounter) {
-            this.byteCounter++;
-          }
-          final int nextByte = this.readByteFromStream();
-          if (nextByte < 0) {
-            if (i == numOfBitsAsNumber) {
-              return nextByte;
-            }
-            else {
-              break;
-            }
-          }
-          else {
-            theBitBuffer = nextByte;
-            theBitBufferCounter = 8;
-          }
-        }
-
-        result = (result << 1) | (theBitBuffer & 1);
-        theBitBuffer >>= 1;
-        theBitBufferCounter--;
-        i--;
+      else {
+        this.bitBuffer = bufferedBits >>> numOfBitsAsNumber;
+        this.bitsInBuffer = buffered - numOfBitsAsNumber;
       }
+      return result;
+    }
 
-      this.bitBuffer = theBitBuffer;
-      this.bitsInBuffer = theBitBufferCounter;
+    final int nextByte = this.readByteFromStream();
+    if (nextByte < 0) {
+      if (buffered == 0) {
+        return nextByte;
+      }
+      // return only remaining bits
+      this.bitBuffer = 0;
+      this.bitsInBuffer = 0;
+      this.byteCounter++;
+      return bufferedBits;
+    }
 
-      return JBBPUtils.reverseBitsInByte(JBBPBitNumber.decode(numOfBitsAsNumber - i), (byte) result) & 0xFF;
+    if (buffered > 0) {
+      this.byteCounter++;
     }
+
+    final int bitsFromNextByte = numOfBitsAsNumber - buffered;
+    this.bitBuffer = nextByte >>> bitsFromNextByte;
+    this.bitsInBuffer = 8 - bitsFromNextByte;
+
+    return bufferedBits | ((nextByte & ((1 << bitsFromNextByte) - 1)) << buffered);
   }
 
   /**
@@ -599,6 +963,11 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
       long i = numOfBytes;
       long count = 0L;
       while (i > 0) {
+        if (this.bitsInBuffer == 0) {
+          // the buffered byte has been read, the rest can be skipped in the stream
+          count += this.skip(i);
+          break;
+        }
         final int nxt = readBits(JBBPBitNumber.BITS_8);
         if (nxt < 0) {
           break;
@@ -619,7 +988,7 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
   private int readByteFromStream() throws IOException {
     int result = this.in.read();
     if (result >= 0 && this.msb0) {
-      result = JBBPUtils.reverseBitsInByte((byte) result) & 0xFF;
+      result = REVERSED_BYTES[result] & 0xFF;
     }
     return result;
   }
@@ -690,7 +1059,7 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
         int index = offset;
         int number = readBytes;
         while (number > 0) {
-          array[index] = JBBPUtils.reverseBitsInByte(array[index]);
+          array[index] = REVERSED_BYTES[array[index] & 0xFF];
           index++;
           number--;
         }
@@ -751,4 +1120,181 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
     }
   }
 
+  /**
+   * Inside non-synchronized read-ahead buffer for unbuffered source streams.
+   * It supports mark and reset operations.
+   */
+  private static final class ReadAheadBuffer extends InputStream {
+
+    /**
+     * The Source stream.
+     */
+    private final InputStream in;
+    /**
+     * The Buffer.
+     */
+    private byte[] buffer;
+    /**
+     * The Position of the next byte in the buffer.
+     */
+    private int position;
+    /**
+     * Number of valid bytes in the buffer.
+     */
+    private int count;
+    /**
+     * The Marked position, -1 if there is not any mark.
+     */
+    private int markedPosition = -1;
+    /**
+     * Max number of bytes which can be read after mark before mark
+     * invalidation.
+     */
+    private int markLimit;
+
+    ReadAheadBuffer(final InputStream in, final int size) {
+      super();
+      this.in = in;
+      this.buffer = new byte[size];
+    }
+
+    /**
+     * Fill the buffer by next portion of data from the source stream, marked
+     * data is kept.
+     *
+     * @throws IOException it will be thrown for transport errors
+     */
+    private void fill() throws IOException {
+      if (this.markedPosition < 0) {
+        this.position = 0;
+      }
+      else if (this.position >= this.buffer.length) {
+        if (this.markedPosition > 0) {
+          final int kept = this.position - this.markedPosition;
+          System.arraycopy(this.buffer, this.markedPosition, this.buffer, 0, kept);
+          this.position = kept;
+          this.markedPosition = 0;
+        }
+        else if (this.buffer.length >= this.markLimit) {
+          this.markedPosition = -1;
+          this.position = 0;
+        }
+        else {
+          final byte[] newBuffer = new byte[Math.min(this.buffer.length << 1, this.markLimit)];
+          System.arraycopy(this.buffer, 0, newBuffer, 0, this.position);
+          this.buffer = newBuffer;
+        }
+      }
+      this.count = this.position;
+      final int read = this.in.read(this.buffer, this.position, this.buffer.length - this.position);
+      if (read > 0) {
+        this.count = this.position + read;
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (this.position >= this.count) {
+        fill();
+        if (this.position >= this.count) {
+          return -1;
+        }
+      }
+      return this.buffer[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] array, final int offset, final int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      int available = this.count - this.position;
+      if (available <= 0) {
+        if (length >= this.buffer.length && this.markedPosition < 0) {
+          // big block, read directly
+          return this.in.read(array, offset, length);
+        }
+        fill();
+        available = this.count - this.position;
+        if (available <= 0) {
+          return -1;
+        }
+      }
+      final int len = Math.min(available, length);
+      System.arraycopy(this.buffer, this.position, array, offset, len);
+      this.position += len;
+      return len;
+    }
+
+    @Override
+    public long skip(final long numOfBytes) throws IOException {
+      long remaining = numOfBytes;
+      while (remaining > 0L) {
+        int available = this.count - this.position;
+        if (available <= 0) {
+          if (this.markedPosition < 0) {
+            remaining -= skipInSource(remaining);
+            break;
+          }
+          fill();
+          available = this.count - this.position;
+          if (available <= 0) {
+            break;
+          }
+        }
+        final int len = (int) Math.min(available, remaining);
+        this.position += len;
+        remaining -= len;
+      }
+      return numOfBytes <= 0L ? 0L : numOfBytes - remaining;
+    }
+
+    /**
+     * Skip bytes directly in the source stream.
+     *
+     * @param numOfBytes number of bytes to be skipped
+     * @return number of skipped bytes
+     * @throws IOException it will be thrown for transport errors
+     */
+    private long skipInSource(final long numOfBytes) throws IOException {
+      long skipped = 0L;
+      while (skipped < numOfBytes) {
+        final long result = this.in.skip(numOfBytes - skipped);
+        if (result <= 0L) {
+          break;
+        }
+        skipped += result;
+      }
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (this.count - this.position) + this.in.available();
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public void mark(final int readlimit) {
+      this.markLimit = readlimit;
+      this.markedPosition = this.position;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      if (this.markedPosition < 0) {
+        throw new IOException("Resetting to invalid mark");
+      }
+      this.position = this.markedPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+  }
 }
@@ -54,6 +54,11 @@ public enum JBBPBitNumber {
    */
   BITS_8(8, 0xFF);
 
+  /**
+   * Cached array of values to avoid array cloning during decoding.
+   */
+  private static final JBBPBitNumber[] VALUES = values();
+
   /**
    * Number of bits.
    */
@@ -97,6 +102,6 @@ public enum JBBPBitNumber {
     if (numberOfBits <= 0 || numberOfBits > 8) {
       throw new IllegalArgumentException("Unsupported bit number, allowed 1..8");
     }
-    return values()[numberOfBits - 1];
+    return VALUES[numberOfBits - 1];
   }
 }
@@ -15,6 +15,7 @@
  */
 package com.igormaznitsa.jbbp.io;
 
+import com.igormaznitsa.jbbp.utils.JBBPSystemProperty;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import java.io.*;
 
@@ -23,6 +24,21 @@ import java.io.*;
  * @since 1.0
  */
 public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCountableBitStream {
+
+  /**
+   * The Default size of the inside output buffer, zero if the buffer is not
+   * used by default.
+   *
+   * @since 1.2.2
+   */
+  protected static final int DEFAULT_OUTPUT_BUFFER_SIZE = JBBPSystemProperty.PROPERTY_OUTPUT_BUFFER_SIZE.getAsInteger(0);
+
+  /**
+   * Size of the work buffer to encode arrays if the inside output buffer is
+   * not used.
+   */
+  private static final int WORK_BUFFER_SIZE = 1024;
+
   /**
    * Inside bit buffer.
    */
@@ -40,6 +56,22 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
    * bit 0) mode.
    */
   private final boolean msb0;
+  /**
+   * Inside output buffer, null if it is not used.
+   */
+  private final byte[] outBuffer;
+  /**
+   * Number of bytes in the inside output buffer.
+   */
+  private int outBufferCount;
+  /**
+   * Work buffer to encode arrays, it is made on the first use.
+   */
+  private byte[] workBuffer;
+  /**
+   * Small buffer to encode single values.
+   */
+  private final byte[] valueBuffer = new byte[8];
 
   /**
    * A Constructor. The Default LSB0 bit mode will be used for bit writing operations.
@@ -50,15 +82,36 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
   }
 
   /**
-   * A Constructor.
+   * A Constructor. The Size of the inside output buffer is defined by the
+   * system property.
    * @param out an output stream to be filtered.
    * @param order a bit writing mode to used for writing operations.
    * @see JBBPBitOrder#LSB0
    * @see JBBPBitOrder#MSB0
+   * @see JBBPSystemProperty#PROPERTY_OUTPUT_BUFFER_SIZE
    */
   public JBBPBitOutputStream(final OutputStream out, final JBBPBitOrder order) {
+    this(out, order, DEFAULT_OUTPUT_BUFFER_SIZE);
+  }
+
+  /**
+   * A Constructor allows to define size of inside output buffer. The Buffer
+   * decreases number of calls of the wrapped stream but written data is
+   * provided to the wrapped stream only when the buffer is full or during
+   * flush and close operations.
+   *
+   * @param out an output stream to be filtered.
+   * @param order a bit writing mode to used for writing operations.
+   * @param outputBufferSize size of the inside output buffer in bytes, zero or
+   * negative value disables the buffer
+   * @see JBBPBitOrder#LSB0
+   * @see JBBPBitOrder#MSB0
+   * @since 1.2.2
+   */
+  public JBBPBitOutputStream(final OutputStream out, final JBBPBitOrder order, final int outputBufferSize) {
     super(out);
     this.msb0 = order == JBBPBitOrder.MSB0;
+    this.outBuffer = outputBufferSize > 0 ? new byte[outputBufferSize] : null;
   }
 
   /**
@@ -71,6 +124,16 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     return this.msb0 ? JBBPBitOrder.MSB0 : JBBPBitOrder.LSB0;
   }
 
+  /**
+   * Check that the stream uses inside output buffer.
+   *
+   * @return true if the inside output buffer is used, false otherwise
+   * @since 1.2.2
+   */
+  public boolean isBuffered() {
+    return this.outBuffer != null;
+  }
+
   /**
    * Write a signed short value into the output stream.
    * @param value a value to be written. Only two bytes will be written.
@@ -80,7 +143,10 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
    * @see JBBPByteOrder#LITTLE_ENDIAN
    */
   public void writeShort(final int value, final JBBPByteOrder byteOrder) throws IOException {
-    if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+    if (this.bitBufferCount == 0) {
+      writeValueBytes(value, 2, byteOrder);
+    }
+    else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
       this.write(value >>> 8);
       this.write(value);
     }
@@ -99,7 +165,10 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
    * @see JBBPByteOrder#LITTLE_ENDIAN
    */
   public void writeInt(final int value, final JBBPByteOrder byteOrder) throws IOException {
-    if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+    if (this.bitBufferCount == 0) {
+      writeValueBytes(value, 4, byteOrder);
+    }
+    else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
       this.writeShort(value >>> 16, byteOrder);
       this.writeShort(value, byteOrder);
     }
@@ -119,7 +188,10 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
    * @see JBBPByteOrder#LITTLE_ENDIAN
    */
   public void writeLong(final long value, final JBBPByteOrder byteOrder) throws IOException {
-    if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+    if (this.bitBufferCount == 0) {
+      writeValueBytes(value, 8, byteOrder);
+    }
+    else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
       this.writeInt((int) (value >>> 32), byteOrder);
       this.writeInt((int) value, byteOrder);
     }
@@ -129,6 +201,138 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     }
   }
 
+  /**
+   * Write bytes of a value through the value buffer, the bit buffer must be
+   * empty.
+   *
+   * @param value the value to be written
+   * @param bytes number of lower bytes of the value to be written
+   * @param byteOrder the byte order of the value bytes
+   * @throws IOException it will be thrown for transport errors
+   */
+  private void writeValueBytes(final long value, final int bytes, final JBBPByteOrder byteOrder) throws IOException {
+    final byte[] work = this.valueBuffer;
+    encode(value, bytes, byteOrder == JBBPByteOrder.BIG_ENDIAN, work, 0);
+    writeRaw(work, 0, bytes);
+  }
+
+  /**
+   * Write short values of an array into the output stream.
+   *
+   * @param array an array which values should be written, must not be null
+   * @param byteOrder the byte order of value bytes
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public void writeShortArray(final short[] array, final JBBPByteOrder byteOrder) throws IOException {
+    if (this.bitBufferCount != 0) {
+      for (final short v : array) {
+        writeShort(v, byteOrder);
+      }
+      return;
+    }
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
+    final byte[] work = getWorkBuffer();
+    final int itemsPerBlock = work.length >> 1;
+    int pos = 0;
+    while (pos < array.length) {
+      final int items = Math.min(itemsPerBlock, array.length - pos);
+      int offset = 0;
+      for (int i = 0; i < items; i++) {
+        offset = encode(array[pos++], 2, bigEndian, work, offset);
+      }
+      writeRaw(work, 0, offset);
+    }
+  }
+
+  /**
+   * Write integer values of an array into the output stream.
+   *
+   * @param array an array which values should be written, must not be null
+   * @param byteOrder the byte order of value bytes
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public void writeIntArray(final int[] array, final JBBPByteOrder byteOrder) throws IOException {
+    if (this.bitBufferCount != 0) {
+      for (final int v : array) {
+        writeInt(v, byteOrder);
+      }
+      return;
+    }
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
+    final byte[] work = getWorkBuffer();
+    final int itemsPerBlock = work.length >> 2;
+    int pos = 0;
+    while (pos < array.length) {
+      final int items = Math.min(itemsPerBlock, array.length - pos);
+      int offset = 0;
+      for (int i = 0; i < items; i++) {
+        offset = encode(array[pos++], 4, bigEndian, work, offset);
+      }
+      writeRaw(work, 0, offset);
+    }
+  }
+
+  /**
+   * Write long values of an array into the output stream.
+   *
+   * @param array an array which values should be written, must not be null
+   * @param byteOrder the byte order of value bytes
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public void writeLongArray(final long[] array, final JBBPByteOrder byteOrder) throws IOException {
+    if (this.bitBufferCount != 0) {
+      for (final long v : array) {
+        writeLong(v, byteOrder);
+      }
+      return;
+    }
+    final boolean bigEndian = byteOrder == JBBPByteOrder.BIG_ENDIAN;
+    final byte[] work = getWorkBuffer();
+    final int itemsPerBlock = work.length >> 3;
+    int pos = 0;
+    while (pos < array.length) {
+      final int items = Math.min(itemsPerBlock, array.length - pos);
+      int offset = 0;
+      for (int i = 0; i < items; i++) {
+        offset = encode(array[pos++], 8, bigEndian, work, offset);
+      }
+      writeRaw(work, 0, offset);
+    }
+  }
+
+  /**
+   * Encode lower bytes of a value into an array, bits of every byte are
+   * reversed for MSB0 mode.
+   *
+   * @param value the value to be encoded
+   * @param bytes number of lower bytes of the value
+   * @param bigEndian true if the most significant byte goes first
+   * @param array the target array, must not be null
+   * @param offset the offset in the array
+   * @return the offset in the array after encoded bytes
+   */
+  private int encode(final long value, final int bytes, final boolean bigEndian, final byte[] array, final int offset) {
+    if (bigEndian) {
+      for (int i = 0, shift = (bytes - 1) << 3; i < bytes; i++, shift -= 8) {
+        array[offset + i] = (byte) (value >>> shift);
+      }
+    }
+    else {
+      for (int i = 0, shift = 0; i < bytes; i++, shift += 8) {
+        array[offset + i] = (byte) (value >>> shift);
+      }
+    }
+    if (this.msb0) {
+      for (int i = 0; i < bytes; i++) {
+        array[offset + i] = JBBPUtils.reverseBitsInByte(array[offset + i]);
+      }
+    }
+    return offset + bytes;
+  }
+
   /**
    * Get number of bytes written into the output stream.
    * @return the long value contains number of bytes written into the stream
@@ -167,22 +371,33 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
   @Override
   public void flush() throws IOException {
     flushBitBuffer();
+    drainOutBuffer();
     this.out.flush();
   }
 
   @Override
   public void write(final byte[] b, final int off, final int len) throws IOException {
     if (this.bitBufferCount == 0) {
-      out.write(b, off, len);
-      this.byteCounter += len;
+      writeRaw(b, off, len);
     }
     else {
+      // every byte is combined with buffered bits
+      final byte[] work = getWorkBuffer();
+      final int shift = this.bitBufferCount;
+      int accum = this.bitBuffer;
       int i = off;
       int cnt = len;
       while (cnt > 0) {
-        this.write((int) b[i++]);
-        cnt--;
+        final int items = Math.min(cnt, work.length);
+        for (int j = 0; j < items; j++) {
+          accum |= (b[i++] & 0xFF) << shift;
+          work[j] = this.msb0 ? JBBPUtils.reverseBitsInByte((byte) accum) : (byte) accum;
+          accum >>>= 8;
+        }
+        writeRaw(work, 0, items);
+        cnt -= items;
       }
+      this.bitBuffer = accum;
     }
   }
 
@@ -203,30 +418,66 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
       write(value);
     }
     else {
-      final int initialMask;
-      int mask;
-      initialMask = 1;
-      mask = initialMask << this.bitBufferCount;
-
-      int accum = value;
-      int i = bitNumber.getBitNumber();
-
-      while (i > 0) {
-        this.bitBuffer = this.bitBuffer | ((accum & 1) == 0 ? 0 : mask);
-        accum >>= 1;
-
-        mask = mask << 1;
-
-        i--;
-        this.bitBufferCount++;
-        if (this.bitBufferCount == 8) {
-          this.bitBufferCount = 0;
-          writeByte(this.bitBuffer);
-          mask = initialMask;
-          this.bitBuffer = 0;
+      final int bits = bitNumber.getBitNumber();
+      int accum = this.bitBuffer | ((value & bitNumber.getMask()) << this.bitBufferCount);
+      int count = this.bitBufferCount + bits;
+      if (count >= 8) {
+        writeByte(accum);
+        accum >>>= 8;
+        count -= 8;
+      }
+      this.bitBuffer = accum;
+      this.bitBufferCount = count;
+    }
+  }
+
+  /**
+   * Write values of an array as bit fields, the lower bits of every value are
+   * written. Values are packed through a 64 bit accumulator.
+   *
+   * @param array an array contains values, must not be null
+   * @param bitNumber number of bits to be written for every value
+   * @throws IOException it will be thrown for transport errors
+   * @since 1.2.2
+   */
+  public void writeBitsArray(final byte[] array, final JBBPBitNumber bitNumber) throws IOException {
+    final int bits = bitNumber.getBitNumber();
+    final int mask = bitNumber.getMask();
+    final byte[] work = getWorkBuffer();
+
+    long accum = this.bitBuffer;
+    int count = this.bitBufferCount;
+    int workCount = 0;
+
+    for (final byte v : array) {
+      accum |= (long) (v & mask) << count;
+      count += bits;
+      if (count >= 56) {
+        // write out all full bytes of the accumulator
+        if (workCount > work.length - 8) {
+          writeRaw(work, 0, workCount);
+          workCount = 0;
+        }
+        while (count >= 8) {
+          work[workCount++] = this.msb0 ? JBBPUtils.reverseBitsInByte((byte) accum) : (byte) accum;
+          accum >>>= 8;
+          count -= 8;
         }
       }
     }
+    if (workCount > work.length - 8) {
+      writeRaw(work, 0, workCount);
+      workCount = 0;
+    }
+    while (count >= 8) {
+      work[workCount++] = this.msb0 ? JBBPUtils.reverseBitsInByte((byte) accum) : (byte) accum;
+      accum >>>= 8;
+      count -= 8;
+    }
+    writeRaw(work, 0, workCount);
+
+    this.bitBuffer = (int) accum;
+    this.bitBufferCount = count;
   }
 
   /**
@@ -241,10 +492,16 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     
     if (alignByteNumber>0){
       long padding = (alignByteNumber - (this.byteCounter % alignByteNumber)) % alignByteNumber;
-      while(padding>0){
-        this.out.write(0);
-        this.byteCounter++;
-        padding--;
+      if (padding > 0) {
+        final byte[] work = getWorkBuffer();
+        while (padding > 0) {
+          final int len = (int) Math.min(padding, work.length);
+          for (int i = 0; i < len; i++) {
+            work[i] = 0;
+          }
+          writeRaw(work, 0, len);
+          padding -= len;
+        }
       }
     }
   }
@@ -258,10 +515,69 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     if (this.msb0){
       value = JBBPUtils.reverseBitsInByte((byte)value) & 0xFF;
     }
-    this.out.write(value);
+    if (this.outBuffer == null) {
+      this.out.write(value);
+    }
+    else {
+      if (this.outBufferCount == this.outBuffer.length) {
+        drainOutBuffer();
+      }
+      this.outBuffer[this.outBufferCount++] = (byte) value;
+    }
     this.byteCounter++;
   }
 
+  /**
+   * Inside method to write bytes into the wrapped stream without any change.
+   * @param array an array contains bytes, must not be null
+   * @param offset the offset in the array
+   * @param length number of bytes to be written
+   * @throws IOException it will be thrown for transport problems
+   */
+  private void writeRaw(final byte[] array, final int offset, final int length) throws IOException {
+    final byte[] buffer = this.outBuffer;
+    if (buffer == null) {
+      this.out.write(array, offset, length);
+    }
+    else if (length >= buffer.length) {
+      drainOutBuffer();
+      this.out.write(array, offset, length);
+    }
+    else {
+      if (buffer.length - this.outBufferCount < length) {
+        drainOutBuffer();
+      }
+      System.arraycopy(array, offset, buffer, this.outBufferCount, length);
+      this.outBufferCount += length;
+    }
+    this.byteCounter += length;
+  }
+
+  /**
+   * Write content of the inside output buffer into the wrapped stream.
+   * @throws IOException it will be thrown for transport problems
+   */
+  private void drainOutBuffer() throws IOException {
+    if (this.outBufferCount > 0) {
+      this.out.write(this.outBuffer, 0, this.outBufferCount);
+      this.outBufferCount = 0;
+    }
+  }
+
+  /**
+   * Get the work buffer to encode values, the inside output buffer is not
+   * used for that because values are copied into it.
+   * @return the work buffer, must not be null
+   */
+  private byte[] getWorkBuffer() {
+    byte[] result = this.workBuffer;
+    if (result == null) {
+      result = new byte[WORK_BUFFER_SIZE];
+      this.workBuffer = result;
+    }
+    return result;
+  }
+
   @Override
   public void close() throws IOException {
     this.flush();
@@ -287,4 +603,16 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     this.byteCounter = 0L;
   }
 
+  /**
+   * Reset the byte counter and drop data kept in the inside bit buffer and in
+   * the inside output buffer, the dropped data will not be written into the
+   * wrapped stream.
+   *
+   * @since 1.2.2
+   */
+  void discardBuffers() {
+    resetCounter();
+    this.outBufferCount = 0;
+  }
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream reading data directly from a byte buffer. It works with heap,
+ * direct and memory mapped buffers and allows to read data without copying of
+ * whole buffer content into a byte array, block read operations are made
+ * through bulk get operations of the buffer. The Stream works with a duplicate
+ * of the buffer so that position and limit of the original buffer are not
+ * changed. The Class is not a thread-safe one.
+ *
+ * @since 1.2.2
+ */
+public class JBBPByteBufferInputStream extends InputStream {
+
+  /**
+   * The Source buffer.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * The Marked position.
+   */
+  private int markedPosition;
+
+  /**
+   * The Constructor. The Stream reads data from the current position of the
+   * buffer till its limit.
+   *
+   * @param buffer a byte buffer to be read, must not be null
+   */
+  public JBBPByteBufferInputStream(final ByteBuffer buffer) {
+    super();
+    JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+    this.buffer = buffer.duplicate();
+    this.markedPosition = this.buffer.position();
+  }
+
+  /**
+   * Get the current position in the buffer.
+   *
+   * @return the current position of the stream in the buffer
+   */
+  public int getPosition() {
+    return this.buffer.position();
+  }
+
+  @Override
+  public int read() {
+    return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(final byte[] array, final int offset, final int length) {
+    if (length == 0) {
+      return 0;
+    }
+    final int remaining = this.buffer.remaining();
+    if (remaining == 0) {
+      return -1;
+    }
+    final int len = Math.min(length, remaining);
+    this.buffer.get(array, offset, len);
+    return len;
+  }
+
+  @Override
+  public long skip(final long numOfBytes) {
+    if (numOfBytes <= 0L) {
+      return 0L;
+    }
+    final int len = (int) Math.min(numOfBytes, (long) this.buffer.remaining());
+    this.buffer.position(this.buffer.position() + len);
+    return len;
+  }
+
+  @Override
+  public int available() {
+    return this.buffer.remaining();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  @Override
+  public synchronized void mark(final int readlimit) {
+    this.markedPosition = this.buffer.position();
+  }
+
+  @Override
+  public synchronized void reset() {
+    this.buffer.position(this.markedPosition);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stream writing data directly into a byte buffer. It works with heap
+ * and direct buffers, block write operations are made through bulk put
+ * operations of the buffer. The Stream works with a duplicate of the buffer so
+ * that position and limit of the original buffer are not changed, written data
+ * can be got as a slice of the buffer. If the buffer doesn't have enough space
+ * for data then IOException is thrown and the data is not written. The Class is
+ * not a thread-safe one.
+ *
+ * @since 1.2.2
+ */
+public class JBBPByteBufferOutputStream extends OutputStream {
+
+  /**
+   * The Target buffer.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * The Start position of written data in the buffer.
+   */
+  private final int startPosition;
+
+  /**
+   * The Constructor. The Stream writes data from the current position of the
+   * buffer till its limit.
+   *
+   * @param buffer a byte buffer to be written, must not be null
+   */
+  public JBBPByteBufferOutputStream(final ByteBuffer buffer) {
+    super();
+    JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+    this.buffer = buffer.duplicate();
+    this.startPosition = this.buffer.position();
+  }
+
+  /**
+   * Get number of bytes written into the buffer.
+   *
+   * @return the number of written bytes
+   */
+  public int size() {
+    return this.buffer.position() - this.startPosition;
+  }
+
+  /**
+   * Get number of bytes which still can be written into the buffer.
+   *
+   * @return the number of free bytes in the buffer
+   */
+  public int remaining() {
+    return this.buffer.remaining();
+  }
+
+  /**
+   * Get written data as a slice of the buffer. The Slice shares content with
+   * the buffer, its position is zero and its limit is the number of written
+   * bytes.
+   *
+   * @return a slice of the buffer contains written data, must not be null
+   */
+  public ByteBuffer getWritten() {
+    final ByteBuffer result = this.buffer.duplicate();
+    result.limit(result.position()).position(this.startPosition);
+    return result.slice();
+  }
+
+  /**
+   * Forget written data and start writing from the start position again.
+   */
+  public void reset() {
+    this.buffer.position(this.startPosition);
+  }
+
+  @Override
+  public void write(final int value) throws IOException {
+    if (!this.buffer.hasRemaining()) {
+      throw new IOException("Buffer overflow, capacity " + this.buffer.capacity());
+    }
+    this.buffer.put((byte) value);
+  }
+
+  @Override
+  public void write(final byte[] array, final int offset, final int length) throws IOException {
+    if (this.buffer.remaining() < length) {
+      throw new IOException("Buffer overflow, can't write " + length + " byte(s), remaining " + this.buffer.remaining());
+    }
+    this.buffer.put(array, offset, length);
+  }
+}
@@ -21,6 +21,7 @@ import com.igormaznitsa.jbbp.model.*;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import java.io.*;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 
 /**
  * The Class implements some kind of DSL to form binary blocks. The Class is not
@@ -42,6 +43,10 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
    * The Byte outOrder for operations of multi-byte value output.
    */
   private JBBPByteOrder byteOrder;
+  /**
+   * The Byte outOrder defined for the session start, it is restored by reset.
+   */
+  private final JBBPByteOrder initialByteOrder;
   /**
    * The Bit stream for operations.
    */
@@ -55,6 +60,26 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
    * then it will be saved into the variable.
    */
   private final ByteArrayOutputStream originalByteArrayOutStream;
+  /**
+   * If the DSL session was started for a byte buffer then its stream will be
+   * saved into the variable.
+   */
+  private final JBBPByteBufferOutputStream originalByteBufferOutStream;
+
+  /**
+   * Output stream which drops all written data, it is used by counting
+   * sessions.
+   */
+  private static final class NullOutputStream extends OutputStream {
+
+    @Override
+    public void write(final int b) {
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+    }
+  }
 
   /**
    * The Default byte outOrder.
@@ -90,6 +115,124 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     return new JBBPOut(out, byteOrder, bitOrder);
   }
 
+  /**
+   * Start a DSL session for a byte buffer with defined parameters. Data will
+   * be written directly into the buffer from its current position, position
+   * and limit of the buffer are not changed. If the buffer doesn't have enough
+   * space then write operations (or {@link #EndBuffer()} for buffered data)
+   * throw IOException.
+   *
+   * @param buffer the target buffer, it can be heap or direct one, must not be
+   * null
+   * @param byteOrder the byte outOrder for the session
+   * @param bitOrder the bit outOrder for the session
+   * @return the new DSL session generated for the buffer with parameters
+   * @see #EndBuffer()
+   * @since 1.2.2
+   */
+  public static JBBPOut BeginBin(final ByteBuffer buffer, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder) {
+    return new JBBPOut(new JBBPByteBufferOutputStream(buffer), byteOrder, bitOrder);
+  }
+
+  /**
+   * Start a DSL session for a byte buffer and default parameters. Data will be
+   * written directly into the buffer from its current position, position and
+   * limit of the buffer are not changed. If the buffer doesn't have enough
+   * space then write operations (or {@link #EndBuffer()} for buffered data)
+   * throw IOException.
+   *
+   * @param buffer the target buffer, it can be heap or direct one, must not be
+   * null
+   * @return the new DSL session generated for the buffer and default
+   * parameters
+   * @see #EndBuffer()
+   * @since 1.2.2
+   */
+  public static JBBPOut BeginBin(final ByteBuffer buffer) {
+    return new JBBPOut(new JBBPByteBufferOutputStream(buffer), DEFAULT_BYTE_ORDER, DEFAULT_BIT_ORDER);
+  }
+
+  /**
+   * Start a DSL session which only counts written data, the data is not saved
+   * anywhere. It allows to calculate size of data before real writing.
+   *
+   * @return the new DSL session generated with the default parameters for
+   * counting of data
+   * @see #getByteCounter()
+   * @see #getBitCounter()
+   * @since 1.2.2
+   */
+  public static JBBPOut BeginCount() {
+    return new JBBPOut(new NullOutputStream(), DEFAULT_BYTE_ORDER, DEFAULT_BIT_ORDER);
+  }
+
+  /**
+   * Calculate number of bytes which will be written by {@link #Bin(Object)}
+   * for an object. The Object is not written, sizes of classes which don't
+   * contain arrays are cached.
+   *
+   * @param object an object to be processed, must not be null
+   * @return number of bytes to be written for the object
+   * @since 1.2.2
+   */
+  public static long sizeOf(final Object object) {
+    return sizeOf(object, null);
+  }
+
+  /**
+   * Calculate number of bytes which will be written by
+   * {@link #Bin(Object, JBBPCustomFieldWriter)} for an object. The Object is
+   * not written.
+   *
+   * @param object an object to be processed, must not be null
+   * @param customFieldWriter a custom field writer to be used for custom
+   * fields of the object, it can be null
+   * @return number of bytes to be written for the object
+   * @since 1.2.2
+   */
+  public static long sizeOf(final Object object, final JBBPCustomFieldWriter customFieldWriter) {
+    return (bitSizeOf(object, customFieldWriter) + 7L) >>> 3;
+  }
+
+  /**
+   * Calculate number of bits which will be written by {@link #Bin(Object)}
+   * for an object. The Object is not written, sizes of classes which don't
+   * contain arrays are cached.
+   *
+   * @param object an object to be processed, must not be null
+   * @return number of bits to be written for the object
+   * @since 1.2.2
+   */
+  public static long bitSizeOf(final Object object) {
+    return bitSizeOf(object, null);
+  }
+
+  /**
+   * Calculate number of bits which will be written by
+   * {@link #Bin(Object, JBBPCustomFieldWriter)} for an object. The Object is
+   * not written. If a custom field writer is defined then the object is
+   * processed through a counting session.
+   *
+   * @param object an object to be processed, must not be null
+   * @param customFieldWriter a custom field writer to be used for custom
+   * fields of the object, it can be null
+   * @return number of bits to be written for the object
+   * @see #BeginCount()
+   * @since 1.2.2
+   */
+  public static long bitSizeOf(final Object object, final JBBPCustomFieldWriter customFieldWriter) {
+    JBBPUtils.assertNotNull(object, "Object must not be null");
+    if (customFieldWriter == null) {
+      return JBBPOutSizeCounter.countBits(object);
+    }
+    try {
+      return BeginCount().Bin(object, customFieldWriter).getBitCounter();
+    }
+    catch (IOException ex) {
+      throw new JBBPIOException("Can't count bits of object", ex);
+    }
+  }
+
   /**
    * Start a DSL session for default parameters and inside byte array stream.
    *
@@ -113,6 +256,22 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     return new JBBPOut(new ByteArrayOutputStream(initialSize), DEFAULT_BYTE_ORDER, DEFAULT_BIT_ORDER);
   }
 
+  /**
+   * Start a DSL session for defined parameters and inside byte array stream
+   * with defined start size.
+   *
+   * @param initialSize the start size of inside buffer of the byte array output
+   * stream, must be positive
+   * @param byteOrder the byte outOrder for the session
+   * @param bitOrder the bit outOrder for the session
+   * @return the new DSL session generated with the parameters and inside byte
+   * array stream.
+   * @since 1.2.2
+   */
+  public static JBBPOut BeginBin(final int initialSize, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder) {
+    return new JBBPOut(new ByteArrayOutputStream(initialSize), byteOrder, bitOrder);
+  }
+
   /**
    * Start a DSL session for a defined output stream and default parameters.
    *
@@ -166,6 +325,7 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
       throw new IllegalArgumentException("Detected JBBPBitOutputStream as argument with already defined different bit order [" + this.bitOrder + ']');
     }
     this.byteOrder = byteOrder;
+    this.initialByteOrder = byteOrder;
 
     if (outStream instanceof ByteArrayOutputStream) {
       this.originalByteArrayOutStream = (ByteArrayOutputStream) outStream;
@@ -173,6 +333,13 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     else {
       this.originalByteArrayOutStream = null;
     }
+
+    if (outStream instanceof JBBPByteBufferOutputStream) {
+      this.originalByteBufferOutStream = (JBBPByteBufferOutputStream) outStream;
+    }
+    else {
+      this.originalByteBufferOutStream = null;
+    }
   }
 
   /**
@@ -418,9 +585,7 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     assertNotEnded();
     JBBPUtils.assertNotNull(value, "Array must not be null");
     if (this.processCommands) {
-      for (final byte b : value) {
-        _writeBits(numberOfBits, b);
-      }
+      this.outStream.writeBitsArray(value, numberOfBits);
     }
     return this;
   }
@@ -677,9 +842,7 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     assertNotEnded();
     assertArrayNotNull(value);
     if (this.processCommands) {
-      for (final short v : value) {
-        this._writeShort(v);
-      }
+      this.outStream.writeShortArray(value, this.byteOrder);
     }
     return this;
   }
@@ -740,9 +903,7 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     assertNotEnded();
     assertArrayNotNull(value);
     if (this.processCommands) {
-      for (final int v : value) {
-        _writeInt(v);
-      }
+      this.outStream.writeIntArray(value, this.byteOrder);
     }
     return this;
   }
@@ -839,9 +1000,7 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     assertNotEnded();
     assertArrayNotNull(value);
     if (this.processCommands) {
-      for (final long l : value) {
-        _writeLong(l);
-      }
+      this.outStream.writeLongArray(value, this.byteOrder);
     }
     return this;
   }
@@ -894,6 +1053,63 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
     return this.originalByteArrayOutStream;
   }
 
+  /**
+   * Flush the stream and end the session started for a byte buffer.
+   *
+   * @return if the session is based on a byte buffer then a slice of the buffer
+   * contains written data will be returned (it shares content with the buffer
+   * and doesn't need copying), null otherwise
+   * @throws IOException it will be thrown for transport errors or if the
+   * buffer doesn't have enough space for data
+   * @see #BeginBin(java.nio.ByteBuffer)
+   * @since 1.2.2
+   */
+  public ByteBuffer EndBuffer() throws IOException {
+    assertNotEnded();
+    this.ended = true;
+    this.outStream.flush();
+    return this.originalByteBufferOutStream == null ? null : this.originalByteBufferOutStream.getWritten();
+  }
+
+  /**
+   * Reset the session to be reused for new data, it can be called for both
+   * ended and not ended sessions. Data which has not been written into the
+   * session stream is dropped, the byte counter is reset and the byte outOrder
+   * defined for the session start is restored. If the session is based on
+   * a byte array output stream or on a byte buffer then written data is dropped
+   * too and the same stream (or buffer area) will be used for new data, so
+   * that the result of a previous {@link #End()} should be processed before
+   * reset.
+   *
+   * @return the DSL session
+   * @since 1.2.2
+   */
+  public JBBPOut Reset() {
+    this.outStream.discardBuffers();
+    if (this.originalByteArrayOutStream != null) {
+      this.originalByteArrayOutStream.reset();
+    }
+    if (this.originalByteBufferOutStream != null) {
+      this.originalByteBufferOutStream.reset();
+    }
+    this.byteOrder = this.initialByteOrder;
+    this.processCommands = true;
+    this.ended = false;
+    return this;
+  }
+
+  /**
+   * Get number of bits written into the underlying stream, bits in the inside
+   * bit buffer are counted too. It has appropriate value only if the counter
+   * was not reset.
+   *
+   * @return the current bit counter for the underlying stream
+   * @since 1.2.2
+   */
+  public long getBitCounter() {
+    return (this.outStream.getCounter() << 3) + this.outStream.getBufferedBitsNumber();
+  }
+
   /**
    * get the current byte counter value for the underlying stream. it has
    * appropriate value only if it was not reset.
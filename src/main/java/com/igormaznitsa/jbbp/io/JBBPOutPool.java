@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+/**
+ * Factory of reusable DSL sessions, every thread gets its own session based
+ * on inside byte array stream, the session and its buffers are reset and
+ * reused for every call of {@link #BeginBin()} so that building of many
+ * packets doesn't produce garbage. Result of {@link JBBPOut#End()} is the
+ * same stream for all sessions of a thread, it must be processed before the
+ * next call of {@link #BeginBin()} in the thread. The Class is a thread-safe
+ * one.
+ *
+ * @see JBBPOut#Reset()
+ * @since 1.2.2
+ */
+public final class JBBPOutPool {
+
+  /**
+   * Sessions of threads.
+   */
+  private final ThreadLocal<JBBPOut> sessions;
+
+  /**
+   * Constructor of a pool with default byte and bit outOrder.
+   */
+  public JBBPOutPool() {
+    this(32, JBBPOut.DEFAULT_BYTE_ORDER, JBBPOut.DEFAULT_BIT_ORDER);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param initialSize the start size of inside byte array stream of every
+   * session, must be positive
+   * @param byteOrder the byte outOrder for sessions, must not be null
+   * @param bitOrder the bit outOrder for sessions, must not be null
+   */
+  public JBBPOutPool(final int initialSize, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder) {
+    JBBPUtils.assertNotNull(byteOrder, "Byte order must not be null");
+    JBBPUtils.assertNotNull(bitOrder, "Bit order must not be null");
+    if (initialSize <= 0) {
+      throw new IllegalArgumentException("Initial size must be positive [" + initialSize + ']');
+    }
+    this.sessions = new ThreadLocal<JBBPOut>() {
+      @Override
+      protected JBBPOut initialValue() {
+        return JBBPOut.BeginBin(initialSize, byteOrder, bitOrder);
+      }
+    };
+  }
+
+  /**
+   * Get the reset session of the current thread.
+   *
+   * @return the session of the current thread ready for new data, must not be
+   * null
+   */
+  public JBBPOut BeginBin() {
+    return this.sessions.get().Reset();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.mapper.Bin;
+import com.igormaznitsa.jbbp.utils.JBBPClassValueCache;
+import java.lang.reflect.Field;
+
+/**
+ * Auxiliary class to calculate number of bits written by {@link JBBPOut#Bin(Object)}
+ * for an object without writing of data. Sizes of classes which don't contain
+ * arrays and structures of other types than declared ones are cached. The
+ * Class is not a thread-safe one, but its cache is shared.
+ *
+ * @since 1.2.2
+ */
+final class JBBPOutSizeCounter extends AbstractMappedClassFieldObserver {
+
+  /**
+   * Cached sizes in bits of classes which have fixed size. Classes are weak
+   * keys so that the cache doesn't prevent unloading of classes and their
+   * class loaders. Reading of the cache doesn't need any lock.
+   */
+  private static final JBBPClassValueCache<Long> FIXED_SIZES = new JBBPClassValueCache<Long>();
+
+  /**
+   * Counted bits.
+   */
+  private long bits;
+
+  /**
+   * Flag shows that counted data have fixed size.
+   */
+  private boolean fixed = true;
+
+  private JBBPOutSizeCounter() {
+    super();
+  }
+
+  /**
+   * Calculate number of bits written for an object.
+   *
+   * @param object an object to be processed, must not be null
+   * @return number of bits to be written for the object
+   */
+  static long countBits(final Object object) {
+    final Class<?> klazz = object.getClass();
+    final Long cached = FIXED_SIZES.get(klazz);
+    if (cached != null) {
+      return cached;
+    }
+    final JBBPOutSizeCounter counter = new JBBPOutSizeCounter();
+    counter.processObject(object, null, null);
+    if (counter.fixed) {
+      FIXED_SIZES.put(klazz, counter.bits);
+    }
+    return counter.bits;
+  }
+
+  @Override
+  protected void onStructStart(final Object obj, final Field field, final Bin annotation) {
+    if (field != null && obj.getClass() != field.getType()) {
+      this.fixed = false;
+    }
+  }
+
+  @Override
+  protected void onArrayStart(final Object obj, final Field field, final Bin annotation, final int length) {
+    this.fixed = false;
+  }
+
+  @Override
+  protected void onFieldLong(final Object obj, final Field field, final Bin annotation, final long value) {
+    this.bits += 64;
+  }
+
+  @Override
+  protected void onFieldInt(final Object obj, final Field field, final Bin annotation, final int value) {
+    this.bits += 32;
+  }
+
+  @Override
+  protected void onFieldShort(final Object obj, final Field field, final Bin annotation, final boolean signed, final int value) {
+    this.bits += 16;
+  }
+
+  @Override
+  protected void onFieldByte(final Object obj, final Field field, final Bin annotation, final boolean signed, final int value) {
+    this.bits += 8;
+  }
+
+  @Override
+  protected void onFieldBool(final Object obj, final Field field, final Bin annotation, final boolean value) {
+    this.bits += 8;
+  }
+
+  @Override
+  protected void onFieldBits(final Object obj, final Field field, final Bin annotation, final JBBPBitNumber bitNumber, final int value) {
+    this.bits += bitNumber.getBitNumber();
+  }
+
+  @Override
+  protected void onFieldCustom(final Object obj, final Field field, final Bin annotation, final Object customFieldProcessor, final Object value) {
+    throw new Error("Unexpected custom field, it must be processed through JBBPOut. Contact developer!");
+  }
+}
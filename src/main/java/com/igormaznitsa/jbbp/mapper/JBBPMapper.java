@@ -15,13 +15,19 @@
  */
 package com.igormaznitsa.jbbp.mapper;
 
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
 import com.igormaznitsa.jbbp.exceptions.JBBPMapperException;
 import com.igormaznitsa.jbbp.io.JBBPBitOrder;
 import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.mapper.accessors.JBBPFieldAccessor;
+import com.igormaznitsa.jbbp.mapper.accessors.JBBPFieldAccessorFactory;
 import com.igormaznitsa.jbbp.mapper.instantiators.JBBPClassInstantiator;
 import com.igormaznitsa.jbbp.mapper.instantiators.JBBPClassInstantiatorFactory;
 import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.utils.JBBPClassValueCache;
+import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +54,17 @@ public final class JBBPMapper {
    */
   private static final JBBPClassInstantiator CLASS_INSTANTIATOR = JBBPClassInstantiatorFactory.getInstance().make();
 
+  /**
+   * Cache of mapping plans for mapping classes, a plan is made once for a
+   * class and shared between threads. Classes are weak keys and plans are
+   * soft values because a plan refers to its class through reflection fields,
+   * so that the cache doesn't prevent unloading of classes and their class
+   * loaders. Reading of the cache doesn't need any lock.
+   *
+   * @since 1.2.2
+   */
+  private static final JBBPClassValueCache<SoftReference<MappedField[]>> MAPPING_PLANS = new JBBPClassValueCache<SoftReference<MappedField[]>>();
+
   /**
    * Create a class instance, map binary data of a structure for its path to its
    * fields and return the instance.
@@ -251,17 +268,167 @@ public final class JBBPMapper {
     JBBPUtils.assertNotNull(mappingClassInstance, "The Mapping class instance must not be null");
 
     final Class<?> mappingClass = mappingClassInstance.getClass();
+    final JBBPIntCounter position = new JBBPIntCounter();
+
+    for (final MappedField mapped : findMappingPlan(mappingClass)) {
+      final Field mappingField = mapped.field;
+      final JBBPFieldAccessor accessor = mapped.accessor;
+      final Bin mappedAnno = mapped.bin;
+
+      if (mapped.custom) {
+        JBBPUtils.assertNotNull(customFieldProcessor, "There is a custom mapping field, in the case you must provide a custom mapping field processor");
+        final Object value = customFieldProcessor.prepareObjectForMapping(rootStructure, mappedAnno, mappingField);
+        setFieldValue(mappingClassInstance, accessor, null, value);
+      }
+      else {
+        if (mapped.binType == null) {
+          throw new JBBPMapperException("Can't find compatible type for a mapping field", rootStructure, mappingClass, mappingField, null);
+        }
+
+        final JBBPAbstractField binField = mapped.findBinField(rootStructure, position);
+
+        if (binField == null) {
+          if ((flags & FLAG_IGNORE_MISSING_VALUES) != 0) {
+            continue;
+          }
+          throw new JBBPMapperException("Can't find value to be mapped to a mapping field [" + mappingField + ']', null, mappingClass, mappingField, null);
+        }
+
+        mapField(mapped, binField, mappingClassInstance, customFieldProcessor);
+      }
+    }
+    return mappingClassInstance;
+  }
+
+  /**
+   * Map a found structure field to a mapping field of a class instance.
+   *
+   * @param mapped the mapping field info, must not be null and must not be
+   * custom one
+   * @param binField the structure field to be mapped, must not be null
+   * @param mappingClassInstance the mapping class instance, must not be null
+   * @param customFieldProcessor a custom field processor, it can be null
+   * @throws JBBPMapperException for any error
+   * @since 1.2.2
+   */
+  static void mapField(final MappedField mapped, final JBBPAbstractField binField, final Object mappingClassInstance, final JBBPMapperCustomFieldProcessor customFieldProcessor) {
+    final Class<?> mappingClass = mappingClassInstance.getClass();
+    final Field mappingField = mapped.field;
+    final JBBPFieldAccessor accessor = mapped.accessor;
+    final JBBPBitNumber mappedBitNumber = mapped.bitNumber;
+
+    if (mapped.bitWideField && mappedBitNumber != JBBPBitNumber.BITS_8 && ((BitEntity) binField).getBitWidth() != mappedBitNumber) {
+      throw new JBBPMapperException("Can't map value to a mapping field for different field bit width [" + mappedBitNumber + "!=" + ((BitEntity) binField).getBitWidth().getBitNumber() + ']', null, mappingClass, mappingField, null);
+    }
+
+    if (mapped.arrayField) {
+      if (binField instanceof JBBPAbstractArrayField) {
+        if (binField instanceof JBBPFieldArrayStruct) {
+          // structure
+          final JBBPFieldArrayStruct structArray = (JBBPFieldArrayStruct) binField;
+          final Class<?> componentType = mappingField.getType().getComponentType();
+
+          Object valueArray = getFieldValue(mappingClassInstance, accessor);
+
+          valueArray = valueArray == null ? Array.newInstance(componentType, structArray.size()) : valueArray;
+
+          if (Array.getLength(valueArray) != structArray.size()) {
+            throw new JBBPMapperException("Can't map an array field for different expected size [" + Array.getLength(valueArray) + "!=" + structArray.size() + ']', binField, mappingClass, mappingField, null);
+          }
 
+          for (int i = 0; i < structArray.size(); i++) {
+            final Object curInstance = Array.get(valueArray, i);
+            if (curInstance == null) {
+              Array.set(valueArray, i, map(structArray.getElementAt(i), componentType, customFieldProcessor));
+            }
+            else {
+              Array.set(valueArray, i, map(structArray.getElementAt(i), curInstance, customFieldProcessor));
+            }
+          }
+          setFieldValue(mappingClassInstance, accessor, binField, valueArray);
+        }
+        else {
+          // primitive
+          mapArrayField(mappingClassInstance, accessor, (JBBPAbstractArrayField<?>) binField, mapped.msb0);
+        }
+      }
+      else {
+        throw new JBBPMapperException("Can't map a non-array value to an array mapping field", binField, mappingClass, mappingField, null);
+      }
+    }
+    else {
+      if (binField instanceof JBBPNumericField) {
+        mapNumericField(mappingClassInstance, accessor, (JBBPNumericField) binField, mapped.msb0);
+      }
+      else if (binField instanceof JBBPFieldStruct) {
+        if (mappingField.getType().isPrimitive()) {
+          throw new JBBPMapperException("Can't map a structure to a primitive mapping field", binField, mappingClass, mappingField, null);
+        }
+        else {
+          final Object curValue = getFieldValue(mappingClassInstance, accessor);
+          if (curValue == null) {
+            setFieldValue(mappingClassInstance, accessor, binField, map((JBBPFieldStruct) binField, mappingField.getType(), customFieldProcessor));
+          }
+          else {
+            setFieldValue(mappingClassInstance, accessor, binField, map((JBBPFieldStruct) binField, curValue, customFieldProcessor));
+          }
+        }
+      }
+      else {
+        boolean processed = false;
+        if (mappingField.getType() == String.class && binField instanceof JBBPAbstractArrayField) {
+          final String convertedValue = convertFieldValueToString((JBBPAbstractArrayField<?>) binField);
+          if (convertedValue != null) {
+            setFieldValue(mappingClassInstance, accessor, binField, convertedValue);
+            processed = true;
+          }
+        }
+        if (!processed) {
+          throw new JBBPMapperException("Can't map a field for its value incompatibility", binField, mappingClass, mappingField, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the mapping plan for a class, the plan is made and cached for the
+   * first call.
+   *
+   * @param mappingClass a mapping class, must not be null
+   * @return the mapping plan for the class, must not be null
+   * @since 1.2.2
+   */
+  static MappedField[] findMappingPlan(final Class<?> mappingClass) {
+    final SoftReference<MappedField[]> cached = MAPPING_PLANS.get(mappingClass);
+    MappedField[] result = cached == null ? null : cached.get();
+    if (result == null) {
+      result = makeMappingPlan(mappingClass);
+      MAPPING_PLANS.put(mappingClass, new SoftReference<MappedField[]>(result));
+    }
+    return result;
+  }
+
+  /**
+   * Make the mapping plan for a class. The Plan contains all mapping fields of
+   * the class and its ancestors in the processing order together with their
+   * resolved annotations and types.
+   *
+   * @param mappingClass a mapping class, must not be null
+   * @return the mapping plan for the class, must not be null
+   * @since 1.2.2
+   */
+  private static MappedField[] makeMappingPlan(final Class<?> mappingClass) {
     final Bin defaultAnno = mappingClass.getAnnotation(Bin.class);
 
     // make chain of ancestors till java.lang.Object
     final List<Class<?>> listOfClassHierarchy = new ArrayList<Class<?>>();
-    Class<?> current = mappingClassInstance.getClass();
+    Class<?> current = mappingClass;
     while (current != java.lang.Object.class) {
       listOfClassHierarchy.add(current);
       current = current.getSuperclass();
     }
 
+    final List<MappedField> result = new ArrayList<MappedField>();
     for (final Class<?> processingClazz : listOfClassHierarchy) {
       for (final Field mappingField : processingClazz.getDeclaredFields()) {
         final int modifiers = mappingField.getModifiers();
@@ -269,136 +436,178 @@ public final class JBBPMapper {
           continue;
         }
 
-        if (!mappingField.isAccessible()){
-          JBBPUtils.makeAccessible(mappingField);
-        }
-
         final Bin fieldAnno = mappingField.getAnnotation(Bin.class);
-        final Bin mappedAnno;
         if ((fieldAnno == null && defaultAnno == null) || mappingField.getName().indexOf('$') >= 0) {
           continue;
         }
-        mappedAnno = fieldAnno == null ? defaultAnno : fieldAnno;
 
-        if (mappedAnno.custom()) {
-          JBBPUtils.assertNotNull(customFieldProcessor, "There is a custom mapping field, in the case you must provide a custom mapping field processor");
-          final Object value = customFieldProcessor.prepareObjectForMapping(rootStructure, mappedAnno, mappingField);
-          setFieldValue(mappingClassInstance, mappingField, null, value);
+        if (!mappingField.isAccessible()) {
+          JBBPUtils.makeAccessible(mappingField);
         }
-        else {
-          final BinType fieldType;
-
-          final JBBPBitNumber mappedBitNumber = mappedAnno.outBitNumber();
-
-          if (mappedAnno.type() == BinType.UNDEFINED) {
-            BinType thetype = BinType.findCompatible(mappingField.getType());
-            if (thetype == null) {
-              throw new JBBPMapperException("Can't find compatible type for a mapping field", rootStructure, mappingClass, mappingField, null);
-            }
-            else if (mappedBitNumber.getBitNumber() < 8 && !(thetype == BinType.STRUCT || thetype == BinType.STRUCT_ARRAY)) {
-              thetype = thetype.isArray() ? BinType.BIT_ARRAY : BinType.BIT;
-            }
-            fieldType = thetype;
-          }
-          else {
-            fieldType = mappedAnno.type();
-          }
-          final boolean bitWideField = fieldType == BinType.BIT || fieldType == BinType.BIT_ARRAY;
 
-          final String fieldName = mappedAnno.name().length() == 0 ? mappingField.getName() : mappedAnno.name();
-          final String fieldPath = mappedAnno.path();
+        result.add(new MappedField(mappingField, fieldAnno == null ? defaultAnno : fieldAnno));
+      }
+    }
+    return result.toArray(new MappedField[result.size()]);
+  }
 
-          final JBBPAbstractField binField;
+  /**
+   * Remove all cached mapping plans. Cached plans don't prevent unloading of
+   * mapping classes but they are released only by garbage collection, so the
+   * method can be called to release them at once, for instance when a
+   * container undeploys an application which mapping classes have been used.
+   *
+   * @since 1.2.2
+   */
+  public static void clearMappingPlanCache() {
+    MAPPING_PLANS.clear();
+  }
 
-          if (fieldPath.length() == 0) {
-            binField = fieldName.length() == 0 ? rootStructure.findFieldForType(fieldType.getFieldClass()) : rootStructure.findFieldForNameAndType(fieldName, fieldType.getFieldClass());
-          }
-          else {
-            binField = rootStructure.findFieldForPathAndType(fieldPath, fieldType.getFieldClass());
-          }
+  /**
+   * Mapping field of a class with resolved mapping information, it is a part
+   * of a cached mapping plan.
+   *
+   * @since 1.2.2
+   */
+  static final class MappedField {
+
+    /**
+     * The Mapping class field.
+     */
+    final Field field;
+    /**
+     * The Accessor to read and write values of the field.
+     */
+    final JBBPFieldAccessor accessor;
+    /**
+     * The Annotation to be used for the field.
+     */
+    final Bin bin;
+    /**
+     * Flag shows that the field is mapped by a custom field processor.
+     */
+    final boolean custom;
+    /**
+     * The Resolved type of the field, null if the field is custom or a
+     * compatible type is not found.
+     */
+    final BinType binType;
+    /**
+     * The Bit number for the field.
+     */
+    final JBBPBitNumber bitNumber;
+    /**
+     * Flag shows that the field is a bit one.
+     */
+    final boolean bitWideField;
+    /**
+     * Flag shows that the mapping field is an array.
+     */
+    final boolean arrayField;
+    /**
+     * Flag shows that bits of values must be reversed.
+     */
+    final boolean msb0;
+    /**
+     * The Normalized name of a structure field to be mapped.
+     */
+    final String normalizedName;
+    /**
+     * The Path of a structure field to be mapped, it is empty if not defined.
+     */
+    final String path;
+    /**
+     * The Normalized path of a structure field to be mapped, it is empty if
+     * not defined.
+     */
+    final String normalizedPath;
+
+    MappedField(final Field field, final Bin bin) {
+      this.field = field;
+      this.accessor = JBBPFieldAccessorFactory.getInstance().make(field);
+      this.bin = bin;
+      this.custom = bin.custom();
+      this.bitNumber = bin.outBitNumber();
+      this.arrayField = field.getType().isArray();
+      this.msb0 = bin.bitOrder() == JBBPBitOrder.MSB0;
+      this.path = bin.path();
+      this.normalizedPath = JBBPUtils.normalizeFieldNameOrPath(this.path);
+      this.normalizedName = JBBPUtils.normalizeFieldNameOrPath(bin.name().length() == 0 ? field.getName() : bin.name());
+
+      if (this.custom) {
+        this.binType = null;
+      }
+      else if (bin.type() == BinType.UNDEFINED) {
+        BinType thetype = BinType.findCompatible(field.getType());
+        if (thetype != null && this.bitNumber.getBitNumber() < 8 && !(thetype == BinType.STRUCT || thetype == BinType.STRUCT_ARRAY)) {
+          thetype = thetype.isArray() ? BinType.BIT_ARRAY : BinType.BIT;
+        }
+        this.binType = thetype;
+      }
+      else {
+        this.binType = bin.type();
+      }
+      this.bitWideField = this.binType == BinType.BIT || this.binType == BinType.BIT_ARRAY;
+    }
 
-          if (binField == null) {
-            if ((flags & FLAG_IGNORE_MISSING_VALUES) != 0) {
-              continue;
-            }
-            throw new JBBPMapperException("Can't find value to be mapped to a mapping field [" + mappingField + ']', null, mappingClass, mappingField, null);
-          }
+    /**
+     * Find a structure field to be mapped to the mapping field. Fields found
+     * for their names are searched from the position after the previous found
+     * field because mapping fields usually have the same order as structure
+     * fields.
+     *
+     * @param struct a structure to be searched, must not be null
+     * @param position position of the structure field to start search, it is
+     * changed to the position after the found field, must not be null
+     * @return found field or null if not found
+     */
+    JBBPAbstractField findBinField(final JBBPFieldStruct struct, final JBBPIntCounter position) {
+      final Class<? extends JBBPAbstractField> fieldClass = this.binType.getFieldClass();
+      if (this.path.length() != 0) {
+        return struct.findFieldForPathAndType(this.path, fieldClass);
+      }
+      if (this.normalizedName.length() == 0) {
+        return struct.findFieldForType(fieldClass);
+      }
 
-          if (bitWideField && mappedBitNumber != JBBPBitNumber.BITS_8 && ((BitEntity) binField).getBitWidth() != mappedBitNumber) {
-            throw new JBBPMapperException("Can't map value to a mapping field for different field bit width [" + mappedBitNumber + "!=" + ((BitEntity) binField).getBitWidth().getBitNumber() + ']', null, mappingClass, mappingField, null);
-          }
+      final int fieldNumber = struct.size();
+      final int start = position.get() < fieldNumber ? position.get() : 0;
+      for (int i = 0; i < fieldNumber; i++) {
+        final int index = (start + i) % fieldNumber;
+        final JBBPAbstractField f = struct.getFieldAt(index);
+        if (fieldClass.isAssignableFrom(f.getClass()) && this.normalizedName.equals(f.getFieldName())) {
+          position.set(index + 1);
+          return f;
+        }
+      }
+      return null;
+    }
 
-          if (mappingField.getType().isArray()) {
-            if (binField instanceof JBBPAbstractArrayField) {
-              if (binField instanceof JBBPFieldArrayStruct) {
-                // structure
-                final JBBPFieldArrayStruct structArray = (JBBPFieldArrayStruct) binField;
-                final Class<?> componentType = mappingField.getType().getComponentType();
-
-                Object valueArray = getFieldValue(mappingClassInstance, mappingField);
-
-                valueArray = valueArray == null ? Array.newInstance(componentType, structArray.size()) : valueArray;
-
-                if (Array.getLength(valueArray) != structArray.size()) {
-                  throw new JBBPMapperException("Can't map an array field for different expected size [" + Array.getLength(valueArray) + "!=" + structArray.size() + ']', binField, mappingClass, mappingField, null);
-                }
-
-                for (int i = 0; i < structArray.size(); i++) {
-                  final Object curInstance = Array.get(valueArray, i);
-                  if (curInstance == null) {
-                    Array.set(valueArray, i, map(structArray.getElementAt(i), componentType, customFieldProcessor));
-                  }
-                  else {
-                    Array.set(valueArray, i, map(structArray.getElementAt(i), curInstance, customFieldProcessor));
-                  }
-                }
-                setFieldValue(mappingClassInstance, mappingField, binField, valueArray);
-              }
-              else {
-                // primitive
-                mapArrayField(mappingClassInstance, mappingField, (JBBPAbstractArrayField<?>) binField, mappedAnno.bitOrder() == JBBPBitOrder.MSB0);
-              }
-            }
-            else {
-              throw new JBBPMapperException("Can't map a non-array value to an array mapping field", binField, mappingClass, mappingField, null);
-            }
-          }
-          else {
-            if (binField instanceof JBBPNumericField) {
-              mapNumericField(mappingClassInstance, mappingField, (JBBPNumericField) binField, mappedAnno.bitOrder() == JBBPBitOrder.MSB0);
-            }
-            else if (binField instanceof JBBPFieldStruct) {
-              if (mappingField.getType().isPrimitive()) {
-                throw new JBBPMapperException("Can't map a structure to a primitive mapping field", binField, mappingClass, mappingField, null);
-              }
-              else {
-                final Object curValue = getFieldValue(mappingClassInstance, mappingField);
-                if (curValue == null) {
-                  setFieldValue(mappingClassInstance, mappingField, binField, map((JBBPFieldStruct) binField, mappingField.getType(), customFieldProcessor));
-                }
-                else {
-                  setFieldValue(mappingClassInstance, mappingField, binField, map((JBBPFieldStruct) binField, curValue, customFieldProcessor));
-                }
-              }
-            }
-            else {
-              boolean processed = false;
-              if (mappingField.getType() == String.class && binField instanceof JBBPAbstractArrayField) {
-                final String convertedValue = convertFieldValueToString((JBBPAbstractArrayField<?>) binField);
-                if (convertedValue != null) {
-                  setFieldValue(mappingClassInstance, mappingField, binField, convertedValue);
-                  processed = true;
-                }
-              }
-              if (!processed) {
-                throw new JBBPMapperException("Can't map a field for its value incompatibility", binField, mappingClass, mappingField, null);
-              }
-            }
-          }
+    /**
+     * Check a field of the root structure and find a field to be mapped to the
+     * mapping field, it is used to map fields during parsing.
+     *
+     * @param rootField a field of the root structure, must not be null
+     * @return the field itself, a field found inside the field or null if the
+     * field is not related to the mapping field
+     */
+    JBBPAbstractField findBinFieldInRootField(final JBBPAbstractField rootField) {
+      final JBBPNamedFieldInfo nameInfo = rootField.getNameInfo();
+      if (nameInfo == null) {
+        return null;
+      }
+      final Class<? extends JBBPAbstractField> fieldClass = this.binType.getFieldClass();
+      if (this.normalizedPath.length() != 0) {
+        if (this.normalizedPath.equals(nameInfo.getFieldPath())) {
+          return fieldClass.isAssignableFrom(rootField.getClass()) ? rootField : null;
+        }
+        if (rootField instanceof JBBPFieldStruct && this.normalizedPath.startsWith(nameInfo.getFieldPath() + '.')) {
+          return ((JBBPFieldStruct) rootField).findFieldForPathAndType(this.normalizedPath, fieldClass);
         }
+        return null;
       }
+      return fieldClass.isAssignableFrom(rootField.getClass()) && this.normalizedName.equals(nameInfo.getFieldName()) ? rootField : null;
     }
-    return mappingClassInstance;
   }
 
   /**
@@ -456,20 +665,20 @@ public final class JBBPMapper {
    * fields!
    *
    * @param classInstance a class instance
-   * @param classField a mapping class field which should be set by the value,
-   * must not be null
+   * @param accessor an accessor of a mapping class field which should be set
+   * by the value, must not be null
    * @param binField a parsed bin field which value will be set, can be null
    * @param value a value to be set to the class field
    */
-  private static void setFieldValue(final Object classInstance, final Field classField, final JBBPAbstractField binField, final Object value) {
+  private static void setFieldValue(final Object classInstance, final JBBPFieldAccessor accessor, final JBBPAbstractField binField, final Object value) {
     try {
-      classField.set(classInstance, value);
+      accessor.setObject(classInstance, value);
     }
     catch (IllegalArgumentException ex) {
-      throw new JBBPMapperException("Can't set value to a mapping field", binField, classInstance.getClass(), classField, ex);
+      throw new JBBPMapperException("Can't set value to a mapping field", binField, classInstance.getClass(), accessor.getField(), ex);
     }
     catch (IllegalAccessException ex) {
-      throw new JBBPMapperException("Can't get access to a mapping field", binField, classInstance.getClass(), classField, ex);
+      throw new JBBPMapperException("Can't get access to a mapping field", binField, classInstance.getClass(), accessor.getField(), ex);
     }
   }
 
@@ -477,19 +686,19 @@ public final class JBBPMapper {
    * Get a value of a field from a class instance.
    *
    * @param classInstance a class instance object
-   * @param classField a class field which value must be returned, must not be
-   * null
+   * @param accessor an accessor of a class field which value must be returned,
+   * must not be null
    * @return the field value for the class instance
    */
-  private static Object getFieldValue(final Object classInstance, final Field classField) {
+  private static Object getFieldValue(final Object classInstance, final JBBPFieldAccessor accessor) {
     try {
-      return classField.get(classInstance);
+      return accessor.getObject(classInstance);
     }
     catch (IllegalArgumentException ex) {
-      throw new JBBPMapperException("Can't set get value from a mapping field", null, classInstance.getClass(), classField, ex);
+      throw new JBBPMapperException("Can't set get value from a mapping field", null, classInstance.getClass(), accessor.getField(), ex);
     }
     catch (IllegalAccessException ex) {
-      throw new JBBPMapperException("Can't get access to a mapping field", null, classInstance.getClass(), classField, ex);
+      throw new JBBPMapperException("Can't get access to a mapping field", null, classInstance.getClass(), accessor.getField(), ex);
     }
   }
 
@@ -498,38 +707,40 @@ public final class JBBPMapper {
    * class.
    *
    * @param mappingClassInstance the mapping class instance, must not be null
-   * @param mappingField a mapping field to set the value, must not be null
+   * @param accessor an accessor of a mapping field to set the value, must not
+   * be null
    * @param numericField a parsed numeric field which value should be used, must
    * not be null
    * @param invertBitOrder flag shows that the parsed numeric field value must
    * be reversed in its bit before setting
    */
-  private static void mapNumericField(final Object mappingClassInstance, final Field mappingField, final JBBPNumericField numericField, final boolean invertBitOrder) {
+  private static void mapNumericField(final Object mappingClassInstance, final JBBPFieldAccessor accessor, final JBBPNumericField numericField, final boolean invertBitOrder) {
+    final Field mappingField = accessor.getField();
     final Class<?> fieldClass = mappingField.getType();
     try {
       if (fieldClass == byte.class) {
-        mappingField.setByte(mappingClassInstance, (byte) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+        accessor.setByte(mappingClassInstance, (byte) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
       }
       else if (fieldClass == boolean.class) {
-        mappingField.setBoolean(mappingClassInstance, numericField.getAsBool());
+        accessor.setBoolean(mappingClassInstance, numericField.getAsBool());
       }
       else if (fieldClass == char.class) {
-        mappingField.setChar(mappingClassInstance, (char) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+        accessor.setChar(mappingClassInstance, (char) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
       }
       else if (fieldClass == short.class) {
-        mappingField.setShort(mappingClassInstance, (short) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+        accessor.setShort(mappingClassInstance, (short) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
       }
       else if (fieldClass == int.class) {
-        mappingField.setInt(mappingClassInstance, (int) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+        accessor.setInt(mappingClassInstance, (int) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
       }
       else if (fieldClass == long.class) {
-        mappingField.setLong(mappingClassInstance, (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsLong()));
+        accessor.setLong(mappingClassInstance, (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsLong()));
       }
       else if (fieldClass == float.class) {
-        mappingField.setFloat(mappingClassInstance, Float.intBitsToFloat(invertBitOrder ? (int) numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+        accessor.setFloat(mappingClassInstance, Float.intBitsToFloat(invertBitOrder ? (int) numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
       }
       else if (fieldClass == double.class) {
-        mappingField.setDouble(mappingClassInstance, Double.longBitsToDouble(invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsLong()));
+        accessor.setDouble(mappingClassInstance, Double.longBitsToDouble(invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsLong()));
       }
       else {
         throw new JBBPMapperException("Unsupported mapping class field type to be mapped for binary parsed data", (JBBPAbstractField) numericField, mappingClassInstance.getClass(), mappingField, null);
@@ -547,13 +758,14 @@ public final class JBBPMapper {
    * Map a parsed array to an array field in mapping class.
    *
    * @param mappingClassInstance a mapping class instance, must not be null
-   * @param mappingField a field in the mapping class to be set, must not be
-   * null
+   * @param accessor an accessor of a field in the mapping class to be set,
+   * must not be null
    * @param arrayField a binary parsed array field, must not be null
    * @param invertBitOrder flag shows that values of an array must be bit
    * reversed before set
    */
-  private static void mapArrayField(final Object mappingClassInstance, final Field mappingField, final JBBPAbstractArrayField<?> arrayField, final boolean invertBitOrder) {
+  private static void mapArrayField(final Object mappingClassInstance, final JBBPFieldAccessor accessor, final JBBPAbstractArrayField<?> arrayField, final boolean invertBitOrder) {
+    final Field mappingField = accessor.getField();
     try {
       if (arrayField instanceof JBBPFieldArrayUShort && mappingField.getType().getComponentType() == char.class) {
         final short[] shortarray = (short[]) arrayField.getValueArrayAsObject(invertBitOrder);
@@ -561,10 +773,10 @@ public final class JBBPMapper {
         for (int i = 0; i < shortarray.length; i++) {
           chararray[i] = (char) shortarray[i];
         }
-        mappingField.set(mappingClassInstance, chararray);
+        accessor.setObject(mappingClassInstance, chararray);
       }
       else {
-        mappingField.set(mappingClassInstance, arrayField.getValueArrayAsObject(invertBitOrder));
+        accessor.setObject(mappingClassInstance, arrayField.getValueArrayAsObject(invertBitOrder));
       }
     }
     catch (IllegalAccessException ex) {
@@ -586,7 +798,7 @@ public final class JBBPMapper {
    * @throws JBBPMapperException it will be thrown if it is impossible to make
    * an instance
    */
-  private static <T> T allocateMemoryForClass(final JBBPFieldStruct root, final Class<T> klazz) {
+  static <T> T allocateMemoryForClass(final JBBPFieldStruct root, final Class<T> klazz) {
     try {
       return CLASS_INSTANTIATOR.makeClassInstance(klazz);
     }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPMapperException;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List to collect fields of the root structure during parsing, added fields
+ * are mapped directly into fields of a mapping class instance and not kept
+ * in the list. Only fields not used for mapping are kept. If the mapping class
+ * contains custom fields then all fields are kept and mapped after parsing
+ * because a custom field processor needs the whole root structure.
+ *
+ * @see JBBPMapper
+ * @since 1.2.2
+ */
+public final class JBBPMappingFieldList extends AbstractList<JBBPAbstractField> {
+
+  /**
+   * The Mapping class instance.
+   */
+  private final Object instance;
+  /**
+   * The Mapping plan of the class.
+   */
+  private final JBBPMapper.MappedField[] plan;
+  /**
+   * Flags shows which mapping fields have been already mapped.
+   */
+  private final boolean[] mapped;
+  /**
+   * Fields kept in the list.
+   */
+  private final List<JBBPAbstractField> fields = new ArrayList<JBBPAbstractField>();
+  /**
+   * Flag shows that all fields must be kept and mapped after parsing.
+   */
+  private final boolean mapAfterParsing;
+  /**
+   * The Custom field processor, it can be null.
+   */
+  private final JBBPMapperCustomFieldProcessor customFieldProcessor;
+  /**
+   * Mapper flags.
+   */
+  private final int flags;
+
+  /**
+   * The Constructor.
+   *
+   * @param instance a mapping class instance, must not be null
+   * @param customFieldProcessor a custom field processor, it can be null if
+   * there are not any custom fields
+   * @param flags special mapper flags
+   * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+   */
+  public JBBPMappingFieldList(final Object instance, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int flags) {
+    JBBPUtils.assertNotNull(instance, "The Mapping class instance must not be null");
+    this.instance = instance;
+    this.plan = JBBPMapper.findMappingPlan(instance.getClass());
+    this.mapped = new boolean[this.plan.length];
+    this.customFieldProcessor = customFieldProcessor;
+    this.flags = flags;
+
+    boolean hasCustomFields = false;
+    for (final JBBPMapper.MappedField f : this.plan) {
+      if (f.custom) {
+        hasCustomFields = true;
+      }
+      else if (f.binType == null) {
+        throw new JBBPMapperException("Can't find compatible type for a mapping field", null, instance.getClass(), f.field, null);
+      }
+    }
+    this.mapAfterParsing = hasCustomFields;
+  }
+
+  /**
+   * Make list for new instance of a mapping class, the instance is made
+   * without constructor call.
+   *
+   * @param mappingClass a mapping class, must not be null
+   * @param customFieldProcessor a custom field processor, it can be null if
+   * there are not any custom fields
+   * @param flags special mapper flags
+   * @return the list, must not be null
+   * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+   */
+  public static JBBPMappingFieldList make(final Class<?> mappingClass, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int flags) {
+    JBBPUtils.assertNotNull(mappingClass, "The Mapping class must not be null");
+    return new JBBPMappingFieldList(JBBPMapper.allocateMemoryForClass(null, mappingClass), customFieldProcessor, flags);
+  }
+
+  /**
+   * Get the mapping class instance.
+   *
+   * @return the instance, must not be null
+   */
+  public Object getInstance() {
+    return this.instance;
+  }
+
+  @Override
+  public boolean add(final JBBPAbstractField field) {
+    if (this.mapAfterParsing) {
+      return this.fields.add(field);
+    }
+
+    boolean used = false;
+    for (int i = 0; i < this.plan.length; i++) {
+      if (!this.mapped[i]) {
+        final JBBPMapper.MappedField mappedField = this.plan[i];
+        final JBBPAbstractField binField = mappedField.findBinFieldInRootField(field);
+        if (binField != null) {
+          JBBPMapper.mapField(mappedField, binField, this.instance, this.customFieldProcessor);
+          this.mapped[i] = true;
+          used = true;
+        }
+      }
+    }
+    if (!used) {
+      this.fields.add(field);
+    }
+    return true;
+  }
+
+  @Override
+  public JBBPAbstractField get(final int index) {
+    return this.fields.get(index);
+  }
+
+  @Override
+  public int size() {
+    return this.fields.size();
+  }
+
+  /**
+   * Complete mapping after parsing, check that all mapping fields have been
+   * mapped.
+   *
+   * @return the mapping class instance, must not be null
+   * @throws JBBPMapperException if there is not value for a mapping field and
+   * missing values are not ignored
+   */
+  public Object complete() {
+    if (this.mapAfterParsing) {
+      return JBBPMapper.map(new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), this.fields), this.instance, this.customFieldProcessor, this.flags);
+    }
+    if ((this.flags & JBBPMapper.FLAG_IGNORE_MISSING_VALUES) == 0) {
+      for (int i = 0; i < this.plan.length; i++) {
+        if (!this.mapped[i]) {
+          final JBBPMapper.MappedField f = this.plan[i];
+          throw new JBBPMapperException("Can't find value to be mapped to a mapping field [" + f.field + ']', null, this.instance.getClass(), f.field, null);
+        }
+      }
+    }
+    return this.instance;
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+import java.lang.reflect.Field;
+
+/**
+ * Interface describes an accessor to read and write values of a class field.
+ * Methods follow rules of {@link java.lang.reflect.Field} for widening
+ * conversions, primitive values are read and written without boxing.
+ *
+ * @since 1.2.2
+ */
+public interface JBBPFieldAccessor {
+
+  /**
+   * Get the field processed by the accessor.
+   *
+   * @return the field, must not be null
+   */
+  Field getField();
+
+  /**
+   * Get value of the field, primitive values are boxed.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   */
+  Object getObject(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a boolean field.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  boolean getBoolean(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a byte field.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  byte getByte(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a char field.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  char getChar(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a short field or a field which can be widened to short.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  short getShort(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of an int field or a field which can be widened to int.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  int getInt(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a long field or a field which can be widened to long.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  long getLong(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a float field or a field which can be widened to float.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  float getFloat(Object instance) throws IllegalAccessException;
+
+  /**
+   * Get value of a double field or a field which can be widened to double.
+   *
+   * @param instance an object which field is read, must not be null
+   * @return the field value
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the field can't be read as the type
+   */
+  double getDouble(Object instance) throws IllegalAccessException;
+
+  /**
+   * Set value of the field, boxed values are unboxed for primitive fields.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setObject(Object instance, Object value) throws IllegalAccessException;
+
+  /**
+   * Set boolean value to the field.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setBoolean(Object instance, boolean value) throws IllegalAccessException;
+
+  /**
+   * Set byte value to the field, the value is widened if needed.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setByte(Object instance, byte value) throws IllegalAccessException;
+
+  /**
+   * Set char value to the field, the value is widened if needed.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setChar(Object instance, char value) throws IllegalAccessException;
+
+  /**
+   * Set short value to the field, the value is widened if needed.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setShort(Object instance, short value) throws IllegalAccessException;
+
+  /**
+   * Set int value to the field, the value is widened if needed.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setInt(Object instance, int value) throws IllegalAccessException;
+
+  /**
+   * Set long value to the field, the value is widened if needed.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setLong(Object instance, long value) throws IllegalAccessException;
+
+  /**
+   * Set float value to the field, the value is widened if needed.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setFloat(Object instance, float value) throws IllegalAccessException;
+
+  /**
+   * Set double value to the field.
+   *
+   * @param instance an object which field is written, must not be null
+   * @param value the value to be set
+   * @throws IllegalAccessException it will be thrown if the field is not
+   * accessible
+   * @throws IllegalArgumentException if the value is not compatible with the
+   * field
+   */
+  void setDouble(Object instance, double value) throws IllegalAccessException;
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+import com.igormaznitsa.jbbp.utils.JBBPSystemProperty;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * The Factory produces field accessors which are compatible with the current
+ * platform. The Type for {@link JBBPFieldAccessorType#AUTO} can be defined
+ * through the {@code jbbp.mapper.field.accessor} system property (SAFE or
+ * UNSAFE), the safe accessor is used by default. The Unsafe accessor is used
+ * only if sun.misc.Unsafe provides all methods needed by the accessor.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPFieldAccessorFactory {
+
+  /**
+   * The Factory INSTANCE.
+   */
+  private static final JBBPFieldAccessorFactory INSTANCE = new JBBPFieldAccessorFactory();
+
+  /**
+   * Flag shows that sun.misc.Unsafe can be used on the platform, all methods
+   * used by {@link JBBPUnsafeFieldAccessor} are checked because some platforms
+   * (for instance old Android versions) provide only part of them.
+   */
+  private static final boolean UNSAFE_AVAILABLE;
+
+  static {
+    boolean available = false;
+    try {
+      final Class<?> unsafeclazz = Class.forName("sun.misc.Unsafe");
+      unsafeclazz.getDeclaredField("theUnsafe");
+      unsafeclazz.getMethod("objectFieldOffset", Field.class);
+      final Class<?>[] types = new Class<?>[]{Object.class, boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class};
+      final String[] names = new String[]{"Object", "Boolean", "Byte", "Char", "Short", "Int", "Long", "Float", "Double"};
+      for (int i = 0; i < types.length; i++) {
+        unsafeclazz.getMethod("get" + names[i], Object.class, long.class);
+        unsafeclazz.getMethod("put" + names[i], Object.class, long.class, types[i]);
+      }
+      available = true;
+    }
+    catch (ClassNotFoundException ex) {
+      // do nothing
+    }
+    catch (NoSuchFieldException ex) {
+      // do nothing
+    }
+    catch (NoSuchMethodException ex) {
+      // do nothing
+    }
+    catch (SecurityException ex) {
+      // do nothing
+    }
+    UNSAFE_AVAILABLE = available;
+  }
+
+  /**
+   * The Hidden constructor.
+   */
+  private JBBPFieldAccessorFactory() {
+
+  }
+
+  /**
+   * Get the factory INSTANCE.
+   *
+   * @return the factory INSTANCE, must not be null
+   */
+  public static JBBPFieldAccessorFactory getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Make an accessor for a field automatically for the current platform.
+   *
+   * @param field a field to be accessed, must not be null
+   * @return the field accessor, must not be null
+   */
+  public JBBPFieldAccessor make(final Field field) {
+    return this.make(field, JBBPFieldAccessorType.AUTO);
+  }
+
+  /**
+   * Make an accessor for a field for defined type. The Field will be made
+   * accessible. Static and volatile fields are always processed by the safe
+   * accessor.
+   *
+   * @param field a field to be accessed, must not be null
+   * @param type the type of needed accessor, must not be null
+   * @return the field accessor, must not be null
+   */
+  public JBBPFieldAccessor make(final Field field, final JBBPFieldAccessorType type) {
+    JBBPUtils.assertNotNull(field, "Field must not be null");
+    JBBPUtils.assertNotNull(type, "Type must not be null");
+
+    if (!field.isAccessible()) {
+      JBBPUtils.makeAccessible(field);
+    }
+
+    final boolean unsafe;
+    switch (type) {
+      case AUTO: {
+        final String definedType = JBBPSystemProperty.PROPERTY_FIELD_ACCESSOR_TYPE.getAsString(null);
+        if (definedType == null) {
+          unsafe = false;
+        }
+        else {
+          unsafe = UNSAFE_AVAILABLE && JBBPFieldAccessorType.valueOf(definedType.trim().toUpperCase()) == JBBPFieldAccessorType.UNSAFE;
+        }
+      }
+      break;
+      case SAFE: {
+        unsafe = false;
+      }
+      break;
+      case UNSAFE: {
+        unsafe = UNSAFE_AVAILABLE;
+      }
+      break;
+      default:
+        throw new Error("Unexpected type, contact developer! [" + type + ']');
+    }
+
+    final int modifiers = field.getModifiers();
+    if (unsafe && !Modifier.isStatic(modifiers) && !Modifier.isVolatile(modifiers)) {
+      return new JBBPUnsafeFieldAccessor(field);
+    }
+    return new JBBPSafeFieldAccessor(field);
+  }
+}
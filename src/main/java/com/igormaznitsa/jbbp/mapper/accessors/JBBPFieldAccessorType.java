@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+/**
+ * Type of field accessor to read and write values of mapped class fields.
+ *
+ * @since 1.2.2
+ */
+public enum JBBPFieldAccessorType {
+  /**
+   * The Type defined by the {@code jbbp.mapper.field.accessor} system property,
+   * the safe accessor is used if the property is not defined.
+   */
+  AUTO,
+  /**
+   * A Safe version which uses standard Java reflection.
+   */
+  SAFE,
+  /**
+   * A Version using sun.misc.Unsafe to access fields through their offsets
+   * without reflection calls and boxing of primitive values. The Safe
+   * accessor is used if sun.misc.Unsafe of the platform doesn't provide all
+   * needed methods (for instance on old Android versions).
+   */
+  UNSAFE;
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+import java.lang.reflect.Field;
+
+/**
+ * Field accessor working through standard Java reflection.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPSafeFieldAccessor implements JBBPFieldAccessor {
+
+  /**
+   * The Processed field.
+   */
+  private final Field field;
+
+  /**
+   * The Constructor.
+   *
+   * @param field a field to be processed, must not be null and must be
+   * accessible
+   */
+  public JBBPSafeFieldAccessor(final Field field) {
+    this.field = field;
+  }
+
+  public Field getField() {
+    return this.field;
+  }
+
+  public Object getObject(final Object instance) throws IllegalAccessException {
+    return this.field.get(instance);
+  }
+
+  public boolean getBoolean(final Object instance) throws IllegalAccessException {
+    return this.field.getBoolean(instance);
+  }
+
+  public byte getByte(final Object instance) throws IllegalAccessException {
+    return this.field.getByte(instance);
+  }
+
+  public char getChar(final Object instance) throws IllegalAccessException {
+    return this.field.getChar(instance);
+  }
+
+  public short getShort(final Object instance) throws IllegalAccessException {
+    return this.field.getShort(instance);
+  }
+
+  public int getInt(final Object instance) throws IllegalAccessException {
+    return this.field.getInt(instance);
+  }
+
+  public long getLong(final Object instance) throws IllegalAccessException {
+    return this.field.getLong(instance);
+  }
+
+  public float getFloat(final Object instance) throws IllegalAccessException {
+    return this.field.getFloat(instance);
+  }
+
+  public double getDouble(final Object instance) throws IllegalAccessException {
+    return this.field.getDouble(instance);
+  }
+
+  public void setObject(final Object instance, final Object value) throws IllegalAccessException {
+    this.field.set(instance, value);
+  }
+
+  public void setBoolean(final Object instance, final boolean value) throws IllegalAccessException {
+    this.field.setBoolean(instance, value);
+  }
+
+  public void setByte(final Object instance, final byte value) throws IllegalAccessException {
+    this.field.setByte(instance, value);
+  }
+
+  public void setChar(final Object instance, final char value) throws IllegalAccessException {
+    this.field.setChar(instance, value);
+  }
+
+  public void setShort(final Object instance, final short value) throws IllegalAccessException {
+    this.field.setShort(instance, value);
+  }
+
+  public void setInt(final Object instance, final int value) throws IllegalAccessException {
+    this.field.setInt(instance, value);
+  }
+
+  public void setLong(final Object instance, final long value) throws IllegalAccessException {
+    this.field.setLong(instance, value);
+  }
+
+  public void setFloat(final Object instance, final float value) throws IllegalAccessException {
+    this.field.setFloat(instance, value);
+  }
+
+  public void setDouble(final Object instance, final double value) throws IllegalAccessException {
+    this.field.setDouble(instance, value);
+  }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Field accessor working through sun.misc.Unsafe and the field offset, values
+ * are read and written directly without reflection calls and boxing of
+ * primitive values. Static and volatile fields are not supported.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPUnsafeFieldAccessor implements JBBPFieldAccessor {
+
+  /**
+   * The sun.misc.Unsafe object. It is the only place where the class is
+   * referenced by name, the instance is got through reflection.
+   */
+  private static final sun.misc.Unsafe SUN_MISC_UNSAFE;
+
+  static {
+    try {
+      final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      final Field singleoneInstanceField = unsafeClass.getDeclaredField("theUnsafe");
+      JBBPUtils.makeAccessible(singleoneInstanceField);
+      SUN_MISC_UNSAFE = uncheckedCast(singleoneInstanceField.get(null));
+    }
+    catch (ClassNotFoundException e) {
+      throw new Error("Can't find 'sun.misc.Unsafe' class", e);
+    }
+    catch (IllegalAccessException e) {
+      throw new Error("Can't get sun.misc.Unsafe for illegal access", e);
+    }
+    catch (NoSuchFieldException e) {
+      throw new Error("Can't get sun.misc.Unsafe because it doesn't exist", e);
+    }
+    catch (SecurityException e) {
+      throw new Error("Can't get sun.misc.Unsafe for security exception", e);
+    }
+  }
+
+  /**
+   * Cast an object to the type expected by the caller.
+   *
+   * @param <T> the expected type
+   * @param obj an object to be cast
+   * @return the object as the expected type
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T uncheckedCast(final Object obj) {
+    return (T) obj;
+  }
+
+  private static final int KIND_OBJECT = 0;
+  private static final int KIND_BOOLEAN = 1;
+  private static final int KIND_BYTE = 2;
+  private static final int KIND_CHAR = 3;
+  private static final int KIND_SHORT = 4;
+  private static final int KIND_INT = 5;
+  private static final int KIND_LONG = 6;
+  private static final int KIND_FLOAT = 7;
+  private static final int KIND_DOUBLE = 8;
+
+  /**
+   * The Processed field.
+   */
+  private final Field field;
+  /**
+   * The Class declaring the field.
+   */
+  private final Class<?> declaringClass;
+  /**
+   * The Field type.
+   */
+  private final Class<?> type;
+  /**
+   * The Kind of the field type.
+   */
+  private final int kind;
+  /**
+   * The Field offset inside object.
+   */
+  private final long offset;
+
+  /**
+   * The Constructor.
+   *
+   * @param field a field to be processed, must not be null
+   * @throws IllegalArgumentException if the field is static or volatile
+   */
+  public JBBPUnsafeFieldAccessor(final Field field) {
+    JBBPUtils.assertNotNull(field, "Field must not be null");
+    final int modifiers = field.getModifiers();
+    if (Modifier.isStatic(modifiers) || Modifier.isVolatile(modifiers)) {
+      throw new IllegalArgumentException("Static and volatile fields are not supported [" + field + ']');
+    }
+    this.field = field;
+    this.declaringClass = field.getDeclaringClass();
+    this.type = field.getType();
+    this.offset = SUN_MISC_UNSAFE.objectFieldOffset(field);
+
+    if (this.type == boolean.class) {
+      this.kind = KIND_BOOLEAN;
+    }
+    else if (this.type == byte.class) {
+      this.kind = KIND_BYTE;
+    }
+    else if (this.type == char.class) {
+      this.kind = KIND_CHAR;
+    }
+    else if (this.type == short.class) {
+      this.kind = KIND_SHORT;
+    }
+    else if (this.type == int.class) {
+      this.kind = KIND_INT;
+    }
+    else if (this.type == long.class) {
+      this.kind = KIND_LONG;
+    }
+    else if (this.type == float.class) {
+      this.kind = KIND_FLOAT;
+    }
+    else if (this.type == double.class) {
+      this.kind = KIND_DOUBLE;
+    }
+    else {
+      this.kind = KIND_OBJECT;
+    }
+  }
+
+  /**
+   * Check that an object contains the field, it protects memory against
+   * access through wrong object.
+   *
+   * @param instance an object to be checked
+   * @throws NullPointerException if the object is null
+   * @throws IllegalArgumentException if the object doesn't contain the field
+   */
+  private void assertInstance(final Object instance) {
+    if (instance == null) {
+      throw new NullPointerException("Instance must not be null");
+    }
+    if (!this.declaringClass.isInstance(instance)) {
+      throw new IllegalArgumentException("Object is not an instance of " + this.declaringClass.getName() + " [" + this.field + ']');
+    }
+  }
+
+  /**
+   * Make exception for incompatible types.
+   *
+   * @param valueType the type of value
+   * @return the exception to be thrown
+   */
+  private IllegalArgumentException makeTypeException(final String valueType) {
+    return new IllegalArgumentException("Can't access field as " + valueType + " [" + this.field + ']');
+  }
+
+  public Field getField() {
+    return this.field;
+  }
+
+  public Object getObject(final Object instance) {
+    assertInstance(instance);
+    switch (this.kind) {
+      case KIND_OBJECT:
+        return SUN_MISC_UNSAFE.getObject(instance, this.offset);
+      case KIND_BOOLEAN:
+        return Boolean.valueOf(SUN_MISC_UNSAFE.getBoolean(instance, this.offset));
+      case KIND_BYTE:
+        return Byte.valueOf(SUN_MISC_UNSAFE.getByte(instance, this.offset));
+      case KIND_CHAR:
+        return Character.valueOf(SUN_MISC_UNSAFE.getChar(instance, this.offset));
+      case KIND_SHORT:
+        return Short.valueOf(SUN_MISC_UNSAFE.getShort(instance, this.offset));
+      case KIND_INT:
+        return Integer.valueOf(SUN_MISC_UNSAFE.getInt(instance, this.offset));
+      case KIND_LONG:
+        return Long.valueOf(SUN_MISC_UNSAFE.getLong(instance, this.offset));
+      case KIND_FLOAT:
+        return Float.valueOf(SUN_MISC_UNSAFE.getFloat(instance, this.offset));
+      case KIND_DOUBLE:
+        return Double.valueOf(SUN_MISC_UNSAFE.getDouble(instance, this.offset));
+      default:
+        throw new Error("Unexpected field kind, contact developer! [" + this.kind + ']');
+    }
+  }
+
+  public boolean getBoolean(final Object instance) {
+    assertInstance(instance);
+    if (this.kind == KIND_BOOLEAN) {
+      return SUN_MISC_UNSAFE.getBoolean(instance, this.offset);
+    }
+    throw makeTypeException("boolean");
+  }
+
+  public byte getByte(final Object instance) {
+    assertInstance(instance);
+    return readByte(instance);
+  }
+
+  public char getChar(final Object instance) {
+    assertInstance(instance);
+    if (this.kind == KIND_CHAR) {
+      return SUN_MISC_UNSAFE.getChar(instance, this.offset);
+    }
+    throw makeTypeException("char");
+  }
+
+  public short getShort(final Object instance) {
+    assertInstance(instance);
+    return readShort(instance);
+  }
+
+  public int getInt(final Object instance) {
+    assertInstance(instance);
+    return readInt(instance);
+  }
+
+  public long getLong(final Object instance) {
+    assertInstance(instance);
+    return readLong(instance);
+  }
+
+  public float getFloat(final Object instance) {
+    assertInstance(instance);
+    return readFloat(instance);
+  }
+
+  public double getDouble(final Object instance) {
+    assertInstance(instance);
+    switch (this.kind) {
+      case KIND_DOUBLE:
+        return SUN_MISC_UNSAFE.getDouble(instance, this.offset);
+      case KIND_FLOAT:
+        return SUN_MISC_UNSAFE.getFloat(instance, this.offset);
+      default:
+        return readLong(instance);
+    }
+  }
+
+  private byte readByte(final Object instance) {
+    if (this.kind == KIND_BYTE) {
+      return SUN_MISC_UNSAFE.getByte(instance, this.offset);
+    }
+    throw makeTypeException("byte");
+  }
+
+  private short readShort(final Object instance) {
+    return this.kind == KIND_SHORT ? SUN_MISC_UNSAFE.getShort(instance, this.offset) : readByte(instance);
+  }
+
+  private int readInt(final Object instance) {
+    switch (this.kind) {
+      case KIND_INT:
+        return SUN_MISC_UNSAFE.getInt(instance, this.offset);
+      case KIND_CHAR:
+        return SUN_MISC_UNSAFE.getChar(instance, this.offset);
+      default:
+        return readShort(instance);
+    }
+  }
+
+  private long readLong(final Object instance) {
+    return this.kind == KIND_LONG ? SUN_MISC_UNSAFE.getLong(instance, this.offset) : readInt(instance);
+  }
+
+  private float readFloat(final Object instance) {
+    return this.kind == KIND_FLOAT ? SUN_MISC_UNSAFE.getFloat(instance, this.offset) : readLong(instance);
+  }
+
+  public void setObject(final Object instance, final Object value) {
+    assertInstance(instance);
+    if (this.kind == KIND_OBJECT) {
+      if (value != null && !this.type.isInstance(value)) {
+        throw new IllegalArgumentException("Can't set value of " + value.getClass().getName() + " [" + this.field + ']');
+      }
+      SUN_MISC_UNSAFE.putObject(instance, this.offset, value);
+    }
+    else if (value instanceof Boolean) {
+      if (this.kind != KIND_BOOLEAN) {
+        throw makeTypeException("boolean");
+      }
+      SUN_MISC_UNSAFE.putBoolean(instance, this.offset, (Boolean) value);
+    }
+    else if (value instanceof Byte) {
+      writeByte(instance, (Byte) value);
+    }
+    else if (value instanceof Character) {
+      writeChar(instance, (Character) value);
+    }
+    else if (value instanceof Short) {
+      writeShort(instance, (Short) value);
+    }
+    else if (value instanceof Integer) {
+      writeInt(instance, (Integer) value);
+    }
+    else if (value instanceof Long) {
+      writeLong(instance, (Long) value);
+    }
+    else if (value instanceof Float) {
+      writeFloat(instance, (Float) value);
+    }
+    else if (value instanceof Double) {
+      writeDouble(instance, (Double) value);
+    }
+    else {
+      throw new IllegalArgumentException("Can't set non-primitive value to a primitive field [" + this.field + ']');
+    }
+  }
+
+  public void setBoolean(final Object instance, final boolean value) {
+    assertInstance(instance);
+    if (this.kind != KIND_BOOLEAN) {
+      throw makeTypeException("boolean");
+    }
+    SUN_MISC_UNSAFE.putBoolean(instance, this.offset, value);
+  }
+
+  public void setByte(final Object instance, final byte value) {
+    assertInstance(instance);
+    writeByte(instance, value);
+  }
+
+  public void setChar(final Object instance, final char value) {
+    assertInstance(instance);
+    writeChar(instance, value);
+  }
+
+  public void setShort(final Object instance, final short value) {
+    assertInstance(instance);
+    writeShort(instance, value);
+  }
+
+  public void setInt(final Object instance, final int value) {
+    assertInstance(instance);
+    writeInt(instance, value);
+  }
+
+  public void setLong(final Object instance, final long value) {
+    assertInstance(instance);
+    writeLong(instance, value);
+  }
+
+  public void setFloat(final Object instance, final float value) {
+    assertInstance(instance);
+    writeFloat(instance, value);
+  }
+
+  public void setDouble(final Object instance, final double value) {
+    assertInstance(instance);
+    writeDouble(instance, value);
+  }
+
+  private void writeByte(final Object instance, final byte value) {
+    if (this.kind == KIND_BYTE) {
+      SUN_MISC_UNSAFE.putByte(instance, this.offset, value);
+    }
+    else {
+      writeShort(instance, value);
+    }
+  }
+
+  private void writeChar(final Object instance, final char value) {
+    if (this.kind == KIND_CHAR) {
+      SUN_MISC_UNSAFE.putChar(instance, this.offset, value);
+    }
+    else {
+      writeInt(instance, value);
+    }
+  }
+
+  private void writeShort(final Object instance, final short value) {
+    if (this.kind == KIND_SHORT) {
+      SUN_MISC_UNSAFE.putShort(instance, this.offset, value);
+    }
+    else {
+      writeInt(instance, value);
+    }
+  }
+
+  private void writeInt(final Object instance, final int value) {
+    if (this.kind == KIND_INT) {
+      SUN_MISC_UNSAFE.putInt(instance, this.offset, value);
+    }
+    else {
+      writeLong(instance, value);
+    }
+  }
+
+  private void writeLong(final Object instance, final long value) {
+    switch (this.kind) {
+      case KIND_LONG:
+        SUN_MISC_UNSAFE.putLong(instance, this.offset, value);
+        break;
+      case KIND_FLOAT:
+        SUN_MISC_UNSAFE.putFloat(instance, this.offset, value);
+        break;
+      case KIND_DOUBLE:
+        SUN_MISC_UNSAFE.putDouble(instance, this.offset, value);
+        break;
+      default:
+        throw makeTypeException("value of " + this.type.getName());
+    }
+  }
+
+  private void writeFloat(final Object instance, final float value) {
+    if (this.kind == KIND_FLOAT) {
+      SUN_MISC_UNSAFE.putFloat(instance, this.offset, value);
+    }
+    else {
+      writeDouble(instance, value);
+    }
+  }
+
+  private void writeDouble(final Object instance, final double value) {
+    if (this.kind == KIND_DOUBLE) {
+      SUN_MISC_UNSAFE.putDouble(instance, this.offset, value);
+    }
+    else {
+      throw makeTypeException("value of " + this.type.getName());
+    }
+  }
+}
@@ -27,7 +27,7 @@ public final class JBBPFieldArrayBoolean extends JBBPAbstractArrayField<JBBPFiel
   /**
    * The Inside value storage.
    */
-  private final boolean [] array;
+  final boolean [] array;
   
   /**
    * The Constructor.
@@ -27,7 +27,7 @@ public final class JBBPFieldArrayInt extends JBBPAbstractArrayField<JBBPFieldInt
   /**
    * Inside storage.
    */
-  private final int [] array;
+  final int [] array;
 
   /**
    * The Constructor.
@@ -27,7 +27,7 @@ public final class JBBPFieldArrayLong extends JBBPAbstractArrayField<JBBPFieldLo
   /**
    * Inside value storage.
    */
-  private final long [] array;
+  final long [] array;
 
   /**
    * The Constructor.
@@ -27,7 +27,7 @@ public final class JBBPFieldArrayShort extends JBBPAbstractArrayField<JBBPFieldS
   /**
    * Inside value storage.
    */
-  private final short [] array;
+  final short [] array;
 
   /**
    * The Constructor.
@@ -27,7 +27,7 @@ public final class JBBPFieldArrayUShort extends JBBPAbstractArrayField<JBBPField
   /**
    * Inside value storage.
    */
-  private final short[] array;
+  final short[] array;
 
   /**
    * The Constructor.
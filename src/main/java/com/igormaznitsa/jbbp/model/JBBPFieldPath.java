@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+
+/**
+ * Precompiled handle of a field path for structures made by a parser. The
+ * Path is checked and decoded into field positions once, so that search of a
+ * field needs neither normalization nor string comparison of names. If a
+ * structure doesn't have expected content (for instance it has been made by
+ * another parser) then the field is searched for its path in common way. The
+ * Class is immutable and thread safe.
+ *
+ * @see com.igormaznitsa.jbbp.JBBPParser#path(String)
+ * @since 1.2.2
+ */
+public final class JBBPFieldPath {
+
+  /**
+   * Indexes of the field and its parent structures starting from the root.
+   */
+  private final int[] positions;
+
+  /**
+   * Name info of the field.
+   */
+  private final JBBPNamedFieldInfo nameInfo;
+
+  /**
+   * The Constructor.
+   *
+   * @param positions indexes of the field and its parent structures, must not
+   * be null
+   * @param nameInfo name info of the field, must not be null
+   */
+  JBBPFieldPath(final int[] positions, final JBBPNamedFieldInfo nameInfo) {
+    this.positions = positions;
+    this.nameInfo = nameInfo;
+  }
+
+  /**
+   * Get name info of the field.
+   *
+   * @return the name info, must not be null
+   */
+  public JBBPNamedFieldInfo getNameInfo() {
+    return this.nameInfo;
+  }
+
+  /**
+   * Get the field path.
+   *
+   * @return the normalized field path, must not be null
+   */
+  public String getPath() {
+    return this.nameInfo.getFieldPath();
+  }
+
+  /**
+   * Find the field in a root structure.
+   *
+   * @param root the root structure, must not be null
+   * @return found field or null if the structure doesn't contain the field
+   */
+  public JBBPAbstractField findField(final JBBPFieldStruct root) {
+    final JBBPAbstractField result = JBBPFieldStructIndex.resolve(root, this.positions, this.nameInfo);
+    return result == null ? root.findFieldForPath(this.nameInfo.getFieldPath()) : result;
+  }
+
+  /**
+   * Get the field in a root structure.
+   *
+   * @param root the root structure, must not be null
+   * @return the field, must not be null
+   * @throws JBBPFinderException if the structure doesn't contain the field
+   */
+  public JBBPAbstractField getField(final JBBPFieldStruct root) {
+    final JBBPAbstractField result = findField(root);
+    if (result == null) {
+      throw new JBBPFinderException("Can't find field for path '" + this.nameInfo.getFieldPath() + '\'', this.nameInfo.getFieldPath(), null);
+    }
+    return result;
+  }
+
+  /**
+   * Get the field in a root structure as a numeric one.
+   *
+   * @param root the root structure, must not be null
+   * @return the numeric field, must not be null
+   * @throws JBBPFinderException if the structure doesn't contain the field or
+   * the field is not numeric one
+   */
+  public JBBPNumericField getNumericField(final JBBPFieldStruct root) {
+    final JBBPAbstractField result = getField(root);
+    if (result instanceof JBBPNumericField) {
+      return (JBBPNumericField) result;
+    }
+    throw new JBBPFinderException("Field is not numeric one '" + this.nameInfo.getFieldPath() + '\'', this.nameInfo.getFieldPath(), null);
+  }
+
+  /**
+   * Get the field in a root structure as a structure.
+   *
+   * @param root the root structure, must not be null
+   * @return the structure, must not be null
+   * @throws JBBPFinderException if the structure doesn't contain the field or
+   * the field is not a structure
+   */
+  public JBBPFieldStruct getStruct(final JBBPFieldStruct root) {
+    final JBBPAbstractField result = getField(root);
+    if (result instanceof JBBPFieldStruct) {
+      return (JBBPFieldStruct) result;
+    }
+    throw new JBBPFinderException("Field is not a structure '" + this.nameInfo.getFieldPath() + '\'', this.nameInfo.getFieldPath(), JBBPFieldStruct.class);
+  }
+
+  /**
+   * Get value of the field in a root structure as integer.
+   *
+   * @param root the root structure, must not be null
+   * @return the field value as integer
+   * @throws JBBPFinderException if the structure doesn't contain the field or
+   * the field is not numeric one
+   */
+  public int getInt(final JBBPFieldStruct root) {
+    return getNumericField(root).getAsInt();
+  }
+
+  /**
+   * Get value of the field in a root structure as long.
+   *
+   * @param root the root structure, must not be null
+   * @return the field value as long
+   * @throws JBBPFinderException if the structure doesn't contain the field or
+   * the field is not numeric one
+   */
+  public long getLong(final JBBPFieldStruct root) {
+    return getNumericField(root).getAsLong();
+  }
+
+  /**
+   * Get value of the field in a root structure as boolean.
+   *
+   * @param root the root structure, must not be null
+   * @return the field value as boolean
+   * @throws JBBPFinderException if the structure doesn't contain the field or
+   * the field is not numeric one
+   */
+  public boolean getBool(final JBBPFieldStruct root) {
+    return getNumericField(root).getAsBool();
+  }
+
+  @Override
+  public String toString() {
+    return "JBBPFieldPath[" + this.nameInfo.getFieldPath() + ']';
+  }
+}
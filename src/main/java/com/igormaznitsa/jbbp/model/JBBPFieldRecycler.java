@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Source of primitive arrays for a parsing operation which reuses a structure
+ * tree made by a previous parsing. Array fields of the previous tree are
+ * visited in the same order in which the parser creates them, an array is
+ * provided to be filled by the parser if its field has the same type and the
+ * same name info as the requested one and the array has the needed length,
+ * otherwise the parser allocates a new array. Field objects are not reused,
+ * the parser always makes new ones.
+ * <p>
+ * Arrays of the previous tree are overwritten during the operation so that
+ * the previous tree must not be used after the operation. The Class is not
+ * thread safe.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPFieldRecycler {
+
+  /**
+   * Array fields of the previous tree in their creation order.
+   */
+  private final JBBPAbstractField[] fields;
+
+  /**
+   * Index of the next field to be checked.
+   */
+  private int position;
+
+  /**
+   * The Constructor.
+   *
+   * @param root the root structure of a tree made by a parser, must not be
+   * null
+   */
+  public JBBPFieldRecycler(final JBBPFieldStruct root) {
+    JBBPUtils.assertNotNull(root, "Root structure must not be null");
+    final List<JBBPAbstractField> found = new ArrayList<JBBPAbstractField>();
+    collectArrays(root, found);
+    this.fields = found.toArray(new JBBPAbstractField[found.size()]);
+  }
+
+  /**
+   * Collect array fields of a structure with primitive content in the order of
+   * their creation by a parser.
+   *
+   * @param struct a structure, must not be null
+   * @param out list to collect fields, must not be null
+   */
+  private static void collectArrays(final JBBPFieldStruct struct, final List<JBBPAbstractField> out) {
+    for (int i = 0; i < struct.size(); i++) {
+      final JBBPAbstractField f = struct.getFieldAt(i);
+      if (f instanceof JBBPFieldStruct) {
+        collectArrays((JBBPFieldStruct) f, out);
+      }
+      else if (f instanceof JBBPFieldArrayStruct) {
+        final JBBPFieldArrayStruct structs = (JBBPFieldArrayStruct) f;
+        for (int s = 0; s < structs.size(); s++) {
+          collectArrays(structs.getElementAt(s), out);
+        }
+      }
+      else if (f instanceof JBBPAbstractArrayField) {
+        out.add(f);
+      }
+    }
+  }
+
+  /**
+   * Find the next compatible field of the previous tree, the position is moved
+   * after the field.
+   *
+   * @param type the field type, must not be null
+   * @param name the field name info, can be null
+   * @return found field or null if not found
+   */
+  private JBBPAbstractField take(final Class<? extends JBBPAbstractField> type, final JBBPNamedFieldInfo name) {
+    final JBBPAbstractField[] array = this.fields;
+    for (int i = this.position; i < array.length; i++) {
+      final JBBPAbstractField f = array[i];
+      if (f.getClass() == type && (f.fieldNameInfo == name || (name != null && name.equals(f.fieldNameInfo)))) {
+        this.position = i + 1;
+        return f;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Take array of the next boolean array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public boolean[] findArrayBoolValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayBoolean found = (JBBPFieldArrayBoolean) take(JBBPFieldArrayBoolean.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+
+  /**
+   * Take array of the next byte array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public byte[] findArrayByteValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayByte found = (JBBPFieldArrayByte) take(JBBPFieldArrayByte.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+
+  /**
+   * Take array of the next unsigned byte array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public byte[] findArrayUByteValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayUByte found = (JBBPFieldArrayUByte) take(JBBPFieldArrayUByte.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+
+  /**
+   * Take array of the next short array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public short[] findArrayShortValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayShort found = (JBBPFieldArrayShort) take(JBBPFieldArrayShort.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+
+  /**
+   * Take array of the next unsigned short array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public short[] findArrayUShortValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayUShort found = (JBBPFieldArrayUShort) take(JBBPFieldArrayUShort.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+
+  /**
+   * Take array of the next integer array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public int[] findArrayIntValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayInt found = (JBBPFieldArrayInt) take(JBBPFieldArrayInt.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+
+  /**
+   * Take array of the next long array field to be reused.
+   *
+   * @param name the field name info, can be null
+   * @param length the needed array length
+   * @return the array if it has the needed length, null otherwise
+   */
+  public long[] findArrayLongValues(final JBBPNamedFieldInfo name, final int length) {
+    final JBBPFieldArrayLong found = (JBBPFieldArrayLong) take(JBBPFieldArrayLong.class, name);
+    return found == null || found.array.length != length ? null : found.array;
+  }
+}
@@ -37,6 +37,12 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
    */
   private final JBBPAbstractField[] fields;
 
+  /**
+   * Index of field positions provided by a parser, it can be null.
+   * @since 1.2.2
+   */
+  private final transient JBBPFieldStructIndex index;
+
   /**
    * A Constructor.
    *
@@ -44,9 +50,29 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
    * @param fields a field array, it must not be null
    */
   public JBBPFieldStruct(final JBBPNamedFieldInfo name, final JBBPAbstractField[] fields) {
+    this(name, fields, null);
+  }
+
+  /**
+   * A Constructor for a structure made with an index of field positions, the
+   * index is used to find fields of the structure and its inside structures
+   * without walking of the tree.
+   *
+   * @param name a field name info, it can be null
+   * @param fields a field list, it must not be null
+   * @param index an index made for the script of the structure, it can be
+   * null
+   * @since 1.2.2
+   */
+  public JBBPFieldStruct(final JBBPNamedFieldInfo name, final List<JBBPAbstractField> fields, final JBBPFieldStructIndex index) {
+    this(name, fields.toArray(new JBBPAbstractField[fields.size()]), index);
+  }
+
+  private JBBPFieldStruct(final JBBPNamedFieldInfo name, final JBBPAbstractField[] fields, final JBBPFieldStructIndex index) {
     super(name);
     JBBPUtils.assertNotNull(fields, "Array of fields must not be null");
     this.fields = fields;
+    this.index = index;
   }
 
   /**
@@ -68,7 +94,38 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
     return this.fields.clone();
   }
 
+  /**
+   * Get number of fields in the structure.
+   *
+   * @return number of fields
+   * @since 1.2.2
+   */
+  public int size() {
+    return this.fields.length;
+  }
+
+  /**
+   * Get a field of the structure for its index without copying of the field
+   * array.
+   *
+   * @param index the field index
+   * @return the field for the index
+   * @throws ArrayIndexOutOfBoundsException if the index is out of bounds
+   * @since 1.2.2
+   */
+  public JBBPAbstractField getFieldAt(final int index) {
+    return this.fields[index];
+  }
+
   public JBBPAbstractField findFieldForPath(final String fieldPath) {
+    final JBBPFieldStructIndex structIndex = this.index;
+    if (structIndex != null) {
+      final JBBPAbstractField indexed = structIndex.findForPath(this, fieldPath);
+      if (indexed != null) {
+        return indexed;
+      }
+    }
+
     final String[] parsedName = JBBPUtils.splitString(JBBPUtils.normalizeFieldNameOrPath(fieldPath), '.');
 
     JBBPAbstractField found = this;
@@ -98,6 +155,14 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
   }
 
   public JBBPAbstractField findFieldForName(final String name) {
+    final JBBPFieldStructIndex structIndex = this.index;
+    if (structIndex != null) {
+      final JBBPAbstractField indexed = structIndex.findForName(this, name);
+      if (indexed != null) {
+        return indexed;
+      }
+    }
+
     final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(name);
 
     JBBPAbstractField result = null;
@@ -170,6 +235,11 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
   }
 
   public boolean nameExists(final String fieldName) {
+    final JBBPFieldStructIndex structIndex = this.index;
+    if (structIndex != null && structIndex.findForName(this, fieldName) != null) {
+      return true;
+    }
+
     final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
 
     boolean result = false;
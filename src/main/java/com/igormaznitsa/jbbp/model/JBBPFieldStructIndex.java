@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledField;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of field positions for root structures made by a parser. It is
+ * calculated once from a compiled block and maps field names and paths to
+ * indexes of fields inside structure levels, so that search of a field for its
+ * path needs only one map lookup and array indexing for each level. Inside
+ * structures don't have the index, their fields are found through paths from
+ * the root or by common search. Found fields are checked and if a structure
+ * doesn't have expected content (for instance parsing has been stopped for end
+ * of stream) then it is processed by common search. The Class is immutable and
+ * thread safe.
+ *
+ * @since 1.2.2
+ */
+public final class JBBPFieldStructIndex {
+
+  /**
+   * Position of a named field.
+   */
+  private static final class Entry {
+
+    /**
+     * Indexes of the field and its parent structures starting from the top
+     * level.
+     */
+    final int[] positions;
+    /**
+     * Expected name info of the found field.
+     */
+    final JBBPNamedFieldInfo name;
+
+    Entry(final int[] positions, final JBBPNamedFieldInfo name) {
+      this.positions = positions;
+      this.name = name;
+    }
+  }
+
+  /**
+   * Map of field names of the structure.
+   */
+  private final Map<String, Entry> names;
+
+  /**
+   * Map of relative field paths of the structure and its inside structures.
+   */
+  private final Map<String, Entry> paths;
+
+  private JBBPFieldStructIndex(final Map<String, Entry> names, final Map<String, Entry> paths) {
+    this.names = names;
+    this.paths = paths;
+  }
+
+  /**
+   * Make index for root structures made for a compiled block.
+   *
+   * @param block a compiled block, must not be null
+   * @param skippedFields flags for offsets of fields which are not placed into
+   * structures, it can be null
+   * @return the index for root structures
+   */
+  public static JBBPFieldStructIndex make(final JBBPCompiledBlock block, final boolean[] skippedFields) {
+    return make(JBBPCompiledField.decode(block), skippedFields);
+  }
+
+  private static JBBPFieldStructIndex make(final JBBPCompiledField[] fields, final boolean[] skippedFields) {
+    final Map<String, Entry> names = new HashMap<String, Entry>();
+    final Map<String, Entry> paths = new HashMap<String, Entry>();
+
+    int position = 0;
+    for (final JBBPCompiledField f : fields) {
+      final int code = f.getTypeCode();
+      if (code == JBBPCompiler.CODE_ALIGN || code == JBBPCompiler.CODE_SKIP || code == JBBPCompiler.CODE_RESET_COUNTER
+              || (skippedFields != null && skippedFields[f.getOffset()])) {
+        continue;
+      }
+
+      final JBBPNamedFieldInfo name = f.getNameInfo();
+      if (name != null) {
+        final Entry entry = new Entry(new int[]{position}, name);
+        names.put(name.getFieldName(), entry);
+        paths.put(name.getFieldName(), entry);
+      }
+
+      if (code == JBBPCompiler.CODE_STRUCT_START && name != null && !f.isArray()) {
+        final JBBPFieldStructIndex structIndex = make(f.getStructFields(), skippedFields);
+        for (final Map.Entry<String, Entry> e : structIndex.paths.entrySet()) {
+          final int[] inside = e.getValue().positions;
+          final int[] positions = new int[inside.length + 1];
+          positions[0] = position;
+          System.arraycopy(inside, 0, positions, 1, inside.length);
+          paths.put(name.getFieldName() + '.' + e.getKey(), new Entry(positions, e.getValue().name));
+        }
+      }
+      position++;
+    }
+
+    return new JBBPFieldStructIndex(names, paths);
+  }
+
+  /**
+   * Find a field in a structure for its name.
+   *
+   * @param struct the structure, must not be null
+   * @param fieldName the field name, must not be null
+   * @return found field or null if it can't be found through the index
+   */
+  JBBPAbstractField findForName(final JBBPFieldStruct struct, final String fieldName) {
+    final Entry entry = this.names.get(JBBPUtils.normalizeFieldNameOrPath(fieldName));
+    return entry == null ? null : resolve(struct, entry.positions, entry.name);
+  }
+
+  /**
+   * Find a field in a structure for its path. Like common search, a named
+   * structure finds only paths which start with the structure name.
+   *
+   * @param struct the structure, must not be null
+   * @param fieldPath the field path, must not be null
+   * @return found field or null if it can't be found through the index
+   */
+  JBBPAbstractField findForPath(final JBBPFieldStruct struct, final String fieldPath) {
+    final String normalized = JBBPUtils.normalizeFieldNameOrPath(fieldPath);
+    final String ownName = struct.getFieldName();
+
+    final Entry entry;
+    if (ownName == null || ownName.length() == 0) {
+      entry = this.paths.get(normalized);
+    }
+    else if (normalized.equals(ownName)) {
+      return struct;
+    }
+    else if (normalized.length() > ownName.length() && normalized.startsWith(ownName) && normalized.charAt(ownName.length()) == '.') {
+      entry = this.paths.get(normalized.substring(ownName.length() + 1));
+    }
+    else {
+      // a named structure finds only paths started with its name
+      entry = null;
+    }
+    return entry == null ? null : resolve(struct, entry.positions, entry.name);
+  }
+
+  /**
+   * Make a handle to find a field for its path in structures made for the
+   * index.
+   *
+   * @param fieldPath the field path relative to the structure, must not be
+   * null
+   * @return the handle for the path, must not be null
+   * @throws JBBPFinderException if there is not any field for the path
+   */
+  public JBBPFieldPath makePath(final String fieldPath) {
+    JBBPUtils.assertNotNull(fieldPath, "Path must not be null");
+    final Entry entry = this.paths.get(JBBPUtils.normalizeFieldNameOrPath(fieldPath));
+    if (entry == null) {
+      throw new JBBPFinderException("Can't find field for path '" + fieldPath + '\'', fieldPath, null);
+    }
+    return new JBBPFieldPath(entry.positions, entry.name);
+  }
+
+  /**
+   * Get field for its position.
+   *
+   * @param struct the top structure, must not be null
+   * @param positions indexes of the field and its parent structures, must not
+   * be null
+   * @param name expected name info of the field, must not be null
+   * @return the field or null if the structure doesn't have expected content
+   */
+  static JBBPAbstractField resolve(final JBBPFieldStruct struct, final int[] positions, final JBBPNamedFieldInfo name) {
+    JBBPAbstractField result = struct;
+    for (final int p : positions) {
+      if (!(result instanceof JBBPFieldStruct)) {
+        return null;
+      }
+      final JBBPFieldStruct current = (JBBPFieldStruct) result;
+      if (p >= current.size()) {
+        return null;
+      }
+      result = current.getFieldAt(p);
+    }
+    return result.getNameInfo() == name ? result : null;
+  }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledField;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offset table of a structure which has fixed layout, i.e. offsets of all its
+ * fields can be calculated from a compiled block without reading of data. It
+ * is used to make lazy views over data which decode field values only on
+ * demand. Only byte aligned fields are supported, layout can't be made for
+ * scripts which contain bit fields, expressions, var fields, custom type
+ * fields, arrays till the end of stream and also align or counter reset
+ * inside structure arrays. The Class is immutable and thread safe.
+ *
+ * @see JBBPLazyStruct
+ * @since 1.2.2
+ */
+public final class JBBPLazyLayout {
+
+  /**
+   * Describes a field placed in a layout.
+   */
+  static final class Item {
+
+    /**
+     * The Field name info, it can be null.
+     */
+    final JBBPNamedFieldInfo name;
+    /**
+     * The Field type code.
+     */
+    final int typeCode;
+    /**
+     * The Flag shows little endian byte order.
+     */
+    final boolean littleEndian;
+    /**
+     * Offset of the field from the start of the layout.
+     */
+    final int offset;
+    /**
+     * Array length or -1 if the field is not an array.
+     */
+    final int arrayLength;
+    /**
+     * Size of a field value or an array item in bytes.
+     */
+    final int itemSize;
+    /**
+     * Layout of a structure field or a structure array item, null for other
+     * fields.
+     */
+    final JBBPLazyLayout struct;
+
+    Item(final JBBPNamedFieldInfo name, final int typeCode, final boolean littleEndian, final int offset, final int arrayLength, final int itemSize, final JBBPLazyLayout struct) {
+      this.name = name;
+      this.typeCode = typeCode;
+      this.littleEndian = littleEndian;
+      this.offset = offset;
+      this.arrayLength = arrayLength;
+      this.itemSize = itemSize;
+      this.struct = struct;
+    }
+
+    /**
+     * Make copy of the item moved to another offset.
+     *
+     * @param delta value to be added to the offset
+     * @return moved item
+     */
+    Item move(final int delta) {
+      return new Item(this.name, this.typeCode, this.littleEndian, this.offset + delta, this.arrayLength, this.itemSize, this.struct);
+    }
+
+    /**
+     * Check that the item is an array.
+     *
+     * @return true if the item is an array, false otherwise
+     */
+    boolean isArray() {
+      return this.arrayLength >= 0;
+    }
+  }
+
+  /**
+   * Name info of the structure.
+   */
+  private final JBBPNamedFieldInfo name;
+
+  /**
+   * Fields of the structure in their order.
+   */
+  final Item[] items;
+
+  /**
+   * Named fields of the structure and its inside structures (excluding
+   * structure arrays) with offsets from the start of the structure, the key is
+   * the field path relative to the structure.
+   */
+  private final Map<String, Item> pathIndex;
+
+  /**
+   * Size of the structure in bytes.
+   */
+  private final int size;
+
+  /**
+   * The Flag shows that bits of every data byte must be reversed.
+   */
+  final boolean msb0;
+
+  /**
+   * Item describes the structure itself, it is used to find a named structure
+   * for its own name, null for anonymous structures.
+   */
+  private final Item self;
+
+  private JBBPLazyLayout(final JBBPNamedFieldInfo name, final Item[] items, final Map<String, Item> pathIndex, final int size, final boolean msb0) {
+    this.name = name;
+    this.items = items;
+    this.pathIndex = pathIndex;
+    this.size = size;
+    this.msb0 = msb0;
+    this.self = name == null ? null : new Item(name, JBBPCompiler.CODE_STRUCT_START, false, 0, -1, size, this);
+  }
+
+  /**
+   * Make layout for a compiled block.
+   *
+   * @param block a compiled block, must not be null
+   * @param bitOrder the bit order of data, must not be null
+   * @return the layout or null if the block doesn't have fixed byte aligned
+   * layout
+   */
+  public static JBBPLazyLayout make(final JBBPCompiledBlock block, final JBBPBitOrder bitOrder) {
+    return new Builder(bitOrder == JBBPBitOrder.MSB0).build(new JBBPNamedFieldInfo("", "", -1), "", JBBPCompiledField.decode(block), 0);
+  }
+
+  /**
+   * Get the structure name info.
+   *
+   * @return the name info, it is empty one for the root structure and null
+   * for anonymous structures
+   */
+  public JBBPNamedFieldInfo getNameInfo() {
+    return this.name;
+  }
+
+  /**
+   * Get the structure size.
+   *
+   * @return size of data of the structure in bytes
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Make lazy view over data of a buffer. Data starts from the current buffer
+   * position and the buffer content is neither copied nor changed.
+   *
+   * @param buffer a buffer contains data, must not be null
+   * @return the lazy view
+   * @throws IllegalArgumentException if the buffer doesn't contain enough
+   * data for the layout
+   */
+  public JBBPLazyStruct makeView(final ByteBuffer buffer) {
+    JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+    if (buffer.remaining() < this.size) {
+      throw new IllegalArgumentException("Buffer contains only " + buffer.remaining() + " byte(s) but layout needs " + this.size + " byte(s)");
+    }
+    return new JBBPLazyStruct(this, buffer, buffer.position());
+  }
+
+  /**
+   * Find a field for its path. Like common search, a named structure finds
+   * only its own name and paths which start with the structure name.
+   *
+   * @param fieldPath a field path, must not be null
+   * @return found field item or null
+   */
+  Item findForPath(final String fieldPath) {
+    final String normalized = JBBPUtils.normalizeFieldNameOrPath(fieldPath);
+    final String ownName = this.name == null ? "" : this.name.getFieldName();
+
+    final Item result;
+    if (ownName.length() == 0) {
+      result = this.pathIndex.get(normalized);
+    }
+    else if (normalized.equals(ownName)) {
+      result = this.self;
+    }
+    else if (normalized.length() > ownName.length() && normalized.startsWith(ownName) && normalized.charAt(ownName.length()) == '.') {
+      result = this.pathIndex.get(normalized.substring(ownName.length() + 1));
+    }
+    else {
+      // a named structure finds only paths started with its name
+      result = null;
+    }
+    return result;
+  }
+
+  /**
+   * Find a field among the structure fields for its name.
+   *
+   * @param fieldName a field name, must not be null
+   * @return found field item or null
+   */
+  Item findForName(final String fieldName) {
+    final String normalized = JBBPUtils.normalizeFieldNameOrPath(fieldName);
+    for (final Item i : this.items) {
+      if (i.name != null && normalized.equals(i.name.getFieldName())) {
+        return i;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Inside auxiliary class to calculate layouts.
+   */
+  private static final class Builder {
+
+    /**
+     * The Flag shows MSB0 bit order.
+     */
+    private final boolean msb0;
+
+    /**
+     * Absolute offset of the last counter reset.
+     */
+    private int counterBase;
+
+    Builder(final boolean msb0) {
+      this.msb0 = msb0;
+    }
+
+    /**
+     * Build layout for structure fields.
+     *
+     * @param name the structure name, null for anonymous structures
+     * @param prefix the path prefix of fields of the structure, must not be
+     * null
+     * @param fields the structure fields, must not be null
+     * @param absoluteStart absolute offset of the structure start or -1 if the
+     * structure is an item of structure array
+     * @return the layout or null if the structure doesn't have fixed layout
+     */
+    private JBBPLazyLayout build(final JBBPNamedFieldInfo name, final String prefix, final JBBPCompiledField[] fields, final int absoluteStart) {
+      final List<Item> items = new ArrayList<Item>(fields.length);
+      final Map<String, Item> index = new HashMap<String, Item>();
+      int offset = 0;
+
+      for (final JBBPCompiledField f : fields) {
+        if (f.isDynamic() || f.getArrayType() == JBBPCompiledField.ARRAY_WHOLE_STREAM) {
+          return null;
+        }
+        final int arrayLength = f.isArray() ? f.getArraySize() : -1;
+        final int items1 = arrayLength < 0 ? 1 : arrayLength;
+        final boolean littleEndian = f.getByteOrder() == JBBPByteOrder.LITTLE_ENDIAN;
+
+        final Item item;
+        switch (f.getTypeCode()) {
+          case JBBPCompiler.CODE_RESET_COUNTER: {
+            if (absoluteStart < 0) {
+              return null;
+            }
+            this.counterBase = absoluteStart + offset;
+            item = null;
+          }
+          break;
+          case JBBPCompiler.CODE_ALIGN: {
+            if (absoluteStart < 0) {
+              return null;
+            }
+            final int align = f.getExtraValue();
+            if (align > 0) {
+              offset += (align - ((absoluteStart + offset - this.counterBase) % align)) % align;
+            }
+            item = null;
+          }
+          break;
+          case JBBPCompiler.CODE_SKIP: {
+            offset += Math.max(0, f.getExtraValue());
+            item = null;
+          }
+          break;
+          case JBBPCompiler.CODE_BOOL:
+          case JBBPCompiler.CODE_BYTE:
+          case JBBPCompiler.CODE_UBYTE: {
+            item = new Item(f.getNameInfo(), f.getTypeCode(), littleEndian, offset, arrayLength, 1, null);
+          }
+          break;
+          case JBBPCompiler.CODE_SHORT:
+          case JBBPCompiler.CODE_USHORT: {
+            item = new Item(f.getNameInfo(), f.getTypeCode(), littleEndian, offset, arrayLength, 2, null);
+          }
+          break;
+          case JBBPCompiler.CODE_INT: {
+            item = new Item(f.getNameInfo(), f.getTypeCode(), littleEndian, offset, arrayLength, 4, null);
+          }
+          break;
+          case JBBPCompiler.CODE_LONG: {
+            item = new Item(f.getNameInfo(), f.getTypeCode(), littleEndian, offset, arrayLength, 8, null);
+          }
+          break;
+          case JBBPCompiler.CODE_STRUCT_START: {
+            final boolean inArray = absoluteStart < 0 || arrayLength >= 0;
+            final JBBPNamedFieldInfo structName = f.getNameInfo();
+            // fields of anonymous structures have paths of the outer structure
+            final String structPrefix = structName == null ? prefix : structName.getFieldPath() + '.';
+            final JBBPLazyLayout struct = build(structName, structPrefix, f.getStructFields(), inArray ? -1 : absoluteStart + offset);
+            if (struct == null) {
+              return null;
+            }
+            item = new Item(structName, f.getTypeCode(), littleEndian, offset, arrayLength, struct.size, struct);
+            if (arrayLength < 0) {
+              final String keyPrefix = structName == null ? "" : structName.getFieldName() + '.';
+              for (final Map.Entry<String, Item> e : struct.pathIndex.entrySet()) {
+                index.put(keyPrefix + e.getKey(), e.getValue().move(offset));
+              }
+            }
+          }
+          break;
+          default: {
+            // bit fields and other not byte aligned data
+            return null;
+          }
+        }
+
+        if (item != null) {
+          items.add(item);
+          if (item.name != null) {
+            index.put(item.name.getFieldPath().substring(prefix.length()), item);
+          }
+          offset += item.itemSize * items1;
+        }
+      }
+      return new JBBPLazyLayout(name, items.toArray(new Item[items.size()]), index, offset, this.msb0);
+    }
+  }
+}
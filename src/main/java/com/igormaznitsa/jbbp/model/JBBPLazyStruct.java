@@ -0,0 +1,531 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPTooManyFieldsFoundException;
+import com.igormaznitsa.jbbp.model.finder.JBBPFieldFinder;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import java.nio.ByteBuffer;
+
+/**
+ * Lazy view over data of a structure with fixed layout. The View keeps only
+ * the backing buffer, the start offset and the shared offset table, values
+ * are decoded from the buffer only on demand. Field objects are made only by
+ * finder methods for found fields. The View reflects changes of the buffer
+ * content and it is not thread safe if the buffer is changed.
+ *
+ * @see JBBPLazyLayout
+ * @since 1.2.2
+ */
+public final class JBBPLazyStruct implements JBBPFieldFinder {
+
+  /**
+   * Layout of the structure.
+   */
+  private final JBBPLazyLayout layout;
+
+  /**
+   * The Backing buffer.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * Absolute index of the structure start in the buffer.
+   */
+  private final int start;
+
+  JBBPLazyStruct(final JBBPLazyLayout layout, final ByteBuffer buffer, final int start) {
+    this.layout = layout;
+    this.buffer = buffer;
+    this.start = start;
+  }
+
+  /**
+   * Get the structure name info.
+   *
+   * @return the name info, it is empty one for the root structure and null for
+   * anonymous structures
+   */
+  public JBBPNamedFieldInfo getNameInfo() {
+    return this.layout.getNameInfo();
+  }
+
+  /**
+   * Get the structure layout.
+   *
+   * @return the layout, must not be null
+   */
+  public JBBPLazyLayout getLayout() {
+    return this.layout;
+  }
+
+  /**
+   * Get size of the structure data.
+   *
+   * @return size in bytes
+   */
+  public int getSize() {
+    return this.layout.getSize();
+  }
+
+  /**
+   * Find field item for path, exception if not found.
+   *
+   * @param fieldPath the field path, must not be null
+   * @return found item
+   * @throws JBBPFinderException if there is not any field for the path
+   */
+  private JBBPLazyLayout.Item item(final String fieldPath) {
+    final JBBPLazyLayout.Item result = this.layout.findForPath(fieldPath);
+    if (result == null) {
+      throw new JBBPFinderException("Can't find field for path '" + fieldPath + '\'', fieldPath, null);
+    }
+    return result;
+  }
+
+  /**
+   * Find field item for path and check that it is a numeric field.
+   *
+   * @param fieldPath the field path, must not be null
+   * @return found item
+   * @throws JBBPFinderException if there is not any numeric field for the path
+   */
+  private JBBPLazyLayout.Item numericItem(final String fieldPath) {
+    final JBBPLazyLayout.Item result = item(fieldPath);
+    if (result.isArray() || result.struct != null) {
+      throw new JBBPFinderException("Field '" + fieldPath + "' is not a numeric field", fieldPath, null);
+    }
+    return result;
+  }
+
+  /**
+   * Find field item for path and check that it is an array of numeric values,
+   * also check the item index.
+   *
+   * @param fieldPath the field path, must not be null
+   * @param index the index of an item
+   * @return found item
+   * @throws JBBPFinderException if there is not any numeric array for the path
+   * @throws ArrayIndexOutOfBoundsException if the index is wrong
+   */
+  private JBBPLazyLayout.Item arrayItem(final String fieldPath, final int index) {
+    final JBBPLazyLayout.Item result = item(fieldPath);
+    if (!result.isArray() || result.struct != null) {
+      throw new JBBPFinderException("Field '" + fieldPath + "' is not an array of numeric values", fieldPath, null);
+    }
+    checkIndex(result, index);
+    return result;
+  }
+
+  /**
+   * Check index of an array item.
+   *
+   * @param item the array item, must not be null
+   * @param index the index to be checked
+   * @throws ArrayIndexOutOfBoundsException if the index is wrong
+   */
+  private static void checkIndex(final JBBPLazyLayout.Item item, final int index) {
+    if (index < 0 || index >= item.arrayLength) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+  }
+
+  /**
+   * Get data byte from the buffer.
+   *
+   * @param position absolute position in the buffer
+   * @return the data byte, its bits are reversed for MSB0 bit order
+   */
+  private byte byteAt(final int position) {
+    final byte result = this.buffer.get(position);
+    return this.layout.msb0 ? JBBPUtils.reverseBitsInByte(result) : result;
+  }
+
+  /**
+   * Decode value from the buffer.
+   *
+   * @param item the field item, must not be null
+   * @param structStart absolute offset of the owner structure
+   * @param index index of the value if the field is an array
+   * @return decoded value
+   */
+  private long decode(final JBBPLazyLayout.Item item, final int structStart, final int index) {
+    int position = structStart + item.offset;
+    switch (item.typeCode) {
+      case JBBPCompiler.CODE_BOOL: {
+        return byteAt(position + index) == 0 ? 0L : 1L;
+      }
+      case JBBPCompiler.CODE_BYTE:
+      case JBBPCompiler.CODE_UBYTE: {
+        // byte arrays are reversed completely for little endian byte order
+        final int offset = item.littleEndian && item.isArray() ? item.arrayLength - 1 - index : index;
+        final byte value = byteAt(position + offset);
+        return item.typeCode == JBBPCompiler.CODE_UBYTE ? value & 0xFFL : value;
+      }
+      default: {
+        final int size = item.itemSize;
+        position += index * size;
+        long value = 0L;
+        if (item.littleEndian) {
+          for (int i = size - 1; i >= 0; i--) {
+            value = (value << 8) | (byteAt(position + i) & 0xFFL);
+          }
+        }
+        else {
+          for (int i = 0; i < size; i++) {
+            value = (value << 8) | (byteAt(position + i) & 0xFFL);
+          }
+        }
+        switch (item.typeCode) {
+          case JBBPCompiler.CODE_SHORT:
+            return (short) value;
+          case JBBPCompiler.CODE_INT:
+            return (int) value;
+          default:
+            return value;
+        }
+      }
+    }
+  }
+
+  /**
+   * Get value of a numeric field as integer.
+   *
+   * @param fieldPath the field path, must not be null
+   * @return the value as integer, long values are truncated
+   * @throws JBBPFinderException if there is not any numeric field for the path
+   */
+  public int getAsInt(final String fieldPath) {
+    return (int) decode(numericItem(fieldPath), this.start, 0);
+  }
+
+  /**
+   * Get value of a numeric field as long.
+   *
+   * @param fieldPath the field path, must not be null
+   * @return the value as long
+   * @throws JBBPFinderException if there is not any numeric field for the path
+   */
+  public long getAsLong(final String fieldPath) {
+    return decode(numericItem(fieldPath), this.start, 0);
+  }
+
+  /**
+   * Get value of a numeric field as boolean.
+   *
+   * @param fieldPath the field path, must not be null
+   * @return false if the value is zero, true otherwise
+   * @throws JBBPFinderException if there is not any numeric field for the path
+   */
+  public boolean getAsBool(final String fieldPath) {
+    return decode(numericItem(fieldPath), this.start, 0) != 0L;
+  }
+
+  /**
+   * Get value of a numeric array item as integer.
+   *
+   * @param fieldPath the array path, must not be null
+   * @param index the item index
+   * @return the value as integer, long values are truncated
+   * @throws JBBPFinderException if there is not any numeric array for the path
+   * @throws ArrayIndexOutOfBoundsException if the index is wrong
+   */
+  public int getAsInt(final String fieldPath, final int index) {
+    return (int) decode(arrayItem(fieldPath, index), this.start, index);
+  }
+
+  /**
+   * Get value of a numeric array item as long.
+   *
+   * @param fieldPath the array path, must not be null
+   * @param index the item index
+   * @return the value as long
+   * @throws JBBPFinderException if there is not any numeric array for the path
+   * @throws ArrayIndexOutOfBoundsException if the index is wrong
+   */
+  public long getAsLong(final String fieldPath, final int index) {
+    return decode(arrayItem(fieldPath, index), this.start, index);
+  }
+
+  /**
+   * Get value of a numeric array item as boolean.
+   *
+   * @param fieldPath the array path, must not be null
+   * @param index the item index
+   * @return false if the value is zero, true otherwise
+   * @throws JBBPFinderException if there is not any numeric array for the path
+   * @throws ArrayIndexOutOfBoundsException if the index is wrong
+   */
+  public boolean getAsBool(final String fieldPath, final int index) {
+    return decode(arrayItem(fieldPath, index), this.start, index) != 0L;
+  }
+
+  /**
+   * Get length of an array.
+   *
+   * @param fieldPath the array path, must not be null
+   * @return number of array items
+   * @throws JBBPFinderException if there is not any array for the path
+   */
+  public int getArrayLength(final String fieldPath) {
+    final JBBPLazyLayout.Item item = item(fieldPath);
+    if (!item.isArray()) {
+      throw new JBBPFinderException("Field '" + fieldPath + "' is not an array", fieldPath, null);
+    }
+    return item.arrayLength;
+  }
+
+  /**
+   * Get lazy view of an inside structure.
+   *
+   * @param fieldPath the structure path, must not be null
+   * @return the lazy view of the structure
+   * @throws JBBPFinderException if there is not any structure for the path
+   */
+  public JBBPLazyStruct getStruct(final String fieldPath) {
+    final JBBPLazyLayout.Item item = item(fieldPath);
+    if (item.struct == null || item.isArray()) {
+      throw new JBBPFinderException("Field '" + fieldPath + "' is not a structure", fieldPath, null);
+    }
+    return new JBBPLazyStruct(item.struct, this.buffer, this.start + item.offset);
+  }
+
+  /**
+   * Get lazy view of an item of a structure array.
+   *
+   * @param fieldPath the structure array path, must not be null
+   * @param index the item index
+   * @return the lazy view of the structure array item
+   * @throws JBBPFinderException if there is not any structure array for the
+   * path
+   * @throws ArrayIndexOutOfBoundsException if the index is wrong
+   */
+  public JBBPLazyStruct getStruct(final String fieldPath, final int index) {
+    final JBBPLazyLayout.Item item = item(fieldPath);
+    if (item.struct == null || !item.isArray()) {
+      throw new JBBPFinderException("Field '" + fieldPath + "' is not a structure array", fieldPath, null);
+    }
+    checkIndex(item, index);
+    return new JBBPLazyStruct(item.struct, this.buffer, this.start + item.offset + index * item.itemSize);
+  }
+
+  /**
+   * Decode the whole structure into field objects.
+   *
+   * @return the structure with the same content as a parser makes for the
+   * data
+   */
+  public JBBPFieldStruct toStruct() {
+    return makeStruct(this.layout, this.getNameInfo(), this.start);
+  }
+
+  /**
+   * Make structure object for a structure placed in the buffer.
+   *
+   * @param structLayout the structure layout, must not be null
+   * @param name the structure name info, can be null
+   * @param structStart absolute offset of the structure
+   * @return made structure object
+   */
+  private JBBPFieldStruct makeStruct(final JBBPLazyLayout structLayout, final JBBPNamedFieldInfo name, final int structStart) {
+    final JBBPLazyLayout.Item[] items = structLayout.items;
+    final JBBPAbstractField[] fields = new JBBPAbstractField[items.length];
+    for (int i = 0; i < items.length; i++) {
+      fields[i] = makeField(items[i], structStart);
+    }
+    return new JBBPFieldStruct(name, fields);
+  }
+
+  /**
+   * Make field object for a field item.
+   *
+   * @param item the field item, must not be null
+   * @param structStart absolute offset of the owner structure
+   * @return made field object
+   */
+  private JBBPAbstractField makeField(final JBBPLazyLayout.Item item, final int structStart) {
+    if (item.struct != null) {
+      if (item.isArray()) {
+        final JBBPFieldStruct[] array = new JBBPFieldStruct[item.arrayLength];
+        for (int i = 0; i < array.length; i++) {
+          array[i] = makeStruct(item.struct, item.name, structStart + item.offset + i * item.itemSize);
+        }
+        return new JBBPFieldArrayStruct(item.name, array);
+      }
+      return makeStruct(item.struct, item.name, structStart + item.offset);
+    }
+
+    if (!item.isArray()) {
+      final long value = decode(item, structStart, 0);
+      switch (item.typeCode) {
+        case JBBPCompiler.CODE_BOOL:
+          return new JBBPFieldBoolean(item.name, value != 0L);
+        case JBBPCompiler.CODE_BYTE:
+          return new JBBPFieldByte(item.name, (byte) value);
+        case JBBPCompiler.CODE_UBYTE:
+          return new JBBPFieldUByte(item.name, (byte) value);
+        case JBBPCompiler.CODE_SHORT:
+          return new JBBPFieldShort(item.name, (short) value);
+        case JBBPCompiler.CODE_USHORT:
+          return new JBBPFieldUShort(item.name, (short) value);
+        case JBBPCompiler.CODE_INT:
+          return new JBBPFieldInt(item.name, (int) value);
+        case JBBPCompiler.CODE_LONG:
+          return new JBBPFieldLong(item.name, value);
+        default:
+          throw new Error("Unexpected field type, contact developer! [" + item.typeCode + ']');
+      }
+    }
+
+    final int length = item.arrayLength;
+    switch (item.typeCode) {
+      case JBBPCompiler.CODE_BOOL: {
+        final boolean[] array = new boolean[length];
+        for (int i = 0; i < length; i++) {
+          array[i] = decode(item, structStart, i) != 0L;
+        }
+        return new JBBPFieldArrayBoolean(item.name, array);
+      }
+      case JBBPCompiler.CODE_BYTE:
+      case JBBPCompiler.CODE_UBYTE: {
+        final byte[] array = new byte[length];
+        for (int i = 0; i < length; i++) {
+          array[i] = (byte) decode(item, structStart, i);
+        }
+        return item.typeCode == JBBPCompiler.CODE_BYTE ? new JBBPFieldArrayByte(item.name, array) : new JBBPFieldArrayUByte(item.name, array);
+      }
+      case JBBPCompiler.CODE_SHORT:
+      case JBBPCompiler.CODE_USHORT: {
+        final short[] array = new short[length];
+        for (int i = 0; i < length; i++) {
+          array[i] = (short) decode(item, structStart, i);
+        }
+        return item.typeCode == JBBPCompiler.CODE_SHORT ? new JBBPFieldArrayShort(item.name, array) : new JBBPFieldArrayUShort(item.name, array);
+      }
+      case JBBPCompiler.CODE_INT: {
+        final int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+          array[i] = (int) decode(item, structStart, i);
+        }
+        return new JBBPFieldArrayInt(item.name, array);
+      }
+      case JBBPCompiler.CODE_LONG: {
+        final long[] array = new long[length];
+        for (int i = 0; i < length; i++) {
+          array[i] = decode(item, structStart, i);
+        }
+        return new JBBPFieldArrayLong(item.name, array);
+      }
+      default:
+        throw new Error("Unexpected field type, contact developer! [" + item.typeCode + ']');
+    }
+  }
+
+  /**
+   * Get class of field object for a field item.
+   *
+   * @param item the field item, must not be null
+   * @return the field class
+   */
+  private static Class<? extends JBBPAbstractField> fieldClass(final JBBPLazyLayout.Item item) {
+    final boolean array = item.isArray();
+    switch (item.typeCode) {
+      case JBBPCompiler.CODE_BOOL:
+        return array ? JBBPFieldArrayBoolean.class : JBBPFieldBoolean.class;
+      case JBBPCompiler.CODE_BYTE:
+        return array ? JBBPFieldArrayByte.class : JBBPFieldByte.class;
+      case JBBPCompiler.CODE_UBYTE:
+        return array ? JBBPFieldArrayUByte.class : JBBPFieldUByte.class;
+      case JBBPCompiler.CODE_SHORT:
+        return array ? JBBPFieldArrayShort.class : JBBPFieldShort.class;
+      case JBBPCompiler.CODE_USHORT:
+        return array ? JBBPFieldArrayUShort.class : JBBPFieldUShort.class;
+      case JBBPCompiler.CODE_INT:
+        return array ? JBBPFieldArrayInt.class : JBBPFieldInt.class;
+      case JBBPCompiler.CODE_LONG:
+        return array ? JBBPFieldArrayLong.class : JBBPFieldLong.class;
+      default:
+        return array ? JBBPFieldArrayStruct.class : JBBPFieldStruct.class;
+    }
+  }
+
+  public <T extends JBBPAbstractField> T findFirstFieldForType(final Class<T> fieldType) {
+    for (final JBBPLazyLayout.Item i : this.layout.items) {
+      if (fieldType.isAssignableFrom(fieldClass(i))) {
+        return fieldType.cast(makeField(i, this.start));
+      }
+    }
+    return null;
+  }
+
+  public <T extends JBBPAbstractField> T findLastFieldForType(final Class<T> fieldType) {
+    final JBBPLazyLayout.Item[] items = this.layout.items;
+    for (int i = items.length - 1; i >= 0; i--) {
+      if (fieldType.isAssignableFrom(fieldClass(items[i]))) {
+        return fieldType.cast(makeField(items[i], this.start));
+      }
+    }
+    return null;
+  }
+
+  public <T extends JBBPAbstractField> T findFieldForType(final Class<T> fieldType) {
+    JBBPLazyLayout.Item found = null;
+    int counter = 0;
+    for (final JBBPLazyLayout.Item i : this.layout.items) {
+      if (fieldType.isAssignableFrom(fieldClass(i))) {
+        if (found == null) {
+          found = i;
+        }
+        counter++;
+      }
+    }
+    if (counter > 1) {
+      throw new JBBPTooManyFieldsFoundException(counter, "Detected more than one field", null, fieldType);
+    }
+    return found == null ? null : fieldType.cast(makeField(found, this.start));
+  }
+
+  public <T extends JBBPAbstractField> T findFieldForNameAndType(final String fieldName, final Class<T> fieldType) {
+    final JBBPLazyLayout.Item found = this.layout.findForName(fieldName);
+    return found == null || !fieldType.isAssignableFrom(fieldClass(found)) ? null : fieldType.cast(makeField(found, this.start));
+  }
+
+  public <T extends JBBPAbstractField> T findFieldForPathAndType(final String fieldPath, final Class<T> fieldType) {
+    final JBBPLazyLayout.Item found = this.layout.findForPath(fieldPath);
+    return found == null || !fieldType.isAssignableFrom(fieldClass(found)) ? null : fieldType.cast(makeField(found, this.start));
+  }
+
+  public JBBPAbstractField findFieldForName(final String fieldName) {
+    final JBBPLazyLayout.Item found = this.layout.findForName(fieldName);
+    return found == null ? null : makeField(found, this.start);
+  }
+
+  public JBBPAbstractField findFieldForPath(final String fieldPath) {
+    final JBBPLazyLayout.Item found = this.layout.findForPath(fieldPath);
+    return found == null ? null : makeField(found, this.start);
+  }
+
+  public boolean nameExists(final String fieldName) {
+    return this.layout.findForName(fieldName) != null;
+  }
+
+  public boolean pathExists(final String fieldPath) {
+    return this.layout.findForPath(fieldPath) != null;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.utils;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Cache of values calculated for classes. Classes are weak keys so that the
+ * cache doesn't prevent unloading of classes and their class loaders, values
+ * must not refer to their classes (they can be wrapped by soft references).
+ * Reading doesn't need any lock because it works with an immutable snapshot
+ * of the table, the snapshot is replaced by a copy under lock when a value is
+ * added. The Class is thread safe.
+ *
+ * @param <T> type of cached values
+ * @since 1.2.2
+ */
+public final class JBBPClassValueCache<T> {
+
+  /**
+   * Initial size of the table, must be power of two.
+   */
+  private static final int INITIAL_SIZE = 16;
+
+  /**
+   * Immutable snapshot of the hash table.
+   */
+  private volatile Entry<T>[] table;
+
+  /**
+   * Number of entries in the current table.
+   */
+  private int entries;
+
+  /**
+   * The Constructor.
+   */
+  public JBBPClassValueCache() {
+    this.table = makeTable(INITIAL_SIZE);
+  }
+
+  /**
+   * Make empty table.
+   *
+   * @param <T> type of values
+   * @param size size of the table, must be power of two
+   * @return the made table
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> Entry<T>[] makeTable(final int size) {
+    return (Entry<T>[]) new Entry<?>[size];
+  }
+
+  /**
+   * Get cached value for a class.
+   *
+   * @param klazz a class, must not be null
+   * @return the cached value or null if there is not any value for the class
+   */
+  public T get(final Class<?> klazz) {
+    final Entry<T>[] current = this.table;
+    for (Entry<T> e = current[System.identityHashCode(klazz) & (current.length - 1)]; e != null; e = e.next) {
+      if (e.get() == klazz) {
+        return e.value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Put a value for a class, the previous value for the class is replaced.
+   * Entries of unloaded classes are removed during the operation.
+   *
+   * @param klazz a class, must not be null
+   * @param value a value, must not be null
+   */
+  public synchronized void put(final Class<?> klazz, final T value) {
+    JBBPUtils.assertNotNull(klazz, "Class must not be null");
+    JBBPUtils.assertNotNull(value, "Value must not be null");
+
+    final Entry<T>[] current = this.table;
+    int size = current.length;
+    while (size < (this.entries + 1) * 2) {
+      size <<= 1;
+    }
+
+    final Entry<T>[] result = makeTable(size);
+    int counter = 0;
+    for (final Entry<T> head : current) {
+      for (Entry<T> e = head; e != null; e = e.next) {
+        final Class<?> key = e.get();
+        if (key != null && key != klazz) {
+          final int index = e.hash & (size - 1);
+          result[index] = new Entry<T>(key, e.hash, e.value, result[index]);
+          counter++;
+        }
+      }
+    }
+    final int hash = System.identityHashCode(klazz);
+    result[hash & (size - 1)] = new Entry<T>(klazz, hash, value, result[hash & (size - 1)]);
+
+    this.entries = counter + 1;
+    this.table = result;
+  }
+
+  /**
+   * Remove all cached values.
+   */
+  public synchronized void clear() {
+    this.entries = 0;
+    this.table = makeTable(INITIAL_SIZE);
+  }
+
+  /**
+   * Entry of the table, it weakly refers to its class.
+   *
+   * @param <T> type of value
+   */
+  private static final class Entry<T> extends WeakReference<Class<?>> {
+
+    /**
+     * Identity hash code of the class.
+     */
+    private final int hash;
+    /**
+     * The Value for the class.
+     */
+    private final T value;
+    /**
+     * The Next entry in the same bucket, can be null.
+     */
+    private final Entry<T> next;
+
+    private Entry(final Class<?> klazz, final int hash, final T value, final Entry<T> next) {
+      super(klazz);
+      this.hash = hash;
+      this.value = value;
+      this.next = next;
+    }
+  }
+}
@@ -29,7 +29,32 @@ public enum JBBPSystemProperty {
   /**
    * The Property allows to define the initial size for array buffer to read whole stream.
    */
-  PROPERTY_INPUT_INITIAL_ARRAY_BUFFER_SIZE("jbbp.input.initial.array.buffer");
+  PROPERTY_INPUT_INITIAL_ARRAY_BUFFER_SIZE("jbbp.input.initial.array.buffer"),
+
+  /**
+   * The Property allows to define the size of inside read-ahead buffer of bit
+   * input streams, zero or negative value disables the buffer. It is applied
+   * only to bit input streams created by user code, streams made by parsers
+   * for caller's streams never read in advance. Data read in advance stay in
+   * the buffer of the bit input stream, so that the source stream must not
+   * be read directly after wrapping.
+   * @since 1.2.2
+   */
+  PROPERTY_INPUT_READ_AHEAD_BUFFER_SIZE("jbbp.input.read.ahead.buffer"),
+
+  /**
+   * The Property allows to define the size of inside output buffer of bit
+   * output streams, zero or negative value disables the buffer.
+   * @since 1.2.2
+   */
+  PROPERTY_OUTPUT_BUFFER_SIZE("jbbp.output.buffer"),
+
+  /**
+   * The Property allows to define the type of field accessors used by the
+   * mapper and field observers (SAFE or UNSAFE).
+   * @since 1.2.2
+   */
+  PROPERTY_FIELD_ACCESSOR_TYPE("jbbp.mapper.field.accessor");
 
   /**
    * The name of the property.
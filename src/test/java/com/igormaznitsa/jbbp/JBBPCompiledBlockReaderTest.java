@@ -0,0 +1,111 @@
+/* 
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.io.EOFException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class JBBPCompiledBlockReaderTest {
+
+  private static void assertCompiledAndInterpretedEquals(final String script, final JBBPBitOrder bitOrder, final int flags, final byte[] data) throws Exception {
+    final JBBPParser interpreted = JBBPParser.prepare(script, bitOrder, flags);
+    final JBBPParser compiled = JBBPParser.prepareCompiled(script, bitOrder, flags);
+    assertTrue(compiled.isCompiledMode());
+
+    final JBBPFieldStruct expected = interpreted.parse(data);
+    final JBBPFieldStruct actual = compiled.parse(data);
+    TestUtils.assertFieldTreeEquals(expected, actual);
+    assertEquals(interpreted.getFinalStreamByteCounter(), compiled.getFinalStreamByteCounter());
+  }
+
+  private static byte[] makeRandomData(final int length) {
+    final byte[] result = new byte[length];
+    new Random(1234L).nextBytes(result);
+    return result;
+  }
+
+  @Test
+  public void testInterpretationModeForDynamicScripts() throws Exception {
+    assertFalse(JBBPParser.prepare("int a;").isCompiledMode());
+    assertFalse(JBBPParser.prepareCompiled("ubyte len; byte [len] data;").isCompiledMode());
+    assertFalse(JBBPParser.prepareCompiled("ubyte len; bit:(len) a;").isCompiledMode());
+    assertFalse(JBBPParser.prepareCompiled("var a;").isCompiledMode());
+    assertFalse(JBBPParser.prepareCompiled("ubyte len; s [2] { byte [len] a; }").isCompiledMode());
+    assertTrue(JBBPParser.prepareCompiled("int a; s [2] { byte [3] a; }").isCompiledMode());
+
+    final JBBPFieldStruct parsed = JBBPParser.prepareCompiled("ubyte len; byte [len] data;").parse(new byte[]{2, 3, 4});
+    assertArrayEquals(new byte[]{3, 4}, parsed.findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+  }
+
+  @Test
+  public void testPrimitiveFields() throws Exception {
+    final String script = "bit:3 a; bit:5 b; bool c; byte d; ubyte e; short f; ushort g; int h; long i; <short j; <ushort k; <int l; <long m;";
+    final byte[] data = makeRandomData(64);
+    assertCompiledAndInterpretedEquals(script, JBBPBitOrder.LSB0, 0, data);
+    assertCompiledAndInterpretedEquals(script, JBBPBitOrder.MSB0, 0, data);
+  }
+
+  @Test
+  public void testArrays() throws Exception {
+    final String script = "bit:3 [7] a; bool [3] b; byte [4] c; <ubyte [4] d; short [2] e; <ushort [2] f; int [3] g; <long [2] h; bit:2 [_] tail;";
+    final byte[] data = makeRandomData(128);
+    assertCompiledAndInterpretedEquals(script, JBBPBitOrder.LSB0, 0, data);
+    assertCompiledAndInterpretedEquals(script, JBBPBitOrder.MSB0, 0, data);
+    assertCompiledAndInterpretedEquals("<int [_] a;", JBBPBitOrder.LSB0, 0, makeRandomData(40));
+    assertCompiledAndInterpretedEquals("<byte [_] a;", JBBPBitOrder.LSB0, 0, makeRandomData(17));
+  }
+
+  @Test
+  public void testStructuresAndSpecialFields() throws Exception {
+    final String script = "byte a; align:4; skip:2; s { ushort b; ins [2] { bit:4 c; align; int; } } reset$$; arr [_] { byte f; <int g; }";
+    final byte[] data = makeRandomData(4 + 2 + 2 + 2 * 5 + 10 * 5);
+    assertCompiledAndInterpretedEquals(script, JBBPBitOrder.LSB0, 0, data);
+    assertCompiledAndInterpretedEquals(script, JBBPBitOrder.MSB0, 0, data);
+  }
+
+  @Test
+  public void testSkipRemainingFieldsIfEof() throws Exception {
+    assertCompiledAndInterpretedEquals("int a; int b; long c;", JBBPBitOrder.LSB0, JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF, new byte[]{1, 2, 3, 4});
+    assertCompiledAndInterpretedEquals("int a; s { int b; int c; } long d;", JBBPBitOrder.LSB0, JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+  }
+
+  @Test
+  public void testErrorForNamedField() throws Exception {
+    try {
+      JBBPParser.prepareCompiled("short helloworld;").parse(new byte[]{1});
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertTrue(ex.getMessage().contains("helloworld"));
+    }
+  }
+
+  @Test(expected = EOFException.class)
+  public void testErrorForNonNamedField() throws Exception {
+    JBBPParser.prepareCompiled("int;").parse(new byte[]{1, 2});
+  }
+
+  @Test(expected = EOFException.class)
+  public void testErrorForSkip() throws Exception {
+    JBBPParser.prepareCompiled("byte; skip:4;").parse(new byte[]{1, 2});
+  }
+}
@@ -0,0 +1,150 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPLazyStruct;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPFrameDecoderTest {
+
+  private static final byte[] FRAMES = new byte[]{0x11, 0, 2, 1, 2, 0x22, 0, 0, 0x33, 0, 3, 3, 4, 5, 0x44, 0, 4, 6};
+
+  private static final class CollectingListener implements JBBPFrameListener {
+
+    final List<Integer> types = new ArrayList<Integer>();
+    final List<ByteBuffer> bodies = new ArrayList<ByteBuffer>();
+
+    public void onFrame(final JBBPLazyStruct header, final ByteBuffer body) {
+      this.types.add(header.getAsInt("type"));
+      this.bodies.add(body);
+    }
+  }
+
+  private static byte[] toArray(final ByteBuffer buffer) {
+    final byte[] result = new byte[buffer.remaining()];
+    buffer.duplicate().get(result);
+    return result;
+  }
+
+  @Test
+  public void testDecode() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte type; ushort len;"), "len");
+    assertEquals(3, decoder.getHeaderSize());
+
+    final ByteBuffer buffer = ByteBuffer.wrap(FRAMES);
+    final CollectingListener listener = new CollectingListener();
+    assertEquals(3, decoder.decode(buffer, listener));
+    assertEquals(14, buffer.position());
+
+    assertEquals(0x11, listener.types.get(0).intValue());
+    assertEquals(0x22, listener.types.get(1).intValue());
+    assertEquals(0x33, listener.types.get(2).intValue());
+    assertArrayEquals(new byte[]{1, 2}, toArray(listener.bodies.get(0)));
+    assertArrayEquals(new byte[0], toArray(listener.bodies.get(1)));
+    assertArrayEquals(new byte[]{3, 4, 5}, toArray(listener.bodies.get(2)));
+    assertSame(FRAMES, listener.bodies.get(2).array());
+    assertEquals(0, listener.bodies.get(2).position());
+
+    assertEquals(0, decoder.decode(buffer, listener));
+    assertEquals(14, buffer.position());
+  }
+
+  @Test
+  public void testDecode_IncompleteFrameByChunks() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte type; ushort len;"), "len");
+    final CollectingListener listener = new CollectingListener();
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+    for (int i = 0; i < FRAMES.length - 1; i++) {
+      buffer.put(FRAMES[i]);
+      buffer.flip();
+      decoder.decode(buffer, listener);
+      buffer.compact();
+    }
+    assertEquals(3, listener.types.size());
+    assertEquals(3, buffer.position());
+  }
+
+  @Test
+  public void testDecode_LengthAdjustment() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte type; ubyte len;"), "len", -2, 16);
+    final CollectingListener listener = new CollectingListener();
+    assertEquals(2, decoder.decode(ByteBuffer.wrap(new byte[]{1, 4, 7, 8, 2, 2}), listener));
+    assertArrayEquals(new byte[]{7, 8}, toArray(listener.bodies.get(0)));
+    assertArrayEquals(new byte[0], toArray(listener.bodies.get(1)));
+  }
+
+  @Test
+  public void testDecode_WrongLength() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte type; ubyte len;"), "len", 0, 4);
+    final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{1, 1, 9, 2, 5, 1, 1, 1, 1, 1});
+    try {
+      decoder.decode(buffer, new CollectingListener());
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertEquals(3, buffer.position());
+    }
+  }
+
+  @Test
+  public void testDecode_ParseBodiesInThreads() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte type; ushort len;"), "len");
+    final JBBPParser bodyParser = JBBPParser.prepare("byte [_] data;");
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final List<Future<JBBPFieldStruct>> results = new ArrayList<Future<JBBPFieldStruct>>();
+      decoder.decode(ByteBuffer.wrap(FRAMES), new JBBPFrameListener() {
+        public void onFrame(final JBBPLazyStruct header, final ByteBuffer body) {
+          results.add(executor.submit(new Callable<JBBPFieldStruct>() {
+            public JBBPFieldStruct call() throws Exception {
+              return bodyParser.parse(body);
+            }
+          }));
+        }
+      });
+      assertEquals(3, results.size());
+      assertArrayEquals(new byte[]{1, 2}, results.get(0).get().findFieldForType(JBBPFieldArrayByte.class).getArray());
+      assertArrayEquals(new byte[0], results.get(1).get().findFieldForType(JBBPFieldArrayByte.class).getArray());
+      assertArrayEquals(new byte[]{3, 4, 5}, results.get(2).get().findFieldForType(JBBPFieldArrayByte.class).getArray());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = JBBPIllegalArgumentException.class)
+  public void testConstructor_DynamicHeader() throws Exception {
+    new JBBPFrameDecoder(JBBPParser.prepare("ubyte len; byte [len] data;"), "len");
+  }
+
+  @Test(expected = JBBPFinderException.class)
+  public void testConstructor_WrongLengthPath() throws Exception {
+    new JBBPFrameDecoder(JBBPParser.prepare("ubyte type; ushort len;"), "length");
+  }
+}
@@ -0,0 +1,208 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldBit;
+import com.igormaznitsa.jbbp.model.JBBPFieldByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldInt;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPIncrementalParserTest {
+
+  private static final byte[] FRAMES = new byte[]{2, 1, 2, 0, 3, 3, 4, 5, 1, 6};
+
+  private static List<JBBPFieldStruct> feedByChunks(final JBBPIncrementalParser parser, final byte[] data, final int chunkSize) throws Exception {
+    final List<JBBPFieldStruct> result = new ArrayList<JBBPFieldStruct>();
+    for (int i = 0; i < data.length; i += chunkSize) {
+      final ByteBuffer chunk = ByteBuffer.wrap(data, i, Math.min(chunkSize, data.length - i));
+      JBBPFieldStruct frame = parser.feed(chunk);
+      assertFalse(chunk.hasRemaining());
+      while (frame != null) {
+        result.add(frame);
+        frame = parser.next();
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testDynamicFrames() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data;");
+    for (int chunkSize = 1; chunkSize <= FRAMES.length; chunkSize++) {
+      final JBBPIncrementalParser incremental = new JBBPIncrementalParser(parser);
+      final List<JBBPFieldStruct> frames = feedByChunks(incremental, FRAMES, chunkSize);
+      assertEquals("Chunk " + chunkSize, 4, frames.size());
+      assertArrayEquals(new byte[]{1, 2}, frames.get(0).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+      assertArrayEquals(new byte[0], frames.get(1).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+      assertArrayEquals(new byte[]{3, 4, 5}, frames.get(2).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+      assertArrayEquals(new byte[]{6}, frames.get(3).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+      assertEquals(0, incremental.getBufferedBytes());
+    }
+  }
+
+  @Test
+  public void testFixedFrames() throws Exception {
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("int value;"));
+    assertNull(incremental.feed(new byte[]{1, 2, 3}, 0, 3));
+    assertEquals(3, incremental.getBufferedBytes());
+    assertEquals(0x01020304, incremental.feed(new byte[]{4, 5, 6}, 0, 3).findFieldForType(JBBPFieldInt.class).getAsInt());
+    assertEquals(2, incremental.getBufferedBytes());
+    assertNull(incremental.next());
+    assertEquals(0x05060708, incremental.feed(new byte[]{7, 8, 9, 10, 11, 12}, 0, 6).findFieldForType(JBBPFieldInt.class).getAsInt());
+    assertEquals(0x090A0B0C, incremental.next().findFieldForType(JBBPFieldInt.class).getAsInt());
+    assertNull(incremental.next());
+    assertEquals(0, incremental.getBufferedBytes());
+  }
+
+  @Test
+  public void testBigFrame() throws Exception {
+    final byte[] data = new byte[4 + 10000];
+    data[2] = (byte) 0x27;
+    data[3] = (byte) 0x10;
+    for (int i = 4; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    final List<JBBPFieldStruct> frames = feedByChunks(new JBBPIncrementalParser(JBBPParser.prepare("int len; byte [len] data;")), data, 1000);
+    assertEquals(1, frames.size());
+    final byte[] parsed = frames.get(0).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray();
+    assertEquals(10000, parsed.length);
+    assertEquals((byte) 9999, parsed[9995]);
+  }
+
+  @Test
+  public void testBigFrame_FrameDecoder_ParsedOnce() throws Exception {
+    final byte[] data = new byte[2 + 10000 + 2 + 3];
+    data[0] = (byte) 0x27;
+    data[1] = (byte) 0x10;
+    for (int i = 2; i < 10002; i++) {
+      data[i] = (byte) i;
+    }
+    data[10003] = 3;
+
+    final int[] attempts = new int[1];
+    final JBBPExternalValueProvider provider = new JBBPExternalValueProvider() {
+      public int provideArraySize(final String fieldName, final JBBPNamedNumericFieldMap numericFieldMap, final JBBPCompiledBlock compiledBlock) {
+        attempts[0]++;
+        return 0;
+      }
+    };
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ushort len;"), "len");
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("ushort len; byte [len + $extra] data;"), null, provider, decoder, 20000);
+
+    final List<JBBPFieldStruct> frames = feedByChunks(incremental, data, 7);
+    assertEquals(2, frames.size());
+    assertEquals(2, attempts[0]);
+    assertEquals(10000, frames.get(0).findFieldForNameAndType("data", JBBPFieldArrayByte.class).size());
+    assertArrayEquals(new byte[]{0, 0, 0}, frames.get(1).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+    assertEquals(0, incremental.getBufferedBytes());
+
+    assertEquals(2, feedByChunks(new JBBPIncrementalParser(JBBPParser.prepare("ushort len; byte [len] data;"), decoder), data, 1000).size());
+  }
+
+  @Test
+  public void testFrameDecoder_ScriptReadsLessThanFrame() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte len;"), "len");
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("ubyte len; byte first;"), decoder);
+
+    assertEquals(10, incremental.feed(new byte[]{2, 10, 11, 2, 20, 21}, 0, 6).findFieldForNameAndType("first", JBBPFieldByte.class).getAsInt());
+    assertEquals(3, incremental.getBufferedBytes());
+    assertEquals(20, incremental.next().findFieldForNameAndType("first", JBBPFieldByte.class).getAsInt());
+    assertEquals(0, incremental.getBufferedBytes());
+  }
+
+  @Test
+  public void testFrameDecoder_ScriptReadsMoreThanFrame() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte len;"), "len");
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("ubyte len; int value;"), decoder);
+    try {
+      incremental.feed(new byte[]{2, 1, 2, 3, 4, 5}, 0, 6);
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertEquals(6, incremental.getBufferedBytes());
+    }
+  }
+
+  @Test
+  public void testFrameDecoder_TooLongFrame() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("int len;"), "len");
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("int len; byte [len] data;"), decoder);
+    try {
+      incremental.feed(new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFE}, 0, 4);
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertTrue(ex.getMessage().contains(Long.toString(0x7FFFFFFEL + 4)));
+    }
+  }
+
+  @Test
+  public void testMaxBufferedBytes() throws Exception {
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("int len; byte [len] data;"), null, null, null, 8);
+    assertNull(incremental.feed(new byte[]{0, 0, 0, 10, 1, 2}, 0, 6));
+    try {
+      incremental.feed(new byte[]{3, 4, 5}, 0, 3);
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertTrue(ex.getMessage().contains("8"));
+    }
+    assertEquals(6, incremental.getBufferedBytes());
+  }
+
+  @Test
+  public void testDynamicFrames_CompiledParser() throws Exception {
+    final List<JBBPFieldStruct> frames = feedByChunks(new JBBPIncrementalParser(JBBPParser.prepareCompiled("ubyte len; byte [len] data;")), FRAMES, 3);
+    assertEquals(4, frames.size());
+    assertArrayEquals(new byte[]{3, 4, 5}, frames.get(2).findFieldForNameAndType("data", JBBPFieldArrayByte.class).getArray());
+  }
+
+  @Test
+  public void testBitFrames() throws Exception {
+    final List<JBBPFieldStruct> frames = feedByChunks(new JBBPIncrementalParser(JBBPParser.prepare("bit:4 a; bit:3 b;")), new byte[]{0x12, 0x34, 0x56}, 2);
+    assertEquals(3, frames.size());
+    assertEquals(4, frames.get(1).findFieldForNameAndType("a", JBBPFieldBit.class).getAsInt());
+    assertEquals(5, frames.get(2).findFieldForNameAndType("b", JBBPFieldBit.class).getAsInt());
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    final JBBPIncrementalParser incremental = new JBBPIncrementalParser(JBBPParser.prepare("ubyte len; byte [len] data;"));
+    assertNull(incremental.feed(new byte[]{5, 1, 2}, 0, 3));
+    incremental.reset();
+    assertEquals(0, incremental.getBufferedBytes());
+    assertEquals(1, incremental.feed(new byte[]{1, 7}, 0, 2).findFieldForNameAndType("data", JBBPFieldArrayByte.class).size());
+  }
+
+  @Test(expected = JBBPIllegalArgumentException.class)
+  public void testWholeStreamArray() throws Exception {
+    new JBBPIncrementalParser(JBBPParser.prepare("byte a; s { byte [_] b; }"));
+  }
+
+  @Test(expected = JBBPIllegalArgumentException.class)
+  public void testSkipRemainingFieldsFlag() throws Exception {
+    new JBBPIncrementalParser(JBBPParser.prepare("byte a;", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF));
+  }
+}
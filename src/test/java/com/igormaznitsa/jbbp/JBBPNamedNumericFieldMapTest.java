@@ -16,6 +16,7 @@
 package com.igormaznitsa.jbbp;
 
 import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
 import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
 import com.igormaznitsa.jbbp.exceptions.JBBPEvalException;
 import com.igormaznitsa.jbbp.exceptions.JBBPTooManyFieldsFoundException;
@@ -331,4 +332,71 @@ public class JBBPNamedNumericFieldMapTest {
     }
   }
   
+
+  @Test
+  public void testConstructor_CompiledBlock() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("ubyte len; byte a; byte [len] arr;");
+    final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap(block, null);
+    assertEquals(0, map.size());
+    assertTrue(map.isEmpty());
+    assertNull(map.getExternalValueProvider());
+  }
+
+  @Test
+  public void testRecordField_OnlyReferencedFields() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("ubyte len; byte a; byte [len] arr;");
+    final JBBPNamedFieldInfo[] named = block.getNamedFields();
+
+    final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap(block, null);
+    map.recordField(0, new JBBPFieldByte(named[0], (byte) 12));
+    map.recordField(1, new JBBPFieldByte(named[1], (byte) 34));
+    assertEquals(1, map.size());
+    assertEquals(12, map.getIntValue(block, 0));
+    assertEquals(12, map.get(named[0]).getAsInt());
+    assertNull(map.get(named[1]));
+
+    final JBBPNamedNumericFieldMap mapWithProvider = new JBBPNamedNumericFieldMap(block, new JBBPExternalValueProvider() {
+      public int provideArraySize(String fieldName, JBBPNamedNumericFieldMap numericFieldMap, JBBPCompiledBlock compiledBlock) {
+        return 0;
+      }
+    });
+    mapWithProvider.recordField(0, new JBBPFieldByte(named[0], (byte) 12));
+    mapWithProvider.recordField(1, new JBBPFieldByte(named[1], (byte) 34));
+    assertEquals(2, mapWithProvider.size());
+    assertEquals(34, mapWithProvider.findFieldForNameAndType("a", JBBPFieldByte.class).getAsInt());
+  }
+
+  @Test
+  public void testGetIntValue() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("int a; int b; byte [a*b] arr;");
+    final JBBPNamedFieldInfo[] named = block.getNamedFields();
+
+    final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap();
+    map.putField(new JBBPFieldInt(named[1], -7));
+    assertEquals(-7, map.getIntValue(block, 1));
+
+    try {
+      map.getIntValue(block, 0);
+      fail("Must throw JBBPEvalException");
+    }
+    catch (JBBPEvalException ex) {
+    }
+  }
+
+  @Test
+  public void testPutField_ManyFields() {
+    final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap();
+    for (int i = 0; i < 100; i++) {
+      map.putField(new JBBPFieldInt(new JBBPNamedFieldInfo("f" + i, "f" + i, i), i));
+    }
+    assertEquals(100, map.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, map.findForFieldOffset(i).getAsInt());
+    }
+    assertEquals(0, map.findFirstFieldForType(JBBPFieldInt.class).getAsInt());
+    assertEquals(99, map.findLastFieldForType(JBBPFieldInt.class).getAsInt());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.findForFieldOffset(5));
+  }
 }
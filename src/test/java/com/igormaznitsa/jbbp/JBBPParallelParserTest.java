@@ -0,0 +1,126 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldInt;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPParallelParserTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void before() {
+    this.executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void after() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  public void testParseRecords() throws Exception {
+    final int records = 1001;
+    final ByteBuffer data = ByteBuffer.allocate(records * 5 + 2);
+    data.position(2);
+    for (int i = 0; i < records; i++) {
+      data.putInt(i * 3);
+      data.put((byte) i);
+    }
+    data.position(2);
+
+    final Iterator<JBBPFieldStruct> iterator = new JBBPParallelParser(JBBPParser.prepare("int a; byte b;"), this.executor, 7, 3).parseRecords(data, 5);
+    int counter = 0;
+    while (iterator.hasNext()) {
+      final JBBPFieldStruct record = iterator.next();
+      assertEquals(counter * 3, record.findFieldForType(JBBPFieldInt.class).getAsInt());
+      counter++;
+    }
+    assertEquals(records, counter);
+    assertEquals(2, data.position());
+    try {
+      iterator.next();
+      fail("Must throw NoSuchElementException");
+    }
+    catch (NoSuchElementException ex) {
+    }
+  }
+
+  @Test
+  public void testParseRecords_Empty() throws Exception {
+    assertFalse(new JBBPParallelParser(JBBPParser.prepare("int a;"), this.executor).parseRecords(ByteBuffer.allocate(0), 4).hasNext());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testParseRecords_IncompleteRecord() throws Exception {
+    new JBBPParallelParser(JBBPParser.prepare("int a;"), this.executor).parseRecords(ByteBuffer.allocate(9), 4);
+  }
+
+  @Test
+  public void testParseFrames() throws Exception {
+    final JBBPFrameDecoder decoder = new JBBPFrameDecoder(JBBPParser.prepare("ubyte len;"), "len");
+    final ByteBuffer data = ByteBuffer.wrap(new byte[]{2, 1, 2, 0, 3, 3, 4, 5, 1, 6});
+
+    final List<byte[]> parsed = new ArrayList<byte[]>();
+    final Iterator<JBBPFieldStruct> iterator = new JBBPParallelParser(JBBPParser.prepare("byte [_] data;"), this.executor, 1, 2).parseFrames(data, decoder);
+    while (iterator.hasNext()) {
+      parsed.add(iterator.next().findFieldForType(JBBPFieldArrayByte.class).getArray());
+    }
+    assertEquals(4, parsed.size());
+    assertArrayEquals(new byte[]{1, 2}, parsed.get(0));
+    assertArrayEquals(new byte[0], parsed.get(1));
+    assertArrayEquals(new byte[]{3, 4, 5}, parsed.get(2));
+    assertArrayEquals(new byte[]{6}, parsed.get(3));
+    assertEquals(0, data.position());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testParseFrames_IncompleteFrame() throws Exception {
+    new JBBPParallelParser(JBBPParser.prepare("byte [_] data;"), this.executor).parseFrames(ByteBuffer.wrap(new byte[]{1, 1, 2}), new JBBPFrameDecoder(JBBPParser.prepare("ubyte len;"), "len"));
+  }
+
+  @Test
+  public void testParse_ErrorInRecord() throws Exception {
+    final List<ByteBuffer> records = new ArrayList<ByteBuffer>();
+    records.add(ByteBuffer.wrap(new byte[]{1, 1}));
+    records.add(ByteBuffer.wrap(new byte[]{3, 1}));
+
+    final Iterator<JBBPFieldStruct> iterator = new JBBPParallelParser(JBBPParser.prepare("ubyte len; byte [len] data;"), this.executor, 1, 1).parse(records);
+    assertEquals(1, iterator.next().findFieldForType(JBBPFieldArrayByte.class).size());
+    try {
+      iterator.next();
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertNotNull(ex.getCause());
+    }
+  }
+}
@@ -15,17 +15,30 @@
  */
 package com.igormaznitsa.jbbp;
 
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
 import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
 import com.igormaznitsa.jbbp.exceptions.JBBPCompilationException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
 import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
 import com.igormaznitsa.jbbp.exceptions.JBBPTooManyFieldsFoundException;
 import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
 import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.io.JBBPOut;
+import com.igormaznitsa.jbbp.exceptions.JBBPMapperException;
+import com.igormaznitsa.jbbp.mapper.Bin;
+import com.igormaznitsa.jbbp.mapper.JBBPMapper;
+import com.igormaznitsa.jbbp.mapper.JBBPMapperCustomFieldProcessor;
 import com.igormaznitsa.jbbp.model.*;
 import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -1662,4 +1675,462 @@ public class JBBPParserTest {
     assertEquals(0x01020304, ((JBBPFieldInt) result.findFieldForName("a")).getAsInt());
   }
 
+  @Test
+  public void testParseWithContext() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data;");
+    final JBBPBitInputStream stream = new JBBPBitInputStream(new ByteArrayInputStream(new byte[]{2, 1, 2, 1, 7}));
+
+    final JBBPParseContext first = parser.parseWithContext(stream);
+    assertEquals(3, first.getFinalStreamByteCounter());
+    assertArrayEquals(new byte[]{1, 2}, first.getRoot().findFieldForType(JBBPFieldArrayByte.class).getArray());
+
+    final JBBPParseContext second = parser.parseWithContext(stream);
+    assertEquals(5, second.getFinalStreamByteCounter());
+    assertArrayEquals(new byte[]{7}, second.getRoot().findFieldForType(JBBPFieldArrayByte.class).getArray());
+
+    assertEquals(3, first.getFinalStreamByteCounter());
+    assertEquals(5, parser.getFinalStreamByteCounter());
+  }
+
+  @Test
+  public void testParseWithContext_ConcurrentUseOfParser() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; s [len] { ubyte a; int [a] b; }");
+    final int threads = 8;
+    final Thread[] workers = new Thread[threads];
+    final Throwable[] errors = new Throwable[threads];
+
+    for (int t = 0; t < threads; t++) {
+      final int index = t;
+      workers[t] = new Thread(new Runnable() {
+        public void run() {
+          try {
+            for (int i = 0; i < 500; i++) {
+              final int items = (index + i) % 5 + 1;
+              final JBBPOut out = JBBPOut.BeginBin().Byte(items);
+              for (int j = 0; j < items; j++) {
+                out.Byte(j);
+                for (int k = 0; k < j; k++) {
+                  out.Int(index * 1000 + k);
+                }
+              }
+              final byte[] data = out.End().toByteArray();
+              final JBBPParseContext context = parser.parseWithContext(data);
+              assertEquals(data.length, context.getFinalStreamByteCounter());
+              final JBBPFieldArrayStruct structs = context.getRoot().findFieldForType(JBBPFieldArrayStruct.class);
+              assertEquals(items, structs.size());
+              final int[] last = structs.getElementAt(items - 1).findFieldForType(JBBPFieldArrayInt.class).getArray();
+              assertEquals(items - 1, last.length);
+              for (int k = 0; k < last.length; k++) {
+                assertEquals(index * 1000 + k, last[k]);
+              }
+            }
+          }
+          catch (Throwable ex) {
+            errors[index] = ex;
+          }
+        }
+      });
+      workers[t].start();
+    }
+
+    for (final Thread w : workers) {
+      w.join();
+    }
+    for (final Throwable e : errors) {
+      if (e != null) {
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  @Test
+  public void testParse_ByteBuffer() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+    buffer.put(new byte[]{0x55, 2, 1, 2, 3, 4, 5, 6}).flip();
+    buffer.position(1);
+
+    final JBBPFieldStruct parsed = JBBPParser.prepare("ubyte len; <short [len] a; byte [_] tail;").parse(buffer);
+    assertArrayEquals(new short[]{0x0201, 0x0403}, parsed.findFieldForType(JBBPFieldArrayShort.class).getArray());
+    assertArrayEquals(new byte[]{5, 6}, parsed.findFieldForType(JBBPFieldArrayByte.class).getArray());
+    assertEquals(1, buffer.position());
+  }
+
+  @Test
+  public void testParseEach_WholeStreamRootArray() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; records [_] { byte [len] data; short a; }");
+    final byte[] data = new byte[]{2, 10, 11, 1, 2, 20, 21, 3, 4, 30, 31, 5, 6};
+    final List<JBBPFieldStruct> elements = new ArrayList<JBBPFieldStruct>();
+
+    final JBBPFieldStruct root = parser.parseEach(new ByteArrayInputStream(data), new JBBPStructListener() {
+      public boolean onStructArrayElement(final JBBPNamedFieldInfo arrayName, final int index, final JBBPFieldStruct struct) {
+        assertEquals("records", arrayName.getFieldPath());
+        assertEquals(elements.size(), index);
+        elements.add(struct);
+        return true;
+      }
+    });
+
+    assertEquals(2, root.findFieldForType(JBBPFieldUByte.class).getAsInt());
+    assertEquals(0, root.findFieldForType(JBBPFieldArrayStruct.class).size());
+    assertEquals(data.length, parser.getFinalStreamByteCounter());
+
+    assertEquals(3, elements.size());
+    assertArrayEquals(new byte[]{10, 11}, elements.get(0).findFieldForType(JBBPFieldArrayByte.class).getArray());
+    assertArrayEquals(new byte[]{20, 21}, elements.get(1).findFieldForType(JBBPFieldArrayByte.class).getArray());
+    assertArrayEquals(new byte[]{30, 31}, elements.get(2).findFieldForType(JBBPFieldArrayByte.class).getArray());
+    assertEquals(0x0506, elements.get(2).findFieldForType(JBBPFieldShort.class).getAsInt());
+  }
+
+  @Test
+  public void testParseEach_StopByListener() throws Exception {
+    for (final JBBPParser parser : new JBBPParser[]{JBBPParser.prepare("recs [3] { int a; } int tail;"), JBBPParser.prepareCompiled("recs [3] { int a; } int tail;")}) {
+      final int[] counter = new int[1];
+      final JBBPFieldStruct root = parser.parseEach(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 0, 0, 0, 4}), new JBBPStructListener() {
+        public boolean onStructArrayElement(final JBBPNamedFieldInfo arrayName, final int index, final JBBPFieldStruct struct) {
+          counter[0]++;
+          assertEquals(index + 1, struct.findFieldForType(JBBPFieldInt.class).getAsInt());
+          return index == 0;
+        }
+      });
+      assertEquals(2, counter[0]);
+      assertEquals(1, root.getArray().length);
+      assertEquals(8, parser.getFinalStreamByteCounter());
+    }
+  }
+
+  @Test
+  public void testParseEach_CompiledModeAndFixedArray() throws Exception {
+    final JBBPParser parser = JBBPParser.prepareCompiled("recs [2] { <short a; } arr [_] { bit:4 [2] b; }");
+    assertTrue(parser.isCompiledMode());
+    final List<String> events = new ArrayList<String>();
+    final JBBPFieldStruct root = parser.parseEach(new ByteArrayInputStream(new byte[]{1, 0, 2, 0, 0x21, 0x43}), new JBBPStructListener() {
+      public boolean onStructArrayElement(final JBBPNamedFieldInfo arrayName, final int index, final JBBPFieldStruct struct) {
+        if (struct.findFieldForType(JBBPFieldShort.class) != null) {
+          events.add(arrayName.getFieldName() + index + '=' + struct.findFieldForType(JBBPFieldShort.class).getAsInt());
+        }
+        else {
+          events.add(arrayName.getFieldName() + index + '=' + struct.findFieldForType(JBBPFieldArrayBit.class).getAsInt(1));
+        }
+        return true;
+      }
+    });
+    assertEquals("[recs0=1, recs1=2, arr0=2, arr1=4]", events.toString());
+    assertEquals(2, root.getArray().length);
+  }
+
+  @Test
+  public void testWithProjection_OnlySelectedFieldsAndContainers() throws Exception {
+    final String script = "byte a; int [2] skipped; header { ubyte type; short [_] rest; }";
+    final byte[] data = new byte[]{1, 0, 0, 0, 1, 0, 0, 0, 2, 7, 0, 3, 0, 4};
+    for (final JBBPParser base : new JBBPParser[]{JBBPParser.prepare(script), JBBPParser.prepareCompiled(script)}) {
+      final JBBPParser parser = base.withProjection("header.type");
+      assertTrue(parser.isProjection());
+      assertFalse(base.isProjection());
+      assertEquals(base.isCompiledMode(), parser.isCompiledMode());
+
+      final JBBPParseContext context = parser.parseWithContext(data);
+      final JBBPFieldStruct root = context.getRoot();
+      assertEquals(1, root.getArray().length);
+      final JBBPFieldStruct header = root.findFieldForNameAndType("header", JBBPFieldStruct.class);
+      assertEquals(1, header.getArray().length);
+      assertEquals(7, header.findFieldForNameAndType("type", JBBPFieldUByte.class).getAsInt());
+      assertEquals(data.length, context.getFinalStreamByteCounter());
+    }
+  }
+
+  @Test
+  public void testWithProjection_SelectedStructureKeepsAllFields() throws Exception {
+    final String script = "int skipped; rec [2] { byte a; bit:4 [2] b; } long [_] tail;";
+    final byte[] data = new byte[]{0, 0, 0, 1, 5, 0x21, 6, 0x43, 1, 2, 3, 4, 5, 6, 7, 8};
+    final JBBPParser full = JBBPParser.prepare(script);
+    final JBBPFieldStruct expected = full.parse(data);
+    for (final JBBPParser base : new JBBPParser[]{full, JBBPParser.prepareCompiled(script)}) {
+      final JBBPParser parser = base.withProjection("REC");
+      final JBBPFieldStruct root = parser.parse(data);
+      assertEquals(1, root.getArray().length);
+      TestUtils.assertFieldTreeEquals(expected.findFieldForNameAndType("rec", JBBPFieldArrayStruct.class), root.getArray()[0]);
+      assertEquals(data.length, parser.getFinalStreamByteCounter());
+    }
+  }
+
+  @Test
+  public void testWithProjection_FieldsUsedInExpressionsAreStillProcessed() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data; align:4; int [len] values; short tail;").withProjection("tail", "values");
+    final JBBPFieldStruct root = parser.parse(new byte[]{2, 1, 2, 0, 0, 0, 0, 1, 0, 0, 0, 2, 0x12, 0x34});
+    assertEquals(2, root.getArray().length);
+    assertArrayEquals(new int[]{1, 2}, root.findFieldForNameAndType("values", JBBPFieldArrayInt.class).getArray());
+    assertEquals(0x1234, root.findFieldForNameAndType("tail", JBBPFieldShort.class).getAsInt());
+  }
+
+  @Test
+  public void testWithProjection_EOFInSkippedArray() throws Exception {
+    for (final JBBPParser base : new JBBPParser[]{JBBPParser.prepare("int [4] arr; byte tail;"), JBBPParser.prepareCompiled("int [4] arr; byte tail;")}) {
+      try {
+        base.withProjection("tail").parse(new byte[]{1, 2, 3, 4, 5, 6, 7});
+        fail("Must throw JBBPParsingException");
+      }
+      catch (JBBPParsingException ex) {
+        assertTrue(ex.getMessage().contains("arr"));
+        assertTrue(ex.getCause() instanceof EOFException);
+      }
+    }
+    try {
+      JBBPParser.prepare("byte a; short [_] arr;").withProjection("a").parse(new byte[]{1, 2, 3, 4});
+      fail("Must throw JBBPParsingException");
+    }
+    catch (JBBPParsingException ex) {
+      assertTrue(ex.getCause() instanceof EOFException);
+    }
+  }
+
+  @Test
+  public void testWithProjection_EOFInSkippedArray_StreamSkipsAfterEnd() throws Exception {
+    for (final JBBPParser base : new JBBPParser[]{JBBPParser.prepare("byte a; int [4] arr;"), JBBPParser.prepareCompiled("byte a; int [4] arr;")}) {
+      final InputStream truncated = new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7}) {
+        @Override
+        public synchronized long skip(final long n) {
+          super.skip(n);
+          return n;
+        }
+      };
+      try {
+        base.withProjection("a").parse(truncated);
+        fail("Must throw JBBPParsingException");
+      }
+      catch (JBBPParsingException ex) {
+        assertTrue(ex.getCause() instanceof EOFException);
+      }
+    }
+  }
+
+  @Test
+  public void testWithProjection_SkippedArrayIsNotRead() throws Exception {
+    for (final JBBPParser base : new JBBPParser[]{JBBPParser.prepare("byte a; long [10000] arr; byte b;"), JBBPParser.prepareCompiled("byte a; long [10000] arr; byte b;")}) {
+      final byte[] data = new byte[80002];
+      data[0] = 1;
+      data[80001] = 2;
+      final long[] readBytes = new long[1];
+      final InputStream counting = new FilterInputStream(new ByteArrayInputStream(data)) {
+        @Override
+        public int read() throws IOException {
+          final int result = super.read();
+          readBytes[0] += result < 0 ? 0 : 1;
+          return result;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+          final int result = super.read(b, off, len);
+          readBytes[0] += result < 0 ? 0 : result;
+          return result;
+        }
+      };
+      final JBBPFieldStruct parsed = base.withProjection("a", "b").parse(counting);
+      assertEquals(1, parsed.findFieldForNameAndType("a", JBBPFieldByte.class).getAsInt());
+      assertEquals(2, parsed.findFieldForNameAndType("b", JBBPFieldByte.class).getAsInt());
+      assertNull(parsed.findFieldForName("arr"));
+      // fields, the last byte of the array and the first one if it is buffered by EOF check
+      assertTrue(readBytes[0] <= 4L);
+    }
+  }
+
+  @Test(expected = JBBPIllegalArgumentException.class)
+  public void testWithProjection_ErrorForUnknownPath() throws Exception {
+    JBBPParser.prepare("byte a; b { int c; }").withProjection("a", "b.d");
+  }
+
+  @Bin
+  public static class ParseIntoItem {
+    public byte a;
+    public short b;
+  }
+
+  public static class ParseIntoTarget {
+    @Bin public int len;
+    @Bin public byte[] data;
+    @Bin public ParseIntoItem head;
+    @Bin public ParseIntoItem[] items;
+    @Bin(path = "head.b") public short headB;
+    @Bin(name = "flag") public boolean enabled;
+  }
+
+  private static final String PARSE_INTO_SCRIPT = "int len; byte [len] data; head { byte a; short b; } items [2] { byte a; short b; } bool flag; int unused;";
+  private static final byte[] PARSE_INTO_DATA = new byte[]{0, 0, 0, 3, 1, 2, 3, 4, 0, 5, 6, 0, 7, 8, 0, 9, 1, 0x11, 0x22, 0x33, 0x44};
+
+  private static void assertParseIntoTarget(final ParseIntoTarget target) {
+    assertEquals(3, target.len);
+    assertArrayEquals(new byte[]{1, 2, 3}, target.data);
+    assertEquals(4, target.head.a);
+    assertEquals(5, target.head.b);
+    assertEquals(5, target.headB);
+    assertEquals(2, target.items.length);
+    assertEquals(6, target.items[0].a);
+    assertEquals(7, target.items[0].b);
+    assertEquals(8, target.items[1].a);
+    assertEquals(9, target.items[1].b);
+    assertTrue(target.enabled);
+  }
+
+  @Test
+  public void testParseInto_Class() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare(PARSE_INTO_SCRIPT);
+    final ParseIntoTarget target = parser.parseInto(new ByteArrayInputStream(PARSE_INTO_DATA), ParseIntoTarget.class);
+    assertParseIntoTarget(target);
+    assertEquals(PARSE_INTO_DATA.length, parser.getFinalStreamByteCounter());
+  }
+
+  @Test
+  public void testParseInto_Instance() throws Exception {
+    final ParseIntoTarget instance = new ParseIntoTarget();
+    assertSame(instance, JBBPParser.prepare(PARSE_INTO_SCRIPT).parseInto(new ByteArrayInputStream(PARSE_INTO_DATA), instance));
+    assertParseIntoTarget(instance);
+  }
+
+  @Test
+  public void testParseInto_CompiledParser() throws Exception {
+    final ParseIntoTarget target = JBBPParser.prepareCompiled(PARSE_INTO_SCRIPT).parseInto(new ByteArrayInputStream(PARSE_INTO_DATA), ParseIntoTarget.class);
+    assertParseIntoTarget(target);
+  }
+
+  @Test
+  public void testParseInto_SameResultAsMapping() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare(PARSE_INTO_SCRIPT);
+    final ParseIntoTarget mapped = parser.parse(PARSE_INTO_DATA).mapTo(ParseIntoTarget.class);
+    final ParseIntoTarget direct = parser.parseInto(new ByteArrayInputStream(PARSE_INTO_DATA), ParseIntoTarget.class);
+    assertParseIntoTarget(mapped);
+    assertEquals(mapped.len, direct.len);
+    assertArrayEquals(mapped.data, direct.data);
+    assertEquals(mapped.headB, direct.headB);
+  }
+
+  @Test
+  public void testParseInto_ErrorForMissingValue() throws Exception {
+    try {
+      JBBPParser.prepare("int len; byte [len] data;").parseInto(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 1}), ParseIntoTarget.class);
+      fail("Must throw JBBPMapperException");
+    }
+    catch (JBBPMapperException ex) {
+    }
+  }
+
+  @Test
+  public void testParseInto_IgnoreMissingValues() throws Exception {
+    final ParseIntoTarget target = JBBPParser.prepare("int len; byte [len] data;").parseInto(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 1}), ParseIntoTarget.class, null, JBBPMapper.FLAG_IGNORE_MISSING_VALUES);
+    assertEquals(1, target.len);
+    assertArrayEquals(new byte[]{1}, target.data);
+    assertNull(target.head);
+  }
+
+  public static class ParseIntoCustomTarget {
+    @Bin public int a;
+    @Bin(custom = true) public int sum;
+  }
+
+  @Test
+  public void testParseInto_CustomField() throws Exception {
+    final ParseIntoCustomTarget target = JBBPParser.prepare("int a; int b;").parseInto(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 0, 0, 0, 2}), ParseIntoCustomTarget.class, new JBBPMapperCustomFieldProcessor() {
+      public Object prepareObjectForMapping(final JBBPFieldStruct parsedBlock, final Bin annotation, final Field field) {
+        return parsedBlock.findFieldForNameAndType("a", JBBPFieldInt.class).getAsInt() + parsedBlock.findFieldForNameAndType("b", JBBPFieldInt.class).getAsInt();
+      }
+    }, 0);
+    assertEquals(1, target.a);
+    assertEquals(3, target.sum);
+  }
+
+  @Test
+  public void testParseInto_ExternalValue() throws Exception {
+    final JBBPExternalValueProvider provider = new JBBPExternalValueProvider() {
+      public int provideArraySize(final String fieldName, final JBBPNamedNumericFieldMap numericFieldMap, final JBBPCompiledBlock compiledBlock) {
+        assertEquals("extra", fieldName);
+        return 2;
+      }
+    };
+    for (final JBBPParser parser : new JBBPParser[]{JBBPParser.prepare("int len; byte [len + $extra] data;"), JBBPParser.prepareCompiled("int len; byte [len + $extra] data;")}) {
+      final ParseIntoTarget target = parser.parseInto(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 1, 2, 3}), ParseIntoTarget.class, null, provider, JBBPMapper.FLAG_IGNORE_MISSING_VALUES);
+      assertEquals(1, target.len);
+      assertArrayEquals(new byte[]{1, 2, 3}, target.data);
+      assertEquals(7, parser.getFinalStreamByteCounter());
+    }
+  }
+
+  @Test
+  public void testParseReusing_StaticStructure() throws Exception {
+    final String script = "bit:4 b; bit:4 pad; bool f; byte a; ubyte u; short s; ushort us; int i; long l; int [2] ints; <byte [2] bytes; st { byte x; } arr [2] { short y; }";
+    final byte[] first = new byte[]{0x05, 1, 2, 3, 0, 4, 0, 5, 0, 0, 0, 6, 0, 0, 0, 0, 0, 0, 0, 7, 0, 0, 0, 8, 0, 0, 0, 9, 10, 11, 12, 0, 13, 0, 14};
+    final byte[] second = new byte[]{0x0A, 0, (byte) 0xF2, (byte) 0xF3, 0, 24, 0, 25, 0, 0, 0, 26, 0, 0, 0, 0, 0, 0, 0, 27, 0, 0, 0, 28, 0, 0, 0, 29, 30, 31, 32, 0, 33, 0, 34};
+
+    for (final JBBPParser parser : new JBBPParser[]{JBBPParser.prepare(script), JBBPParser.prepareCompiled(script)}) {
+      final JBBPFieldStruct root = parser.parseReusing(first, null);
+      final JBBPFieldInt intField = root.findFieldForNameAndType("i", JBBPFieldInt.class);
+      final JBBPFieldArrayInt intArray = root.findFieldForNameAndType("ints", JBBPFieldArrayInt.class);
+      final JBBPFieldArrayByte byteArray = root.findFieldForNameAndType("bytes", JBBPFieldArrayByte.class);
+
+      final JBBPFieldStruct reused = parser.parseReusing(second, root);
+      assertNotSame(root, reused);
+      assertEquals(second.length, parser.getFinalStreamByteCounter());
+
+      assertEquals(6, intField.getAsInt());
+      assertArrayEquals(new int[]{28, 29}, intArray.getArray());
+      assertArrayEquals(new byte[]{31, 30}, byteArray.getArray());
+
+      final JBBPFieldArrayStruct structArray = reused.findFieldForNameAndType("arr", JBBPFieldArrayStruct.class);
+      assertEquals(0x0A, reused.findFieldForNameAndType("b", JBBPFieldBit.class).getAsInt());
+      assertFalse(reused.findFieldForNameAndType("f", JBBPFieldBoolean.class).getAsBool());
+      assertEquals(-14, reused.findFieldForNameAndType("a", JBBPFieldByte.class).getAsInt());
+      assertEquals(0xF3, reused.findFieldForNameAndType("u", JBBPFieldUByte.class).getAsInt());
+      assertEquals(24, reused.findFieldForNameAndType("s", JBBPFieldShort.class).getAsInt());
+      assertEquals(25, reused.findFieldForNameAndType("us", JBBPFieldUShort.class).getAsInt());
+      assertEquals(26, reused.findFieldForNameAndType("i", JBBPFieldInt.class).getAsInt());
+      assertEquals(27L, reused.findFieldForNameAndType("l", JBBPFieldLong.class).getAsLong());
+      assertArrayEquals(new int[]{28, 29}, reused.findFieldForNameAndType("ints", JBBPFieldArrayInt.class).getArray());
+      assertArrayEquals(new byte[]{31, 30}, reused.findFieldForNameAndType("bytes", JBBPFieldArrayByte.class).getArray());
+      assertEquals(32, reused.findFieldForPathAndType("st.x", JBBPFieldByte.class).getAsInt());
+      assertEquals(33, structArray.getElementAt(0).findFieldForType(JBBPFieldShort.class).getAsInt());
+      assertEquals(34, structArray.getElementAt(1).findFieldForType(JBBPFieldShort.class).getAsInt());
+    }
+  }
+
+  @Test
+  public void testParseReusing_ChangedArrayLengths() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; int [len] data; items [len] { byte a; } byte end;");
+    final byte[][] frames = new byte[][]{
+      new byte[]{2, 0, 0, 0, 1, 0, 0, 0, 2, 3, 4, 5},
+      new byte[]{3, 0, 0, 0, 6, 0, 0, 0, 7, 0, 0, 0, 8, 9, 10, 11, 12},
+      new byte[]{1, 0, 0, 0, 13, 14, 15},
+      new byte[]{1, 0, 0, 0, 16, 17, 18}
+    };
+
+    JBBPFieldStruct root = null;
+    JBBPFieldArrayInt previousData = null;
+    for (final byte[] frame : frames) {
+      root = parser.parseReusing(frame, root);
+      final JBBPFieldStruct expected = parser.parse(frame);
+      final int len = expected.findFieldForNameAndType("len", JBBPFieldUByte.class).getAsInt();
+      assertEquals(len, root.findFieldForNameAndType("len", JBBPFieldUByte.class).getAsInt());
+      assertArrayEquals(expected.findFieldForNameAndType("data", JBBPFieldArrayInt.class).getArray(), root.findFieldForNameAndType("data", JBBPFieldArrayInt.class).getArray());
+      final JBBPFieldArrayStruct items = root.findFieldForNameAndType("items", JBBPFieldArrayStruct.class);
+      assertEquals(len, items.size());
+      for (int i = 0; i < len; i++) {
+        assertEquals(expected.findFieldForNameAndType("items", JBBPFieldArrayStruct.class).getElementAt(i).findFieldForType(JBBPFieldByte.class).getAsInt(), items.getElementAt(i).findFieldForType(JBBPFieldByte.class).getAsInt());
+      }
+      assertEquals(expected.findFieldForNameAndType("end", JBBPFieldByte.class).getAsInt(), root.findFieldForNameAndType("end", JBBPFieldByte.class).getAsInt());
+      if (previousData != null && previousData.size() == len) {
+        assertArrayEquals(expected.findFieldForNameAndType("data", JBBPFieldArrayInt.class).getArray(), previousData.getArray());
+      }
+      previousData = root.findFieldForNameAndType("data", JBBPFieldArrayInt.class);
+    }
+  }
+
+  @Test
+  public void testParse_ConsecutiveParsesOfUnbufferedStream() throws Exception {
+    final InputStream raw = new FilterInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9})) {
+    };
+    final JBBPParser parser = JBBPParser.prepare("short a; byte b;");
+    for (int i = 0; i < 3; i++) {
+      final JBBPFieldStruct parsed = parser.parse(raw);
+      assertEquals(((i * 3 + 1) << 8) | (i * 3 + 2), parsed.findFieldForNameAndType("a", JBBPFieldShort.class).getAsInt());
+      assertEquals(i * 3 + 3, parsed.findFieldForNameAndType("b", JBBPFieldByte.class).getAsInt());
+    }
+    assertEquals(-1, raw.read());
+  }
 }
@@ -0,0 +1,194 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.io.JBBPOut;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayUByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldInt;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPFieldUByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPWriterTest {
+
+  private static final String SCRIPT = "bit:3 a; bit:5 b; bool f; byte c; ubyte d; short e; <ushort g; int h; <long i; ubyte len; int [len] arr; align:4; skip:2; s { byte x; bit:4 [2] bits; bool [2] flags; } ss [2] { ushort v; } byte [_] rest;";
+
+  private static byte[] makeData() throws Exception {
+    return JBBPOut.BeginBin()
+            .Bits(JBBPBitNumber.BITS_3, 5).Bits(JBBPBitNumber.BITS_5, 17)
+            .Byte(1, -3, 200).Short(-1000).ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Short(50000)
+            .ByteOrder(JBBPByteOrder.BIG_ENDIAN).Int(0x01020304)
+            .ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Long(0x0102030405060708L)
+            .ByteOrder(JBBPByteOrder.BIG_ENDIAN).Byte(2).Int(11, -22)
+            .Align(4).Skip(2)
+            .Byte(7, 0x21, 1, 0)
+            .Short(1000, 2000)
+            .Byte(9, 8, 7)
+            .End().toByteArray();
+  }
+
+  @Test
+  public void testWrite_RoundTrip() throws Exception {
+    final byte[] data = makeData();
+    final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+    final JBBPWriter writer = new JBBPWriter(parser);
+    assertArrayEquals(data, writer.write(parser.parse(data)));
+    assertArrayEquals(data, writer.write(JBBPParser.prepareCompiled(SCRIPT).parse(data)));
+
+    final ByteBuffer buffer = ByteBuffer.allocate(data.length + 3);
+    buffer.position(3);
+    assertEquals(data.length, writer.write(parser.parse(data), buffer));
+    assertEquals(data.length + 3, buffer.position());
+    final byte[] fromBuffer = new byte[data.length];
+    buffer.position(3);
+    buffer.get(fromBuffer);
+    assertArrayEquals(data, fromBuffer);
+  }
+
+  @Test
+  public void testWrite_ErrorForBufferOverflow() throws Exception {
+    final byte[] data = makeData();
+    final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+    final ByteBuffer buffer = ByteBuffer.allocate(data.length + 1);
+    buffer.position(2);
+    try {
+      new JBBPWriter(parser).write(parser.parse(data), buffer);
+      fail("Must throw IOException");
+    }
+    catch (IOException ex) {
+    }
+    assertEquals(2, buffer.position());
+  }
+
+  @Test
+  public void testWrite_RoundTrip_MSB0() throws Exception {
+    final byte[] data = new byte[]{(byte) 0xA5, 0x12, (byte) 0x81, 0x03, 0x01, 0x02, 0x03, 0x04, 0x5A, 0x77, 0x66, (byte) 0xF0};
+    final JBBPParser parser = JBBPParser.prepare("bit:3 a; bit:5 b; byte c; short e; <int h; s { bit:4 [2] bits; } ubyte [2] u; byte [_] rest;", JBBPBitOrder.MSB0);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JBBPWriter(parser).write(parser.parse(data), out);
+    assertArrayEquals(data, out.toByteArray());
+  }
+
+  @Test
+  public void testWrite_RoundTrip_LittleEndianByteArrays() throws Exception {
+    final byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7, 8};
+    for (final JBBPBitOrder bitOrder : JBBPBitOrder.values()) {
+      final JBBPParser parser = JBBPParser.prepare("<byte [2] b; <ubyte [2] u; byte c; <byte [2] d; <ubyte [_] rest;", bitOrder);
+      final JBBPFieldStruct parsed = parser.parse(new byte[]{1, 2, 3, 4, 2, 6, 7, 8});
+      if (bitOrder == JBBPBitOrder.LSB0) {
+        assertArrayEquals(new byte[]{2, 1}, parsed.findFieldForNameAndType("b", JBBPFieldArrayByte.class).getArray());
+      }
+      assertArrayEquals(bitOrder.name(), new byte[]{1, 2, 3, 4, 2, 6, 7, 8}, new JBBPWriter(parser).write(parsed));
+    }
+    final JBBPParser parser = JBBPParser.prepare("<byte [4] b; <ubyte [4] u;");
+    assertArrayEquals(data, new JBBPWriter(parser).write(parser.parse(data)));
+  }
+
+  @Test
+  public void testWrite_ExpressionsAndCounter() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("byte skipNum; skip:(skipNum); reset$$; ubyte k; byte [k*2+$$] data; align:(k+4);");
+    final byte[] data = new byte[]{2, 0, 0, 1, 1, 2, 3, 0};
+    assertArrayEquals(data, new JBBPWriter(parser).write(parser.parse(data)));
+  }
+
+  @Test
+  public void testWrite_ExternalValue() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("byte [$len] data;");
+    final JBBPExternalValueProvider provider = new JBBPExternalValueProvider() {
+      public int provideArraySize(final String fieldName, final JBBPNamedNumericFieldMap numericFieldMap, final JBBPCompiledBlock compiledBlock) {
+        return 3;
+      }
+    };
+    final byte[] data = new byte[]{1, 2, 3};
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JBBPWriter(parser).write(parser.parse(new ByteArrayInputStream(data), null, provider), out, provider);
+    assertArrayEquals(data, out.toByteArray());
+  }
+
+  @Test
+  public void testWrite_ChangedStructure() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data;");
+    final JBBPNamedFieldInfo lenName = new JBBPNamedFieldInfo("len", "len", 0);
+    final JBBPNamedFieldInfo dataName = new JBBPNamedFieldInfo("data", "data", 1);
+    final JBBPWriter writer = new JBBPWriter(parser);
+
+    final JBBPFieldStruct changed = new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), new JBBPAbstractField[]{new JBBPFieldUByte(lenName, (byte) 2), new JBBPFieldArrayByte(dataName, new byte[]{5, 6})});
+    assertArrayEquals(new byte[]{2, 5, 6}, writer.write(changed));
+
+    final JBBPFieldStruct wrongLength = new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), new JBBPAbstractField[]{new JBBPFieldUByte(lenName, (byte) 3), new JBBPFieldArrayByte(dataName, new byte[]{5, 6})});
+    try {
+      writer.write(wrongLength);
+      fail("Must throw JBBPIllegalArgumentException");
+    }
+    catch (JBBPIllegalArgumentException ex) {
+    }
+
+    final JBBPFieldStruct wrongType = new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), new JBBPAbstractField[]{new JBBPFieldArrayByte(dataName, new byte[]{5, 6}), new JBBPFieldUByte(lenName, (byte) 2)});
+    try {
+      writer.write(wrongType);
+      fail("Must throw JBBPIllegalArgumentException");
+    }
+    catch (JBBPIllegalArgumentException ex) {
+    }
+
+    final JBBPFieldStruct wrongNumericType = new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), new JBBPAbstractField[]{new JBBPFieldInt(lenName, 2), new JBBPFieldArrayByte(dataName, new byte[]{5, 6})});
+    try {
+      writer.write(wrongNumericType);
+      fail("Must throw JBBPIllegalArgumentException");
+    }
+    catch (JBBPIllegalArgumentException ex) {
+    }
+
+    final JBBPFieldStruct wrongArrayType = new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), new JBBPAbstractField[]{new JBBPFieldUByte(lenName, (byte) 2), new JBBPFieldArrayUByte(dataName, new byte[]{5, 6})});
+    try {
+      writer.write(wrongArrayType);
+      fail("Must throw JBBPIllegalArgumentException");
+    }
+    catch (JBBPIllegalArgumentException ex) {
+    }
+
+    final JBBPFieldStruct missedField = new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), new JBBPAbstractField[]{new JBBPFieldUByte(lenName, (byte) 2)});
+    try {
+      writer.write(missedField);
+      fail("Must throw JBBPIllegalArgumentException");
+    }
+    catch (JBBPIllegalArgumentException ex) {
+    }
+  }
+
+  @Test(expected = JBBPIllegalArgumentException.class)
+  public void testConstructor_VarField() throws Exception {
+    new JBBPWriter(JBBPParser.prepare("byte a; var b;"));
+  }
+
+  @Test(expected = JBBPIllegalArgumentException.class)
+  public void testConstructor_Projection() throws Exception {
+    new JBBPWriter(JBBPParser.prepare("byte a; byte b;").withProjection("a"));
+  }
+}
@@ -16,8 +16,13 @@
 
 package com.igormaznitsa.jbbp;
 
+import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPNumericField;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import static org.junit.Assert.*;
 
 /**
  * Different useful auxiliary test methods
@@ -55,4 +60,34 @@ public enum TestUtils {;
     field.setAccessible(true);
     return field.get(instance);
   }
+
+  /**
+   * Check that two field trees have the same structure, names and values.
+   * @param expected the expected field, must not be null
+   * @param actual the actual field, must not be null
+   */
+  public static void assertFieldTreeEquals(final JBBPAbstractField expected, final JBBPAbstractField actual) {
+    assertNotNull(actual);
+    assertSame(expected.getClass(), actual.getClass());
+    assertEquals(expected.getNameInfo(), actual.getNameInfo());
+    if (expected instanceof JBBPFieldStruct) {
+      final JBBPAbstractField[] expectedFields = ((JBBPFieldStruct) expected).getArray();
+      final JBBPAbstractField[] actualFields = ((JBBPFieldStruct) actual).getArray();
+      assertEquals(expectedFields.length, actualFields.length);
+      for (int i = 0; i < expectedFields.length; i++) {
+        assertFieldTreeEquals(expectedFields[i], actualFields[i]);
+      }
+    }
+    else if (expected instanceof JBBPAbstractArrayField) {
+      final JBBPAbstractArrayField<?> expectedArray = (JBBPAbstractArrayField<?>) expected;
+      final JBBPAbstractArrayField<?> actualArray = (JBBPAbstractArrayField<?>) actual;
+      assertEquals(expectedArray.size(), actualArray.size());
+      for (int i = 0; i < expectedArray.size(); i++) {
+        assertFieldTreeEquals(expectedArray.getElementAt(i), actualArray.getElementAt(i));
+      }
+    }
+    else if (expected instanceof JBBPNumericField) {
+      assertEquals(((JBBPNumericField) expected).getAsLong(), ((JBBPNumericField) actual).getAsLong());
+    }
+  }
 }
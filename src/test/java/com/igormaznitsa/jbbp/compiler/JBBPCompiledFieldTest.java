@@ -0,0 +1,78 @@
+/* 
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler;
+
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class JBBPCompiledFieldTest {
+
+  @Test(expected = NullPointerException.class)
+  public void testDecode_NPEForNull() {
+    JBBPCompiledField.decode(null);
+  }
+
+  @Test
+  public void testDecode_Primitives() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("bit:3 a; <int b; long;");
+    final JBBPCompiledField[] fields = JBBPCompiledField.decode(block);
+    assertEquals(3, fields.length);
+
+    assertEquals(JBBPCompiler.CODE_BIT, fields[0].getTypeCode());
+    assertEquals(3, fields[0].getExtraValue());
+    assertEquals("a", fields[0].getNameInfo().getFieldPath());
+    assertEquals(0, fields[0].getNamedFieldIndex());
+    assertFalse(fields[0].isArray());
+
+    assertEquals(JBBPCompiler.CODE_INT, fields[1].getTypeCode());
+    assertEquals(JBBPByteOrder.LITTLE_ENDIAN, fields[1].getByteOrder());
+    assertEquals(1, fields[1].getNamedFieldIndex());
+
+    assertEquals(JBBPCompiler.CODE_LONG, fields[2].getTypeCode());
+    assertNull(fields[2].getNameInfo());
+    assertEquals(-1, fields[2].getNamedFieldIndex());
+    assertFalse(fields[2].isDynamic());
+  }
+
+  @Test
+  public void testDecode_ArraysAndStructures() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("ubyte len; s [2] { byte [len] a; int [3] b; } int [_] c;");
+    final JBBPCompiledField[] fields = JBBPCompiledField.decode(block);
+    assertEquals(3, fields.length);
+
+    final JBBPCompiledField struct = fields[1];
+    assertEquals(JBBPCompiler.CODE_STRUCT_START, struct.getTypeCode());
+    assertEquals(JBBPCompiledField.ARRAY_FIXED, struct.getArrayType());
+    assertEquals(2, struct.getArraySize());
+    assertTrue(struct.isDynamic());
+    assertEquals(2, struct.getStructFields().length);
+
+    final JBBPCompiledField a = struct.getStructFields()[0];
+    assertEquals("s.a", a.getNameInfo().getFieldPath());
+    assertEquals(JBBPCompiledField.ARRAY_EXPRESSION, a.getArrayType());
+    assertSame(block.getArraySizeEvaluators()[0], a.getArraySizeEvaluator());
+
+    final JBBPCompiledField b = struct.getStructFields()[1];
+    assertEquals(JBBPCompiledField.ARRAY_FIXED, b.getArrayType());
+    assertEquals(3, b.getArraySize());
+    assertFalse(b.isDynamic());
+
+    assertEquals(JBBPCompiledField.ARRAY_WHOLE_STREAM, fields[2].getArrayType());
+    assertEquals("c", fields[2].getNameInfo().getFieldPath());
+    assertEquals(block.findFieldOffsetForPath("c"), fields[2].getOffset());
+  }
+}
@@ -569,4 +569,15 @@ public class JBBPCompilerTest {
     assertArrayEquals(new byte[]{JBBPCompiler.CODE_RESET_COUNTER}, JBBPCompiler.compile("reset$$;").getCompiledData());
   }
   
+
+  @Test
+  public void testCompile_ReferencedNamedFields() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("ubyte a; int b; int c; byte [a] arr1; byte [c*2] arr2; bit:(a+1) d;");
+    assertTrue(block.isNamedFieldReferenced(0));
+    assertFalse(block.isNamedFieldReferenced(1));
+    assertTrue(block.isNamedFieldReferenced(2));
+    assertFalse(block.isNamedFieldReferenced(3));
+    assertFalse(block.isNamedFieldReferenced(4));
+    assertFalse(block.isNamedFieldReferenced(5));
+  }
 }
@@ -22,6 +22,7 @@ import com.igormaznitsa.jbbp.exceptions.JBBPCompilationException;
 import com.igormaznitsa.jbbp.exceptions.JBBPEvalException;
 import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
 import com.igormaznitsa.jbbp.model.JBBPFieldInt;
+import com.igormaznitsa.jbbp.model.JBBPFieldUByte;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import java.io.ByteArrayInputStream;
 import java.util.*;
@@ -518,4 +519,33 @@ public class JBBPExpressionEvaluatorTest {
     assertEquals(123 * (value - 45 / 3) * 3, expr.eval(inStream, 0, compiledBlock, map));
   }
 
+
+  @Test
+  public void testExpression_ConstantSubExpressionsWithField() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("ubyte len; byte [len*(2+3)-(8/4)+~0] arr;");
+    final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap(block, null);
+    map.putField(new JBBPFieldUByte(block.getNamedFields()[0], (byte) 7));
+    final JBBPExpressionEvaluator expr = (JBBPExpressionEvaluator) block.getArraySizeEvaluators()[0];
+    assertEquals(7 * (2 + 3) - (8 / 4) + ~0, expr.eval(null, 0, block, map));
+    assertEquals(7 * (2 + 3) - (8 / 4) + ~0, expr.eval(null, 0, block, map));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testExpression_DivisionByZeroConstantIsNotFolded() {
+    new JBBPExpressionEvaluator("12/(3-3)", null, null).eval(null, 0, null, null);
+  }
+
+  @Test
+  public void testExpression_EvaluationStackIsReused() throws Exception {
+    final JBBPCompiledBlock block = JBBPCompiler.compile("ubyte a; ubyte b; byte [a*2+b] arr;");
+    final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap(block, null);
+    map.putField(new JBBPFieldUByte(block.getNamedFields()[0], (byte) 3));
+    map.putField(new JBBPFieldUByte(block.getNamedFields()[1], (byte) 4));
+
+    final int[] stack = map.takeEvaluationStack(2);
+    map.releaseEvaluationStack(stack);
+
+    assertEquals(10, block.getArraySizeEvaluators()[0].eval(null, 0, block, map));
+    assertSame(stack, map.takeEvaluationStack(2));
+  }
 }
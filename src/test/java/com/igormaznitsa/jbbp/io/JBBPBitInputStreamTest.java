@@ -736,6 +736,33 @@ public class JBBPBitInputStreamTest {
     in.readIntArray(259, JBBPByteOrder.BIG_ENDIAN);
   }
 
+  @Test
+  public void testReadArray_IntoProvidedArrays() throws Exception {
+    final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(new byte[]{1, 0, 2, 3, 4, 5, 1, 2, 3, 4, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+    final boolean[] bools = new boolean[2];
+    assertSame(bools, in.readBoolArray(bools));
+    assertArrayEquals(new boolean[]{true, false}, bools);
+    final byte[] bytes = new byte[2];
+    assertSame(bytes, in.readByteArray(bytes));
+    assertArrayEquals(new byte[]{2, 3}, bytes);
+    final short[] shorts = new short[1];
+    assertSame(shorts, in.readShortArray(shorts, JBBPByteOrder.LITTLE_ENDIAN));
+    assertArrayEquals(new short[]{0x0504}, shorts);
+    final int[] ints = new int[1];
+    assertSame(ints, in.readIntArray(ints, JBBPByteOrder.BIG_ENDIAN));
+    assertArrayEquals(new int[]{0x01020304}, ints);
+    final long[] longs = new long[1];
+    assertSame(longs, in.readLongArray(longs, JBBPByteOrder.BIG_ENDIAN));
+    assertArrayEquals(new long[]{0x0102030405060708L}, longs);
+    assertEquals(18, in.getCounter());
+    try {
+      in.readIntArray(new int[1], JBBPByteOrder.BIG_ENDIAN);
+      fail("Must throw EOF");
+    }
+    catch (EOFException ex) {
+    }
+  }
+
   @Test
   public void testReadArray_Long_WholeStream() throws Exception {
     JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 0, (byte) 0xFE, (byte) 0xCA, (byte) 0xBE, (byte) 0x01, 2, 3, 4, 5, 6, 7, 8, 9, 1, 2, 3, 4}));
@@ -950,5 +977,292 @@ public class JBBPBitInputStreamTest {
     assertTrue(in.hasAvailableData());
     assertEquals(2, in.getCounter());
   }
-  
+
+  @Test
+  public void testReadArray_BulkRead_ManyItemsAndByteOrders() throws Exception {
+    final byte[] data = new byte[8 * 3000 + 1];
+    new Random(5678).nextBytes(data);
+
+    for (final JBBPByteOrder order : JBBPByteOrder.values()) {
+      JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(data));
+      JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data));
+      final short[] shorts = in.readShortArray(5000, order);
+      for (int i = 0; i < shorts.length; i++) {
+        assertEquals((short) etalon.readUnsignedShort(order), shorts[i]);
+      }
+      assertEquals(10000, in.getCounter());
+
+      in = new JBBPBitInputStream(new ByteArrayInputStream(data));
+      etalon = new JBBPBitInputStream(new ByteArrayInputStream(data));
+      final int[] ints = in.readIntArray(3000, order);
+      for (int i = 0; i < ints.length; i++) {
+        assertEquals(etalon.readInt(order), ints[i]);
+      }
+      assertEquals(12000, in.getCounter());
+
+      in = new JBBPBitInputStream(new ByteArrayInputStream(data));
+      etalon = new JBBPBitInputStream(new ByteArrayInputStream(data));
+      final long[] longs = in.readLongArray(3000, order);
+      for (int i = 0; i < longs.length; i++) {
+        assertEquals(etalon.readLong(order), longs[i]);
+      }
+      assertEquals(24000, in.getCounter());
+      assertEquals(data[data.length - 1] & 0xFF, in.read());
+    }
+  }
+
+  @Test
+  public void testReadArray_BulkRead_AfterBitsAndForMSB0() throws Exception {
+    JBBPBitInputStream in = asInputStream(0x71, 0x12, 0x34, 0x56, 0x78, 0x9A);
+    assertEquals(1, in.readBits(JBBPBitNumber.BITS_4));
+    assertArrayEquals(new int[]{0x85634127}, in.readIntArray(1, JBBPByteOrder.LITTLE_ENDIAN));
+    assertEquals(4, in.getCounter());
+
+    in = asInputStreamMSB0(0x80, 0x00, 0x00, 0x01);
+    assertArrayEquals(new int[]{0x01000080}, in.readIntArray(1, JBBPByteOrder.BIG_ENDIAN));
+
+    in = asInputStream(1, 2, 3);
+    try {
+      in.readShortArray(-1, JBBPByteOrder.BIG_ENDIAN);
+      fail("Must throw EOF");
+    }
+    catch (EOFException ex) {
+      assertEquals(3, in.getCounter());
+    }
+  }
+
+  @Test
+  public void testReadBitsArray_SameResultAsSequentialReading() throws Exception {
+    final Random rnd = new Random(9012);
+    for (int test = 0; test < 2000; test++) {
+      final byte[] data = new byte[rnd.nextInt(40)];
+      rnd.nextBytes(data);
+      final JBBPBitOrder order = rnd.nextBoolean() ? JBBPBitOrder.LSB0 : JBBPBitOrder.MSB0;
+      final JBBPBitNumber prefixBits = JBBPBitNumber.decode(rnd.nextInt(8) + 1);
+      final JBBPBitNumber bits = JBBPBitNumber.decode(rnd.nextInt(8) + 1);
+      final int items = rnd.nextInt(5) == 0 ? -1 : rnd.nextInt(60);
+      final boolean checkAvailable = rnd.nextBoolean();
+
+      final JBBPBitInputStream bulk = new JBBPBitInputStream(new ByteArrayInputStream(data), order);
+      final JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data), order);
+
+      if (rnd.nextBoolean()) {
+        assertEquals(etalon.readBits(prefixBits), bulk.readBits(prefixBits));
+      }
+      if (checkAvailable) {
+        assertEquals(etalon.hasAvailableData(), bulk.hasAvailableData());
+      }
+
+      byte[] bulkResult = null;
+      boolean bulkEof = false;
+      try {
+        bulkResult = bulk.readBitsArray(items, bits);
+      }
+      catch (EOFException ex) {
+        bulkEof = true;
+      }
+
+      int readItems = 0;
+      boolean etalonEof = false;
+      while (items < 0 || readItems < items) {
+        final int value = etalon.readBits(bits);
+        if (value < 0) {
+          etalonEof = items >= 0;
+          break;
+        }
+        if (bulkResult != null) {
+          assertEquals(value, bulkResult[readItems] & 0xFF);
+        }
+        readItems++;
+      }
+
+      assertEquals(etalonEof, bulkEof);
+      if (bulkResult != null) {
+        assertEquals(readItems, bulkResult.length);
+      }
+      assertEquals(etalon.getCounter(), bulk.getCounter());
+      assertEquals(etalon.getBufferedBitsNumber(), bulk.getBufferedBitsNumber());
+      assertEquals(etalon.readBits(JBBPBitNumber.BITS_8), bulk.readBits(JBBPBitNumber.BITS_8));
+    }
+  }
+
+  private static final class SlowInputStream extends InputStream {
+
+    private final byte[] data;
+    private int pos;
+    private int markedPos;
+    private int readCalls;
+
+    SlowInputStream(final byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public int read() throws IOException {
+      this.readCalls++;
+      return this.pos < this.data.length ? this.data[this.pos++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      this.readCalls++;
+      if (this.pos >= this.data.length) {
+        return -1;
+      }
+      // return max 3 bytes per call to emulate a network stream
+      final int toRead = Math.min(Math.min(len, 3), this.data.length - this.pos);
+      System.arraycopy(this.data, this.pos, b, off, toRead);
+      this.pos += toRead;
+      return toRead;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+      this.markedPos = this.pos;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      this.pos = this.markedPos;
+    }
+  }
+
+  @Test
+  public void testReadAheadBuffer_NotUsedForMemoryStreams() throws Exception {
+    assertFalse(new JBBPBitInputStream(new ByteArrayInputStream(new byte[1]), JBBPBitOrder.LSB0, 1024).isReadAheadBuffered());
+    assertFalse(new JBBPBitInputStream(new SlowInputStream(new byte[1]), JBBPBitOrder.LSB0, 0).isReadAheadBuffered());
+    assertTrue(new JBBPBitInputStream(new SlowInputStream(new byte[1]), JBBPBitOrder.LSB0, 16).isReadAheadBuffered());
+  }
+
+  @Test
+  public void testReadAheadBuffer_DecreasesNumberOfReadCalls() throws Exception {
+    final byte[] data = new byte[4000];
+    new Random(111).nextBytes(data);
+    final SlowInputStream source = new SlowInputStream(data);
+    final JBBPBitInputStream in = new JBBPBitInputStream(source, JBBPBitOrder.LSB0, 512);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(((data[i * 4] & 0xFF) << 24) | ((data[i * 4 + 1] & 0xFF) << 16) | ((data[i * 4 + 2] & 0xFF) << 8) | (data[i * 4 + 3] & 0xFF), in.readInt(JBBPByteOrder.BIG_ENDIAN));
+    }
+    assertEquals(4000, in.getCounter());
+    assertEquals(-1, in.read());
+    assertTrue(source.readCalls < 4000 / 3 + 10);
+  }
+
+  @Test
+  public void testReadAheadBuffer_SameResultsAsWithoutBuffer() throws Exception {
+    final Random rnd = new Random(222);
+    for (int test = 0; test < 300; test++) {
+      final byte[] data = new byte[rnd.nextInt(300)];
+      rnd.nextBytes(data);
+      final JBBPBitOrder order = rnd.nextBoolean() ? JBBPBitOrder.LSB0 : JBBPBitOrder.MSB0;
+      final JBBPBitInputStream buffered = new JBBPBitInputStream(new SlowInputStream(data), order, rnd.nextInt(16) + 1);
+      final JBBPBitInputStream etalon = new JBBPBitInputStream(new SlowInputStream(data), order, 0);
+
+      boolean marked = false;
+      for (int op = 0; op < 60; op++) {
+        final int action = rnd.nextInt(9);
+        switch (action) {
+          case 0: {
+            final JBBPBitNumber bits = JBBPBitNumber.decode(rnd.nextInt(8) + 1);
+            assertEquals(etalon.readBits(bits), buffered.readBits(bits));
+          }
+          break;
+          case 1: {
+            assertEquals(etalon.read(), buffered.read());
+          }
+          break;
+          case 2: {
+            final long skip = rnd.nextInt(20);
+            assertEquals(etalon.skip(skip), buffered.skip(skip));
+          }
+          break;
+          case 3: {
+            final int align = rnd.nextInt(5) + 1;
+            Throwable etalonError = null;
+            Throwable bufferedError = null;
+            try {
+              etalon.align(align);
+            }
+            catch (EOFException ex) {
+              etalonError = ex;
+            }
+            try {
+              buffered.align(align);
+            }
+            catch (EOFException ex) {
+              bufferedError = ex;
+            }
+            assertEquals(etalonError == null, bufferedError == null);
+          }
+          break;
+          case 4: {
+            etalon.mark(data.length + 1);
+            buffered.mark(data.length + 1);
+            marked = true;
+          }
+          break;
+          case 5: {
+            if (marked) {
+              etalon.reset();
+              buffered.reset();
+            }
+          }
+          break;
+          case 6: {
+            final byte[] etalonArray = new byte[rnd.nextInt(40)];
+            final byte[] bufferedArray = new byte[etalonArray.length];
+            assertEquals(etalon.read(etalonArray), buffered.read(bufferedArray));
+            assertArrayEquals(etalonArray, bufferedArray);
+          }
+          break;
+          case 7: {
+            assertEquals(etalon.hasAvailableData(), buffered.hasAvailableData());
+          }
+          break;
+          default: {
+            etalon.resetCounter();
+            buffered.resetCounter();
+          }
+          break;
+        }
+        assertEquals(etalon.getCounter(), buffered.getCounter());
+        assertEquals(etalon.getBufferedBitsNumber(), buffered.getBufferedBitsNumber());
+      }
+    }
+  }
+
+  @Test
+  public void testReadAheadBuffer_MarkResetAndInvalidMark() throws Exception {
+    final byte[] data = new byte[100];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    final JBBPBitInputStream in = new JBBPBitInputStream(new SlowInputStream(data), JBBPBitOrder.LSB0, 4);
+    assertEquals(0, in.read());
+    in.mark(20);
+    assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, in.readByteArray(10));
+    in.reset();
+    assertEquals(1, in.getCounter());
+    assertEquals(1, in.read());
+    assertEquals(10L, in.skip(10L));
+    assertEquals(12, in.read());
+
+    in.mark(2);
+    assertEquals(50, in.readByteArray(50).length);
+    try {
+      in.reset();
+      fail("Must throw IOException");
+    }
+    catch (IOException ex) {
+      assertEquals(63, in.read());
+    }
+  }
 }
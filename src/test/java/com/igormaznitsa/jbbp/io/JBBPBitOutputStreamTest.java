@@ -370,4 +370,97 @@ public class JBBPBitOutputStreamTest {
     }
   }
 
+  @Test
+  public void testBulkWrite_SameAsSingleWrites() throws Exception {
+    final Random rnd = new Random(12345L);
+    final byte[] bytes = new byte[3001];
+    rnd.nextBytes(bytes);
+    final short[] shorts = new short[777];
+    final int[] ints = new int[555];
+    final long[] longs = new long[333];
+    for (int i = 0; i < shorts.length; i++) {
+      shorts[i] = (short) rnd.nextInt();
+    }
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = rnd.nextInt();
+    }
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = rnd.nextLong();
+    }
+
+    for (final JBBPBitOrder bitOrder : JBBPBitOrder.values()) {
+      for (final JBBPByteOrder byteOrder : JBBPByteOrder.values()) {
+        for (final int prefixBits : new int[]{0, 3}) {
+          final ByteArrayOutputStream etalonBuffer = new ByteArrayOutputStream();
+          final JBBPBitOutputStream etalon = new JBBPBitOutputStream(etalonBuffer, bitOrder, 0);
+          if (prefixBits > 0) {
+            etalon.writeBits(5, JBBPBitNumber.decode(prefixBits));
+          }
+          if (prefixBits == 0) {
+            etalon.write(bytes, 0, bytes.length);
+          }
+          else {
+            for (final byte b : bytes) {
+              etalon.write(b);
+            }
+          }
+          for (final byte b : bytes) {
+            etalon.writeBits(b, JBBPBitNumber.BITS_5);
+          }
+          for (final short v : shorts) {
+            etalon.writeShort(v, byteOrder);
+          }
+          for (final int v : ints) {
+            etalon.writeInt(v, byteOrder);
+          }
+          for (final long v : longs) {
+            etalon.writeLong(v, byteOrder);
+          }
+          for (final byte b : bytes) {
+            etalon.writeBits(b, JBBPBitNumber.BITS_8);
+          }
+          etalon.align(16);
+          etalon.close();
+
+          final ByteArrayOutputStream bulkBuffer = new ByteArrayOutputStream();
+          final JBBPBitOutputStream bulk = new JBBPBitOutputStream(bulkBuffer, bitOrder, 100);
+          assertTrue(bulk.isBuffered());
+          if (prefixBits > 0) {
+            bulk.writeBits(5, JBBPBitNumber.decode(prefixBits));
+          }
+          bulk.write(bytes);
+          bulk.writeBitsArray(bytes, JBBPBitNumber.BITS_5);
+          bulk.writeShortArray(shorts, byteOrder);
+          bulk.writeIntArray(ints, byteOrder);
+          bulk.writeLongArray(longs, byteOrder);
+          bulk.writeBitsArray(bytes, JBBPBitNumber.BITS_8);
+          bulk.align(16);
+          assertEquals(etalon.getCounter(), bulk.getCounter());
+          bulk.close();
+
+          assertArrayEquals(bitOrder + " " + byteOrder + " " + prefixBits, etalonBuffer.toByteArray(), bulkBuffer.toByteArray());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOutputBuffer_DataProvidedOnFlush() throws Exception {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final JBBPBitOutputStream out = new JBBPBitOutputStream(buffer, JBBPBitOrder.LSB0, 4);
+    out.write(1);
+    out.writeShort(0x0203, JBBPByteOrder.BIG_ENDIAN);
+    assertEquals(0, buffer.size());
+    out.writeInt(0x04050607, JBBPByteOrder.BIG_ENDIAN);
+    assertEquals(7, buffer.size());
+    out.write(new byte[]{8, 9, 10, 11, 12});
+    assertEquals(12, buffer.size());
+    out.writeBits(1, JBBPBitNumber.BITS_1);
+    assertEquals(12L, out.getCounter());
+    assertEquals(12, buffer.size());
+    out.flush();
+    assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 1}, buffer.toByteArray());
+    assertFalse(new JBBPBitOutputStream(buffer, JBBPBitOrder.LSB0, 0).isBuffered());
+  }
+
 }
@@ -0,0 +1,69 @@
+/* 
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import java.nio.ByteBuffer;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class JBBPByteBufferInputStreamTest {
+
+  @Test(expected = NullPointerException.class)
+  public void testConstructor_NPEForNull() {
+    new JBBPByteBufferInputStream(null);
+  }
+
+  @Test
+  public void testRead_DoesNotChangeSourceBuffer() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5});
+    buffer.position(1);
+    final JBBPByteBufferInputStream in = new JBBPByteBufferInputStream(buffer);
+    assertEquals(4, in.available());
+    assertEquals(2, in.read());
+    final byte[] read = new byte[8];
+    assertEquals(3, in.read(read, 1, 8));
+    assertArrayEquals(new byte[]{0, 3, 4, 5, 0, 0, 0, 0}, read);
+    assertEquals(-1, in.read());
+    assertEquals(-1, in.read(read, 0, 1));
+    assertEquals(0, in.read(read, 0, 0));
+    assertEquals(5, in.getPosition());
+    assertEquals(1, buffer.position());
+  }
+
+  @Test
+  public void testSkipMarkReset() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(6);
+    buffer.put(new byte[]{1, 2, 3, 4, 5, 6}).flip();
+    final JBBPByteBufferInputStream in = new JBBPByteBufferInputStream(buffer);
+    assertTrue(in.markSupported());
+    assertEquals(2L, in.skip(2L));
+    in.mark(100);
+    assertEquals(3, in.read());
+    assertEquals(3L, in.skip(100L));
+    assertEquals(0L, in.skip(-1L));
+    assertEquals(-1, in.read());
+    in.reset();
+    assertEquals(3, in.read());
+  }
+
+  @Test
+  public void testAsSourceForBitInputStream() throws Exception {
+    final JBBPBitInputStream in = new JBBPBitInputStream(new JBBPByteBufferInputStream(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9})));
+    assertEquals(1, in.readByte());
+    assertArrayEquals(new int[]{0x02030405, 0x06070809}, in.readIntArray(-1, JBBPByteOrder.BIG_ENDIAN));
+    assertEquals(9, in.getCounter());
+  }
+}
@@ -0,0 +1,75 @@
+/* 
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class JBBPByteBufferOutputStreamTest {
+
+  @Test(expected = NullPointerException.class)
+  public void testConstructor_NPEForNull() {
+    new JBBPByteBufferOutputStream(null);
+  }
+
+  @Test
+  public void testWrite_DoesNotChangeTargetBuffer() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(6);
+    buffer.position(1);
+    final JBBPByteBufferOutputStream out = new JBBPByteBufferOutputStream(buffer);
+    assertEquals(5, out.remaining());
+    out.write(1);
+    out.write(new byte[]{9, 2, 3, 9}, 1, 2);
+    assertEquals(3, out.size());
+    assertEquals(2, out.remaining());
+    assertEquals(1, buffer.position());
+    assertEquals(6, buffer.limit());
+
+    final ByteBuffer written = out.getWritten();
+    assertEquals(0, written.position());
+    assertEquals(3, written.remaining());
+    final byte[] data = new byte[3];
+    written.get(data);
+    assertArrayEquals(new byte[]{1, 2, 3}, data);
+    assertEquals(2, buffer.get(2));
+
+    out.reset();
+    assertEquals(0, out.size());
+    assertEquals(0, out.getWritten().remaining());
+  }
+
+  @Test
+  public void testWrite_ErrorForOverflow() throws Exception {
+    final JBBPByteBufferOutputStream out = new JBBPByteBufferOutputStream(ByteBuffer.allocate(2));
+    out.write(1);
+    try {
+      out.write(new byte[]{2, 3}, 0, 2);
+      fail("Must throw IOException");
+    }
+    catch (IOException ex) {
+    }
+    out.write(2);
+    try {
+      out.write(3);
+      fail("Must throw IOException");
+    }
+    catch (IOException ex) {
+    }
+    assertEquals(2, out.size());
+  }
+}
@@ -0,0 +1,52 @@
+/* 
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class JBBPOutPoolTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_ErrorForZeroSize() {
+    new JBBPOutPool(0, JBBPByteOrder.BIG_ENDIAN, JBBPBitOrder.LSB0);
+  }
+
+  @Test
+  public void testBeginBin_SessionIsReusedInThread() throws Exception {
+    final JBBPOutPool pool = new JBBPOutPool(4, JBBPByteOrder.LITTLE_ENDIAN, JBBPBitOrder.LSB0);
+    final JBBPOut first = pool.BeginBin();
+    assertArrayEquals(new byte[]{2, 1, 3}, first.Short(0x0102).Byte(3).End().toByteArray());
+    final JBBPOut second = pool.BeginBin();
+    assertSame(first, second);
+    assertArrayEquals(new byte[]{4, 3, 2, 1}, second.Int(0x01020304).End().toByteArray());
+  }
+
+  @Test
+  public void testBeginBin_ThreadsGetDifferentSessions() throws Exception {
+    final JBBPOutPool pool = new JBBPOutPool();
+    final JBBPOut[] other = new JBBPOut[1];
+    final Thread thread = new Thread(new Runnable() {
+      public void run() {
+        other[0] = pool.BeginBin();
+      }
+    });
+    thread.start();
+    thread.join();
+    assertNotNull(other[0]);
+    assertNotSame(other[0], pool.BeginBin());
+  }
+}
@@ -24,6 +24,7 @@ import com.igormaznitsa.jbbp.model.JBBPFieldLong;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import java.io.*;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -1249,4 +1250,130 @@ public class JBBPOutTest {
   
   
 
+  @Test
+  public void testBeginBin_ByteBuffer() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+    buffer.position(2);
+    final ByteBuffer written = BeginBin(buffer, JBBPByteOrder.LITTLE_ENDIAN, JBBPBitOrder.MSB0).Short(0x0102).Bit(1).EndBuffer();
+    assertEquals(2, buffer.position());
+    assertEquals(3, written.remaining());
+    final byte[] data = new byte[3];
+    written.get(data);
+    assertArrayEquals(new byte[]{0x40, (byte) 0x80, (byte) 0x80}, data);
+    assertEquals(0x40, buffer.get(2));
+
+    final ByteBuffer heap = ByteBuffer.allocate(8);
+    final JBBPOut out = BeginBin(heap).Int(0x01020304);
+    assertNull(BeginBin().Byte(1).EndBuffer());
+    try {
+      out.Long(0x05060708090A0B0CL);
+      fail("Must throw IOException");
+    }
+    catch (IOException ex) {
+      assertFalse(ex instanceof EOFException);
+    }
+    assertEquals(4, out.EndBuffer().remaining());
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    final JBBPOut out = BeginBin(JBBPByteOrder.LITTLE_ENDIAN);
+    final ByteArrayOutputStream result = out.Short(0x0102).ByteOrder(JBBPByteOrder.BIG_ENDIAN).Short(0x0304).End();
+    assertArrayEquals(new byte[]{2, 1, 3, 4}, result.toByteArray());
+
+    assertSame(out, out.Reset());
+    out.Bits(JBBPBitNumber.BITS_3, 7);
+    assertEquals(0L, out.getByteCounter());
+    out.Reset();
+    assertSame(result, out.Short(0x0506).End());
+    assertArrayEquals(new byte[]{6, 5}, result.toByteArray());
+
+    final ByteBuffer buffer = ByteBuffer.allocate(4);
+    final JBBPOut bufferOut = BeginBin(buffer).Int(0x01020304);
+    assertEquals(4, bufferOut.EndBuffer().remaining());
+    final ByteBuffer written = bufferOut.Reset().Short(0x0A0B).EndBuffer();
+    assertEquals(2, written.remaining());
+    assertEquals(0x0A0B, written.getShort());
+  }
+
+  @Test
+  public void testBeginCount() throws Exception {
+    final JBBPOut out = BeginCount().Byte(1, 2).Bits(JBBPBitNumber.BITS_3, 7);
+    assertEquals(2L, out.getByteCounter());
+    assertEquals(19L, out.getBitCounter());
+    out.Int(1).Long(2L).Utf8("hello");
+    assertEquals(19L, out.getByteCounter());
+    assertEquals(155L, out.getBitCounter());
+    assertNull(out.End());
+    assertEquals(20L, out.getByteCounter());
+    assertEquals(160L, out.getBitCounter());
+  }
+
+  @Test
+  public void testSizeOf_FixedAndVariableSize() throws Exception {
+    class Inner {
+      @Bin(outOrder = 1)
+      int a;
+      @Bin(outOrder = 2, type = BinType.BIT, outBitNumber = JBBPBitNumber.BITS_3)
+      byte b;
+    }
+
+    class Fixed {
+      @Bin(outOrder = 1, type = BinType.BIT, outBitNumber = JBBPBitNumber.BITS_4)
+      byte a;
+      @Bin(outOrder = 2)
+      short b;
+      @Bin(outOrder = 3)
+      Inner c = new Inner();
+      @Bin(outOrder = 4)
+      boolean d;
+    }
+
+    class Variable {
+      @Bin(outOrder = 1)
+      long a;
+      @Bin(outOrder = 2)
+      byte[] b;
+
+      Variable(final byte[] b) {
+        this.b = b;
+      }
+    }
+
+    final Fixed fixed = new Fixed();
+    assertEquals(63L, JBBPOut.bitSizeOf(fixed));
+    assertEquals(8L, JBBPOut.sizeOf(fixed));
+    assertEquals(8L, JBBPOut.sizeOf(fixed));
+    assertEquals(BeginBin().Bin(fixed).End().size(), JBBPOut.sizeOf(fixed));
+
+    final Variable variable = new Variable(new byte[3]);
+    assertEquals(11L, JBBPOut.sizeOf(variable));
+    variable.b = new byte[10];
+    assertEquals(18L, JBBPOut.sizeOf(variable));
+    assertEquals(BeginBin().Bin(variable).End().size(), JBBPOut.sizeOf(variable));
+  }
+
+  @Test
+  public void testSizeOf_CustomField() throws Exception {
+    class Test {
+      @Bin(outOrder = 1)
+      byte a;
+      @Bin(outOrder = 2, custom = true)
+      byte b;
+    }
+
+    try {
+      JBBPOut.sizeOf(new Test());
+      fail("Must throw JBBPIllegalArgumentException");
+    }
+    catch (JBBPIllegalArgumentException ex) {
+    }
+
+    assertEquals(3L, JBBPOut.sizeOf(new Test(), new JBBPCustomFieldWriter() {
+      public void writeCustomField(JBBPOut context, JBBPBitOutputStream outStream, Object instanceToSave, Field instanceCustomField, Bin fieldAnnotation, Object value) throws IOException {
+        context.Bits(JBBPBitNumber.BITS_4, 1).Byte(2);
+      }
+    }));
+  }
+
 }
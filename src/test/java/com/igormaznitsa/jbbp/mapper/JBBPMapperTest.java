@@ -760,4 +760,35 @@ public class JBBPMapperTest {
     assertEquals(0x01020304, parsed.a);
     assertEquals(0, parsed.b);
   }
+
+  @Test
+  public void testMap_CachedPlanForDifferentStructureLayouts() throws Exception {
+    class Parsed {
+      @Bin int a;
+      @Bin(name = "B") byte b;
+      @Bin(path = "s.c") short c;
+    }
+
+    for (int i = 0; i < 3; i++) {
+      final Parsed first = JBBPParser.prepare("int a; byte b; s { short c; }").parse(new byte[]{1, 2, 3, 4, 5, 6, 7}).mapTo(Parsed.class);
+      assertEquals(0x01020304, first.a);
+      assertEquals(5, first.b);
+      assertEquals(0x0607, first.c);
+
+      final Parsed second = JBBPParser.prepare("byte b; s { short c; } byte x; int a;").parse(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}).mapTo(Parsed.class);
+      assertEquals(0x05060708, second.a);
+      assertEquals(1, second.b);
+      assertEquals(0x0203, second.c);
+    }
+  }
+
+  @Test
+  public void testMap_ClearMappingPlanCache() throws Exception {
+    class Parsed {
+      @Bin int a;
+    }
+    assertEquals(0x01020304, JBBPParser.prepare("int a;").parse(new byte[]{1, 2, 3, 4}).mapTo(Parsed.class).a);
+    JBBPMapper.clearMappingPlanCache();
+    assertEquals(0x05060708, JBBPParser.prepare("int a;").parse(new byte[]{5, 6, 7, 8}).mapTo(Parsed.class).a);
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+import com.igormaznitsa.jbbp.utils.JBBPSystemProperty;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class JBBPFieldAccessorFactoryTest {
+
+  @After
+  public void afterTest() {
+    System.clearProperty(JBBPSystemProperty.PROPERTY_FIELD_ACCESSOR_TYPE.getPropertyName());
+  }
+
+  private static class Fields {
+    int a;
+    volatile int b;
+    static int c;
+  }
+
+  @Test
+  public void testMake_Default() throws Exception {
+    assertEquals(JBBPSafeFieldAccessor.class, JBBPFieldAccessorFactory.getInstance().make(Fields.class.getDeclaredField("a")).getClass());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testMake_NPEForNullField() {
+    JBBPFieldAccessorFactory.getInstance().make(null);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testMake_NPEForNullType() throws Exception {
+    JBBPFieldAccessorFactory.getInstance().make(Fields.class.getDeclaredField("a"), null);
+  }
+
+  @Test
+  public void testMake_WithArgument() throws Exception {
+    final JBBPFieldAccessorFactory factory = JBBPFieldAccessorFactory.getInstance();
+    assertEquals(JBBPSafeFieldAccessor.class, factory.make(Fields.class.getDeclaredField("a"), JBBPFieldAccessorType.SAFE).getClass());
+    assertEquals(JBBPUnsafeFieldAccessor.class, factory.make(Fields.class.getDeclaredField("a"), JBBPFieldAccessorType.UNSAFE).getClass());
+    assertEquals(JBBPSafeFieldAccessor.class, factory.make(Fields.class.getDeclaredField("a"), JBBPFieldAccessorType.AUTO).getClass());
+  }
+
+  @Test
+  public void testMake_VolatileAndStaticFieldsAreSafe() throws Exception {
+    final JBBPFieldAccessorFactory factory = JBBPFieldAccessorFactory.getInstance();
+    assertEquals(JBBPSafeFieldAccessor.class, factory.make(Fields.class.getDeclaredField("b"), JBBPFieldAccessorType.UNSAFE).getClass());
+    assertEquals(JBBPSafeFieldAccessor.class, factory.make(Fields.class.getDeclaredField("c"), JBBPFieldAccessorType.UNSAFE).getClass());
+  }
+
+  @Test
+  public void testMake_SystemProperty() throws Exception {
+    JBBPSystemProperty.PROPERTY_FIELD_ACCESSOR_TYPE.set("safe");
+    assertEquals(JBBPSafeFieldAccessor.class, JBBPFieldAccessorFactory.getInstance().make(Fields.class.getDeclaredField("a")).getClass());
+    JBBPSystemProperty.PROPERTY_FIELD_ACCESSOR_TYPE.set("UNSAFE");
+    assertEquals(JBBPUnsafeFieldAccessor.class, JBBPFieldAccessorFactory.getInstance().make(Fields.class.getDeclaredField("a")).getClass());
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper.accessors;
+
+import java.lang.reflect.Field;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class JBBPFieldAccessorTest {
+
+  private static class Fields {
+    boolean bool;
+    byte b;
+    char c;
+    short s;
+    int i;
+    long l;
+    float f;
+    double d;
+    String str;
+  }
+
+  private static class Other {
+    int i;
+  }
+
+  private static JBBPFieldAccessor[] makeAccessors(final String name) throws Exception {
+    final Field field = Fields.class.getDeclaredField(name);
+    return new JBBPFieldAccessor[]{
+      JBBPFieldAccessorFactory.getInstance().make(field, JBBPFieldAccessorType.SAFE),
+      JBBPFieldAccessorFactory.getInstance().make(field, JBBPFieldAccessorType.UNSAFE)
+    };
+  }
+
+  @Test
+  public void testGetField() throws Exception {
+    for (final JBBPFieldAccessor a : makeAccessors("i")) {
+      assertEquals(Fields.class.getDeclaredField("i"), a.getField());
+    }
+  }
+
+  @Test
+  public void testWidening_WithoutPrecisionLoss() throws Exception {
+    final Fields obj = new Fields();
+    for (final JBBPFieldAccessor a : makeAccessors("d")) {
+      a.setLong(obj, 123456789012345L);
+      assertEquals(123456789012345.0d, obj.d, 0.0d);
+      a.setInt(obj, 123456789);
+      assertEquals(123456789.0d, obj.d, 0.0d);
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("l")) {
+      a.setLong(obj, 123456789012345L);
+      assertEquals(123456789012345.0d, a.getDouble(obj), 0.0d);
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("i")) {
+      a.setInt(obj, 123456789);
+      assertEquals(123456789.0d, a.getDouble(obj), 0.0d);
+    }
+  }
+
+  @Test
+  public void testPrimitiveSetGet() throws Exception {
+    final Fields obj = new Fields();
+    for (final JBBPFieldAccessor a : makeAccessors("bool")) {
+      a.setBoolean(obj, true);
+      assertTrue(a.getBoolean(obj));
+      assertEquals(Boolean.TRUE, a.getObject(obj));
+      a.setObject(obj, Boolean.FALSE);
+      assertFalse(obj.bool);
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("b")) {
+      a.setByte(obj, (byte) -3);
+      assertEquals(-3, a.getByte(obj));
+      assertEquals(-3L, a.getLong(obj));
+      assertEquals(-3.0d, a.getDouble(obj), 0.0d);
+      assertEquals(Byte.valueOf((byte) -3), a.getObject(obj));
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("c")) {
+      a.setChar(obj, 'Z');
+      assertEquals('Z', a.getChar(obj));
+      assertEquals((int) 'Z', a.getInt(obj));
+      a.setObject(obj, Character.valueOf('A'));
+      assertEquals('A', obj.c);
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("s")) {
+      a.setByte(obj, (byte) 12);
+      assertEquals(12, obj.s);
+      a.setShort(obj, (short) -1234);
+      assertEquals(-1234, a.getShort(obj));
+      assertEquals(-1234, a.getInt(obj));
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("i")) {
+      a.setChar(obj, 'x');
+      assertEquals('x', obj.i);
+      a.setInt(obj, 0x12345678);
+      assertEquals(0x12345678, a.getInt(obj));
+      a.setObject(obj, Short.valueOf((short) 77));
+      assertEquals(77, obj.i);
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("l")) {
+      a.setInt(obj, -5);
+      assertEquals(-5L, obj.l);
+      a.setLong(obj, 0x1234567890ABCDEFL);
+      assertEquals(0x1234567890ABCDEFL, a.getLong(obj));
+      assertEquals(Long.valueOf(0x1234567890ABCDEFL), a.getObject(obj));
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("f")) {
+      a.setLong(obj, 3L);
+      assertEquals(3.0f, obj.f, 0.0f);
+      a.setFloat(obj, 1.5f);
+      assertEquals(1.5f, a.getFloat(obj), 0.0f);
+      assertEquals(1.5d, a.getDouble(obj), 0.0d);
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("d")) {
+      a.setFloat(obj, 2.5f);
+      assertEquals(2.5d, obj.d, 0.0d);
+      a.setDouble(obj, -7.25d);
+      assertEquals(-7.25d, a.getDouble(obj), 0.0d);
+      a.setObject(obj, Integer.valueOf(5));
+      assertEquals(5.0d, obj.d, 0.0d);
+    }
+  }
+
+  @Test
+  public void testObjectSetGet() throws Exception {
+    final Fields obj = new Fields();
+    for (final JBBPFieldAccessor a : makeAccessors("str")) {
+      a.setObject(obj, "hello");
+      assertEquals("hello", a.getObject(obj));
+      a.setObject(obj, null);
+      assertNull(obj.str);
+      try {
+        a.setObject(obj, Integer.valueOf(1));
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+      try {
+        a.getInt(obj);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+    }
+  }
+
+  @Test
+  public void testIncompatibleTypes() throws Exception {
+    final Fields obj = new Fields();
+    for (final JBBPFieldAccessor a : makeAccessors("s")) {
+      try {
+        a.setInt(obj, 1);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+      try {
+        a.getChar(obj);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+      try {
+        a.setObject(obj, null);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+    }
+    for (final JBBPFieldAccessor a : makeAccessors("f")) {
+      try {
+        a.getLong(obj);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+      try {
+        a.setDouble(obj, 1.0d);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+    }
+  }
+
+  @Test
+  public void testWrongInstance() throws Exception {
+    for (final JBBPFieldAccessor a : makeAccessors("i")) {
+      try {
+        a.getInt(new Other());
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+      try {
+        a.setInt(new Other(), 1);
+        fail("Must throw IAE");
+      }
+      catch (IllegalArgumentException ex) {
+      }
+      try {
+        a.getInt(null);
+        fail("Must throw NPE");
+      }
+      catch (NullPointerException ex) {
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPFieldPathTest {
+
+  private static final String SCRIPT = "byte a; frame { ubyte len; payload { int value; bool flag; } } { byte hidden; } arr [1] { byte e; }";
+  private static final byte[] DATA = new byte[]{1, (byte) 0xFE, 0x01, 0x02, 0x03, 0x04, 1, 7, 8};
+
+  @Test
+  public void testGetValues() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+    final JBBPFieldPath len = parser.path("frame.len");
+    final JBBPFieldPath value = parser.path(" Frame.Payload.Value ");
+    final JBBPFieldPath flag = parser.path("frame.payload.flag");
+    final JBBPFieldPath payload = parser.path("frame.payload");
+
+    assertEquals("frame.payload.value", value.getPath());
+    assertEquals("value", value.getNameInfo().getFieldName());
+
+    final JBBPFieldStruct parsed = parser.parse(DATA);
+    assertEquals(0xFE, len.getInt(parsed));
+    assertEquals(0x01020304L, value.getLong(parsed));
+    assertEquals(0x01020304, value.getInt(parsed));
+    assertTrue(flag.getBool(parsed));
+    assertSame(parsed.findFieldForPath("frame.payload"), payload.getStruct(parsed));
+    assertSame(parsed.findFieldForPath("frame.len"), len.findField(parsed));
+  }
+
+  @Test
+  public void testStructureOfAnotherParser() throws Exception {
+    final JBBPFieldPath len = JBBPParser.prepare(SCRIPT).path("frame.len");
+    final JBBPFieldStruct parsed = JBBPParser.prepareCompiled(SCRIPT).parse(DATA);
+    assertEquals(0xFE, len.getInt(parsed));
+
+    final JBBPFieldStruct other = JBBPParser.prepare("frame { byte len; }").parse(new byte[]{5});
+    assertEquals(5, len.getInt(other));
+  }
+
+  @Test
+  public void testMissedField() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("byte a; frame { byte len; }", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF);
+    final JBBPFieldPath len = parser.path("frame.len");
+    final JBBPFieldStruct parsed = parser.parse(new byte[]{1});
+    assertNull(len.findField(parsed));
+    try {
+      len.getInt(parsed);
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+      assertEquals("frame.len", ex.getNamrOrPath());
+    }
+  }
+
+  @Test
+  public void testWrongType() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+    final JBBPFieldStruct parsed = parser.parse(DATA);
+    try {
+      parser.path("frame").getInt(parsed);
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+    }
+    try {
+      parser.path("a").getStruct(parsed);
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+    }
+  }
+
+  @Test
+  public void testWrongPath() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+    for (final String path : new String[]{"unknown", "frame.unknown", "a.b", "hidden", "arr.e"}) {
+      try {
+        parser.path(path);
+        fail("Must throw JBBPFinderException for " + path);
+      }
+      catch (JBBPFinderException ex) {
+        assertEquals(path, ex.getNamrOrPath());
+      }
+    }
+  }
+}
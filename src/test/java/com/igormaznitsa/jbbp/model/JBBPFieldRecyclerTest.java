@@ -0,0 +1,71 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPFieldRecyclerTest {
+
+  private static final JBBPNamedFieldInfo NAME_A = new JBBPNamedFieldInfo("a", "a", 0);
+  private static final JBBPNamedFieldInfo NAME_B = new JBBPNamedFieldInfo("b", "b", 1);
+  private static final JBBPNamedFieldInfo NAME_S = new JBBPNamedFieldInfo("s", "s", 2);
+
+  private static JBBPFieldStruct makeRoot(final JBBPAbstractField... fields) {
+    return new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), fields);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testConstructor_NPEForNull() {
+    new JBBPFieldRecycler(null);
+  }
+
+  @Test
+  public void testReuseArrays() {
+    final int[] values = new int[]{1, 2, 3};
+    final JBBPFieldArrayInt arrayField = new JBBPFieldArrayInt(NAME_B, values);
+    final JBBPFieldStruct struct = new JBBPFieldStruct(NAME_S, new JBBPAbstractField[]{new JBBPFieldInt(NAME_A, 1), arrayField});
+
+    final JBBPFieldRecycler recycler = new JBBPFieldRecycler(makeRoot(struct));
+    assertSame(values, recycler.findArrayIntValues(NAME_B, 3));
+    assertNull(recycler.findArrayIntValues(NAME_B, 3));
+  }
+
+  @Test
+  public void testNullForIncompatibleArrays() {
+    final JBBPFieldRecycler recycler = new JBBPFieldRecycler(makeRoot(new JBBPFieldArrayInt(NAME_A, new int[2])));
+
+    assertNull(recycler.findArrayLongValues(NAME_A, 2));
+    assertNull(recycler.findArrayIntValues(NAME_B, 2));
+    assertNull(recycler.findArrayIntValues(NAME_A, 3));
+    assertNull(recycler.findArrayIntValues(NAME_A, 2));
+  }
+
+  @Test
+  public void testSkipArraysWhichAreNotRequested() {
+    final byte[] first = new byte[]{1};
+    final byte[] second = new byte[]{2};
+    final JBBPFieldArrayStruct structs = new JBBPFieldArrayStruct(NAME_S, new JBBPFieldStruct[]{
+      new JBBPFieldStruct(NAME_S, new JBBPAbstractField[]{new JBBPFieldArrayByte(NAME_A, first)}),
+      new JBBPFieldStruct(NAME_S, new JBBPAbstractField[]{new JBBPFieldArrayByte(NAME_B, second)})
+    });
+    final JBBPFieldRecycler recycler = new JBBPFieldRecycler(makeRoot(structs));
+
+    assertSame(second, recycler.findArrayByteValues(NAME_B, 1));
+    assertNull(recycler.findArrayByteValues(NAME_A, 1));
+  }
+}
@@ -53,6 +53,17 @@ public class JBBPFieldStructTest {
     assertEquals(2,struct.getArray().length);
   }
   
+  @Test
+  public void testSizeAndGetFieldAt(){
+    final JBBPFieldByte field1 = new JBBPFieldByte(null,(byte)123);
+    final JBBPFieldByte field2 = new JBBPFieldByte(null,(byte)-123);
+    final JBBPFieldStruct struct = new JBBPFieldStruct(null,new JBBPAbstractField[]{field1,field2});
+    assertEquals(2,struct.size());
+    assertSame(field1,struct.getFieldAt(0));
+    assertSame(field2,struct.getFieldAt(1));
+    assertEquals(0,new JBBPFieldStruct(null,new JBBPAbstractField[0]).size());
+  }
+  
   @Test
   public void testFindFieldForName(){
     final JBBPFieldByte field1 = new JBBPFieldByte(new JBBPNamedFieldInfo("struct.field1","field1",1024), (byte)23);
@@ -223,4 +234,68 @@ public class JBBPFieldStructTest {
     }
   }
   
+  @Test
+  public void testFindFieldForPath_IndexedStructures() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("byte a; h { byte b; in { byte c; } { byte d; } } arr [2] { byte e; } align:4; byte f;");
+    final byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 0, 0, 7};
+
+    final JBBPFieldStruct parsed = parser.parse(data);
+    final JBBPFieldStruct plain = new JBBPFieldStruct(parsed.getNameInfo(), parsed.getArray());
+
+    for (final String path : new String[]{"a", "h", "h.b", "h.in", "h.in.c", "arr", "f", "h.d", "unknown", "h.unknown"}) {
+      assertSame(path, plain.findFieldForPath(path), parsed.findFieldForPath(path));
+    }
+    assertEquals(3, parsed.findFieldForPathAndType(" H.In.C ", JBBPFieldByte.class).getAsInt());
+    assertEquals(7, parsed.findFieldForNameAndType("f", JBBPFieldByte.class).getAsInt());
+
+    final JBBPFieldStruct h = parsed.findFieldForNameAndType("h", JBBPFieldStruct.class);
+    assertSame(h, h.findFieldForPath("h"));
+    assertEquals(3, h.findFieldForPathAndType("h.in.c", JBBPFieldByte.class).getAsInt());
+    assertNull(h.findFieldForPath("in.c"));
+    assertTrue(h.nameExists("in"));
+    assertFalse(h.nameExists("c"));
+
+    final JBBPFieldArrayStruct arr = parsed.findFieldForNameAndType("arr", JBBPFieldArrayStruct.class);
+    assertEquals(5, arr.getElementAt(0).findFieldForNameAndType("e", JBBPFieldByte.class).getAsInt());
+    assertEquals(6, arr.getElementAt(1).findFieldForPathAndType("arr.e", JBBPFieldByte.class).getAsInt());
+    assertNull(arr.getElementAt(1).findFieldForPath("e"));
+
+    try {
+      parsed.findFieldForPath("a.b");
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+    }
+  }
+
+  @Test
+  public void testFindFieldForPath_IndexedNamedStructures_SameAsHandBuilt() throws Exception {
+    final JBBPFieldStruct parsed = JBBPParser.prepare("header { int size; } headerx { int size; }").parse(new byte[]{0, 0, 0, 1, 0, 0, 0, 2});
+
+    for (final String name : new String[]{"header", "headerx"}) {
+      final JBBPFieldStruct struct = parsed.findFieldForNameAndType(name, JBBPFieldStruct.class);
+      final JBBPFieldStruct plain = new JBBPFieldStruct(struct.getNameInfo(), struct.getArray());
+      for (final String path : new String[]{"size", "header", "header.size", "headerx", "headerx.size", "headersize", "header.unknown"}) {
+        final JBBPAbstractField expected = plain.findFieldForPath(path);
+        assertSame(name + ':' + path, expected == plain ? struct : expected, struct.findFieldForPath(path));
+      }
+    }
+    assertNull(parsed.findFieldForNameAndType("header", JBBPFieldStruct.class).findFieldForPath("size"));
+    assertEquals(2, parsed.findFieldForPathAndType("headerx.size", JBBPFieldInt.class).getAsInt());
+  }
+
+  @Test
+  public void testFindFieldForPath_IndexedStructures_SkippedAndMissedFields() throws Exception {
+    final JBBPFieldStruct projected = JBBPParser.prepare("byte a; h { byte b; byte c; } byte d;").withProjection("h.c", "d").parse(new byte[]{1, 2, 3, 4});
+    assertNull(projected.findFieldForPath("a"));
+    assertNull(projected.findFieldForPath("h.b"));
+    assertEquals(3, projected.findFieldForPathAndType("h.c", JBBPFieldByte.class).getAsInt());
+    assertEquals(4, projected.findFieldForPathAndType("d", JBBPFieldByte.class).getAsInt());
+
+    final JBBPFieldStruct truncated = JBBPParser.prepare("byte a; h { byte b; byte c; } byte d;", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF).parse(new byte[]{1, 2});
+    assertEquals(2, truncated.findFieldForPathAndType("h.b", JBBPFieldByte.class).getAsInt());
+    assertNull(truncated.findFieldForPath("h.c"));
+    assertNull(truncated.findFieldForPath("d"));
+  }
+
 }
@@ -0,0 +1,249 @@
+/* 
+ * Copyright 2014 Igor Maznitsa (http://www.igormaznitsa.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPLazyStructTest {
+
+  private static final String SCRIPT = "bool flag; byte b; ubyte ub; short s; ushort us; int i; long l; <int li; <short [2] lsa; <byte [3] lba; ubyte [2] uba; bool [2] ba; long [1] la; ushort [1] usa;"
+          + "header { int size; sub { byte x; } { byte anon; } } skip:3; items [3] { byte a; <ushort b; } reset$$; byte c; align:4; int aligned; int [2] tail;";
+
+  private static byte[] makeData(final int length) {
+    final byte[] result = new byte[length];
+    new Random(12345L).nextBytes(result);
+    return result;
+  }
+
+  private static void dump(final JBBPAbstractField field, final StringBuilder out) {
+    out.append(field.getClass().getSimpleName()).append(':').append(field.getFieldPath()).append('=');
+    if (field instanceof JBBPFieldStruct) {
+      out.append('{');
+      for (final JBBPAbstractField f : ((JBBPFieldStruct) field).getArray()) {
+        dump(f, out);
+      }
+      out.append('}');
+    }
+    else if (field instanceof JBBPFieldArrayStruct) {
+      out.append('[');
+      for (final JBBPFieldStruct s : ((JBBPFieldArrayStruct) field).getArray()) {
+        dump(s, out);
+      }
+      out.append(']');
+    }
+    else if (field instanceof JBBPAbstractArrayField) {
+      final JBBPAbstractArrayField<?> array = (JBBPAbstractArrayField<?>) field;
+      for (int i = 0; i < array.size(); i++) {
+        out.append(array.getAsLong(i)).append(',');
+      }
+    }
+    else {
+      out.append(((JBBPNumericField) field).getAsLong());
+    }
+    out.append(';');
+  }
+
+  private static String dump(final JBBPAbstractField field) {
+    final StringBuilder result = new StringBuilder();
+    dump(field, result);
+    return result.toString();
+  }
+
+  @Test
+  public void testToStruct_SameAsParsed() throws Exception {
+    for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+      final JBBPParser parser = JBBPParser.prepare(SCRIPT, order);
+      final JBBPLazyStruct lazy = parser.parseLazy(makeData(200));
+      final JBBPFieldStruct parsed = parser.parse(makeData(200));
+      assertEquals(78, lazy.getSize());
+      assertEquals(dump(parsed), dump(lazy.toStruct()));
+    }
+  }
+
+  @Test
+  public void testAccessors_SameAsParsed() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+    final byte[] data = makeData(200);
+    final JBBPLazyStruct lazy = parser.parseLazy(data);
+    final JBBPFieldStruct parsed = parser.parse(data);
+
+    for (final String path : new String[]{"flag", "b", "ub", "s", "us", "i", "l", "li", "header.size", "header.sub.x", "c", "aligned"}) {
+      final JBBPNumericField field = (JBBPNumericField) parsed.findFieldForPath(path);
+      assertEquals(path, field.getAsInt(), lazy.getAsInt(path));
+      assertEquals(path, field.getAsLong(), lazy.getAsLong(path));
+      assertEquals(path, field.getAsBool(), lazy.getAsBool(path));
+    }
+
+    for (final String path : new String[]{"lsa", "lba", "uba", "ba", "la", "usa", "tail"}) {
+      final JBBPAbstractArrayField<?> field = (JBBPAbstractArrayField<?>) parsed.findFieldForPath(path);
+      assertEquals(path, field.size(), lazy.getArrayLength(path));
+      for (int i = 0; i < field.size(); i++) {
+        assertEquals(path, field.getAsInt(i), lazy.getAsInt(path, i));
+        assertEquals(path, field.getAsLong(i), lazy.getAsLong(path, i));
+        assertEquals(path, field.getAsBool(i), lazy.getAsBool(path, i));
+      }
+    }
+
+    assertEquals(3, lazy.getArrayLength("items"));
+    final JBBPFieldArrayStruct items = parsed.findFieldForNameAndType("items", JBBPFieldArrayStruct.class);
+    for (int i = 0; i < 3; i++) {
+      final JBBPLazyStruct item = lazy.getStruct("items", i);
+      assertEquals(items.getElementAt(i).findFieldForNameAndType("a", JBBPFieldByte.class).getAsInt(), item.getAsInt("items.a"));
+      assertEquals(items.getElementAt(i).findFieldForNameAndType("b", JBBPFieldUShort.class).getAsInt(), item.getAsInt("items.b"));
+    }
+
+    final JBBPFieldStruct anonymous = (JBBPFieldStruct) parsed.findFieldForNameAndType("header", JBBPFieldStruct.class).getFieldAt(2);
+    assertEquals(anonymous.findFieldForNameAndType("anon", JBBPFieldByte.class).getAsInt(), lazy.getAsInt("header.anon"));
+
+    final JBBPLazyStruct header = lazy.getStruct("header");
+    assertEquals("header", header.getNameInfo().getFieldPath());
+    assertFalse(header.pathExists("sub.x"));
+    assertEquals(parsed.findFieldForPathAndType("header.sub.x", JBBPFieldByte.class).getAsInt(), header.getAsInt("header.sub.x"));
+  }
+
+  @Test
+  public void testFindFieldForPath_NamedViews_SameAsParsed() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("header { int size; sub { byte x; } } headerx { int size; } items [2] { byte a; }");
+    final byte[] data = new byte[]{0, 0, 0, 1, 2, 0, 0, 0, 3, 4, 5};
+    final JBBPLazyStruct lazy = parser.parseLazy(data);
+    final JBBPFieldStruct parsed = parser.parse(data);
+
+    final JBBPLazyStruct[] views = new JBBPLazyStruct[]{lazy.getStruct("header"), lazy.getStruct("headerx"), lazy.getStruct("items", 1)};
+    final JBBPFieldStruct[] structs = new JBBPFieldStruct[]{parsed.findFieldForNameAndType("header", JBBPFieldStruct.class), parsed.findFieldForNameAndType("headerx", JBBPFieldStruct.class), parsed.findFieldForNameAndType("items", JBBPFieldArrayStruct.class).getElementAt(1)};
+
+    for (int i = 0; i < views.length; i++) {
+      for (final String path : new String[]{"size", "x", "a", "sub.x", "header", "header.size", "header.sub.x", "headerx", "headerx.size", "headersize", "header.unknown", "items", "items.a"}) {
+        final String message = structs[i].getFieldName() + ':' + path;
+        final JBBPAbstractField expected = structs[i].findFieldForPath(path);
+        final JBBPAbstractField found = views[i].findFieldForPath(path);
+        assertEquals(message, expected != null, views[i].pathExists(path));
+        if (expected == null) {
+          assertNull(message, found);
+        }
+        else {
+          assertSame(message, expected.getClass(), found.getClass());
+          assertEquals(message, expected.getFieldPath(), found.getFieldPath());
+          if (expected instanceof JBBPNumericField) {
+            assertEquals(message, ((JBBPNumericField) expected).getAsInt(), views[i].getAsInt(path));
+          }
+        }
+      }
+    }
+
+    try {
+      views[0].getAsInt("size");
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+      assertEquals("size", ex.getNamrOrPath());
+    }
+  }
+
+  @Test
+  public void testFinder() throws Exception {
+    final JBBPParser parser = JBBPParser.prepare("int a; b { short c; } int [2] d; e [2] { byte f; }");
+    final JBBPLazyStruct lazy = parser.parseLazy(new byte[]{0, 0, 0, 1, 0, 2, 0, 0, 0, 3, 0, 0, 0, 4, 5, 6});
+    assertEquals(16, lazy.getSize());
+    assertEquals(16, parser.getFinalStreamByteCounter());
+
+    assertTrue(lazy.pathExists("b.c"));
+    assertFalse(lazy.pathExists("e.f"));
+    assertTrue(lazy.nameExists("d"));
+    assertFalse(lazy.nameExists("c"));
+
+    assertEquals(1, lazy.findFieldForNameAndType("a", JBBPFieldInt.class).getAsInt());
+    assertNull(lazy.findFieldForNameAndType("a", JBBPFieldLong.class));
+    assertEquals(2, lazy.findFieldForPathAndType("b.c", JBBPFieldShort.class).getAsInt());
+    assertEquals(2, ((JBBPFieldShort) lazy.findFieldForPath("b.c")).getAsInt());
+    assertArrayEquals(new int[]{3, 4}, lazy.findFieldForType(JBBPFieldArrayInt.class).getArray());
+    assertEquals(2, ((JBBPFieldArrayStruct) lazy.findFieldForName("e")).size());
+    assertEquals("a", lazy.findFirstFieldForType(JBBPFieldInt.class).getFieldName());
+    assertEquals("e", lazy.findLastFieldForType(JBBPAbstractField.class).getFieldName());
+    assertEquals(6, lazy.getStruct("e", 1).findFieldForType(JBBPFieldByte.class).getAsInt());
+    assertNull(lazy.findFieldForPath("unknown"));
+
+    try {
+      lazy.getAsInt("unknown");
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+      assertEquals("unknown", ex.getNamrOrPath());
+    }
+    try {
+      lazy.getAsInt("d");
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+    }
+    try {
+      lazy.getAsInt("d", 2);
+      fail("Must throw ArrayIndexOutOfBoundsException");
+    }
+    catch (ArrayIndexOutOfBoundsException ex) {
+    }
+    try {
+      lazy.getStruct("e");
+      fail("Must throw JBBPFinderException");
+    }
+    catch (JBBPFinderException ex) {
+    }
+  }
+
+  @Test
+  public void testByteBuffer_PositionAndChanges() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(6);
+    buffer.put(new byte[]{9, 9, 0, 0, 0, 1}).position(2);
+    final JBBPLazyStruct lazy = JBBPParser.prepare("int a;").parseLazy(buffer);
+    assertEquals(2, buffer.position());
+    assertEquals(1, lazy.getAsInt("a"));
+    buffer.put(5, (byte) 7);
+    assertEquals(7, lazy.getAsInt("a"));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testParseLazy_EOF() throws Exception {
+    JBBPParser.prepare("int a; int b;").parseLazy(new byte[7]);
+  }
+
+  @Test
+  public void testParseLazy_NotFixedLayout() throws Exception {
+    for (final String script : new String[]{"bit:3 a; byte b;", "byte a; byte [a] b;", "byte [_] a;", "int a; var b;", "x [2] { byte a; align:4; }", "x [2] { byte a; reset$$; }"}) {
+      try {
+        JBBPParser.prepare(script).parseLazy(new byte[64]);
+        fail("Must throw JBBPIllegalArgumentException for " + script);
+      }
+      catch (JBBPIllegalArgumentException ex) {
+      }
+    }
+  }
+
+  @Test
+  public void testArraysOfStructures_WithoutDataDecoding() throws Exception {
+    final byte[] data = new byte[1000 * 8];
+    data[999 * 8 + 3] = 42;
+    final JBBPLazyStruct lazy = JBBPParser.prepare("records [1000] { int id; int value; }").parseLazy(data);
+    assertEquals(42, lazy.getStruct("records", 999).getAsInt("records.id"));
+    assertEquals(1000, lazy.getArrayLength("records"));
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.utils;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class JBBPClassValueCacheTest {
+
+  private static final Class<?>[] CLASSES = new Class<?>[]{String.class, Integer.class, Long.class, Short.class, Byte.class, Boolean.class, Character.class, Double.class, Float.class,
+    Object.class, Number.class, StringBuilder.class, Thread.class, Class.class, Math.class, System.class, Runtime.class, int[].class, long[].class, byte[].class, Object[].class,
+    java.util.List.class, java.util.ArrayList.class, java.util.Map.class, java.util.HashMap.class, java.io.InputStream.class, java.io.OutputStream.class, JBBPUtils.class, JBBPIntCounter.class};
+
+  @Test
+  public void testPutGet() {
+    final JBBPClassValueCache<String> cache = new JBBPClassValueCache<String>();
+    assertNull(cache.get(String.class));
+    for (final Class<?> c : CLASSES) {
+      cache.put(c, c.getName());
+    }
+    for (final Class<?> c : CLASSES) {
+      assertEquals(c.getName(), cache.get(c));
+    }
+    assertNull(cache.get(Void.class));
+  }
+
+  @Test
+  public void testReplace() {
+    final JBBPClassValueCache<String> cache = new JBBPClassValueCache<String>();
+    cache.put(String.class, "a");
+    cache.put(Integer.class, "b");
+    cache.put(String.class, "c");
+    assertEquals("c", cache.get(String.class));
+    assertEquals("b", cache.get(Integer.class));
+  }
+
+  @Test
+  public void testClear() {
+    final JBBPClassValueCache<String> cache = new JBBPClassValueCache<String>();
+    cache.put(String.class, "a");
+    cache.clear();
+    assertNull(cache.get(String.class));
+    cache.put(String.class, "b");
+    assertEquals("b", cache.get(String.class));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testPut_ErrorForNullValue() {
+    new JBBPClassValueCache<String>().put(String.class, null);
+  }
+}